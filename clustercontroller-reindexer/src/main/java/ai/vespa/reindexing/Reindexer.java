@@ -159,9 +159,10 @@ class Reindexer {
             @Override
             public void onProgress(ProgressToken token) {
                 super.onProgress(token);
-                status.updateAndGet(value -> value.progressed(token));
+                // Progress is serialized only when stored, and not for every visitor reply.
                 if (progressLastStored.get().isBefore(clock.instant().minus(PROGRESS_TOKEN_STORE_INTERVAL))) {
                     progressLastStored.set(clock.instant());
+                    status.updateAndGet(value -> value.progressed(token));
                     database.writeReindexing(reindexing.updateAndGet(value -> value.with(type, status.get())), cluster.name());
                     metrics.dump(reindexing.get());
                 }
@@ -182,6 +183,8 @@ class Reindexer {
         phaser.arriveAndAwaitAdvance(); // Synchronize with visitor completion.
         sessionShutdown.run();  // Shutdown aborts the session unless already complete, then waits for it to terminate normally.
                                 // Only as a last resort will we be interrupted here, and the wait for outstanding replies terminate.
+        if (control.getProgress() != null)
+            status.updateAndGet(value -> value.progressed(control.getProgress()));
 
         CompletionCode result = control.getResult() != null ? control.getResult().getCode() : CompletionCode.ABORTED;
         switch (result) {
@@ -23,9 +23,6 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -40,11 +37,12 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
 
     private final static Logger log = Logger.getLogger(ConfigProxyRpcServer.class.getName());
     static final int TRACELEVEL = 6;
+    private static final int maxConcurrentCalls = 8;
+    private static final int maxQueuedCalls = 1000;
 
     private final Spec spec;
     private final Supervisor supervisor;
     private final ProxyServer proxyServer;
-    private final ExecutorService rpcExecutor = Executors.newFixedThreadPool(8);
 
     ConfigProxyRpcServer(ProxyServer proxyServer, Supervisor supervisor, Spec spec) {
         this.proxyServer = proxyServer;
@@ -66,12 +64,6 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
     }
 
     void shutdown() {
-        try {
-            rpcExecutor.shutdownNow();
-            rpcExecutor.awaitTermination(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
         supervisor.transport().shutdown().join();
     }
 
@@ -81,49 +73,59 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
 
     private void declareConfigMethods() {
         supervisor.addMethod(JRTMethods.createConfigV3GetConfigMethod(this::getConfigV3)
+                                     .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                                      .requireCapabilities(Capability.CONFIGPROXY__CONFIG_API));
         supervisor.addMethod(new Method("ping", "", "i",
                 this::ping)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(CapabilitySet.none())
                 .methodDesc("ping")
                 .returnDesc(0, "ret code", "return code, 0 is OK"));
         supervisor.addMethod(new Method("listCachedConfig", "", "S",
                 this::listCachedConfig)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__CONFIG_API)
                 .methodDesc("list cached configs)")
                 .returnDesc(0, "data", "string array of configs"));
         supervisor.addMethod(new Method("listCachedConfigFull", "", "S",
                 this::listCachedConfigFull)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__CONFIG_API)
                 .methodDesc("list cached configs with cache content)")
                 .returnDesc(0, "data", "string array of configs"));
         supervisor.addMethod(new Method("listSourceConnections", "", "S",
                 this::listSourceConnections)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__CONFIG_API)
                 .methodDesc("list config source connections)")
                 .returnDesc(0, "data", "string array of source connections"));
         supervisor.addMethod(new Method("invalidateCache", "", "S",
                 this::invalidateCache)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__MANAGEMENT_API)
                 .methodDesc("list config source connections)")
                 .returnDesc(0, "data", "0 if success, 1 otherwise"));
         supervisor.addMethod(new Method("updateSources", "s", "s",
                 this::updateSources)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__MANAGEMENT_API)
                 .methodDesc("update list of config sources")
                 .returnDesc(0, "ret", "list of updated config sources"));
         supervisor.addMethod(new Method("setMode", "s", "S",
                 this::setMode)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__MANAGEMENT_API)
                 .methodDesc("Set config proxy mode { default | memorycache }")
                 .returnDesc(0, "ret", "0 if success, 1 otherwise as first element, description as second element"));
         supervisor.addMethod(new Method("getMode", "", "s",
                 this::getMode)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__MANAGEMENT_API)
                 .methodDesc("What serving mode the config proxy is in (default, memorycache)")
                 .returnDesc(0, "ret", "mode as a string"));
         supervisor.addMethod(new Method("dumpCache", "s", "s",
                 this::dumpCache)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CONFIGPROXY__MANAGEMENT_API)
                 .methodDesc("Dump cache to disk")
                 .paramDesc(0, "path", "path to write cache contents to")
@@ -237,18 +239,17 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
 
     //----------------------------------------------------
 
+    // Runs in the threads of each method, see declareConfigMethods. Handlers return requests themselves, and
+    // getConfig requests are only returned when there is new config.
     private void dispatchRpcRequest(Request request, Runnable handler) {
         request.detach();
-        log.log(Level.FINEST, () -> String.format("Dispatching RPC request %s", requestLogId(request)));
-        rpcExecutor.execute(() -> {
-            try {
-                log.log(Level.FINEST, () -> String.format("Executing RPC request %s.", requestLogId(request)));
-                handler.run();
-            } catch (Exception e) {
-                log.log(Level.WARNING,
-                        String.format("Exception thrown during execution of RPC request %s: %s", requestLogId(request), e.getMessage()), e);
-            }
-        });
+        try {
+            log.log(Level.FINEST, () -> String.format("Executing RPC request %s.", requestLogId(request)));
+            handler.run();
+        } catch (Exception e) {
+            log.log(Level.WARNING,
+                    String.format("Exception thrown during execution of RPC request %s: %s", requestLogId(request), e.getMessage()), e);
+        }
     }
 
     private String requestLogId(Request request) {
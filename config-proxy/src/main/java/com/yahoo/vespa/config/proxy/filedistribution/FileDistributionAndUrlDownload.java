@@ -25,8 +25,6 @@ public class FileDistributionAndUrlDownload {
     }
 
     public void close() {
-        fileDistributionRpcServer.close();
-        urlDownloadRpcServer.close();
         maintainer.close();
     }
 
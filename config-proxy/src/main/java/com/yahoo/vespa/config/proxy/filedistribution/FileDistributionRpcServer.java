@@ -1,7 +1,6 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy.filedistribution;
 
-import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.FileReference;
 import com.yahoo.jrt.DoubleArray;
 import com.yahoo.jrt.Method;
@@ -17,9 +16,6 @@ import com.yahoo.vespa.filedistribution.FileReferenceDownload;
 import java.io.File;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,10 +28,12 @@ class FileDistributionRpcServer {
 
     private final static Logger log = Logger.getLogger(FileDistributionRpcServer.class.getName());
 
+    // Getting a file waits for it to be downloaded, so this is done outside the transport threads
+    private static final int maxConcurrentDownloads = Math.max(8, Runtime.getRuntime().availableProcessors());
+    private static final int maxQueuedDownloads = 1000;
+
     private final Supervisor supervisor;
     private final FileDownloader downloader;
-    private final ExecutorService rpcDownloadExecutor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()),
-                                                                                     new DaemonThreadFactory("Rpc executor"));
 
     FileDistributionRpcServer(Supervisor supervisor, FileDownloader downloader) {
         this.supervisor = supervisor;
@@ -43,23 +41,16 @@ class FileDistributionRpcServer {
         declareMethods();
     }
 
-    void close() {
-        rpcDownloadExecutor.shutdownNow();
-        try {
-            rpcDownloadExecutor.awaitTermination(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private void declareMethods() {
         // Legacy method, needs to be the same name as used in filedistributor
         supervisor.addMethod(new Method("waitFor", "s", "s", this::getFile)
+                                     .executeInThreads(maxConcurrentDownloads, maxQueuedDownloads)
                                      .requireCapabilities(Capability.CONFIGPROXY__FILEDISTRIBUTION_API)
                                      .methodDesc("get path to file reference")
                                      .paramDesc(0, "file reference", "file reference")
                                      .returnDesc(0, "path", "path to file"));
         supervisor.addMethod(new Method("filedistribution.getFile", "s", "s", this::getFile)
+                                     .executeInThreads(maxConcurrentDownloads, maxQueuedDownloads)
                                      .requireCapabilities(Capability.CONFIGPROXY__FILEDISTRIBUTION_API)
                                      .methodDesc("get path to file reference")
                                      .paramDesc(0, "file reference", "file reference")
@@ -79,11 +70,6 @@ class FileDistributionRpcServer {
 
     private static final int fileReferenceDoesNotExists = baseFileProviderErrorCode;
 
-    private void getFile(Request req) {
-        req.detach();
-        rpcDownloadExecutor.execute(() -> downloadFile(req));
-    }
-
     private void getActiveFileReferencesStatus(Request req) {
         Map<FileReference, Double> downloadStatus = downloader.downloadStatus();
 
@@ -103,7 +89,7 @@ class FileDistributionRpcServer {
         req.returnValues().add(new DoubleArray(downloadStatusArray));
     }
 
-    private void downloadFile(Request req) {
+    private void getFile(Request req) {
         FileReference fileReference = new FileReference(req.parameters().get(0).asString());
         log.log(Level.FINE, () -> "getFile() called for file reference '" + fileReference.value() + "'");
         Optional<File> file = downloader.getFile(new FileReferenceDownload(fileReference, HostName.getLocalhost()));
@@ -115,8 +101,6 @@ class FileDistributionRpcServer {
             log.log(Level.INFO, "File reference '" + fileReference.value() + "' not found, returning error");
             req.setError(fileReferenceDoesNotExists, "File reference '" + fileReference.value() + "' not found");
         }
-
-        req.returnRequest();
     }
 
 }
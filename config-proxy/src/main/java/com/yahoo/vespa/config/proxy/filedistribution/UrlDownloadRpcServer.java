@@ -1,7 +1,6 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy.filedistribution;
 
-import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.jrt.Method;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.StringValue;
@@ -18,8 +17,6 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,8 +24,6 @@ import static com.yahoo.vespa.config.UrlDownloader.DOES_NOT_EXIST;
 import static com.yahoo.vespa.config.UrlDownloader.HTTP_ERROR;
 import static com.yahoo.vespa.config.UrlDownloader.INTERNAL_ERROR;
 import static java.lang.Runtime.getRuntime;
-import static java.util.concurrent.Executors.newFixedThreadPool;
-import static java.util.logging.Level.WARNING;
 
 /**
  * An RPC server that handles URL download requests.
@@ -40,42 +35,29 @@ class UrlDownloadRpcServer {
     private static final Logger log = Logger.getLogger(UrlDownloadRpcServer.class.getName());
     static final File defaultDownloadDirectory = new File(Defaults.getDefaults().underVespaHome("var/db/vespa/download"));
 
+    // Downloads are done in the calls, so these run outside the transport threads
+    private static final int maxConcurrentDownloads = Math.max(8, getRuntime().availableProcessors());
+    private static final int maxQueuedDownloads = 1000;
+
     private final File rootDownloadDir;
-    private final ExecutorService executor = newFixedThreadPool(Math.max(8, getRuntime().availableProcessors()),
-                                                                new DaemonThreadFactory("Rpc URL download executor"));
 
     UrlDownloadRpcServer(Supervisor supervisor) {
         this.rootDownloadDir = defaultDownloadDirectory;
         supervisor.addMethod(new Method("url.waitFor", "s", "s", this::download)
+                                    .executeInThreads(maxConcurrentDownloads, maxQueuedDownloads)
                                     .requireCapabilities(Capability.CONFIGPROXY__FILEDISTRIBUTION_API)
                                     .methodDesc("get path to url download")
                                     .paramDesc(0, "url", "url")
                                     .returnDesc(0, "path", "path to file"));
     }
 
-    void close() {
-        executor.shutdownNow();
-        try {
-            if ( ! executor.awaitTermination(10, TimeUnit.SECONDS))
-                log.log(WARNING, "Failed to shut down url download rpc server within timeout");
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private void download(Request req) {
-        req.detach();
-        executor.execute(() -> downloadFile(req));
-    }
-
-    private void downloadFile(Request req) {
         String url = req.parameters().get(0).asString();
         File downloadDir = new File(rootDownloadDir, urlToDirName(url));
         Downloader downloader = downloader(url);
         if (downloader.alreadyDownloaded(downloader, downloadDir)) {
             log.log(Level.INFO, "URL '" + url + "' already downloaded");
             req.returnValues().add(new StringValue(new File(downloadDir, downloader.fileName()).getAbsolutePath()));
-            req.returnRequest();
             return;
         }
 
@@ -91,7 +73,6 @@ class UrlDownloadRpcServer {
         } catch (Throwable e) {
             logAndSetRpcError(req, url, e, INTERNAL_ERROR);
         }
-        req.returnRequest();
     }
 
     private static Downloader downloader(String url) {
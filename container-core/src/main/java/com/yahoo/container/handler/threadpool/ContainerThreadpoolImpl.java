@@ -7,10 +7,12 @@ import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.container.protect.ProcessTerminator;
 import com.yahoo.jdisc.Metric;
 
+import java.util.Optional;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -45,22 +47,41 @@ public class ContainerThreadpoolImpl extends AbstractComponent implements AutoCl
         int maxThreads = maxThreads(config, cpus);
         int minThreads = minThreads(config, maxThreads, cpus);
         int queueSize = queueSize(config, maxThreads);
-        log.info(String.format("Threadpool '%s': min=%d, max=%d, queue=%d", name, minThreads, maxThreads, queueSize));
-
         ThreadPoolMetric threadPoolMetric = new ThreadPoolMetric(metric, name);
+
+        Optional<ThreadFactory> virtualThreadFactory = config.virtualThreads()
+                ? VirtualThreadExecutor.virtualThreadFactory(name)
+                : Optional.empty();
+        MonitoredExecutorService executor;
+        if (virtualThreadFactory.isPresent()) {
+            log.info(String.format("Threadpool '%s': virtual threads, max concurrent=%d, queue=%d", name, maxThreads, queueSize));
+            executor = new VirtualThreadExecutor(virtualThreadFactory.get(), maxThreads, queueSize, threadPoolMetric);
+        }
+        else {
+            if (config.virtualThreads())
+                log.warning(String.format("Threadpool '%s': virtual threads are not supported by this JVM, using platform threads", name));
+            log.info(String.format("Threadpool '%s': min=%d, max=%d, queue=%d", name, minThreads, maxThreads, queueSize));
+            executor = createThreadPoolExecutor(config, minThreads, maxThreads, queueSize, threadPoolMetric);
+        }
+        threadpool = new ExecutorServiceWrapper(
+                executor, threadPoolMetric, processTerminator, config.maxThreadExecutionTimeSeconds() * 1000L,
+                name);
+    }
+
+    private static WorkerCompletionTimingThreadPoolExecutor createThreadPoolExecutor(ContainerThreadpoolConfig config,
+                                                                                     int minThreads, int maxThreads, int queueSize,
+                                                                                     ThreadPoolMetric threadPoolMetric) {
         WorkerCompletionTimingThreadPoolExecutor executor =
                 new WorkerCompletionTimingThreadPoolExecutor(minThreads, maxThreads,
                         (long) config.keepAliveTime() * 1000, TimeUnit.MILLISECONDS,
                         createQueue(queueSize),
-                        ThreadFactoryFactory.getThreadFactory(name),
+                        ThreadFactoryFactory.getThreadFactory(config.name()),
                         threadPoolMetric);
         // Pre-start needed, if not all threads will be created by the fist N tasks and hence they might also
         // get the dreaded thread locals initialized even if they will never run.
         // That counters what we want to achieve with the Q that will prefer thread locality.
         executor.prestartAllCoreThreads();
-        threadpool = new ExecutorServiceWrapper(
-                executor, threadPoolMetric, processTerminator, config.maxThreadExecutionTimeSeconds() * 1000L,
-                name);
+        return executor;
     }
 
     @Override public Executor executor() { return threadpool; }
@@ -20,16 +20,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 class ExecutorServiceWrapper extends ForwardingExecutorService {
 
-    private final WorkerCompletionTimingThreadPoolExecutor wrapped;
+    private final MonitoredExecutorService wrapped;
     private final ThreadPoolMetric metric;
     private final ProcessTerminator processTerminator;
     private final long maxThreadExecutionTimeMillis;
-    private final int queueCapacity;
     private final Thread metricReporter;
-    private final boolean threadPoolIsOnlyQ;
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
-    ExecutorServiceWrapper(WorkerCompletionTimingThreadPoolExecutor wrapped,
+    ExecutorServiceWrapper(MonitoredExecutorService wrapped,
                            ThreadPoolMetric metric,
                            ProcessTerminator processTerminator,
                            long maxThreadExecutionTimeMillis,
@@ -38,11 +36,6 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
         this.metric = metric;
         this.processTerminator = processTerminator;
         this.maxThreadExecutionTimeMillis = maxThreadExecutionTimeMillis;
-        int maxQueueCapacity = wrapped.getQueue().remainingCapacity() + wrapped.getQueue().size();
-        this.threadPoolIsOnlyQ = (maxQueueCapacity == 0);
-        this.queueCapacity = threadPoolIsOnlyQ
-                ? wrapped.getMaximumPoolSize()
-                : maxQueueCapacity;
         reportMetrics();
         metricReporter = new Thread(this::reportMetricsRegularly);
         metricReporter.setName(name + "-threadpool-metric-reporter");
@@ -50,13 +43,11 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
     }
 
     private void reportMetrics() {
-        int activeThreads = wrapped.getActiveCount();
         metric.reportThreadPoolSize(wrapped.getPoolSize());
         metric.reportMaxAllowedThreadPoolSize(wrapped.getMaximumPoolSize());
-        metric.reportActiveThreads(activeThreads);
-        int queueSize = threadPoolIsOnlyQ ? activeThreads : wrapped.getQueue().size();
-        metric.reportWorkQueueSize(queueSize);
-        metric.reportWorkQueueCapacity(queueCapacity);
+        metric.reportActiveThreads(wrapped.getActiveCount());
+        metric.reportWorkQueueSize(wrapped.getWorkQueueSize());
+        metric.reportWorkQueueCapacity(wrapped.getWorkQueueCapacity());
     }
 
     private void reportMetricsRegularly() {
@@ -101,7 +92,7 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
             super.execute(command);
         } catch (RejectedExecutionException e) {
             metric.reportRejectRequest();
-            long timeSinceLastReturnedThreadMillis = System.currentTimeMillis() - wrapped.lastThreadAssignmentTimeMillis;
+            long timeSinceLastReturnedThreadMillis = System.currentTimeMillis() - wrapped.lastThreadAssignmentTimeMillis();
             if (timeSinceLastReturnedThreadMillis > maxThreadExecutionTimeMillis)
                 processTerminator.logAndDie("No worker threads have been available for " +
                         timeSinceLastReturnedThreadMillis + " ms. Shutting down.", true);
@@ -0,0 +1,30 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.handler.threadpool;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An executor service which exposes the state of its workers and queue, for metrics and for detecting
+ * when the container has no workers available.
+ */
+interface MonitoredExecutorService extends ExecutorService {
+
+    /** Returns the current number of threads of this */
+    int getPoolSize();
+
+    /** Returns the max number of tasks this runs concurrently */
+    int getMaximumPoolSize();
+
+    /** Returns the number of tasks currently running */
+    int getActiveCount();
+
+    /** Returns the number of tasks waiting to run */
+    int getWorkQueueSize();
+
+    /** Returns the max number of tasks which may wait to run before further tasks are rejected */
+    int getWorkQueueCapacity();
+
+    /** Returns the last time, in epoch millis, a task was assigned a worker */
+    long lastThreadAssignmentTimeMillis();
+
+}
@@ -0,0 +1,171 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.handler.threadpool;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor which runs each task in a new thread of its own, which is cheap with virtual threads, while
+ * limiting the number of tasks running concurrently. Tasks exceeding the limit wait for a running task to
+ * complete in their own thread, in the order they were submitted, and tasks are rejected when the number of
+ * waiting tasks would exceed the queue capacity.
+ *
+ * Blocking a virtual thread, e.g. while waiting for content nodes to respond, releases its carrier thread,
+ * except when blocking while holding a monitor, so code running in this should prefer
+ * {@link java.util.concurrent.locks.Lock} to synchronized when blocking.
+ */
+class VirtualThreadExecutor extends AbstractExecutorService implements MonitoredExecutorService {
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final ThreadPoolMetric metric;
+    private final Semaphore permits;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicInteger running = new AtomicInteger(0);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean shutdown = false;
+    private volatile boolean stopped = false;
+    private volatile long lastThreadAssignmentTimeMillis = System.currentTimeMillis();
+
+    /**
+     * Creates a new executor.
+     *
+     * @param threadFactory the factory creating a thread for each task, which should create virtual threads
+     * @param maxConcurrency the max number of tasks running concurrently
+     * @param queueCapacity the max number of tasks waiting to run, or 0 to reject tasks when maxConcurrency are running
+     * @param metric the metric receiving unhandled exceptions of tasks
+     */
+    VirtualThreadExecutor(ThreadFactory threadFactory, int maxConcurrency, int queueCapacity, ThreadPoolMetric metric) {
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.metric = metric;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (pending.incrementAndGet() > maxConcurrency + queueCapacity || shutdown) {
+            completed();
+            throw new RejectedExecutionException(shutdown ? "Executor is shut down"
+                                                          : "All " + maxConcurrency + " workers are busy and the queue is full");
+        }
+        try {
+            Thread thread = threadFactory.newThread(() -> run(command));
+            threads.add(thread);
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            completed();
+            throw new RejectedExecutionException("Could not create a thread for the task", e);
+        }
+    }
+
+    private void run(Runnable command) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) { // Shut down while waiting
+            threads.remove(Thread.currentThread());
+            completed();
+            return;
+        }
+        if (stopped) { // Shut down while waiting, and given the permit of a task which was interrupted
+            permits.release();
+            threads.remove(Thread.currentThread());
+            completed();
+            return;
+        }
+        running.incrementAndGet();
+        lastThreadAssignmentTimeMillis = System.currentTimeMillis();
+        try {
+            command.run();
+        } catch (RuntimeException | Error e) {
+            metric.reportUnhandledException(e);
+            throw e;
+        } finally {
+            running.decrementAndGet();
+            permits.release();
+            threads.remove(Thread.currentThread());
+            completed();
+        }
+    }
+
+    private void completed() {
+        if (pending.decrementAndGet() == 0 && shutdown)
+            terminated.countDown();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (pending.get() == 0)
+            terminated.countDown();
+    }
+
+    /** Shuts down this and interrupts all tasks. Tasks still waiting to run are discarded, and not returned. */
+    @Override
+    public List<Runnable> shutdownNow() {
+        stopped = true;
+        shutdown();
+        threads.forEach(Thread::interrupt);
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() { return shutdown; }
+
+    @Override
+    public boolean isTerminated() { return terminated.getCount() == 0; }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /** Returns the number of threads of this, both running and waiting to run */
+    @Override
+    public int getPoolSize() { return pending.get(); }
+
+    @Override
+    public int getMaximumPoolSize() { return maxConcurrency; }
+
+    @Override
+    public int getActiveCount() { return running.get(); }
+
+    @Override
+    public int getWorkQueueSize() {
+        return queueCapacity == 0 ? getActiveCount() : Math.max(0, pending.get() - running.get());
+    }
+
+    @Override
+    public int getWorkQueueCapacity() { return queueCapacity == 0 ? maxConcurrency : queueCapacity; }
+
+    @Override
+    public long lastThreadAssignmentTimeMillis() { return lastThreadAssignmentTimeMillis; }
+
+    /**
+     * Returns a factory of virtual threads with the given name prefix, or empty if virtual threads are not
+     * supported by this JVM. This is looked up reflectively as virtual threads are only available from Java 21.
+     */
+    static Optional<ThreadFactory> virtualThreadFactory(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+}
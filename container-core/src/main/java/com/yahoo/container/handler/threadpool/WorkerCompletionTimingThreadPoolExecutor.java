@@ -14,12 +14,14 @@ import java.util.concurrent.atomic.AtomicLong;
  * @author baldersheim
  * @author bratseth
  */
-class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor {
+class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor implements MonitoredExecutorService {
 
-    volatile long lastThreadAssignmentTimeMillis = System.currentTimeMillis();
+    private volatile long lastThreadAssignmentTimeMillis = System.currentTimeMillis();
     private final AtomicLong startedCount = new AtomicLong(0);
     private final AtomicLong completedCount = new AtomicLong(0);
     private final ThreadPoolMetric metric;
+    private final boolean threadPoolIsOnlyQ;
+    private final int queueCapacity;
 
     WorkerCompletionTimingThreadPoolExecutor(int corePoolSize,
                                              int maximumPoolSize,
@@ -30,6 +32,9 @@ class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor {
                                              ThreadPoolMetric metric) {
         super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory);
         this.metric = metric;
+        int maxQueueCapacity = workQueue.remainingCapacity() + workQueue.size();
+        this.threadPoolIsOnlyQ = (maxQueueCapacity == 0);
+        this.queueCapacity = threadPoolIsOnlyQ ? maximumPoolSize : maxQueueCapacity;
     }
 
     @Override
@@ -53,5 +58,16 @@ class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor {
         return (int)(startedCount.get() - completedCount.get());
     }
 
+    @Override
+    public int getWorkQueueSize() {
+        return threadPoolIsOnlyQ ? getActiveCount() : getQueue().size();
+    }
+
+    @Override
+    public int getWorkQueueCapacity() { return queueCapacity; }
+
+    @Override
+    public long lastThreadAssignmentTimeMillis() { return lastThreadAssignmentTimeMillis; }
+
 }
 
@@ -199,6 +199,11 @@ class HttpRequestDispatch {
         ContentChannel requestContentChannel;
         try (ResourceReference ref = References.fromResource(jdiscRequest)) {
             HttpRequestFactory.copyHeaders(jettyRequest, jdiscRequest);
+            if (ServletRequestReader.isZstdEncoded(jettyRequest)) {
+                // The request reader decompresses the content, like the GzipHandler does for gzip
+                jdiscRequest.headers().remove(HttpHeaders.Names.CONTENT_ENCODING);
+                jdiscRequest.headers().remove(HttpHeaders.Names.CONTENT_LENGTH);
+            }
             requestContentChannel = requestHandler.handleRequest(jdiscRequest, servletResponseController.responseHandler());
         }
         return new ServletRequestReader(jettyRequest, requestContentChannel, jDiscContext.janitor(), metricReporter);
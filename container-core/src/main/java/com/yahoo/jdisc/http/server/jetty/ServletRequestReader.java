@@ -1,6 +1,7 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jdisc.http.server.jetty;
 
+import com.yahoo.compress.ZstdStreamDecompressor;
 import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.http.ConnectorConfig;
@@ -14,11 +15,15 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.yahoo.jdisc.Response.Status.BAD_REQUEST;
 import static com.yahoo.jdisc.Response.Status.REQUEST_TOO_LONG;
+import static com.yahoo.jdisc.http.HttpHeaders.Names.CONTENT_ENCODING;
 
 /**
  * Finished when either
@@ -111,10 +116,14 @@ class ServletRequestReader {
         var cfg = RequestUtils.getConnector(req).connectorConfig();
         long maxContentSize = resolveMaxContentSize(cfg);
         var msgTemplate = resolveMaxContentSizeErrorMessage(cfg);
-        this.requestContentChannel = maxContentSize >= 0
+        ContentChannel channel = maxContentSize >= 0
                 ? new ByteLimitedContentChannel(
                         Objects.requireNonNull(requestContentChannel), maxContentSize, msgTemplate, req.getContentLengthLong())
                 : Objects.requireNonNull(requestContentChannel);
+        // Gzip content is inflated by the GzipHandler, before it gets here.
+        this.requestContentChannel = isZstdEncoded(req)
+                ? new ZstdDecompressingContentChannel(channel, maxContentSize, msgTemplate)
+                : channel;
         this.janitor = Objects.requireNonNull(janitor);
         this.metricReporter = Objects.requireNonNull(metricReporter);
     }
@@ -316,4 +325,118 @@ class ServletRequestReader {
         @Override public void onError(Throwable t) { delegate.onError(t); }
     }
 
+    static boolean isZstdEncoded(HttpServletRequest req) {
+        return "zstd".equalsIgnoreCase(req.getHeader(CONTENT_ENCODING));
+    }
+
+    /**
+     * Decompresses zstd compressed content as it is written, and writes the decompressed content to the delegate
+     * as it is produced. The sizes of both the compressed and the decompressed content are limited like that of
+     * uncompressed content, and decompression stops as soon as either is exceeded. Once a write has failed,
+     * the following content is discarded.
+     */
+    private static class ZstdDecompressingContentChannel implements ContentChannel {
+        private final ZstdStreamDecompressor decompressor = new ZstdStreamDecompressor(BUFFER_SIZE_BYTES);
+        private final ContentChannel delegate;
+        private final long maxContentSize;
+        private final String messageTemplate;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private long compressedBytes = 0;
+        private long decompressedBytes = 0;
+
+        ZstdDecompressingContentChannel(ContentChannel delegate, long maxContentSize, String messageTemplate) {
+            this.delegate = delegate;
+            this.maxContentSize = maxContentSize;
+            this.messageTemplate = messageTemplate;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, CompletionHandler handler) {
+            synchronized (decompressor) {
+                if (failed.get()) {
+                    handler.completed(); // The failure is already reported
+                    return;
+                }
+                compressedBytes += buf.remaining();
+                if (maxContentSize >= 0 && compressedBytes > maxContentSize) {
+                    failed.set(true);
+                    handler.failed(new RequestException(
+                            REQUEST_TOO_LONG, messageTemplate.formatted(compressedBytes, maxContentSize)));
+                    return;
+                }
+                // Pending until decompression of this write is done, and then until each write of its output completes.
+                WritesCompletionHandler writesHandler = new WritesCompletionHandler(handler);
+                try {
+                    decompressor.decompress(buf, decompressed -> {
+                        decompressedBytes += decompressed.remaining();
+                        if (maxContentSize >= 0 && decompressedBytes > maxContentSize) {
+                            RequestException e = new RequestException(
+                                    REQUEST_TOO_LONG, messageTemplate.formatted(decompressedBytes, maxContentSize));
+                            writesHandler.failed(e);
+                            throw e;
+                        }
+                        writesHandler.pending.incrementAndGet();
+                        try {
+                            delegate.write(decompressed, writesHandler);
+                        }
+                        catch (RuntimeException e) {
+                            writesHandler.failed(e);
+                            throw e;
+                        }
+                    });
+                }
+                catch (RuntimeException e) {
+                    // A no-op if this is a failure to write the output, which is already reported.
+                    writesHandler.failed(new RequestException(BAD_REQUEST, "Failed to decompress zstd request content", e));
+                    return;
+                }
+                writesHandler.completed();
+            }
+        }
+
+        @Override
+        public void close(CompletionHandler handler) {
+            boolean incomplete;
+            synchronized (decompressor) {
+                incomplete = ! failed.get() && ! decompressor.isComplete();
+            }
+            if ( ! incomplete) {
+                delegate.close(handler);
+                return;
+            }
+            RequestException error = new RequestException(BAD_REQUEST, "Incomplete zstd request content");
+            delegate.onError(error);
+            delegate.close(new CompletionHandler() {
+                @Override public void completed() { handler.failed(error); }
+                @Override public void failed(Throwable t) { handler.failed(t); }
+            });
+        }
+
+        @Override public void onError(Throwable t) { delegate.onError(t); }
+
+        /** Completes the handler of a write once all the writes of its decompressed content are completed */
+        private class WritesCompletionHandler implements CompletionHandler {
+            private final CompletionHandler handler;
+            private final AtomicInteger pending = new AtomicInteger(1);
+            private final AtomicBoolean done = new AtomicBoolean();
+
+            WritesCompletionHandler(CompletionHandler handler) {
+                this.handler = handler;
+            }
+
+            @Override
+            public void completed() {
+                if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true))
+                    handler.completed();
+            }
+
+            @Override
+            public void failed(Throwable t) {
+                failed.set(true);
+                if (done.compareAndSet(false, true))
+                    handler.failed(t);
+            }
+        }
+    }
+
 }
@@ -10,11 +10,15 @@ import com.yahoo.jdisc.Metric;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -116,6 +120,75 @@ public class ContainerThreadPoolImplTest {
         assertEquals(CPUS * 4 * 100, executor.getQueue().remainingCapacity());
     }
 
+    @Test
+    void testThreadPoolWithVirtualThreads() throws InterruptedException {
+        ContainerThreadpoolConfig config = new ContainerThreadpoolConfig(new ContainerThreadpoolConfig.Builder()
+                .maxThreads(2)
+                .queueSize(10)
+                .virtualThreads(true));
+        // Platform threads are used instead when virtual threads are not supported by this JVM
+        ContainerThreadpoolImpl threadPool = new ContainerThreadpoolImpl(config, new MetricMock(), new MockProcessTerminator(), CPUS);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++)
+            threadPool.executor().execute(done::countDown);
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        threadPool.close();
+        assertRejected(threadPool, done::countDown);
+    }
+
+    @Test
+    void testVirtualThreadExecutorLimitsConcurrency() throws InterruptedException {
+        MetricMock metrics = new MetricMock();
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(Thread::new, 2, 1, new ThreadPoolMetric(metrics, "test"));
+        ExecutorServiceWrapper wrapper = new ExecutorServiceWrapper(executor, new ThreadPoolMetric(metrics, "test"),
+                                                                    new MockProcessTerminator(), 60_000, "test");
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        Runnable task = () -> {
+            started.countDown();
+            try { release.await(); } catch (InterruptedException e) { }
+            done.countDown();
+        };
+        wrapper.execute(task);
+        wrapper.execute(task);
+        assertTrue(started.await(60, TimeUnit.SECONDS));
+        wrapper.execute(task); // Queued
+        assertThrows(RejectedExecutionException.class, () -> wrapper.execute(task));
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(3, executor.getPoolSize());
+        assertEquals(1, executor.getWorkQueueSize());
+        assertEquals(1, executor.getWorkQueueCapacity());
+        assertEquals(1L, metrics.innvocations().get(ContainerMetrics.JDISC_THREAD_POOL_REJECTED_TASKS.baseName()).val);
+
+        release.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        wrapper.shutdown();
+        assertTrue(wrapper.awaitTermination(60, TimeUnit.SECONDS));
+        assertEquals(0, executor.getPoolSize());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    void testVirtualThreadExecutorShutdownNowDiscardsWaitingTasks() throws InterruptedException {
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(Thread::new, 1, 10, new ThreadPoolMetric(new MetricMock(), "test"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try { new CountDownLatch(1).await(); } catch (InterruptedException e) { interrupted.countDown(); }
+        });
+        assertTrue(started.await(60, TimeUnit.SECONDS));
+        FlipIt waiting = new FlipIt();
+        executor.execute(waiting);
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertEquals(0, interrupted.getCount());
+        assertEquals(Receiver.MessageState.TIMEOUT, waiting.didItRun.get(1).first);
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(waiting));
+    }
+
     private static class FlipIt implements Runnable {
         public final Receiver<Boolean> didItRun = new Receiver<>();
 
@@ -3,6 +3,8 @@ package com.yahoo.jdisc.http.server.jetty;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
+import com.yahoo.compress.ZstdCompressor;
+import com.yahoo.compress.ZstdOutputStream;
 import com.yahoo.container.logging.ConnectionLog;
 import com.yahoo.container.logging.ConnectionLogEntry;
 import com.yahoo.container.logging.RequestLog;
@@ -43,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.BindException;
@@ -54,6 +57,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +77,7 @@ import static com.yahoo.jdisc.Response.Status.REQUEST_URI_TOO_LONG;
 import static com.yahoo.jdisc.Response.Status.UNAUTHORIZED;
 import static com.yahoo.jdisc.Response.Status.UNSUPPORTED_MEDIA_TYPE;
 import static com.yahoo.jdisc.http.HttpHeaders.Names.CONNECTION;
+import static com.yahoo.jdisc.http.HttpHeaders.Names.CONTENT_ENCODING;
 import static com.yahoo.jdisc.http.HttpHeaders.Names.CONTENT_TYPE;
 import static com.yahoo.jdisc.http.HttpHeaders.Names.COOKIE;
 import static com.yahoo.jdisc.http.HttpHeaders.Names.X_DISABLE_CHUNKING;
@@ -623,6 +628,66 @@ public class HttpServerTest {
         assertTrue(driver.close());
     }
 
+    @Test
+    void requireThatZstdEncodingRequestsAreDecompressed() throws Exception {
+        JettyTestDriver driver = JettyTestDriver.newInstance(new ParameterPrinterRequestHandler());
+        String requestContent = generateContent('a', 30);
+        byte[] compressed = new ZstdCompressor().compress(requestContent.getBytes(StandardCharsets.UTF_8), 0, requestContent.length());
+        driver.client().newPost("/status.html")
+                .addHeader(CONTENT_TYPE, APPLICATION_X_WWW_FORM_URLENCODED)
+                .addHeader(CONTENT_ENCODING, "zstd")
+                .setBinaryContent(compressed)
+                .execute()
+                .expectStatusCode(is(OK))
+                .expectContent(startsWith('{' + requestContent + "=[]}"));
+        driver.client().newPost("/status.html")
+                .addHeader(CONTENT_TYPE, APPLICATION_X_WWW_FORM_URLENCODED)
+                .addHeader(CONTENT_ENCODING, "zstd")
+                .setContent(requestContent)
+                .execute()
+                .expectStatusCode(is(BAD_REQUEST));
+        assertTrue(driver.close());
+    }
+
+    @Test
+    void requireThatZstdContentIsDecompressedAsItArrives() throws Exception {
+        JettyTestDriver driver = JettyTestDriver.newInstance(new ContentEncodingEchoRequestHandler());
+        String requestContent = generateContent('b', 100_000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZstdOutputStream out = new ZstdOutputStream(compressed, 1000)) { // Many frames
+            out.write(requestContent.getBytes(StandardCharsets.UTF_8));
+        }
+        driver.client().newPost("/status.html")
+                .addHeader(CONTENT_ENCODING, "zstd")
+                .setBinaryContent(compressed.toByteArray())
+                .execute()
+                .expectStatusCode(is(OK))
+                .expectContent(is("null:" + requestContent));
+        driver.client().newPost("/status.html")
+                .addHeader(CONTENT_ENCODING, "zstd")
+                .setBinaryContent(Arrays.copyOf(compressed.toByteArray(), compressed.size() - 1))
+                .execute()
+                .expectStatusCode(is(BAD_REQUEST));
+        assertTrue(driver.close());
+    }
+
+    @Test
+    void requireThatTooLargeDecompressedZstdContentFailsWith413() throws Exception {
+        JettyTestDriver driver = JettyTestDriver.newConfiguredInstance(
+                new EchoRequestHandler(),
+                new ServerConfig.Builder(),
+                new ConnectorConfig.Builder().maxContentSize(100_000));
+        byte[] content = new byte[16 << 20];
+        byte[] compressed = new ZstdCompressor().compress(content, 0, content.length);
+        assertTrue(compressed.length < 100_000);
+        driver.client().newPost("/status.html")
+                .addHeader(CONTENT_ENCODING, "zstd")
+                .setBinaryContent(compressed)
+                .execute()
+                .expectStatusCode(is(REQUEST_TOO_LONG));
+        assertTrue(driver.close());
+    }
+
     @Test
     void requireThatResponseStatsAreCollected() throws Exception {
         RequestTypeHandler handler = new RequestTypeHandler();
@@ -946,6 +1011,16 @@ public class HttpServerTest {
         }
     }
 
+    private static class ContentEncodingEchoRequestHandler extends AbstractRequestHandler {
+
+        @Override
+        public ContentChannel handleRequest(Request request, ResponseHandler handler) {
+            ContentChannel out = ResponseDispatch.newInstance(Response.Status.OK).connect(handler);
+            out.write(StandardCharsets.UTF_8.encode(request.headers().getFirst(CONTENT_ENCODING) + ":"), null);
+            return out;
+        }
+    }
+
     private static class RequestTypeHandler extends AbstractRequestHandler {
 
         private Request.RequestType requestType = null;
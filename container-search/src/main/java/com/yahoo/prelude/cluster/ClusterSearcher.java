@@ -36,10 +36,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -143,11 +145,28 @@ public class ClusterSearcher extends Searcher {
 
     /** Do not use, for internal testing purposes only. **/
     ClusterSearcher(SchemaInfo schemaInfo, Map<String, VespaBackend> schema2Searcher) {
-        this(schemaInfo, schema2Searcher, null);
+        this(schemaInfo, schema2Searcher, Runnable::run);
     }
 
     @Override
     public Result search(Query query, Execution execution) {
+        Result prepared = prepareSearch(query);
+        if (prepared != null) return prepared;
+
+        return doSearch(query);
+    }
+
+    /** Searches without blocking the calling thread, processing the responses in the search executor */
+    @Override
+    public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+        Result prepared = prepareSearch(query);
+        if (prepared != null) return CompletableFuture.completedFuture(prepared);
+
+        return doSearchAsync(query);
+    }
+
+    /** Validates the query, and returns the result to return instead of searching if any */
+    private Result prepareSearch(Query query) {
         validateQueryTimeout(query);
         validateQueryCache(query);
         if (schema2Searcher.isEmpty()) {
@@ -156,15 +175,40 @@ public class ClusterSearcher extends Searcher {
         if (query.getTimeLeft() <= 0) {
             return new Result(query, ErrorMessage.createTimeout("No time left for searching"));
         }
-
-        return doSearch(query);
+        return null;
     }
 
     @Override
     public void fill(Result result, String summaryClass, Execution execution) {
         fill(result, summaryClass);
     }
+
+    @Override
+    public CompletionStage<Void> fillAsync(Result result, String summaryClass, Execution execution) {
+        return fillAsync(result, summaryClass);
+    }
+
     private void fill(Result result, String summaryClass) {
+        Collection<VespaBackend> servers = fillServers(result);
+        for (var server : servers) {
+            if (hasTimeLeftToFill(result))
+                server.fill(result, summaryClass);
+        }
+    }
+
+    /** Fills from each server in turn, as the fills of a result must not run concurrently */
+    private CompletableFuture<Void> fillAsync(Result result, String summaryClass) {
+        Collection<VespaBackend> servers = fillServers(result);
+        CompletableFuture<Void> filled = CompletableFuture.completedFuture(null);
+        for (var server : servers) {
+            filled = filled.thenCompose(__ -> hasTimeLeftToFill(result) ? server.fillAsync(result, summaryClass, executor)
+                                                                        : CompletableFuture.completedFuture(null));
+        }
+        return filled;
+    }
+
+    /** Returns the servers to fill the given result from, and adds an error to it if there are none */
+    private Collection<VespaBackend> fillServers(Result result) {
         Query query = result.getQuery();
         var restrict = query.getModel().getRestrict();
         Collection<VespaBackend> servers = (restrict != null && ! restrict.isEmpty())
@@ -173,22 +217,24 @@ public class ClusterSearcher extends Searcher {
                     .collect(Collectors.toCollection(TinyIdentitySet::new))
                 : schema2Searcher.values().stream().collect(Collectors.toCollection(TinyIdentitySet::new));
 
-        if ( ! servers.isEmpty() ) {
-            for (var server : servers) {
-                if (query.getTimeLeft() > 0) {
-                    server.fill(result, summaryClass);
-                } else {
-                    if (result.hits().getErrorHit() == null) {
-                        result.hits().addError(ErrorMessage.createTimeout("No time left to get summaries, query timeout was " +
-                                query.getTimeout() + " ms"));
-                    }
-                }
-            }
-        } else {
+        if (servers.isEmpty()) {
             if (result.hits().getErrorHit() == null) {
                 result.hits().addError(ErrorMessage.createNoBackendsInService("Could not fill result"));
             }
         }
+        return servers;
+    }
+
+    /** Returns whether there is time left to fill the given result, and adds an error to it if not */
+    private static boolean hasTimeLeftToFill(Result result) {
+        Query query = result.getQuery();
+        if (query.getTimeLeft() > 0) return true;
+
+        if (result.hits().getErrorHit() == null) {
+            result.hits().addError(ErrorMessage.createTimeout("No time left to get summaries, query timeout was " +
+                    query.getTimeout() + " ms"));
+        }
+        return false;
     }
 
     private void validateQueryTimeout(Query query) {
@@ -222,11 +268,25 @@ public class ClusterSearcher extends Searcher {
         }
     }
 
-    private Result perSchemaSearch(String schema, Query query) {
+    private CompletableFuture<Result> doSearchAsync(Query query) {
+        if (schema2Searcher.size() > 1) {
+            return searchMultipleDocumentTypesAsync(query);
+        } else {
+            String schema = schema2Searcher.keySet().iterator().next();
+            query.getModel().setRestrict(schema);
+            return perSchemaSearchAsync(schema, query);
+        }
+    }
+
+    private static void requireSingleSchema(Query query) {
         Set<String> restrict = query.getModel().getRestrict();
         if (restrict.size() != 1) {
             throw new IllegalStateException("perSchemaSearch must always be called with 1 schema, got: " + restrict.size());
         }
+    }
+
+    private Result perSchemaSearch(String schema, Query query) {
+        requireSingleSchema(query);
         int rerankCount = globalPhaseRanker != null ? globalPhaseRanker.getRerankCount(query, schema) : 0;
         boolean useGlobalPhase = rerankCount > 0;
         final int wantOffset = query.getOffset();
@@ -248,9 +308,43 @@ public class ClusterSearcher extends Searcher {
         return result;
     }
 
-    private static void processResult(Query query, FutureTask<Result> task, Result mergedResult) {
+    /**
+     * Searches a single schema without blocking the calling thread. Backends which search asynchronously process
+     * their responses in the executor, which then also reranks the hits if this is done in this container.
+     */
+    private CompletableFuture<Result> perSchemaSearchAsync(String schema, Query query) {
+        try {
+            requireSingleSchema(query);
+            int rerankCount = globalPhaseRanker != null ? globalPhaseRanker.getRerankCount(query, schema) : 0;
+            if (rerankCount <= 0)
+                return schema2Searcher.get(schema).searchAsync(schema, query, executor);
+
+            var error = globalPhaseRanker.validateNoSorting(query, schema).orElse(null);
+            if (error != null) return CompletableFuture.completedFuture(new Result(query, error));
+            final int wantOffset = query.getOffset();
+            final int wantHits = query.getHits();
+            query.setOffset(0);
+            query.setHits(Math.max(wantOffset + wantHits, rerankCount));
+            return schema2Searcher.get(schema).searchAsync(schema, query, executor).thenApply(result -> {
+                globalPhaseRanker.rerankHits(query, result, schema);
+                result.hits().trim(wantOffset, wantHits);
+                query.setOffset(wantOffset);
+                query.setHits(wantHits);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void processResult(Query query, CompletableFuture<Result> future, Result mergedResult) {
+        if ( ! future.isDone()) {
+            mergedResult.hits().addError(ErrorMessage.createTimeout("No result from querying '" +
+                                                                    query.getModel().getRestrict() + "' within the timeout"));
+            return;
+        }
         try {
-            Result result = task.get();
+            Result result = future.get();
             mergedResult.mergeWith(result);
             mergedResult.hits().addAll(result.hits().asUnorderedHits());
         } catch (ExecutionException e) {
@@ -265,6 +359,21 @@ public class ClusterSearcher extends Searcher {
         }
     }
 
+    /**
+     * Waits for the given searches to complete, but not beyond the time left of the query.
+     * The searches complete on their own when this times out, so this only guards against waiting indefinitely.
+     */
+    private static void awaitAll(Query query, List<CompletableFuture<Result>> pending) {
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                             .get(Math.max(0, query.getTimeLeft()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Failed and missing results are handled per schema
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private Result searchMultipleDocumentTypes(Query query) {
         Set<String> schemas = resolveSchemas(query);
         Map<String, Query> schemaQueries = createQueries(query, schemas);
@@ -272,34 +381,73 @@ public class ClusterSearcher extends Searcher {
             var entry = schemaQueries.entrySet().iterator().next();
             return perSchemaSearch(entry.getKey(), entry.getValue());
         } else {
-            Result mergedResult = new Result(query);
-            List<FutureTask<Result>> pending = new ArrayList<>(schemaQueries.size());
-            for (var entry : schemaQueries.entrySet()) {
-                FutureTask<Result> task = new FutureTask<>(() -> perSchemaSearch(entry.getKey(), entry.getValue()));
-                try {
-                    executor.execute(task);
-                    pending.add(task);
-                } catch (RejectedExecutionException rej) {
-                    task.run();
-                    processResult(query, task, mergedResult);
-                }
-            }
-            for (FutureTask<Result> task : pending) {
-                processResult(query, task, mergedResult);
-            }
+            List<CompletableFuture<Result>> pending = searchAll(schemaQueries);
+            awaitAll(query, pending);
+            Result mergedResult = mergeAll(query, pending);
             // Should we trim the merged result?
-            if (query.getOffset() > 0 || query.getHits() < mergedResult.hits().size()) {
+            if (needsTrim(query, mergedResult)) {
                 if (mergedResult.getHitOrderer() != null) {
                     // Make sure we have the necessary data for sorting
                     fill(mergedResult, VespaBackend.SORTABLE_ATTRIBUTES_SUMMARY_CLASS);
                 }
-                mergedResult.hits().trim(query.getOffset(), query.getHits());
-                query.setOffset(0); // Needed when doing a trim
+                trim(query, mergedResult);
             }
             return mergedResult;
         }
     }
 
+    /**
+     * Searches multiple schemas without blocking the calling thread. The returned future completes when all schemas
+     * have a result, or when the query times out, in which case schemas with no result by then get a timeout error.
+     */
+    private CompletableFuture<Result> searchMultipleDocumentTypesAsync(Query query) {
+        Set<String> schemas = resolveSchemas(query);
+        Map<String, Query> schemaQueries = createQueries(query, schemas);
+        if (schemaQueries.size() == 1) {
+            var entry = schemaQueries.entrySet().iterator().next();
+            return perSchemaSearchAsync(entry.getKey(), entry.getValue());
+        } else {
+            List<CompletableFuture<Result>> pending = searchAll(schemaQueries);
+            return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                                    .completeOnTimeout(null, Math.max(0, query.getTimeLeft()), TimeUnit.MILLISECONDS)
+                                    .handle((__, exception) -> mergeAll(query, pending)) // Failures are handled per schema
+                                    .thenCompose(mergedResult -> {
+                                        if ( ! needsTrim(query, mergedResult))
+                                            return CompletableFuture.completedFuture(mergedResult);
+                                        CompletableFuture<Void> filled = mergedResult.getHitOrderer() != null
+                                                ? fillAsync(mergedResult, VespaBackend.SORTABLE_ATTRIBUTES_SUMMARY_CLASS)
+                                                : CompletableFuture.completedFuture(null);
+                                        return filled.thenApply(___ -> trim(query, mergedResult));
+                                    });
+        }
+    }
+
+    private List<CompletableFuture<Result>> searchAll(Map<String, Query> schemaQueries) {
+        List<CompletableFuture<Result>> pending = new ArrayList<>(schemaQueries.size());
+        for (var entry : schemaQueries.entrySet()) {
+            pending.add(perSchemaSearchAsync(entry.getKey(), entry.getValue()));
+        }
+        return pending;
+    }
+
+    private static Result mergeAll(Query query, List<CompletableFuture<Result>> pending) {
+        Result mergedResult = new Result(query);
+        for (CompletableFuture<Result> future : pending) {
+            processResult(query, future, mergedResult);
+        }
+        return mergedResult;
+    }
+
+    private static boolean needsTrim(Query query, Result mergedResult) {
+        return query.getOffset() > 0 || query.getHits() < mergedResult.hits().size();
+    }
+
+    private static Result trim(Query query, Result mergedResult) {
+        mergedResult.hits().trim(query.getOffset(), query.getHits());
+        query.setOffset(0); // Needed when doing a trim
+        return mergedResult;
+    }
+
     private Set<String> resolveSourceSubset(Set<String> sources) {
         Set<String> candidates = new HashSet<>();
         for (String source : sources) {
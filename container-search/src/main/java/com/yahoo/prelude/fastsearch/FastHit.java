@@ -147,6 +147,11 @@ public class FastHit extends Hit {
         return sortData != null && sortDataSorting != null && sortDataSorting.equals(sorting);
     }
 
+    /** Returns the sort data of this if it is for the given sorting, or null */
+    byte[] getSortData(Sorting sorting) {
+        return hasSortData(sorting) ? sortData : null;
+    }
+
     static int compareSortData(FastHit left, FastHit right, Sorting sorting) {
         if (!left.hasSortData(sorting) || !right.hasSortData(sorting)) {
             return 0; // cannot sort
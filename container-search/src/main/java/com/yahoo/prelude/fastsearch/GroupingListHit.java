@@ -2,10 +2,12 @@
 package com.yahoo.prelude.fastsearch;
 
 import java.util.List;
+import java.util.Map;
 
 import com.yahoo.search.Query;
 import com.yahoo.search.result.Hit;
 import com.yahoo.search.schema.Schema;
+import com.yahoo.searchlib.aggregation.Group;
 import com.yahoo.searchlib.aggregation.Grouping;
 
 public class GroupingListHit extends Hit {
@@ -28,7 +30,15 @@ public class GroupingListHit extends Hit {
     public Schema getSchema() { return documentDatabase.schema(); }
     public DocumentDatabase getDocumentDatBase() { return documentDatabase; }
 
+    /**
+     * Returns the max number of documents which may be missing from the count of each group in this,
+     * for the groups of approximate groupings which may be incomplete. This is keyed on group identity.
+     */
+    public Map<Group, Long> getCountErrors() { return countErrors; }
+    public void setCountErrors(Map<Group, Long> countErrors) { this.countErrors = countErrors; }
+
     private final List<Grouping> groupingList;
     private final DocumentDatabase documentDatabase;
+    private Map<Group, Long> countErrors = Map.of();
 
 }
@@ -16,6 +16,9 @@ import com.yahoo.search.result.HitGroup;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * The searcher which forwards queries to fdispatch nodes, using the fnet/fs4
@@ -91,6 +94,40 @@ public class IndexedBackend extends VespaBackend {
         }
     }
 
+    /** Searches by processing the responses in the given executor, and fills from it when rank features are requested */
+    @Override
+    public CompletableFuture<Result> searchAsync(String schema, Query query, Executor executor) {
+        Result prepared = prepareSearch(query);
+        if (prepared != null) return CompletableFuture.completedFuture(prepared);
+
+        if (dispatcher.allGroupsHaveSize1())
+            forceSinglePassGrouping(query);
+        SearchInvoker invoker = getSearchInvoker(query);
+        return invoker.searchAsync(query, executor)
+                      .whenComplete((result, exception) -> invoker.close())
+                      .thenCompose(result -> {
+                          injectSource(result.hits());
+                          if ( ! query.properties().getBoolean(Ranking.RANKFEATURES, false))
+                              return CompletableFuture.completedFuture(result);
+                          return fillAsync(result, query.getPresentation().getSummary(), executor).thenApply(__ -> result);
+                      })
+                      .exceptionally(exception -> errorResult(query, exception))
+                      .thenApply(result -> completeSearch(result, query));
+    }
+
+    private Result errorResult(Query query, Throwable exception) {
+        Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+        if (cause instanceof TimeoutException)
+            return new Result(query, ErrorMessage.createTimeout(cause.getMessage()));
+        if ( ! (cause instanceof IOException))
+            throw exception instanceof CompletionException completion ? completion : new CompletionException(cause);
+        Result result = new Result(query);
+        if (query.getTrace().getLevel() >= 1)
+            query.trace(getName() + " error response: " + result, false, 1);
+        result.hits().addError(ErrorMessage.createBackendCommunicationError(getName() + " failed: " + cause.getMessage()));
+        return result;
+    }
+
     /**
      * Perform a partial docsum fill for a temporary result
      * representing a partition of the complete fill request.
@@ -105,11 +142,22 @@ public class IndexedBackend extends VespaBackend {
         Query query = result.getQuery();
         traceQuery(getName(), "fill", query, query.getOffset(), query.getHits(), 1, quotedSummaryClass(summaryClass));
 
-        try (FillInvoker invoker = getFillInvoker(result)) {
+        try (FillInvoker invoker = getFillInvoker(result, summaryClass)) {
             invoker.fill(result, summaryClass);
         }
     }
 
+    @Override
+    protected CompletableFuture<Void> doPartialFillAsync(Result result, String summaryClass, Executor executor) {
+        if (result.isFilled(summaryClass)) return CompletableFuture.completedFuture(null);
+
+        Query query = result.getQuery();
+        traceQuery(getName(), "fill", query, query.getOffset(), query.getHits(), 1, quotedSummaryClass(summaryClass));
+
+        FillInvoker invoker = getFillInvoker(result, summaryClass);
+        return invoker.fillAsync(result, summaryClass, executor).whenComplete((__, exception) -> invoker.close());
+    }
+
     /** When we only search a single node, doing all grouping in one pass is more efficient */
     private void forceSinglePassGrouping(Query query) {
         for (GroupingRequest groupingRequest : query.getSelect().getGrouping())
@@ -136,8 +184,8 @@ public class IndexedBackend extends VespaBackend {
      * depends on query properties with the default being an invoker that uses RPC to interface with
      * content nodes.
      */
-    private FillInvoker getFillInvoker(Result result) {
-        return dispatcher.getFillInvoker(result, this);
+    private FillInvoker getFillInvoker(Result result, String summaryClass) {
+        return dispatcher.getFillInvoker(result, this, summaryClass);
     }
 
     private static Optional<String> quotedSummaryClass(String summaryClass) {
@@ -1,10 +1,12 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.prelude.fastsearch;
 
+import com.yahoo.search.dispatch.LeanHit;
 import com.yahoo.search.query.Sorting;
 import com.yahoo.search.result.Hit;
 import com.yahoo.search.result.HitGroup;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -17,9 +19,22 @@ public class SortDataHitSorter {
             return;
         }
         var fallbackComparator = fallbackOrderer.getComparator();
-        hits.sort(getComparator(sorting, fallbackComparator));
+
+        // Look up the sort data of each hit once, rather than on each comparison
+        SortKey[] keys = new SortKey[hits.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Hit hit = hits.get(i);
+            keys[i] = new SortKey(hit, hit instanceof FastHit fastHit ? fastHit.getSortData(sorting) : null);
+        }
+        Arrays.sort(keys, (left, right) -> (left.sortData != null && right.sortData != null)
+                                           ? LeanHit.compareData(left.sortData, right.sortData)
+                                           : fallbackComparator.compare(left.hit, right.hit));
+        int[] next = new int[1];
+        hits.replaceAll(hit -> keys[next[0]++].hit); // unlike set(i, hit), this does not notify list listeners
     }
 
+    private record SortKey(Hit hit, byte[] sortData) {}
+
     public static boolean isSortable(Hit hit, Sorting sorting) {
         if (sorting == null) {
             return false;
@@ -24,6 +24,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -84,6 +86,15 @@ public abstract class VespaBackend {
 
     protected abstract void doPartialFill(Result result, String summaryClass);
 
+    /**
+     * Performs a partial fill without blocking the calling thread, if supported by this, processing the responses
+     * in the given executor. This default implementation fills synchronously.
+     */
+    protected CompletableFuture<Void> doPartialFillAsync(Result result, String summaryClass, Executor executor) {
+        doPartialFill(result, summaryClass);
+        return CompletableFuture.completedFuture(null);
+    }
+
     private boolean hasLocation(Item tree) {
         if (tree instanceof GeoLocationItem) {
             return true;
@@ -145,6 +156,21 @@ public abstract class VespaBackend {
     protected void transformQuery(Query query) { }
 
     public Result search(String schema, Query query) {
+        Result result = prepareSearch(query);
+        if (result != null) return result;
+        return completeSearch(doSearch2(schema, query), query);
+    }
+
+    /**
+     * Searches a search cluster without blocking the calling thread, if supported by this, processing the responses
+     * in the given executor. This default implementation searches synchronously and returns a completed future.
+     */
+    public CompletableFuture<Result> searchAsync(String schema, Query query, Executor executor) {
+        return CompletableFuture.completedFuture(search(schema, query));
+    }
+
+    /** Validates and rewrites the query before dispatching it, and returns the result to return instead if any */
+    protected final Result prepareSearch(Query query) {
         // query root should not be null here
         Item root = query.getModel().getQueryTree().getRoot();
         if (root == null || root instanceof NullItem) {
@@ -171,9 +197,11 @@ public abstract class VespaBackend {
         root = query.getModel().getQueryTree().getRoot();
         if (root == null || root instanceof NullItem) // root can become null after resolving and transformation?
             return new Result(query);
+        return null;
+    }
 
-        Result result = doSearch2(schema, query);
-
+    /** Traces the given result of dispatching the query and returns it */
+    protected final Result completeSearch(Result result, Query query) {
         if (query.getTrace().getLevel() >= 1)
             query.trace(getName() + " dispatch response: " + result, false, 1);
         result.trace(getName());
@@ -220,6 +248,28 @@ public abstract class VespaBackend {
             result.analyzeHits();
         }
     }
+
+    /**
+     * Fills the given result without blocking the calling thread, if supported by this.
+     * The partial fills of hits from different queries are done concurrently, and their responses processed
+     * in the given executor.
+     */
+    public CompletableFuture<Void> fillAsync(Result result, String summaryClass, Executor executor) {
+        if (result.isFilled(summaryClass)) return CompletableFuture.completedFuture(null);
+
+        List<Result> parts = partitionHits(result, summaryClass);
+        if (parts.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<?>[] fills = new CompletableFuture<?>[parts.size()];
+        for (int i = 0; i < fills.length; i++)
+            fills[i] = doPartialFillAsync(parts.get(i), ensureLegalSummaryClass(parts.get(i).getQuery(), summaryClass), executor);
+        return CompletableFuture.allOf(fills).thenRun(() -> {
+            for (Result r : parts)
+                mergeErrorsInto(result, r);
+            result.hits().setSorted(false);
+            result.analyzeHits();
+        });
+    }
     protected String ensureLegalSummaryClass(Query query, String summaryClass) {
         if (summaryClass != null) {
             if (summaryClass.isEmpty()) {
@@ -25,6 +25,7 @@ import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 import static com.yahoo.container.protect.Error.BACKEND_COMMUNICATION_ERROR;
@@ -94,19 +95,27 @@ public class StatisticsSearcher extends Searcher {
         private long prevMaxQPSTime = System.currentTimeMillis();
         private long queriesForQPS = 0;
         private Metric.Context metricContext = null;
+        // Not a monitor, as virtual threads blocking on a contended monitor pin their carrier thread
+        private final ReentrantLock lock = new ReentrantLock();
         public void setContext(Metric.Context metricContext) {
             if (this.metricContext == null) {
-                synchronized(this) {
+                lock.lock();
+                try {
                     this.metricContext = metricContext;
+                } finally {
+                    lock.unlock();
                 }
             }
         }
         @Override
         public void run() {
             long now = System.currentTimeMillis();
-            synchronized (this) {
+            lock.lock();
+            try {
                 if (metricContext == null) return;
                 flushPeakQps(now);
+            } finally {
+                lock.unlock();
             }
         }
         private void flushPeakQps(long now) {
@@ -117,8 +126,11 @@ public class StatisticsSearcher extends Searcher {
             queriesForQPS = 0;
         }
         void countQuery() {
-            synchronized (this) {
+            lock.lock();
+            try {
                 ++queriesForQPS;
+            } finally {
+                lock.unlock();
             }
         }
     }
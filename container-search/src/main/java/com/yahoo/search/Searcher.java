@@ -6,6 +6,8 @@ import com.yahoo.processing.Processor;
 import com.yahoo.processing.Response;
 import com.yahoo.search.searchchain.Execution;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 /**
@@ -74,6 +76,18 @@ public abstract class Searcher extends Processor {
     // Note to developers: If you think you should add something here you are probably wrong
     //                     Create a subclass containing the new method instead.
 
+    /** Whether a searcher class overrides fill, such that fillAsync must call it */
+    private static final ClassValue<Boolean> overridesFill = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("fill", Result.class, String.class, Execution.class).getDeclaringClass() != Searcher.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
     private final Logger logger = Logger.getLogger(getClass().getName());
 
     public Searcher() {}
@@ -128,6 +142,23 @@ public abstract class Searcher extends Processor {
      */
     public abstract Result search(Query query,Execution execution);
 
+    /**
+     * Returns a stage which completes with the result of this query, as specified for {@link #search}.
+     * <p>
+     * Searchers which wait for other services, such as sources sending the query over the network, may override
+     * this to return before the result is available, such that no thread is held while waiting for it.
+     * Others may override this to pass the query on with {@link Execution#searchAsync} and process the result
+     * in a dependent stage. The given execution is not used by the caller, so dependent stages may use it.
+     * <p>
+     * This default implementation calls {@link #search} and returns a completed stage.
+     *
+     * @param query the query
+     * @return a stage which completes with the result of making this query
+     */
+    public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+        return CompletableFuture.completedFuture(search(query, execution));
+    }
+
     /** Use the search method in Searcher processors. This forwards to it. */
     @Override
     public final Response process(com.yahoo.processing.Request request, com.yahoo.processing.execution.Execution execution) {
@@ -150,6 +181,24 @@ public abstract class Searcher extends Processor {
         execution.fill(result, summaryClass);
     }
 
+    /**
+     * Returns a stage which completes when the result is filled, as specified for {@link #fill}.
+     * <p>
+     * This needs to be overridden by the same searchers as fill to fill without holding a thread while waiting
+     * for the data. This default implementation propagates the fill call with {@link Execution#fillAsync}
+     * if this does not override fill, and otherwise calls {@link #fill} and returns a completed stage.
+     *
+     * @param result the result to fill
+     * @param summaryClass the name of the collection of fields to fetch the values of, or null to use the default
+     * @return a stage which completes when the result is filled
+     */
+    public CompletionStage<Void> fillAsync(Result result, String summaryClass, Execution execution) {
+        if ( ! overridesFill.get(getClass())) return execution.fillAsync(result, summaryClass);
+
+        fill(result, summaryClass, execution);
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Fills the result if it is not already filled for the given summary class.
      * See the fill method.
@@ -158,16 +207,32 @@ public abstract class Searcher extends Processor {
         if (summaryClass == null)
             summaryClass = result.getQuery().getPresentation().getSummary();
 
-        if ( ! result.isFilled(summaryClass)) {
+        if ( ! isFilled(result, summaryClass))
             fill(result, summaryClass, execution);
-        }
-        else {
-            int fillRejectTraceAt = 3;
-            if (result.getQuery().getTrace().getLevel() >= fillRejectTraceAt)
-                result.getQuery().trace("Ignoring fill(" + summaryClass + "): " +
-                                        ( result.hits().getFilled() == null ? "Hits are unfillable" : "Hits already filled" ) +
-                                        ": result.hits().getFilled()=" + result.hits().getFilled(), fillRejectTraceAt);
-        }
+    }
+
+    /**
+     * Fills the result asynchronously if it is not already filled for the given summary class.
+     * See the fillAsync method.
+     */
+    public final CompletionStage<Void> ensureFilledAsync(Result result, String summaryClass, Execution execution) {
+        if (summaryClass == null)
+            summaryClass = result.getQuery().getPresentation().getSummary();
+
+        if (isFilled(result, summaryClass)) return CompletableFuture.completedFuture(null);
+        return fillAsync(result, summaryClass, execution);
+    }
+
+    /** Returns whether the result is filled for the given summary class, and traces that the fill is ignored if so */
+    private static boolean isFilled(Result result, String summaryClass) {
+        if ( ! result.isFilled(summaryClass)) return false;
+
+        int fillRejectTraceAt = 3;
+        if (result.getQuery().getTrace().getLevel() >= fillRejectTraceAt)
+            result.getQuery().trace("Ignoring fill(" + summaryClass + "): " +
+                                    ( result.hits().getFilled() == null ? "Hits are unfillable" : "Hits already filled" ) +
+                                    ": result.hits().getFilled()=" + result.hits().getFilled(), fillRejectTraceAt);
+        return true;
     }
 
     /** Returns a logger unique for the instance subclass */
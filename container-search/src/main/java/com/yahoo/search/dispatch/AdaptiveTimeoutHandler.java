@@ -19,30 +19,32 @@ class AdaptiveTimeoutHandler implements TimeoutHandler {
     private final Query query;
     private final Timer timer;
     private final DispatchConfig config;
+    private final long fillTimeReserve;
 
     private long deadline;
     private long adaptiveTimeoutMin;
     private long adaptiveTimeoutMax;
     boolean adaptiveTimeoutCalculated = false;
 
-    AdaptiveTimeoutHandler(Timer timer, DispatchConfig config, int askedNodes, Query query) {
+    AdaptiveTimeoutHandler(Timer timer, DispatchConfig config, int askedNodes, Query query, long fillTimeReserve) {
         minimumCoverage = config.minSearchCoverage();
         this.config = config;
+        this.fillTimeReserve = fillTimeReserve;
         this.askedNodes = askedNodes;
         this.query = query;
         this.timer = timer;
         minimumResponses = (int) Math.ceil(askedNodes * minimumCoverage / 100.0);
-        deadline = timer.milliTime() + query.getTimeLeft();
+        deadline = timer.milliTime() + timeLeft();
     }
 
     @Override
     public long nextTimeoutMS(int answeredNodes) {
-        if (askedNodes == answeredNodes) return query.getTimeLeft();  // All nodes have responded - done
-        if (answeredNodes < minimumResponses) return query.getTimeLeft(); // Minimum responses have not been received yet
+        if (askedNodes == answeredNodes) return timeLeft();  // All nodes have responded - done
+        if (answeredNodes < minimumResponses) return timeLeft(); // Minimum responses have not been received yet
 
         if (!adaptiveTimeoutCalculated) {
             // Recompute timeout when minimum responses have been received
-            long timeLeftMs = query.getTimeLeft();
+            long timeLeftMs = timeLeft();
             adaptiveTimeoutMin = (long) (timeLeftMs * config.minWaitAfterCoverageFactor());
             adaptiveTimeoutMax = (long) (timeLeftMs * config.maxWaitAfterCoverageFactor());
             adaptiveTimeoutCalculated = true;
@@ -63,6 +65,11 @@ class AdaptiveTimeoutHandler implements TimeoutHandler {
         return nextAdaptive;
     }
 
+    /** Returns the time left of the query minus the time reserved for filling */
+    private long timeLeft() {
+        return query.getTimeLeft() - fillTimeReserve;
+    }
+
     @Override
     public int reason() {
         return DEGRADED_BY_ADAPTIVE_TIMEOUT;
@@ -2,6 +2,10 @@
 package com.yahoo.search.dispatch;
 
 import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 /**
@@ -37,4 +41,23 @@ public abstract class CloseableInvoker implements Closeable {
         release();
     }
 
+    /** Runs the given task in the given executor, or in this thread if the executor rejects it */
+    protected static void execute(Executor executor, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Runs the given task in the given executor after the given delay, unless the returned runnable is run
+     * before that. Running it cancels the timer, such that it no longer holds on to the task.
+     */
+    protected static Runnable schedule(long delayMillis, Executor executor, Runnable task) {
+        CompletableFuture<Boolean> timer = new CompletableFuture<Boolean>().completeOnTimeout(true, delayMillis, TimeUnit.MILLISECONDS);
+        timer.thenAccept(expired -> { if (expired) execute(executor, task); });
+        return () -> timer.complete(false);
+    }
+
 }
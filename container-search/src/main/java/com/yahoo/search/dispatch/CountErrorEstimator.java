@@ -0,0 +1,101 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.searchlib.aggregation.AggregationResult;
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
+import com.yahoo.searchlib.expression.ResultNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates how many documents may be missing from the count of each group when the results of a grouping
+ * from several content nodes are merged.
+ *
+ * Each node returns at most the precision number of groups below each group, so a group which is not returned
+ * by a node which returned that many may still have documents on that node, but no more than the count of the
+ * parent group on that node minus the counts of the groups it did return. The error of a group is the sum of this
+ * over the nodes which returned the parent but not the group, plus the error of the parent, which accounts for
+ * the nodes which did not return the parent either. Groups must have a count for this to be estimated,
+ * which is why approximate groupings add a count to all groups.
+ */
+final class CountErrorEstimator {
+
+    private final List<GroupingLevel> levels;
+    private final Entry root = new Entry();
+
+    /** Creates an estimator from the results of a grouping from each node, which must not be merged yet */
+    CountErrorEstimator(List<Grouping> results) {
+        levels = results.get(0).getLevels();
+        for (Grouping result : results)
+            add(result.getRoot(), root, 0);
+    }
+
+    /** Adds the errors of the groups in the given result of merging the results of this to the given map */
+    void addErrors(Grouping merged, Map<Group, Long> errors) {
+        addErrors(merged.getRoot(), root, 0, errors);
+    }
+
+    private void add(Group group, Entry entry, int level) {
+        List<Group> children = group.getChildren();
+        if (children.isEmpty()) return;
+
+        long remainder = remainder(group, children, level);
+        entry.remainders += remainder;
+        for (Group child : children) {
+            Entry childEntry = entry.children.computeIfAbsent(child.getId(), __ -> new Entry());
+            childEntry.parentRemainders += remainder;
+            add(child, childEntry, level + 1);
+        }
+    }
+
+    private void addErrors(Group group, Entry entry, long error, Map<Group, Long> errors) {
+        for (Group child : group.getChildren()) {
+            Entry childEntry = entry.children.get(child.getId());
+            if (childEntry == null) continue;
+            long childError = error + entry.remainders - childEntry.parentRemainders;
+            if (childError > 0)
+                errors.put(child, childError);
+            addErrors(child, childEntry, childError, errors);
+        }
+    }
+
+    /** Returns the max count on a node of any group below the given group which is not among the returned children */
+    private long remainder(Group group, List<Group> children, int level) {
+        if (level >= levels.size()) return 0;
+        long precision = levels.get(level).getPrecision();
+        if (precision < 0 || children.size() < precision) return 0; // Nothing was left out
+
+        long remainder = count(group);
+        if (remainder < 0) return 0; // Not estimated
+        for (Group child : children)
+            remainder -= Math.max(0, count(child));
+        return Math.max(0, remainder);
+    }
+
+    /** Returns the count of the given group, or -1 if it has none */
+    private static long count(Group group) {
+        for (AggregationResult result : group.getAggregationResults()) {
+            if (result instanceof CountAggregationResult count)
+                return count.getCount();
+        }
+        return -1;
+    }
+
+    private static class Entry {
+
+        /** The sum over the nodes returning this group of the max count of the groups below it they did not return */
+        long remainders = 0;
+
+        /** The sum over the nodes returning this group of the remainders of its parent group on that node */
+        long parentRemainders = 0;
+
+        final Map<ResultNode, Entry> children = new HashMap<>();
+
+    }
+
+}
@@ -6,6 +6,7 @@ import com.yahoo.component.ComponentId;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.compress.Compressor;
 import com.yahoo.container.handler.VipStatus;
+import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.VespaBackend;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Query;
@@ -56,11 +57,15 @@ public class Dispatcher extends AbstractComponent {
     /** If set will control computation of how many hits will be fetched from each partition.*/
     public static final CompoundName topKProbability = CompoundName.from(DISPATCH + "." + TOP_K_PROBABILITY);
 
+    /** The ids of the groupings of a query which are approximate, for which count errors are estimated when merging */
+    private static final CompoundName approximateGroupings = CompoundName.from("ApproximateGroupings");
+
     private final InvokerFactoryFactory invokerFactories;
     private final DispatchConfig dispatchConfig;
     private final RpcConnectionPool rpcResourcePool;
     private final SearchCluster searchCluster;
     private final ClusterMonitor<Node> clusterMonitor;
+    private final FillTimeEstimator fillTimes;
     private volatile VolatileItems volatileItems;
 
     private static class VolatileItems {
@@ -106,6 +111,18 @@ public class Dispatcher extends AbstractComponent {
 
     public static QueryProfileType getArgumentType() { return argumentType; }
 
+    /** Sets the ids of the groupings of the given query which are approximate */
+    public static void setApproximateGroupings(Query query, Set<Integer> ids) {
+        query.properties().set(approximateGroupings, ids);
+    }
+
+    /** Returns the ids of the groupings of the given query which are approximate */
+    @SuppressWarnings("unchecked")
+    public static Set<Integer> getApproximateGroupings(Query query) {
+        Object ids = query.properties().get(approximateGroupings);
+        return ids instanceof Set ? (Set<Integer>) ids : Set.of();
+    }
+
     interface InvokerFactoryFactory {
         InvokerFactory create(RpcConnectionPool rpcConnectionPool, SearchGroups searchGroups, DispatchConfig dispatchConfig);
     }
@@ -137,6 +154,7 @@ public class Dispatcher extends AbstractComponent {
         this.searchCluster = searchCluster;
         this.invokerFactories = invokerFactories;
         this.clusterMonitor = clusterMonitor;
+        this.fillTimes = new FillTimeEstimator(dispatchConfig.maxFillTimeReserve());
         this.volatileItems = update();
         searchCluster.addMonitoring(clusterMonitor);
     }
@@ -256,9 +274,12 @@ public class Dispatcher extends AbstractComponent {
         }
     }
 
-    public FillInvoker getFillInvoker(Result result, VespaBackend searcher) {
+    public FillInvoker getFillInvoker(Result result, VespaBackend searcher, String summaryClass) {
         try (var items = volatileItems()) { // Take a snapshot, and release it when we're done.
-            return items.register(items.get().invokerFactory.createFillInvoker(searcher, result));
+            FillInvoker invoker = items.get().invokerFactory.createFillInvoker(searcher, result);
+            String schema = schemaOf(result.getQuery(), searcher);
+            invoker.teardown((completed, time) -> fillTimes.record(schema, summaryClass, time.duration(), completed));
+            return items.register(invoker);
         }
     }
 
@@ -272,10 +293,25 @@ public class Dispatcher extends AbstractComponent {
                 query.setHits(0);
                 query.setOffset(0);
             }
+            reserveFillTime(invoker, query, searcher);
             return items.register(invoker);
         }
     }
 
+    /** Shortens the search of queries which will be filled by the time recent fills of the same kind have taken */
+    private void reserveFillTime(SearchInvoker invoker, Query query, VespaBackend searcher) {
+        if (searcher == null || query.getHits() == 0) return;
+        long reserve = fillTimes.reserve(schemaOf(query, searcher), query.getPresentation().getSummary(), query.getTimeLeft());
+        if (reserve <= 0) return;
+        invoker.reserveFillTime(reserve);
+        query.trace(false, 3, "Reserving ", reserve, " ms of the time left for filling summaries");
+    }
+
+    private static String schemaOf(Query query, VespaBackend searcher) {
+        DocumentDatabase documentDb = searcher == null ? null : searcher.getDocumentDatabase(query);
+        return documentDb == null ? null : documentDb.schema().name();
+    }
+
     /** Builds an invoker based on searchpath */
     private static Optional<SearchInvoker> getSearchPathInvoker(Query query, VespaBackend searcher, SearchGroups cluster,
                                                                 InvokerFactory invokerFactory, int maxHitsPerNode) {
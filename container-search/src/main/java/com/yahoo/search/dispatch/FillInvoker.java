@@ -3,6 +3,9 @@ package com.yahoo.search.dispatch;
 
 import com.yahoo.search.Result;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * FillInvoker encapsulates an allocated connection for running a document summary retrieval.
  * The invocation object can be stateful and should not be reused.
@@ -17,6 +20,16 @@ public abstract class FillInvoker extends CloseableInvoker {
         getFillResults(result, summaryClass);
     }
 
+    /**
+     * Retrieves document summaries for the unfilled hits in the given {@link Result} without blocking the
+     * calling thread, if supported by this. The responses are processed and the returned future completed
+     * in the given executor when the hits are filled. This default implementation fills synchronously.
+     */
+    public CompletableFuture<Void> fillAsync(Result result, String summaryClass, Executor executor) {
+        fill(result, summaryClass);
+        return CompletableFuture.completedFuture(null);
+    }
+
     protected abstract void getFillResults(Result result, String summaryClass);
 
     protected abstract void sendFillRequest(Result result, String summaryClass);
@@ -0,0 +1,89 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learns how long filling summaries takes for each schema and summary class from recent fills, such that searches
+ * can leave that time to the fill which follows them instead of using all the time left of the query.
+ *
+ * The estimate is a moving average of the fill times plus twice their moving mean deviation. Fills which did not
+ * complete count as taking twice the current average if that is longer, as they would have needed more time than
+ * they had.
+ *
+ * This class is multithread safe.
+ */
+final class FillTimeEstimator {
+
+    /** The weight of each new fill time in the moving averages */
+    private static final double sampleWeight = 0.05;
+
+    /** The number of fills to observe before reserving time for them */
+    static final int minSamples = 10;
+
+    private final double maxReservedShare;
+    private final Map<Key, Estimate> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an estimator
+     *
+     * @param maxReservedShare the largest share of the time left of a query to reserve for the fill
+     */
+    FillTimeEstimator(double maxReservedShare) {
+        this.maxReservedShare = Math.max(0, Math.min(1, maxReservedShare));
+    }
+
+    /**
+     * Records the time taken by a fill
+     *
+     * @param schema the schema of the filled hits, or null if not known
+     * @param summaryClass the summary class filled, or null for the default
+     * @param duration the time the fill took
+     * @param completed whether the fill completed within the time of the query
+     */
+    void record(String schema, String summaryClass, Duration duration, boolean completed) {
+        if (maxReservedShare == 0) return;
+        estimates.computeIfAbsent(new Key(schema, summaryClass), __ -> new Estimate())
+                 .add(duration.toNanos() / 1_000_000.0, completed);
+    }
+
+    /**
+     * Returns the number of milliseconds to reserve for filling the given summary class of the given schema,
+     * out of the given time left of a query. This is 0 until enough fills of this summary class are recorded.
+     */
+    long reserve(String schema, String summaryClass, long timeLeftMillis) {
+        if (timeLeftMillis <= 0) return 0;
+        Estimate estimate = estimates.get(new Key(schema, summaryClass));
+        if (estimate == null) return 0;
+        return Math.min(estimate.millis(), (long) (timeLeftMillis * maxReservedShare));
+    }
+
+    private record Key(String schema, String summaryClass) {}
+
+    private static class Estimate {
+
+        private long samples = 0;
+        private double average = 0;
+        private double deviation = 0;
+
+        synchronized void add(double millis, boolean completed) {
+            if ( ! completed)
+                millis = Math.max(millis, 2 * average);
+            if (samples++ == 0) {
+                average = millis;
+            } else {
+                deviation += sampleWeight * (Math.abs(millis - average) - deviation);
+                average += sampleWeight * (millis - average);
+            }
+        }
+
+        synchronized long millis() {
+            if (samples < minSamples) return 0;
+            return (long) Math.ceil(average + 2 * deviation);
+        }
+
+    }
+
+}
@@ -4,25 +4,38 @@ package com.yahoo.search.dispatch;
 import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.GroupingListHit;
 import com.yahoo.search.Query;
+import com.yahoo.searchlib.aggregation.Group;
 import com.yahoo.searchlib.aggregation.Grouping;
 import com.yahoo.searchlib.aggregation.Hit;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Incrementally merges underlying {@link Grouping} instances from {@link GroupingListHit} hits.
+ * Merges underlying {@link Grouping} instances from {@link GroupingListHit} hits.
+ * The results of each grouping are merged pairwise as a tree, such that results are merged with results
+ * of similar size rather than each into an ever larger one, and the halves of the tree are merged
+ * in parallel on the common fork-join pool when there are many groups to merge.
+ * For approximate groupings, the number of documents which may be missing from each group
+ * is estimated by a {@link CountErrorEstimator}.
  *
  * @author bjorncs
  */
 class GroupingResultAggregator {
     private static final Logger log = Logger.getLogger(GroupingResultAggregator.class.getName());
 
-    private final Map<Integer, Grouping> groupings = new LinkedHashMap<>();
+    /** The min total number of top level groups in a range of results to merge in parallel with other results */
+    static final int minParallelGroups = 1000;
+
+    private final Map<Integer, List<Grouping>> groupings = new LinkedHashMap<>();
     private DocumentDatabase documentDatabase = null;
     private Query query = null;
     private int groupingHitsMerged = 0;
@@ -35,10 +48,7 @@ class GroupingResultAggregator {
                 String.format("Merging hit #%d having %d groupings",
                         groupingHitsMerged, result.getGroupingList().size()));
         for (Grouping grouping : result.getGroupingList()) {
-            groupings.merge(grouping.getId(), grouping, (existingGrouping, newGrouping) -> {
-                existingGrouping.merge(newGrouping);
-                return existingGrouping;
-            });
+            groupings.computeIfAbsent(grouping.getId(), __ -> new ArrayList<>()).add(grouping);
         }
     }
 
@@ -47,8 +57,20 @@ class GroupingResultAggregator {
         log.log(Level.FINE, () ->
                 String.format("Creating aggregated hit containing %d groupings from %d hits with docsums '%s' and %s",
                         groupings.size(), groupingHitsMerged, documentDatabase.getDocsumDefinitionSet(), query));
-        GroupingListHit groupingHit = new GroupingListHit(List.copyOf(groupings.values()), documentDatabase, query);
+        Set<Integer> approximate = query != null ? Dispatcher.getApproximateGroupings(query) : Set.of();
+        Map<Group, Long> countErrors = new IdentityHashMap<>();
+        List<Grouping> merged = new ArrayList<>(groupings.size());
+        for (List<Grouping> results : groupings.values()) {
+            CountErrorEstimator estimator = approximate.contains(results.get(0).getId()) && results.size() > 1
+                                            ? new CountErrorEstimator(results) : null;
+            Grouping grouping = merge(results);
+            if (estimator != null)
+                estimator.addErrors(grouping, countErrors);
+            merged.add(grouping);
+        }
+        GroupingListHit groupingHit = new GroupingListHit(merged, documentDatabase, query);
         groupingHit.setQuery(query);
+        groupingHit.setCountErrors(countErrors);
         groupingHit.getGroupingList().forEach(g -> {
             g.select(o -> o instanceof Hit, o -> ((Hit)o).setContext(groupingHit));
             g.postMerge();
@@ -56,4 +78,51 @@ class GroupingResultAggregator {
         return Optional.of(groupingHit);
     }
 
+    /** Merges the given results of a grouping into the first of them, and returns it */
+    static Grouping merge(List<Grouping> results) {
+        int[] groupsBefore = new int[results.size() + 1];
+        for (int i = 0; i < results.size(); i++)
+            groupsBefore[i + 1] = groupsBefore[i] + results.get(i).getRoot().getNumChildren();
+        return new MergeTask(results, groupsBefore, 0, results.size()).compute();
+    }
+
+    /**
+     * Merges a range of results by merging each half and then merging the two halves.
+     * The second half is forked to the common pool if it is large enough.
+     */
+    private static class MergeTask extends RecursiveTask<Grouping> {
+
+        private final List<Grouping> results;
+        private final int[] groupsBefore;
+        private final int from, to;
+
+        MergeTask(List<Grouping> results, int[] groupsBefore, int from, int to) {
+            this.results = results;
+            this.groupsBefore = groupsBefore;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Grouping compute() {
+            if (to - from == 1) return results.get(from);
+
+            int middle = (from + to) >>> 1;
+            MergeTask first = new MergeTask(results, groupsBefore, from, middle);
+            MergeTask second = new MergeTask(results, groupsBefore, middle, to);
+            Grouping merged;
+            if (to - middle > 1 && groupsBefore[to] - groupsBefore[middle] >= minParallelGroups) {
+                second.fork();
+                merged = first.compute();
+                merged.merge(second.join());
+            }
+            else {
+                merged = first.compute();
+                merged.merge(second.compute());
+            }
+            return merged;
+        }
+
+    }
+
 }
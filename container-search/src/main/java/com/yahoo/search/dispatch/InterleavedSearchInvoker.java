@@ -19,6 +19,8 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -28,6 +30,7 @@ import java.util.stream.Collectors;
  * InterleavedSearchInvoker uses multiple {@link SearchInvoker} objects to interface with content
  * nodes in parallel. Operationally it first sends requests to all contained invokers and then
  * collects the results. The user of this class is responsible for merging the results if needed.
+ * When searching asynchronously, the results are instead merged by tasks run in the given executor as they arrive.
  *
  * @author ollivir
  */
@@ -46,6 +49,26 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     private Query query;
 
     private TimeoutHandler timeoutHandler;
+
+    private InvokerResult result;
+    private List<LeanHit> merged;
+    private GroupingResultAggregator groupingResultAggregator;
+
+    /** The list produced by the last merge, which can be reused by the merge after the next, or null */
+    private List<LeanHit> lastMergeList = null;
+    /** A list to merge into which is no longer in use, or null */
+    private List<LeanHit> spareMergeList = null;
+
+    /** The future of an asynchronous search, or null if searching synchronously */
+    private volatile CompletableFuture<Result> asyncResult = null;
+    /** The executor running the merging of an asynchronous search */
+    private Executor asyncExecutor = null;
+    private boolean asyncCompleted = false;
+    /** The time at which the current timeout check of an asynchronous search is scheduled, or 0 if none */
+    private long asyncDeadline = 0;
+    /** Cancels the current timeout check of an asynchronous search */
+    private Runnable cancelAsyncDeadline = () -> { };
+
     public InterleavedSearchInvoker(Timer timer, Collection<SearchInvoker> invokers,
                                     TopKEstimator hitEstimator,
                                     DispatchConfig dispatchConfig,
@@ -72,8 +95,8 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
 
     private TimeoutHandler createTimeoutHandler(DispatchConfig config, int askedNodes, Query query) {
         return (config.minSearchCoverage() < 100.0D)
-                ? new AdaptiveTimeoutHandler(timer, config, askedNodes, query)
-                : new SimpleTimeoutHandler(query);
+                ? new AdaptiveTimeoutHandler(timer, config, askedNodes, query, fillTimeReserve())
+                : new SimpleTimeoutHandler(query, fillTimeReserve());
     }
 
     /**
@@ -84,7 +107,10 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     @Override
     protected Object sendSearchRequest(Query query, Object unusedContext) throws IOException {
         this.query = query;
-        invokers.forEach(invoker -> invoker.setMonitor(this));
+        for (SearchInvoker invoker : invokers) {
+            invoker.setMonitor(this);
+            invoker.reserveFillTime(fillTimeReserve());
+        }
 
         int originalHits = query.getHits();
         int originalOffset = query.getOffset();
@@ -107,32 +133,111 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
 
         query.setHits(originalHits);
         query.setOffset(originalOffset);
+        result = new InvokerResult(query, query.getHits());
+        merged = List.of();
+        groupingResultAggregator = new GroupingResultAggregator();
         return null;
     }
 
     @Override
     protected InvokerResult getSearchResult() throws IOException {
-        InvokerResult result = new InvokerResult(query, query.getHits());
-        List<LeanHit> merged = List.of();
-        long nextTimeout = query.getTimeLeft();
-        var groupingResultAggregator = new GroupingResultAggregator();
+        long nextTimeout = searchTimeLeft(query);
         try {
             while (!invokers.isEmpty() && nextTimeout >= 0) {
                 SearchInvoker invoker = availableForProcessing.poll(nextTimeout, TimeUnit.MILLISECONDS);
                 if (invoker == null) {
-                    log.fine(() -> "Search timed out with " + coverageAggregator.getAskedNodes() + " requests made, " +
-                            coverageAggregator.getAnsweredNodes() + " responses received");
+                    logTimeout();
                     break;
                 } else {
-                    InvokerResult toMerge = invoker.getSearchResult();
-                    merged = mergeResult(result.getResult(), toMerge, merged, groupingResultAggregator);
-                    ejectInvoker(invoker);
+                    merge(invoker);
                 }
                 nextTimeout = timeoutHandler.nextTimeoutMS(coverageAggregator.getAnsweredNodes());
             }
         } catch (InterruptedException e) {
             throw new RuntimeException("Interrupted while waiting for search results", e);
         }
+        return completeResult();
+    }
+
+    /**
+     * Sends the query to all contained invokers, and returns a future which is completed in the given executor
+     * when the last response is merged, or when the timeout handler gives up waiting for more responses.
+     * Responses are merged in the executor, not by the threads delivering them.
+     */
+    @Override
+    public CompletableFuture<Result> searchAsync(Query query, Executor executor) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        try {
+            synchronized (this) {
+                sendSearchRequest(query, null);
+                asyncExecutor = executor;
+                asyncResult = future;
+            }
+            mergeAvailable(false);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Merges the responses which are available, and completes the asynchronous search if all responses are merged
+     * or we should not wait for more. The future is completed outside the lock, as that runs its dependent stages.
+     *
+     * @param deadlineCheck whether this is called by the timer scheduled at the current deadline
+     */
+    private void mergeAvailable(boolean deadlineCheck) {
+        CompletableFuture<Result> future;
+        InvokerResult completed = null;
+        Exception failure = null;
+        synchronized (this) {
+            future = asyncResult;
+            if (future == null || asyncCompleted) return;
+            try {
+                for (SearchInvoker invoker; (invoker = availableForProcessing.poll()) != null; )
+                    merge(invoker);
+                if (invokers.isEmpty()) {
+                    completed = completeResult();
+                } else {
+                    long nextTimeout = timeoutHandler.nextTimeoutMS(coverageAggregator.getAnsweredNodes());
+                    long now = timer.milliTime();
+                    if (nextTimeout <= 0 || (deadlineCheck && now >= asyncDeadline)) {
+                        logTimeout();
+                        completed = completeResult();
+                    } else if (deadlineCheck || asyncDeadline == 0 || now + nextTimeout < asyncDeadline) {
+                        cancelAsyncDeadline.run();
+                        asyncDeadline = now + nextTimeout;
+                        cancelAsyncDeadline = schedule(nextTimeout, asyncExecutor, () -> mergeAvailable(true));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            asyncCompleted = completed != null || failure != null;
+            if (asyncCompleted)
+                cancelAsyncDeadline.run();
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else if (completed != null) {
+            setFinalStatus(completed.getResult().hits().getError() == null);
+            completed.complete();
+            future.complete(completed.getResult());
+        }
+    }
+
+    private void merge(SearchInvoker invoker) throws IOException {
+        InvokerResult toMerge = invoker.getSearchResult();
+        merged = mergeResult(result.getResult(), toMerge, merged, groupingResultAggregator);
+        ejectInvoker(invoker);
+    }
+
+    private void logTimeout() {
+        log.fine(() -> "Search timed out with " + coverageAggregator.getAskedNodes() + " requests made, " +
+                       coverageAggregator.getAnsweredNodes() + " responses received");
+    }
+
+    private InvokerResult completeResult() {
         groupingResultAggregator.toAggregatedHit().ifPresent(h -> result.getResult().hits().add(h));
 
         insertNetworkErrors(result.getResult());
@@ -199,7 +304,8 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         }
 
         int needed = query.getOffset() + query.getHits();
-        List<LeanHit> merged = new ArrayList<>(needed);
+        List<LeanHit> merged = spareMergeList != null ? spareMergeList : new ArrayList<>(needed);
+        spareMergeList = null;
         int indexCurrent = 0;
         int indexPartial = 0;
         while (indexCurrent < current.size() && indexPartial < partial.size() && merged.size() < needed) {
@@ -221,6 +327,11 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         }
         appendRemainingIfNeeded(merged, needed, current, indexCurrent);
         appendRemainingIfNeeded(merged, needed, partial, indexPartial);
+        if (current == lastMergeList) { // merge into the lists we allocated alternately
+            current.clear();
+            spareMergeList = current;
+        }
+        lastMergeList = merged;
         return merged;
     }
 
@@ -248,6 +359,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         if (availableForProcessing != null) {
             availableForProcessing.add(from);
         }
+        if (asyncResult != null) {
+            execute(asyncExecutor, () -> mergeAvailable(false));
+        }
     }
 
     @Override
@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
@@ -33,6 +34,8 @@ public class LoadBalancer {
 
     private final Map<Integer, GroupStatus> scoreboard;
     private final GroupScheduler scheduler;
+    // Taken by every query, by threads which may be virtual, so this is not a monitor
+    private final ReentrantLock lock = new ReentrantLock();
 
     public enum Policy { ROUNDROBIN, LATENCY_AMORTIZED_OVER_REQUESTS, LATENCY_AMORTIZED_OVER_TIME, BEST_OF_RANDOM_2}
 
@@ -60,7 +63,8 @@ public class LoadBalancer {
      * @return the node group to target, or <i>empty</i> if the internal dispatch logic cannot be used
      */
     public Optional<Group> takeGroup(Set<Integer> rejectedGroups) {
-        synchronized (this) {
+        lock.lock();
+        try {
             Optional<GroupStatus> best = scheduler.takeNextGroup(rejectedGroups);
 
             if (best.isPresent()) {
@@ -72,6 +76,8 @@ public class LoadBalancer {
             } else {
                 return Optional.empty();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -83,9 +89,12 @@ public class LoadBalancer {
      * @param searchTime query execution time, used for adaptive load balancing
      */
     public void releaseGroup(Group group, boolean success, RequestDuration searchTime) {
-        synchronized (this) {
+        lock.lock();
+        try {
             GroupStatus sched = scoreboard.get(group.id());
             sched.release(success, searchTime);
+        } finally {
+            lock.unlock();
         }
     }
 
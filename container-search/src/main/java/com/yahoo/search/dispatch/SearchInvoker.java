@@ -10,6 +10,8 @@ import com.yahoo.search.searchchain.Execution;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * SearchInvoker encapsulates an allocated connection for running a single search query.
@@ -21,6 +23,7 @@ public abstract class SearchInvoker extends CloseableInvoker {
 
     private final Optional<Node> node;
     private ResponseMonitor<SearchInvoker> monitor;
+    private long fillTimeReserve = 0;
 
     protected SearchInvoker(Optional<Node> node) {
         this.node = node;
@@ -39,6 +42,39 @@ public abstract class SearchInvoker extends CloseableInvoker {
         return result.getResult();
     }
 
+    /**
+     * Retrieve the hits for the given {@link Query} without blocking the calling thread.
+     * The response is processed and the returned future completed in the given executor, or with a timeout
+     * error if no response is delivered within the {@link #searchTimeLeft time left for searching}.
+     * This requires that the response is signalled by {@link #responseAvailable()};
+     * invokers which do not do that must override this.
+     */
+    public CompletableFuture<Result> searchAsync(Query query, Executor executor) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        setMonitor(__ -> execute(executor, () -> complete(future)));
+        try {
+            sendSearchRequest(query, null);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        Result timedOut = errorResult(query, ErrorMessage.createTimeout("Timed out waiting for search response")).getResult();
+        Runnable cancelTimeout = schedule(Math.max(0, searchTimeLeft(query)), executor, () -> future.complete(timedOut));
+        return future.whenComplete((__, ___) -> cancelTimeout.run());
+    }
+
+    private void complete(CompletableFuture<Result> future) {
+        if (future.isDone()) return;
+        try {
+            InvokerResult result = getSearchResult();
+            setFinalStatus(result.getResult().hits().getError() == null);
+            result.complete();
+            future.complete(result.getResult());
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
     /**
      *
      * @param query the query to send
@@ -60,6 +96,18 @@ public abstract class SearchInvoker extends CloseableInvoker {
         }
     }
 
+    /** Sets the number of milliseconds of the time left of the query which should be left for filling the result */
+    void reserveFillTime(long millis) {
+        this.fillTimeReserve = millis;
+    }
+
+    long fillTimeReserve() { return fillTimeReserve; }
+
+    /** Returns the number of milliseconds left to search in, which is the time left of the query minus the fill reserve */
+    protected long searchTimeLeft(Query query) {
+        return query.getTimeLeft() - fillTimeReserve;
+    }
+
     protected Optional<Integer> distributionKey() {
         return node.map(Node::key);
     }
@@ -6,18 +6,20 @@ import com.yahoo.search.Query;
 import static com.yahoo.container.handler.Coverage.DEGRADED_BY_TIMEOUT;
 
 /**
- * Computes the timeout based solely on the query timeout
+ * Computes the timeout based solely on the query timeout, minus the time reserved for filling
  *
  * @author baldersheim
  */
 public class SimpleTimeoutHandler implements TimeoutHandler {
     private final Query query;
-    SimpleTimeoutHandler(Query query) {
+    private final long fillTimeReserve;
+    SimpleTimeoutHandler(Query query, long fillTimeReserve) {
         this.query = query;
+        this.fillTimeReserve = fillTimeReserve;
     }
     @Override
     public long nextTimeoutMS(int answeredNodes) {
-            return query.getTimeLeft();
+            return query.getTimeLeft() - fillTimeReserve;
     }
 
     @Override
@@ -13,6 +13,8 @@ import com.yahoo.jrt.Target;
 import com.yahoo.jrt.Transport;
 import com.yahoo.jrt.Values;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * A client which uses rpc request to search nodes to implement the Client API.
  *
@@ -23,7 +25,7 @@ public class RpcClient implements Client {
     private final Supervisor supervisor;
 
     public RpcClient(String name, int transportThreads) {
-        supervisor = new Supervisor(new Transport(name, transportThreads));
+        supervisor = new Supervisor(new Transport(name, transportThreads)).setPooledBuffers(true);
     }
 
     @Override
@@ -45,7 +47,8 @@ public class RpcClient implements Client {
         private final String description;
 
         // The current shared connection. This will be recycled when it becomes invalid.
-        // All access to this must be synchronized
+        // All access to this must hold the lock, which is not a monitor as that would pin virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
         private Target target;
 
         public RpcNodeConnection(String hostname, int port, Supervisor supervisor) {
@@ -76,12 +79,17 @@ public class RpcClient implements Client {
 
         private void invokeAsync(Request req, double timeout, RequestWaiter waiter) {
             // TODO: Consider replacing this by a watcher on the target
-            synchronized(this) { // ensure we have exactly 1 valid connection across threads
+            Target current;
+            lock.lock();
+            try { // ensure we have exactly 1 valid connection across threads
                 if (! target.isValid()) {
                     target = supervisor.connect(new Spec(hostname, port));
                 }
+                current = target;
+            } finally {
+                lock.unlock();
             }
-            target.invokeAsync(req, timeout, waiter);
+            current.invokeAsync(req, timeout, waiter);
         }
 
         @Override
@@ -24,6 +24,8 @@ import com.yahoo.slime.BinaryView;
 
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -58,6 +60,9 @@ public class RpcProtobufFillInvoker extends FillInvoker {
     /** The number of responses we should receive (and process) before this is complete */
     private int outstandingResponses;
 
+    /** The state of an asynchronous fill, or null if filling synchronously */
+    private volatile AsyncFill asyncFill = null;
+
     RpcProtobufFillInvoker(RpcConnectionPool resourcePool, CompressPayload compressor, DocumentDatabase documentDb,
                            String serverId, DecodePolicy decodePolicy, boolean summaryNeedsQuery) {
         this.documentDb = documentDb;
@@ -99,19 +104,86 @@ public class RpcProtobufFillInvoker extends FillInvoker {
             processResponses(result, summaryClass);
             result.hits().setSorted(false);
             result.analyzeHits();
+            setFinalStatus(true);
         } catch (TimeoutException e) {
             result.hits().addError(ErrorMessage.createTimeout("Summary data is incomplete: " + e.getMessage()));
         }
     }
 
+    /** Fills the result by processing the responses in the given executor as they arrive */
+    @Override
+    public CompletableFuture<Void> fillAsync(Result result, String summaryClass, Executor executor) {
+        AsyncFill fill = new AsyncFill(result, summaryClass, executor);
+        synchronized (this) {
+            sendFillRequest(result, summaryClass);
+            asyncFill = fill;
+        }
+        long timeLeftMs = result.getQuery().getTimeLeft();
+        if (timeLeftMs > 0) {
+            Runnable cancelTimeout = schedule(timeLeftMs, executor, () -> processAvailable(true));
+            fill.future.whenComplete((__, ___) -> cancelTimeout.run());
+        }
+        processAvailable(timeLeftMs <= 0);
+        return fill.future;
+    }
+
+    /**
+     * Processes the responses which are available, and completes the asynchronous fill if all are processed,
+     * or if this is timed out. The future is completed outside the lock, as that runs its dependent stages.
+     */
+    private void processAvailable(boolean timedOut) {
+        AsyncFill fill = asyncFill;
+        synchronized (this) {
+            if (fill == null || fill.completed) return;
+            try {
+                while (outstandingResponses > 0) {
+                    var responseAndHits = responses.poll();
+                    if (responseAndHits == null) break;
+                    var response = responseAndHits.getFirst();
+                    if (response.timeout()) {
+                        throwTimeout();
+                    }
+                    fill.skippedHits += processResponse(fill.result, response, responseAndHits.getSecond(), fill.summaryClass);
+                    outstandingResponses--;
+                }
+                if (outstandingResponses > 0) {
+                    if ( ! timedOut) return;
+                    throwTimeout();
+                }
+                if (fill.skippedHits != 0) {
+                    fill.result.hits().addError(ErrorMessage.createEmptyDocsums("Missing hit summary data for summary " +
+                                                                                fill.summaryClass + " for " + fill.skippedHits + " hits"));
+                }
+                fill.result.hits().setSorted(false);
+                fill.result.analyzeHits();
+                setFinalStatus(true);
+            } catch (TimeoutException e) {
+                fill.result.hits().addError(ErrorMessage.createTimeout("Summary data is incomplete: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                fill.completed = true;
+                fill.future.completeExceptionally(e);
+                return;
+            }
+            fill.completed = true;
+        }
+        fill.future.complete(null);
+    }
+
     @Override
     protected void release() {
         // nothing to release
     }
 
-    /** Called by a thread belonging to the client when a valid response becomes available */
+    /**
+     * Called by a thread belonging to the client when a valid response becomes available.
+     * When filling asynchronously, the response is processed in the executor of the fill, not in this thread.
+     */
     public void receive(Client.ResponseOrError<ProtobufResponse> response, List<FastHit> hitsContext) {
         responses.add(new Pair<>(response, hitsContext));
+        AsyncFill fill = asyncFill;
+        if (fill != null) {
+            execute(fill.executor, () -> processAvailable(false));
+        }
     }
 
     /** Return a map of hits by their search node (partition) id */
@@ -242,4 +314,21 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         throw new TimeoutException("Timed out waiting for summary data. " + outstandingResponses + " responses outstanding.");
     }
 
+    private static class AsyncFill {
+
+        private final Result result;
+        private final String summaryClass;
+        private final Executor executor;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int skippedHits = 0;
+        private boolean completed = false;
+
+        AsyncFill(Result result, String summaryClass, Executor executor) {
+            this.result = result;
+            this.summaryClass = summaryClass;
+            this.executor = executor;
+        }
+
+    }
+
 }
@@ -56,7 +56,7 @@ public class RpcSearchInvoker extends SearchInvoker implements Client.ResponseRe
         }
         query.trace(false, 5, "Sending search request with jrt/protobuf to node with dist key ", node.key());
 
-        var timeout = TimeoutHelper.calculateTimeout(query);
+        var timeout = TimeoutHelper.calculateTimeout(searchTimeLeft(query));
         if (timeout.timedOut()) {
             // Need to produce an error response her in case of JVM system clock being adjusted
             // Timeout mechanism relies on System.currentTimeMillis(), not System.nanoTime() :(
@@ -86,7 +86,7 @@ public class RpcSearchInvoker extends SearchInvoker implements Client.ResponseRe
 
     @Override
     protected InvokerResult getSearchResult() throws IOException {
-        long timeLeftMs = query.getTimeLeft();
+        long timeLeftMs = searchTimeLeft(query);
         if (timeLeftMs <= 0) {
             return errorResult(query, ErrorMessage.createTimeout("Timeout while waiting for " + getName()));
         }
@@ -11,7 +11,10 @@ class TimeoutHelper {
     private TimeoutHelper() {}
 
     static Timeout calculateTimeout(Query q) {
-        long timeLeftMillis = q.getTimeLeft();
+        return calculateTimeout(q.getTimeLeft());
+    }
+
+    static Timeout calculateTimeout(long timeLeftMillis) {
         if (timeLeftMillis <= 2) return new Timeout(0d, 0d);
         // The old timeout logic subtracted 3ms to timeout for client timeout.
         // 3ms equalled to 0.6% of the default query timeout (500ms).
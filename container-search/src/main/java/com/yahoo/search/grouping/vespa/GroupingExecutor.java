@@ -11,21 +11,31 @@ import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
+import com.yahoo.search.dispatch.Dispatcher;
 import com.yahoo.search.grouping.GroupingRequest;
 import com.yahoo.search.grouping.GroupingValidator;
+import com.yahoo.search.grouping.request.GroupingExpression;
+import com.yahoo.search.grouping.request.GroupingOperation;
+import com.yahoo.search.grouping.request.SummaryValue;
 import com.yahoo.search.grouping.result.Group;
 import com.yahoo.search.grouping.result.RootGroup;
+import com.yahoo.search.result.Coverage;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.search.searchchain.Execution;
 import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
 
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -45,12 +55,29 @@ public class GroupingExecutor extends Searcher {
     public final static String COMPONENT_NAME = "GroupingExecutor";
     private final static String GROUPING_LIST = "GroupingList";
     private final static CompoundName PROP_GROUPINGLIST = newCompoundName(GROUPING_LIST);
+
+    /**
+     * The name of the field holding the max number of documents which may be missing from the count of each group
+     * in the results of approximate grouping requests, i.e. those having the "approximate" hint.
+     */
+    public final static String COUNT_ERROR_FIELD = "count-error";
+
+    /**
+     * Set this query property to true to cache the results of grouping requests, such that the pages given by
+     * their continuations can be returned without grouping again. Requests outputting summaries are not cached.
+     */
+    public final static CompoundName PARAM_RESULT_CACHE = CompoundName.from("grouping.resultCache");
     private final static Logger log = Logger.getLogger(GroupingExecutor.class.getName());
 
     private static final double DEFAULT_PRECISION_FACTOR = 2.0;
     private static final int DEFAULT_MAX_GROUPS = 10;
     private static final int DEFAULT_MAX_HITS = 10;
     private static final long DEFAULT_GLOBAL_MAX_GROUPS = 10000;
+    private static final int PREFETCH_PAGES = 4;
+
+    private final GroupingResultCache resultCache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY,
+                                                                            GroupingResultCache.DEFAULT_MAX_AGE,
+                                                                            Clock.systemUTC());
 
     /**
      * Constructs a new instance of this searcher without configuration.
@@ -81,20 +108,38 @@ public class GroupingExecutor extends Searcher {
         // Convert requests to Vespa style grouping.
         Map<Integer, Grouping> groupingMap = new HashMap<>();
         List<RequestContext> requestContextList = new LinkedList<>();
+        boolean useResultCache = query.properties().getBoolean(PARAM_RESULT_CACHE, false);
         for (int i = 0; i < query.getSelect().getGrouping().size(); i++)
-            requestContextList.add(convertRequest(query, query.getSelect().getGrouping().get(i), i, groupingMap));
+            requestContextList.add(convertRequest(query, query.getSelect().getGrouping().get(i), i, groupingMap, useResultCache));
 
-        if (groupingMap.isEmpty()) return execution.search(query);
+        boolean anyCached = requestContextList.stream().anyMatch(context -> context.cached != null);
+        if (groupingMap.isEmpty() && ! anyCached) return execution.search(query);
+
+        Set<Integer> approximateGroupings = new HashSet<>();
+        for (RequestContext context : requestContextList) {
+            if (context.approximate)
+                approximateGroupings.addAll(context.idList);
+        }
+        if ( ! approximateGroupings.isEmpty())
+            Dispatcher.setApproximateGroupings(query, approximateGroupings);
 
         // Perform the necessary passes to execute grouping.
-        Result result = performSearch(query, execution, groupingMap);
+        Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors = new IdentityHashMap<>();
+        Result result = groupingMap.isEmpty() ? execution.search(query)
+                                              : performSearch(query, execution, groupingMap, countErrors);
 
         // Convert Vespa style results to hits.
         HitConverter hitConverter = new HitConverter(this);
         for (RequestContext context : requestContextList) {
-            RootGroup group = convertResult(context, groupingMap, hitConverter);
+            RootGroup group = convertResult(context, groupingMap, hitConverter, countErrors);
             result.hits().add(group);
         }
+        if (isComplete(result)) {
+            for (RequestContext context : requestContextList) {
+                if (context.cacheKey != null && context.cached == null)
+                    resultCache.put(context.cacheKey, context.idList.stream().map(groupingMap::get).toList(), countErrors);
+            }
+        }
         return result;
     }
 
@@ -146,9 +191,11 @@ public class GroupingExecutor extends Searcher {
      * @param query the query being executed
      * @param req   the request to convert
      * @param map   the grouping map to write to
+     * @param useResultCache whether to look up the results of the request in the result cache
      * @return the context required to identify the request results
      */
-    private RequestContext convertRequest(Query query, GroupingRequest req, int requestId, Map<Integer, Grouping> map) {
+    private RequestContext convertRequest(Query query, GroupingRequest req, int requestId, Map<Integer, Grouping> map,
+                                          boolean useResultCache) {
         RequestBuilder builder = new RequestBuilder(requestId);
         builder.setRootOperation(req.getRootOperation());
         builder.setDefaultSummaryName(query.getPresentation().getSummary());
@@ -156,12 +203,22 @@ public class GroupingExecutor extends Searcher {
         builder.addContinuations(req.continuations());
         builder.setDefaultMaxGroups(req.defaultMaxGroups().orElse(DEFAULT_MAX_GROUPS));
         builder.setDefaultMaxHits(req.defaultMaxHits().orElse(DEFAULT_MAX_HITS));
-        builder.setGlobalMaxGroups(req.globalMaxGroups().orElse(DEFAULT_GLOBAL_MAX_GROUPS));
+        long globalMaxGroups = req.globalMaxGroups().orElse(DEFAULT_GLOBAL_MAX_GROUPS);
+        builder.setGlobalMaxGroups(globalMaxGroups);
         builder.setDefaultPrecisionFactor(req.defaultPrecisionFactor().orElse(DEFAULT_PRECISION_FACTOR));
         builder.build();
 
-        RequestContext ctx = new RequestContext(req, builder.getTransform());
+        RequestContext ctx = new RequestContext(req, builder.getTransform(), builder.isApproximate());
         List<Grouping> grpList = builder.getRequestList();
+        if (useResultCache && ! grpList.isEmpty() && ! hasSummaries(req.getRootOperation())) {
+            ctx.cacheKey = GroupingResultCache.keyOf(query, grpList);
+            ctx.cached = resultCache.get(ctx.cacheKey, grpList);
+            if (ctx.cached != null) {
+                query.trace("Grouping request " + requestId + " served from the result cache.", 3);
+                return ctx;
+            }
+            prefetch(grpList, ctx.transform, globalMaxGroups);
+        }
         for (Grouping grp : grpList) {
             int grpId = map.size();
             grp.setId(grpId);
@@ -177,14 +234,21 @@ public class GroupingExecutor extends Searcher {
      * @param requestContext the context that identifies the results to convert
      * @param groupingMap    the map of all {@link Grouping} objects available
      * @param hitConverter   the converter to use for {@link Hit} conversion
+     * @param countErrors    the count errors of the groups of approximate groupings
      * @return the corresponding root RootGroup.
      */
     private RootGroup convertResult(RequestContext requestContext, Map<Integer, Grouping> groupingMap,
-                                    HitConverter hitConverter) {
+                                    HitConverter hitConverter, Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors) {
         ResultBuilder builder = new ResultBuilder();
         builder.setHitConverter(hitConverter);
+        if (requestContext.approximate)
+            builder.setCountErrors(requestContext.cached != null ? requestContext.cached.countErrors() : countErrors);
         builder.setTransform(requestContext.transform);
         builder.setRequestId(requestContext.request.getRequestId());
+        if (requestContext.cached != null) {
+            for (Grouping grouping : requestContext.cached.results())
+                builder.addGroupingResult(grouping);
+        }
         for (Integer grpId : requestContext.idList) {
             builder.addGroupingResult(groupingMap.get(grpId));
         }
@@ -200,9 +264,11 @@ public class GroupingExecutor extends Searcher {
      * @param query       the query to execute
      * @param execution   the execution context used to run the queries
      * @param groupingMap the map of grouping requests to perform
+     * @param countErrors the map receiving the count errors of the groups of approximate groupings
      * @return the search result to pass back from this searcher
      */
-    private Result performSearch(Query query, Execution execution, Map<Integer, Grouping> groupingMap) {
+    private Result performSearch(Query query, Execution execution, Map<Integer, Grouping> groupingMap,
+                                 Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors) {
         // Determine how many passes to perform.
         int lastPass = 0;
         for (Grouping grouping : groupingMap.values()) {
@@ -249,7 +315,7 @@ public class GroupingExecutor extends Searcher {
             }
             setGroupingList(query, passList);
             Result passResult = execution.search(query);
-            Map<Integer, Grouping> passGroupingMap = mergeGroupingResults(passResult);
+            Map<Integer, Grouping> passGroupingMap = mergeGroupingResults(passResult, countErrors);
             mergeGroupingMaps(groupingMap, passGroupingMap);
             if (firstPass) {
                 ret = passResult;
@@ -317,13 +383,16 @@ public class GroupingExecutor extends Searcher {
      * content is kept, and all consecutive matching hits are merged into this.
      *
      * @param result the result to traverse
+     * @param countErrors the map receiving the count errors of the grouping hits
      * @return a map of merged grouping objects
      */
-    private Map<Integer, Grouping> mergeGroupingResults(Result result) {
+    private Map<Integer, Grouping> mergeGroupingResults(Result result,
+                                                        Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors) {
         Map<Integer, Grouping> ret = new HashMap<>();
         for (Iterator<Hit> i = result.hits().unorderedIterator(); i.hasNext(); ) {
             Hit hit = i.next();
             if (hit instanceof GroupingListHit) {
+                countErrors.putAll(((GroupingListHit)hit).getCountErrors());
                 for (Grouping grp : ((GroupingListHit)hit).getGroupingList()) {
                     grp.select(
                             o -> o instanceof com.yahoo.searchlib.aggregation.Hit
@@ -345,6 +414,67 @@ public class GroupingExecutor extends Searcher {
         return ret;
     }
 
+    /**
+     * Requests the groups of up to the given number of pages after the requested one at each level, such that the
+     * following pages can be served from the result cache. Fewer pages are prefetched if needed to keep the total
+     * number of groups requested within the global max, if any.
+     */
+    private static void prefetch(List<Grouping> groupings, GroupingTransform transform, long globalMaxGroups) {
+        int pages = PREFETCH_PAGES;
+        if (globalMaxGroups >= 0) {
+            while (pages > 0 && ! fitsWithin(globalMaxGroups, groupings, transform, pages))
+                pages--;
+        }
+        if (pages == 0) return;
+
+        for (Grouping grouping : groupings) {
+            for (GroupingLevel level : grouping.getLevels()) {
+                int max = transform.getMax(level.getGroupPrototype().getTag());
+                if (max <= 0 || level.getMaxGroups() < 0) continue;
+                if (level.getPrecision() >= 0)
+                    level.setPrecision(level.getPrecision() + (long)pages * max);
+                level.setMaxGroups(level.getMaxGroups() + (long)pages * max);
+            }
+        }
+    }
+
+    /** Returns whether the total number of groups returned when prefetching the given pages is at most the given limit */
+    private static boolean fitsWithin(long limit, List<Grouping> groupings, GroupingTransform transform, int pages) {
+        try {
+            long total = 0;
+            for (Grouping grouping : groupings) {
+                long groups = 1;
+                for (GroupingLevel level : grouping.getLevels()) {
+                    int max = transform.getMax(level.getGroupPrototype().getTag());
+                    if (max <= 0 || level.getMaxGroups() < 0) return false; // unbounded
+                    groups = Math.multiplyExact(groups, level.getMaxGroups() + (long)pages * max);
+                    total = Math.addExact(total, groups);
+                    if (total > limit) return false;
+                }
+            }
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasSummaries(GroupingOperation operation) {
+        for (GroupingExpression output : operation.getOutputs()) {
+            if (output instanceof SummaryValue) return true;
+        }
+        for (GroupingOperation child : operation.getChildren()) {
+            if (hasSummaries(child)) return true;
+        }
+        return false;
+    }
+
+    /** Returns whether the given result is complete, such that its grouping results may be cached */
+    private static boolean isComplete(Result result) {
+        if (result.hits().getError() != null) return false;
+        Coverage coverage = result.getCoverage(false);
+        return coverage == null || ! coverage.isDegraded();
+    }
+
     /**
      * Returns the list of {@link Grouping} objects assigned to the given query. If no list has been assigned, this
      * method returns an empty list.
@@ -386,10 +516,14 @@ public class GroupingExecutor extends Searcher {
         final List<Integer> idList = new LinkedList<>();
         final GroupingRequest request;
         final GroupingTransform transform;
+        final boolean approximate;
+        GroupingResultCache.Key cacheKey = null;
+        GroupingResultCache.Entry cached = null;
 
-        RequestContext(GroupingRequest request, GroupingTransform transform) {
+        RequestContext(GroupingRequest request, GroupingTransform transform, boolean approximate) {
             this.request = request;
             this.transform = transform;
+            this.approximate = approximate;
         }
     }
 
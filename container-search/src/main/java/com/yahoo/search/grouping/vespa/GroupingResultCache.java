@@ -0,0 +1,275 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.grouping.vespa;
+
+import com.yahoo.prelude.Freshness;
+import com.yahoo.prelude.Location;
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.Query;
+import com.yahoo.search.query.Model;
+import com.yahoo.search.query.QueryTree;
+import com.yahoo.search.query.Ranking;
+import com.yahoo.search.query.Sorting;
+import com.yahoo.search.query.ranking.GlobalPhase;
+import com.yahoo.search.query.ranking.MatchPhase;
+import com.yahoo.search.query.ranking.Matching;
+import com.yahoo.search.query.ranking.RankProperties;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A cache of the merged results of grouping requests, used by {@link GroupingExecutor} to serve the pages
+ * given by continuations of a grouping result without executing the grouping again.
+ *
+ * Results are keyed on the query model, the ranking, the streaming search selection and the grouping requests
+ * sent to the content nodes, ignoring the number of groups requested at each level. A cached result is used for a request if it has
+ * at least as many groups at each level as requested. As the container does not know when the content
+ * nodes change their indexes, entries expire after a max age.
+ *
+ * The size of the cache is bounded by the estimated memory used by the cached groups, and the least recently
+ * used entries are evicted first.
+ */
+final class GroupingResultCache {
+
+    static final long DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    static final Duration DEFAULT_MAX_AGE = Duration.ofSeconds(30);
+
+    private static final long entryWeight = 512;
+    private static final long groupWeight = 96;
+    private static final long aggregationResultWeight = 64;
+
+    /** The properties selecting the documents searched by streaming search */
+    private static final List<CompoundName> streamingProperties = List.of(CompoundName.from("streaming.userid"),
+                                                                          CompoundName.from("streaming.groupname"),
+                                                                          CompoundName.from("streaming.selection"));
+
+    private final long capacity;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    GroupingResultCache(long capacity, Duration maxAge, Clock clock) {
+        this.capacity = capacity;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the key of the given grouping requests of a query. The key refers to the query, and is copied
+     * if it is used to cache a result.
+     */
+    static Key keyOf(Query query, List<Grouping> requests) {
+        Model model = query.getModel();
+        Ranking ranking = query.getRanking();
+        List<String> streaming = new ArrayList<>(streamingProperties.size());
+        for (CompoundName property : streamingProperties)
+            streaming.add(query.properties().getString(property));
+        return new Key(model.getQueryTree(), model.getSources(), model.getRestrict(), model.getSearchPath(), model.getDocumentDb(),
+                       ranking.getProfile(), ranking.getSorting(), ranking.getLocation(), ranking.getFreshness(),
+                       ranking.getProperties(), ranking.getFeatures().asMap(), ranking.getMatchPhase(), ranking.getMatching(),
+                       ranking.getGlobalPhase(), streaming,
+                       requests.stream().map(GroupingResultCache::withoutMax).toList());
+    }
+
+    /** Returns the cached result of the requests of the given key if it has all the groups requested, or null */
+    synchronized Entry get(Key key, List<Grouping> requests) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.created.plus(maxAge).isBefore(clock.instant())) {
+            remove(key);
+            return null;
+        }
+        return covers(entry.results, requests) ? entry : null;
+    }
+
+    /**
+     * Caches the given results of the requests of the given key, which must not be modified after this.
+     *
+     * @param key the key of the requests the results are for
+     * @param results the merged results of the requests
+     * @param countErrors the count errors of groups in the results, if the requests are approximate
+     */
+    synchronized void put(Key key, List<Grouping> results, Map<Group, Long> countErrors) {
+        Map<Group, Long> entryErrors = new IdentityHashMap<>();
+        long entryWeight = GroupingResultCache.entryWeight;
+        for (Grouping result : results)
+            entryWeight += weightOf(result.getRoot(), countErrors, entryErrors);
+        if (entryWeight > capacity) return;
+
+        remove(key);
+        entries.put(key.copy(),
+                    new Entry(results, entryErrors, entryWeight, clock.instant()));
+        weight += entryWeight;
+        for (Iterator<Entry> i = entries.values().iterator(); weight > capacity && i.hasNext(); ) {
+            weight -= i.next().weight;
+            i.remove();
+        }
+    }
+
+    synchronized int size() { return entries.size(); }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null)
+            weight -= removed.weight;
+    }
+
+    private static long weightOf(Group group, Map<Group, Long> countErrors, Map<Group, Long> entryErrors) {
+        Long countError = countErrors.get(group);
+        if (countError != null)
+            entryErrors.put(group, countError);
+        long weight = groupWeight + aggregationResultWeight * group.getAggregationResults().size();
+        for (Group child : group.getChildren())
+            weight += weightOf(child, countErrors, entryErrors);
+        return weight;
+    }
+
+    private static Grouping withoutMax(Grouping request) {
+        Grouping key = request.clone().setId(0);
+        for (GroupingLevel level : key.getLevels())
+            level.setMaxGroups(-1).setPrecision(-1);
+        return key;
+    }
+
+    private static boolean covers(List<Grouping> results, List<Grouping> requests) {
+        if (results.size() != requests.size()) return false;
+        for (int i = 0; i < results.size(); i++) {
+            List<GroupingLevel> resultLevels = results.get(i).getLevels();
+            List<GroupingLevel> requestLevels = requests.get(i).getLevels();
+            for (int level = 0; level < resultLevels.size(); level++) {
+                if ( ! covers(resultLevels.get(level).getMaxGroups(), requestLevels.get(level).getMaxGroups())) return false;
+                if ( ! covers(resultLevels.get(level).getPrecision(), requestLevels.get(level).getPrecision())) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns whether a result computed with the given limit has everything a request with the given limit needs */
+    private static boolean covers(long resultLimit, long requestLimit) {
+        if (resultLimit < 0) return true; // unlimited
+        return requestLimit >= 0 && requestLimit <= resultLimit;
+    }
+
+    /**
+     * The key of the results of the grouping requests of a query: The parts of the query model and ranking which
+     * may change the grouping results, the streaming search properties selecting the documents to search,
+     * and the requests.
+     */
+    static final class Key {
+
+        private final QueryTree queryTree;
+        private final Set<String> sources;
+        private final Set<String> restrict;
+        private final String searchPath;
+        private final String documentDb;
+        private final String rankProfile;
+        private final Sorting sorting;
+        private final Location location;
+        private final Freshness freshness;
+        private final RankProperties rankProperties;
+        private final Map<String, Object> rankFeatures;
+        private final MatchPhase matchPhase;
+        private final Matching matching;
+        private final GlobalPhase globalPhase;
+        private final List<String> streaming;
+        private final List<Grouping> requests;
+        private final int hashCode;
+
+        private Key(QueryTree queryTree, Set<String> sources, Set<String> restrict, String searchPath, String documentDb,
+                    String rankProfile, Sorting sorting, Location location, Freshness freshness,
+                    RankProperties rankProperties, Map<String, Object> rankFeatures, MatchPhase matchPhase,
+                    Matching matching, GlobalPhase globalPhase, List<String> streaming, List<Grouping> requests) {
+            this.queryTree = queryTree;
+            this.sources = sources;
+            this.restrict = restrict;
+            this.searchPath = searchPath;
+            this.documentDb = documentDb;
+            this.rankProfile = rankProfile;
+            this.sorting = sorting;
+            this.location = location;
+            this.freshness = freshness;
+            this.rankProperties = rankProperties;
+            this.rankFeatures = rankFeatures;
+            this.matchPhase = matchPhase;
+            this.matching = matching;
+            this.globalPhase = globalPhase;
+            this.streaming = streaming;
+            this.requests = requests;
+            this.hashCode = Objects.hash(queryTree, sources, restrict, searchPath, documentDb, rankProfile, sorting, location,
+                                         freshness, rankProperties, rankFeatures, matchPhase, matching, globalPhase,
+                                         streaming, requests);
+        }
+
+        /** Returns a copy of this which does not refer to the query it was created from */
+        private Key copy() {
+            return new Key(queryTree.clone(), Set.copyOf(sources), Set.copyOf(restrict), searchPath, documentDb,
+                           rankProfile, sorting == null ? null : sorting.clone(), location == null ? null : location.clone(),
+                           freshness, rankProperties.clone(), new LinkedHashMap<>(rankFeatures), matchPhase.clone(),
+                           matching.clone(), globalPhase.clone(), streaming, requests);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Key other)) return false;
+            return hashCode == other.hashCode &&
+                   requests.equals(other.requests) &&
+                   streaming.equals(other.streaming) &&
+                   Objects.equals(searchPath, other.searchPath) &&
+                   Objects.equals(documentDb, other.documentDb) &&
+                   sources.equals(other.sources) &&
+                   restrict.equals(other.restrict) &&
+                   rankProfile.equals(other.rankProfile) &&
+                   Objects.equals(sorting, other.sorting) &&
+                   Objects.equals(location, other.location) &&
+                   Objects.equals(freshness, other.freshness) &&
+                   rankProperties.equals(other.rankProperties) &&
+                   rankFeatures.equals(other.rankFeatures) &&
+                   matchPhase.equals(other.matchPhase) &&
+                   matching.equals(other.matching) &&
+                   globalPhase.equals(other.globalPhase) &&
+                   queryTree.equals(other.queryTree);
+        }
+
+        @Override
+        public int hashCode() { return hashCode; }
+
+    }
+
+    /** The cached results of the grouping requests of a key */
+    static final class Entry {
+
+        private final List<Grouping> results;
+        private final Map<Group, Long> countErrors;
+        private final long weight;
+        private final Instant created;
+
+        private Entry(List<Grouping> results, Map<Group, Long> countErrors, long weight, Instant created) {
+            this.results = List.copyOf(results);
+            this.countErrors = countErrors;
+            this.weight = weight;
+            this.created = created;
+        }
+
+        /** Returns the merged results, in the order of the requests */
+        List<Grouping> results() { return results; }
+
+        /** Returns the count errors of groups in the results, which is empty unless the requests are approximate */
+        Map<Group, Long> countErrors() { return countErrors; }
+
+    }
+
+}
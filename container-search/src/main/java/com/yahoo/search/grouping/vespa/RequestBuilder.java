@@ -10,12 +10,15 @@ import com.yahoo.search.grouping.request.GroupingExpression;
 import com.yahoo.search.grouping.request.GroupingOperation;
 import com.yahoo.search.grouping.request.NegFunction;
 import com.yahoo.searchlib.aggregation.AggregationResult;
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
 import com.yahoo.searchlib.aggregation.ExpressionCountAggregationResult;
 import com.yahoo.searchlib.aggregation.Group;
 import com.yahoo.searchlib.aggregation.Grouping;
 import com.yahoo.searchlib.aggregation.GroupingLevel;
 import com.yahoo.searchlib.aggregation.HitsAggregationResult;
+import com.yahoo.searchlib.expression.ConstantNode;
 import com.yahoo.searchlib.expression.ExpressionNode;
+import com.yahoo.searchlib.expression.IntegerResultNode;
 import com.yahoo.searchlib.expression.RangeBucketPreDefFunctionNode;
 
 import java.util.ArrayDeque;
@@ -46,6 +49,7 @@ class RequestBuilder {
     private long globalMaxGroups = -1;
     private long totalGroupsAndSummaries = -1;
     private double defaultPrecisionFactor = -1;
+    private boolean approximate = false;
 
     /**
      * Constructs a new instance of this class.
@@ -102,6 +106,16 @@ class RequestBuilder {
         return transform;
     }
 
+    /**
+     * Returns whether the request is approximate, as set by the "approximate" hint of the root operation.
+     * Approximate requests are executed in a single pass, where each content node returns its top groups
+     * at all levels at once, and each group has a count such that the error of the result can be estimated.
+     * This is set when {@link #build()} is called.
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
     /**
      * Returns the list of grouping objects that were created when {@link #build()} was called.
      *
@@ -123,10 +137,11 @@ class RequestBuilder {
             throw new IllegalStateException();
         }
         root.resolveLevel(1);
+        approximate = root.containsHint("approximate");
 
         Grouping grouping = new Grouping();
         grouping.getRoot().setTag(++tag);
-        grouping.setForceSinglePass(root.getForceSinglePass() || root.containsHint("singlepass"));
+        grouping.setForceSinglePass(root.getForceSinglePass() || root.containsHint("singlepass") || approximate);
         Deque<BuildFrame> stack = new ArrayDeque<>();
         stack.push(new BuildFrame(grouping, new BuildState(), root));
         while (!stack.isEmpty()) {
@@ -145,6 +160,8 @@ class RequestBuilder {
             }
         }
         pruneRequests();
+        if (approximate)
+            addCounts();
         validateGlobalMax();
     }
 
@@ -404,6 +421,23 @@ class RequestBuilder {
         }
     }
 
+    /** Adds an unlabeled count to each group which has no count, for estimating the error of approximate results. */
+    private void addCounts() {
+        for (Grouping request : requestList) {
+            addCount(request.getRoot());
+            for (GroupingLevel level : request.getLevels())
+                addCount(level.getGroupPrototype());
+        }
+    }
+
+    private void addCount(Group group) {
+        for (AggregationResult result : group.getAggregationResults()) {
+            if (result instanceof CountAggregationResult) return;
+        }
+        group.addAggregationResult(new CountAggregationResult().setExpression(new ConstantNode(new IntegerResultNode(0)))
+                                                               .setTag(++tag));
+    }
+
     private void validateGlobalMax() {
         if (globalMaxGroups < 0) return;
 
@@ -65,6 +65,7 @@ class ResultBuilder {
     private GroupListBuilder rootBuilder;
     private HitConverter hitConverter;
     private GroupingTransform transform;
+    private Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors = null;
 
     /**
      * Sets the id of the {@link GroupingRequest} that this builder is creating the result for.
@@ -100,6 +101,19 @@ class ResultBuilder {
         return this;
     }
 
+    /**
+     * Sets the count errors of the groups of approximate groupings, keyed on group identity.
+     * If this is set, each group in the result gets a {@link GroupingExecutor#COUNT_ERROR_FIELD} field,
+     * which is 0 for groups not in the given map.
+     *
+     * @param countErrors the count errors to set
+     * @return this, to allow chaining
+     */
+    public ResultBuilder setCountErrors(Map<com.yahoo.searchlib.aggregation.Group, Long> countErrors) {
+        this.countErrors = countErrors;
+        return this;
+    }
+
     /**
      * Adds a grouping result to this transform. This method will recurse through the given object and retrieve all the
      * information it needs to produce the desired result when calling {@link #build()}.
@@ -152,11 +166,13 @@ class ResultBuilder {
         final ResultId resultId;
         final com.yahoo.searchlib.aggregation.Group group;
         final boolean stable;
+        long countError;
 
         GroupBuilder(ResultId resultId, com.yahoo.searchlib.aggregation.Group group, boolean stable) {
             this.resultId = resultId;
             this.group = group;
             this.stable = stable;
+            this.countError = countErrorOf(group);
         }
 
         Group build(double relevance) {
@@ -175,6 +191,9 @@ class ResultBuilder {
                     }
                 }
             }
+            if (countErrors != null) {
+                group.setField(GroupingExecutor.COUNT_ERROR_FIELD, countError);
+            }
             if (childLists != null) {
                 for (GroupListBuilder child : childLists) {
                     if (child != null) {
@@ -204,6 +223,7 @@ class ResultBuilder {
         }
 
         void merge(com.yahoo.searchlib.aggregation.Group group) {
+            countError = Math.max(countError, countErrorOf(group));
             for (AggregationResult res : group.getAggregationResults()) {
                 int tag = res.getTag() + 1; // Add 1 due to dreaded -1 initialization as default.
                 if (tag >= results.length) {
@@ -216,6 +236,11 @@ class ResultBuilder {
             }
         }
 
+        private long countErrorOf(com.yahoo.searchlib.aggregation.Group execGroup) {
+            if (countErrors == null) return 0;
+            return countErrors.getOrDefault(execGroup, 0L);
+        }
+
         GroupId newGroupId(com.yahoo.searchlib.aggregation.Group execGroup) {
             ResultNode res = execGroup.getId();
             if (res instanceof FloatResultNode) {
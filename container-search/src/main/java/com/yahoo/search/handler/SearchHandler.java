@@ -51,6 +51,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -344,10 +346,11 @@ public class SearchHandler extends LoggingRequestHandler {
             // check and set (instead of set directly) to avoid overwriting stuff from prepareForBreakdownAnalysis()
             execution.context().setDetailedDiagnostics(true);
         }
-        Result result = execution.search(query);
-
-        ensureQuerySet(result, query);
-        execution.fill(result, result.getQuery().getPresentation().getSummary());
+        Result result = await(execution.searchAsync(query).thenCompose(searched -> {
+            ensureQuerySet(searched, query);
+            return execution.fillAsync(searched, searched.getQuery().getPresentation().getSummary())
+                            .thenApply(__ -> searched);
+        }));
 
         traceExecutionTimes(query, result);
         traceVespaVersion(query);
@@ -355,6 +358,17 @@ public class SearchHandler extends LoggingRequestHandler {
         return result;
     }
 
+    /** Waits for the given result, and throws the exception it failed with if any */
+    private static Result await(CompletionStage<Result> result) {
+        try {
+            return result.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
     private void traceRequestAttributes(Query query) {
         int miminumTraceLevel = 7;
         if (query.getTraceLevel() >= 7) {
@@ -9,6 +9,7 @@ import com.yahoo.processing.request.CompoundName;
 import com.yahoo.processing.request.properties.PropertyMap;
 import com.yahoo.protect.Validator;
 import com.yahoo.search.query.Properties;
+import com.yahoo.search.query.profile.compiled.BoundQueryProfile;
 import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
 import com.yahoo.search.query.profile.compiled.DimensionalValue;
 import com.yahoo.search.query.profile.types.ConversionContext;
@@ -38,6 +39,9 @@ public class QueryProfileProperties extends Properties {
     private final ZoneInfo zoneInfo;
     private final Map<String, String> zoneContext;
 
+    /** The profile bound to the dimension values of the last context looked up in, or null if none */
+    private BoundQueryProfile boundProfile = null;
+
     // Note: The priority order is: values has precedence over references
 
     /** Values which has been overridden at runtime, or null if none */
@@ -98,7 +102,7 @@ public class QueryProfileProperties extends Properties {
                 return reference.getSecond().get(name.rest(reference.getFirst().size()), context, substitution); // even if null
         }
 
-        Object value = profile.get(name, context, substitution);
+        Object value = boundProfile(context).get(name, context, substitution);
         if (value != null)
             return value;
         return super.get(name, context, substitution);
@@ -180,7 +184,7 @@ public class QueryProfileProperties extends Properties {
             if (explicitTypeFromField != null)
                 type = explicitTypeFromField;
             else
-                type = profile.getType(name.first(i), context);
+                type = boundProfile(context).getType(name.first(i));
             if (type == null) continue;
 
             String localName = name.get(i);
@@ -239,7 +243,7 @@ public class QueryProfileProperties extends Properties {
         if (context == null) context = Map.of();
 
         Map<String, Object> properties = new HashMap<>();
-        for (var entry : profile.listValues(path, context, substitution).entrySet()) {
+        for (var entry : boundProfile(context).listValues(path, context, substitution).entrySet()) {
             if (references != null && containsNullParentOf(path, references)) continue;
             properties.put(entry.getKey(), entry.getValue());
         }
@@ -297,6 +301,16 @@ public class QueryProfileProperties extends Properties {
         return true;
     }
 
+    /**
+     * Returns the profile of this bound to the dimension values of the given context.
+     * Queries usually look up all values in the same context, so the last binding is reused when it matches.
+     */
+    private BoundQueryProfile boundProfile(Map<String, String> context) {
+        if (boundProfile == null || ! boundProfile.matches(context))
+            boundProfile = profile.bind(context);
+        return boundProfile;
+    }
+
     private Map<String, String> contextWithZoneInfo(Map<String, String> context) {
         if (zoneInfo == ZoneInfo.defaultInfo()) return context;
         if (context == null || context.isEmpty()) return zoneContext;
@@ -359,7 +373,7 @@ public class QueryProfileProperties extends Properties {
 
         CompoundName unaliasedName = name;
         for (int i = 0; i < name.size(); i++) {
-            QueryProfileType type = profile.getType(name.first(i), context);
+            QueryProfileType type = boundProfile(context).getType(name.first(i));
             if (type == null) continue;
             if (type.aliases() == null) continue; // TODO: Make never null
             if (type.aliases().isEmpty()) continue;
@@ -0,0 +1,141 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.processing.request.Properties;
+import com.yahoo.search.query.profile.types.QueryProfileType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compiled query profile bound to particular values of its dimensions, such that its values
+ * are looked up by the index of their key instead of by resolving the matching variant on each lookup.
+ * Each value is resolved when first looked up, so bindings are cheap to create. Bindings which are not kept
+ * for reuse by the profile do not remember resolved values, and resolve them on each lookup instead.
+ * Instances are created by {@link CompiledQueryProfile#bind}.
+ *
+ * This is thread safe.
+ */
+public final class BoundQueryProfile {
+
+    /** Marks values which are not resolved yet, as null is a valid resolved value */
+    private static final Object unresolved = new Object();
+
+    private final CompiledQueryProfile profile;
+
+    /** The values of the dimensions of the profile this is bound to, with null for those which are not set */
+    private final String[] dimensionValues;
+
+    /** The context to resolve variants in, containing only the dimensions which have a value */
+    private final Map<String, String> binding;
+
+    /** The resolved entries of the profile, indexed as in the profile entries, or null if not remembered */
+    private final Object[] entries;
+
+    /** The resolved types of the profile, indexed as in the profile types, or null if not remembered */
+    private final Object[] types;
+
+    BoundQueryProfile(CompiledQueryProfile profile, String[] dimensionValues, boolean remember) {
+        this.profile = profile;
+        this.dimensionValues = dimensionValues;
+        this.binding = new HashMap<>();
+        String[] dimensions = profile.dimensions();
+        for (int i = 0; i < dimensions.length; i++) {
+            if (dimensionValues[i] != null)
+                binding.put(dimensions[i], dimensionValues[i]);
+        }
+        this.entries = remember ? unresolved(profile.getEntries().size()) : null;
+        this.types = remember ? unresolved(profile.getTypes().size()) : null;
+    }
+
+    /** Returns the profile this is a binding of */
+    public CompiledQueryProfile getProfile() { return profile; }
+
+    /** Returns whether the given context has the same values as this for all the dimensions of the profile */
+    public boolean matches(Map<String, String> context) {
+        String[] dimensions = profile.dimensions();
+        for (int i = 0; i < dimensions.length; i++) {
+            if ( ! Objects.equals(dimensionValues[i], context == null ? null : context.get(dimensions[i])))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of the given name in this, or null if none.
+     *
+     * @param name the name of the value to return
+     * @param context the context used to substitute values, which must be matched by this
+     * @param substitution the properties to substitute from, or null to not substitute
+     */
+    public Object get(CompoundName name, Map<String, String> context, Properties substitution) {
+        int index = profile.getEntries().indexOf(name);
+        if (index < 0) return null;
+        ValueWithSource value = resolve(profile.getEntries(), entries, index);
+        if (value == null) return null;
+        return profile.substitute(value.value(), context, substitution);
+    }
+
+    /** Returns the type of the given prefix in this, or null if none */
+    public QueryProfileType getType(CompoundName name) {
+        int index = profile.getTypes().indexOf(name);
+        if (index < 0) return null;
+        return resolve(profile.getTypes(), types, index);
+    }
+
+    /**
+     * Returns all values of this which have the given name prefix, keyed on the rest of their name.
+     * Use the empty name to list all.
+     *
+     * @param prefix the name prefix of the values to return
+     * @param context the context used to substitute values, which must be matched by this
+     * @param substitution the properties to substitute from, or null to not substitute
+     */
+    public Map<String, Object> listValues(CompoundName prefix, Map<String, String> context, Properties substitution) {
+        DimensionalMap<ValueWithSource> profileEntries = profile.getEntries();
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < profileEntries.size(); i++) {
+            CompoundName key = profileEntries.keyAt(i);
+            if ( ! key.hasPrefix(prefix)) continue;
+
+            ValueWithSource valueWithSource = resolve(profileEntries, entries, i);
+            if (valueWithSource == null) continue;
+
+            Object value = valueWithSource.value();
+            if (value == null) continue;
+
+            values.put(key.rest(prefix.size()).toString(), profile.substitute(value, context, substitution));
+        }
+        return values;
+    }
+
+    private static Object[] unresolved(int size) {
+        Object[] values = new Object[size];
+        Arrays.fill(values, unresolved);
+        return values;
+    }
+
+    /**
+     * Returns the value at the given index, resolving it if this is the first lookup.
+     * Concurrent lookups may resolve the same value more than once, which is harmless.
+     */
+    @SuppressWarnings("unchecked")
+    private <VALUE> VALUE resolve(DimensionalMap<VALUE> map, Object[] resolved, int index) {
+        if (resolved == null) return map.valueAt(index).get(binding);
+        Object value = resolved[index];
+        if (value == unresolved) {
+            value = map.valueAt(index).get(binding);
+            resolved[index] = value;
+        }
+        return (VALUE)value;
+    }
+
+    @Override
+    public String toString() {
+        return profile + " bound to " + binding;
+    }
+
+}
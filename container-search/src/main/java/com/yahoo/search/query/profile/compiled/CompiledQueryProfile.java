@@ -9,8 +9,13 @@ import com.yahoo.search.query.profile.QueryProfileProperties;
 import com.yahoo.search.query.profile.SubstituteString;
 import com.yahoo.search.query.profile.types.QueryProfileType;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,6 +28,9 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
 
     private static final Pattern namePattern = Pattern.compile("[$a-zA-Z_/][-$a-zA-Z0-9_/()]*");
 
+    /** The max number of bindings to dimension values to keep */
+    static final int maxBindings = 256;
+
     private final CompiledQueryProfileRegistry registry;
 
     /** The type of this, or null if none */
@@ -40,6 +48,21 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
     /** Values which are not overridable in this. Used as a set. */
     private final DimensionalMap<Object> unoverridables;
 
+    /** The dimensions which the values and types of this vary by */
+    private final String[] dimensions;
+
+    /** The binding of this used when it has no dimensions */
+    private final BoundQueryProfile unbound;
+
+    /** Bindings of this to values of its dimensions, keyed on those values, least recently used first */
+    private final Map<List<String>, BoundQueryProfile> bindings = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The number of times a binding was reused, guarded by bindings */
+    private long bindingHits = 0;
+
+    /** The number of bindings evicted to make room for others, guarded by bindings */
+    private long bindingEvictions = 0;
+
     /**
      * Creates a new query profile from an id.
      */
@@ -59,6 +82,10 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         this.types = types;
         this.references = references;
         this.unoverridables = unoverridables;
+        Set<String> dimensions = new LinkedHashSet<>(entries.dimensions());
+        dimensions.addAll(types.dimensions());
+        this.dimensions = dimensions.toArray(new String[0]);
+        this.unbound = new BoundQueryProfile(this, new String[0], true);
         if ( ! id.isAnonymous())
             validateName(id.getName());
     }
@@ -86,9 +113,46 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
 
     /** Returns the type of a given prefix reachable from this profile, or null if none */
     public final QueryProfileType getType(CompoundName name, Map<String, String> context) {
-        return types.get(name, context);
+        return bind(context).getType(name);
+    }
+
+    /**
+     * Returns this bound to the values of its dimensions in the given context. Lookups in the returned instance
+     * are faster than in this, and it can be reused for all lookups in contexts it {@link BoundQueryProfile#matches}.
+     *
+     * The most recently used bindings are kept for reuse. If the dimension values vary so much that more bindings
+     * are evicted than reused, new bindings are not kept, and do not remember the values they resolve.
+     *
+     * @param context the context containing the dimension values to bind, or null if none
+     */
+    public BoundQueryProfile bind(Map<String, String> context) {
+        if (dimensions.length == 0) return unbound;
+
+        String[] dimensionValues = new String[dimensions.length];
+        for (int i = 0; i < dimensions.length; i++)
+            dimensionValues[i] = context == null ? null : context.get(dimensions[i]);
+        List<String> key = Arrays.asList(dimensionValues);
+        synchronized (bindings) {
+            BoundQueryProfile binding = bindings.get(key);
+            if (binding != null) {
+                bindingHits++;
+                return binding;
+            }
+            if (bindings.size() >= maxBindings) {
+                if (bindingEvictions >= maxBindings && bindingEvictions > bindingHits)
+                    return new BoundQueryProfile(this, dimensionValues, false);
+                bindings.remove(bindings.keySet().iterator().next());
+                bindingEvictions++;
+            }
+            binding = new BoundQueryProfile(this, dimensionValues, true);
+            bindings.put(key, binding);
+            return binding;
+        }
     }
 
+    /** Returns the dimensions the values and types of this vary by. Do not modify the returned array. */
+    String[] dimensions() { return dimensions; }
+
     /** Returns the types reachable from this, or an empty map (never null) if none */
     public DimensionalMap<QueryProfileType> getTypes() { return types; }
 
@@ -131,21 +195,7 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
      * will return {"d" =&gt; "a.d-value","e" =&gt; "a.e-value"}
      */
     public Map<String, Object> listValues(CompoundName prefix, Map<String, String> context, Properties substitution) {
-        Map<String, Object> values = new HashMap<>();
-        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
-            if ( ! entry.getKey().hasPrefix(prefix)) continue;
-
-            ValueWithSource valueWithSource = entry.getValue().get(context);
-            if (valueWithSource == null) continue;
-
-            Object value = valueWithSource.value();
-            if (value == null) continue;
-
-            value = substitute(value, context, substitution);
-            CompoundName suffixName = entry.getKey().rest(prefix.size());
-            values.put(suffixName.toString(), value);
-        }
-        return values;
+        return bind(context).listValues(prefix, context, substitution);
     }
 
     public Map<String, ValueWithSource> listValuesWithSources(CompoundName prefix,
@@ -177,9 +227,7 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         return get(new CompoundName(name), context, substitution);
     }
     public final Object get(CompoundName name, Map<String, String> context, Properties substitution) {
-        ValueWithSource value = entries.get(name, context);
-        if (value == null) return null;
-        return substitute(value.value(), context, substitution);
+        return bind(context).get(name, context, substitution);
     }
 
     /** Returns all the entries from the profile **/
@@ -187,7 +235,7 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         return this.entries;
     }
 
-    private Object substitute(Object value, Map<String, String> context, Properties substitution) {
+    Object substitute(Object value, Map<String, String> context, Properties substitution) {
         if (value == null) return value;
         if (substitution == null) return value;
         if ( ! (value instanceof SubstituteString)) return value;
@@ -5,7 +5,11 @@ import com.google.common.collect.ImmutableMap;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.query.profile.DimensionBinding;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,8 +25,31 @@ public class DimensionalMap<VALUE> {
 
     private final Map<CompoundName, DimensionalValue<VALUE>> values;
 
+    /** The keys of this, in the order of their index */
+    private final CompoundName[] keys;
+
+    /** The values of this, in the order of their index */
+    private final List<DimensionalValue<VALUE>> indexedValues;
+
+    /** The index of each key in this */
+    private final Map<CompoundName, Integer> indexes;
+
+    /** The dimensions any value in this varies by */
+    private final Set<String> dimensions;
+
     private DimensionalMap(Map<CompoundName, DimensionalValue<VALUE>> values) {
         this.values = ImmutableMap.copyOf(values);
+        this.keys = new CompoundName[values.size()];
+        this.indexedValues = new ArrayList<>(values.size());
+        this.indexes = new HashMap<>();
+        Set<String> dimensions = new LinkedHashSet<>();
+        for (Map.Entry<CompoundName, DimensionalValue<VALUE>> entry : this.values.entrySet()) {
+            keys[indexedValues.size()] = entry.getKey();
+            indexes.put(entry.getKey(), indexedValues.size());
+            indexedValues.add(entry.getValue());
+            dimensions.addAll(entry.getValue().dimensions());
+        }
+        this.dimensions = Collections.unmodifiableSet(dimensions);
     }
 
     /** Returns the value for this key matching a context, or null if none */
@@ -42,6 +69,24 @@ public class DimensionalMap<VALUE> {
         return values.isEmpty();
     }
 
+    /** Returns the number of keys in this */
+    int size() { return keys.length; }
+
+    /** Returns the index of the given key in this, or -1 if it is not present */
+    int indexOf(CompoundName key) {
+        Integer index = indexes.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /** Returns the key at the given index */
+    CompoundName keyAt(int index) { return keys[index]; }
+
+    /** Returns the value variants of the key at the given index */
+    DimensionalValue<VALUE> valueAt(int index) { return indexedValues.get(index); }
+
+    /** Returns the dimensions which the values of this may vary by */
+    Set<String> dimensions() { return dimensions; }
+
     public static class Builder<VALUE> {
 
         private final Map<CompoundName, DimensionalValue.Builder<VALUE>> entries = new HashMap<>();
@@ -8,9 +8,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Contains the values a given key in a DimensionalMap may take for different dimensional contexts.
@@ -22,6 +24,9 @@ public class DimensionalValue<VALUE> {
     private final Map<Binding, VALUE> indexedVariants;
     private final List<BindingSpec> bindingSpecs;
 
+    /** The dimensions the value of this varies by */
+    private final List<String> dimensions;
+
     private DimensionalValue(List<Value<VALUE>> variants) {
         Collections.sort(variants);
 
@@ -36,6 +41,11 @@ public class DimensionalValue<VALUE> {
             if ( ! bindingSpecs.contains(spec))
                 bindingSpecs.add(spec);
         }
+
+        Set<String> dimensions = new LinkedHashSet<>();
+        for (BindingSpec spec : bindingSpecs)
+            dimensions.addAll(Arrays.asList(spec.dimensions()));
+        this.dimensions = List.copyOf(dimensions);
     }
 
     /** Returns the value matching this context, or null if none */
@@ -54,6 +64,9 @@ public class DimensionalValue<VALUE> {
 
     public boolean isEmpty() { return indexedVariants.isEmpty(); }
 
+    /** Returns the dimensions which the value of this depends on the context values of */
+    List<String> dimensions() { return dimensions; }
+
     @Override
     public String toString() {
         return indexedVariants.toString();
@@ -109,7 +109,7 @@ public class FieldComparator extends ChainableComparator {
     }
 
     @SuppressWarnings("rawtypes")
-    private int compareValues(Object first, Object second, Sorting.AttributeSorter s) {
+    static int compareValues(Object first, Object second, Sorting.AttributeSorter s) {
         if (first == null)
             return second == null ? 0 : -1;
         else if (second == null)
@@ -0,0 +1,165 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.result;
+
+import com.yahoo.search.query.Sorting;
+
+import java.util.List;
+
+/**
+ * The sort keys of a list of hits, extracted once, such that the hits can be sorted without looking up
+ * field values on each comparison. Orders hits exactly like a {@link HitSortOrderer} created from the same
+ * sorting: Meta hits first in their current order, then concrete hits, then hit groups which are not meta.
+ *
+ * Fields where all values are numbers of the same type are compared as primitives.
+ */
+final class FieldSortKeys {
+
+    /** Below this many hits, the savings of extracting the keys do not pay for the extraction */
+    static final int minHits = 64;
+
+    private static final byte meta = 0, concrete = 1, group = 2;
+
+    private final List<Sorting.FieldOrder> fieldOrders;
+    private final byte[] categories;
+    private final Object[][] values;
+    private final long[][] longs;
+    private final double[][] doubles;
+    private final boolean[] nanFirst;
+
+    private FieldSortKeys(List<Hit> hits, Sorting sorting, FieldComparator comparator) {
+        int size = hits.size();
+        fieldOrders = sorting.fieldOrders();
+        categories = new byte[size];
+        values = new Object[fieldOrders.size()][size];
+        longs = new long[fieldOrders.size()][];
+        doubles = new double[fieldOrders.size()][];
+        nanFirst = new boolean[fieldOrders.size()];
+        for (int i = 0; i < size; i++) {
+            Hit hit = hits.get(i);
+            categories[i] = hit.isMeta() ? meta : hit instanceof HitGroup ? group : concrete;
+            if (categories[i] == meta) continue;
+            for (int field = 0; field < fieldOrders.size(); field++)
+                values[field][i] = comparator.getField(hit, fieldOrders.get(field).getFieldName());
+        }
+        for (int field = 0; field < fieldOrders.size(); field++) {
+            if (isBuiltIn(fieldOrders.get(field).getSorter()))
+                toPrimitives(field);
+        }
+    }
+
+    /** Returns whether the given sorter compares values which are not strings by their natural order */
+    private static boolean isBuiltIn(Sorting.AttributeSorter sorter) {
+        Class<?> type = sorter.getClass();
+        return type == Sorting.AttributeSorter.class || type == Sorting.RawSorter.class ||
+               type == Sorting.LowerCaseSorter.class || type == Sorting.UcaSorter.class;
+    }
+
+    /** Stores the values of the given field as primitives if they are all of the same numeric type */
+    private void toPrimitives(int field) {
+        Class<?> type = null;
+        for (int i = 0; i < categories.length; i++) {
+            Object value = values[field][i];
+            if (value == null) continue;
+            if (type == null)
+                type = value.getClass();
+            else if (value.getClass() != type)
+                return; // compared as strings
+        }
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class) {
+            longs[field] = new long[categories.length];
+            for (int i = 0; i < categories.length; i++)
+                if (values[field][i] != null)
+                    longs[field][i] = ((Number)values[field][i]).longValue();
+        } else if (type == Double.class || type == Float.class || type == Relevance.class) {
+            doubles[field] = new double[categories.length];
+            nanFirst[field] = type == Relevance.class;
+            for (int i = 0; i < categories.length; i++)
+                if (values[field][i] != null)
+                    doubles[field][i] = values[field][i] instanceof Relevance relevance ? relevance.getScore()
+                                                                                      : ((Number)values[field][i]).doubleValue();
+        }
+    }
+
+    /** Compares the hits at the given positions, with the same result as a HitSortOrderer comparator */
+    private int compare(int a, int b) {
+        if (categories[a] != categories[b]) return categories[a] < categories[b] ? -1 : 1;
+        if (categories[a] == meta) return 0;
+
+        for (int field = 0; field < fieldOrders.size(); field++) {
+            int x = compare(field, a, b);
+            if (x != 0)
+                return fieldOrders.get(field).getSortOrder() == Sorting.Order.DESCENDING ? -x : x;
+        }
+        return 0;
+    }
+
+    private int compare(int field, int a, int b) {
+        Object first = values[field][a];
+        Object second = values[field][b];
+        if (first == null)
+            return second == null ? 0 : -1;
+        if (second == null)
+            return 1;
+        if (longs[field] != null)
+            return Long.compare(longs[field][a], longs[field][b]);
+        if (doubles[field] != null)
+            return compareDoubles(doubles[field][a], doubles[field][b], nanFirst[field]);
+        return FieldComparator.compareValues(first, second, fieldOrders.get(field).getSorter());
+    }
+
+    private static int compareDoubles(double a, double b, boolean nanFirst) {
+        if (nanFirst && (Double.isNaN(a) || Double.isNaN(b))) // as Relevance.compareTo
+            return Double.isNaN(a) ? (Double.isNaN(b) ? 0 : -1) : 1;
+        return Double.compare(a, b);
+    }
+
+    /** Returns the positions of the hits in sorted order. The sort is stable. */
+    private int[] sortedPositions() {
+        int[] positions = new int[categories.length];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = i;
+        mergeSort(positions, new int[positions.length], 0, positions.length);
+        return positions;
+    }
+
+    /** Sorts positions[from, to), using the same range of the given buffer as scratch space */
+    private void mergeSort(int[] positions, int[] buffer, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int position = positions[i];
+                int j = i;
+                for (; j > from && compare(positions[j - 1], position) > 0; j--)
+                    positions[j] = positions[j - 1];
+                positions[j] = position;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(positions, buffer, from, middle);
+        mergeSort(positions, buffer, middle, to);
+        if (compare(positions[middle - 1], positions[middle]) <= 0) return; // already in order
+
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from, right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0))
+                positions[i] = buffer[left++];
+            else
+                positions[i] = buffer[right++];
+        }
+    }
+
+    /**
+     * Sorts the given hits by the given sorting, using the given comparator to look up field values.
+     * The list is reordered with a single pass over it.
+     */
+    static void sort(List<Hit> hits, Sorting sorting, FieldComparator comparator) {
+        int[] positions = new FieldSortKeys(hits, sorting, comparator).sortedPositions();
+        Hit[] sorted = new Hit[positions.length];
+        for (int i = 0; i < positions.length; i++)
+            sorted[i] = hits.get(positions[i]);
+        int[] next = new int[1];
+        hits.replaceAll(hit -> sorted[next[0]++]); // unlike set(i, hit), this does not notify list listeners
+    }
+
+}
@@ -46,7 +46,8 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
     // may have changed their own state in a way that may impact the recursive
     // state of this.
 
-    private ListenableArrayList<Hit> hits = new ListenableArrayList<>(16);
+    // Not presized: many groups, e.g. those of grouping results, never have hits added
+    private ListenableArrayList<Hit> hits = new ListenableArrayList<>();
 
     transient private List<Hit> unmodifiableHits = Collections.unmodifiableList(hits);
 
@@ -83,16 +84,16 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
      */
     private DefaultErrorHit errorHit = null;
 
-    private final CompletableFuture<DataList<Hit>> completedFuture;
+    /** The future of this, created on first access if this is synchronous */
+    private CompletableFuture<DataList<Hit>> completedFuture;
 
-    private final IncomingData<Hit> incomingHits;
+    /** The incoming hit buffer of this, created on first access if this is synchronous */
+    private IncomingData<Hit> incomingHits;
 
     /** Creates an invalid group of hits. Id must be set before handoff. */
     public HitGroup() {
-        incomingHits = new IncomingData.NullIncomingData<>(this);
         setRelevance(new Relevance(1));
         setMeta(true);
-        completedFuture = new IncomingData.NullIncomingData.ImmediateFuture<>(this);
     }
 
     /**
@@ -122,9 +123,7 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
      */
     public HitGroup(String id, Relevance relevance) {
         super(id, relevance);
-        this.incomingHits = new IncomingData.NullIncomingData<>(this);
         setMeta(true);
-        completedFuture = new IncomingData.NullIncomingData.ImmediateFuture<>(this);
     }
 
     /**
@@ -958,9 +957,18 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
 
     /** Returns the incoming hit buffer to which new hits can be added to this asynchronous, if supported by the instance */
     @Override
-    public IncomingData<Hit> incoming() { return incomingHits; }
+    public IncomingData<Hit> incoming() {
+        if (incomingHits == null)
+            incomingHits = new IncomingData.NullIncomingData<>(this);
+        return incomingHits;
+    }
 
-    @Override public CompletableFuture<DataList<Hit>> completeFuture() { return completedFuture; }
+    @Override
+    public CompletableFuture<DataList<Hit>> completeFuture() {
+        if (completedFuture == null)
+            completedFuture = new IncomingData.NullIncomingData.ImmediateFuture<>(this);
+        return completedFuture;
+    }
 
     @Override
     public void addDataListener(Runnable runnable) {
@@ -973,7 +981,8 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
         hits = null;
         unmodifiableHits = null;
         hitOrderer = null;
-        incomingHits.drain(); // Just to gc as much as possible
+        if (incomingHits != null)
+            incomingHits.drain(); // Just to gc as much as possible
     }
 
 }
@@ -20,6 +20,8 @@ import com.yahoo.search.schema.SchemaInfo;
 import com.yahoo.search.rendering.RendererRegistry;
 import com.yahoo.search.statistics.TimeTracker;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -33,7 +35,9 @@ import java.util.concurrent.Executors;
  * </pre>
  *
  *
- * <p>See also {@link AsyncExecution}, which performs an execution in a separate thread than the caller.</p>
+ * <p>See also {@link AsyncExecution}, which performs an execution in a separate thread than the caller,
+ * and {@link #searchAsync}, which returns a stage completing when searchers which support it have their result,
+ * without holding a thread while waiting for it.</p>
  *
  * <p>Execution instances should not be reused for multiple separate executions.</p>
  *
@@ -499,6 +503,43 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         return (Result)super.process(query);
     }
 
+    /**
+     * Calls searchAsync on the next searcher in this chain, and returns a stage which completes with its result.
+     * If there is no next, a stage completed with an empty result is returned.
+     * <p>
+     * The next searcher is given an execution of its own, starting after it, so it may go on using that
+     * after this returns. Exceptions thrown by the searcher complete the returned stage exceptionally.
+     * This must not be used again until the returned stage completes - create a new Execution from this
+     * to search concurrently.
+     */
+    public CompletionStage<Result> searchAsync(Query query) {
+        timer.sampleSearch(nextIndex(), context.getDetailedDiagnostics());
+
+        // Transfer state between query and execution as the execution constructors does not do that completely
+        query.getModel().setExecution(this);
+        trace().setTraceLevel(query.getTrace().getLevel());
+
+        Searcher next = (Searcher)next(); // TODO: Allow but skip processors which are not searchers
+        if (next == null) return CompletableFuture.completedFuture((Result)defaultResponse(query));
+
+        CompletionStage<Result> response;
+        try {
+            nextProcessor();
+            onInvoking(query, next);
+            response = next.searchAsync(query, new Execution(this));
+        }
+        catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        finally {
+            previousProcessor();
+        }
+        return response.whenComplete((result, exception) -> {
+            query.getModel().setExecution(this); // Undo the change done by the execution given to the searcher
+            onReturning(query, next, result);
+        });
+    }
+
     @Override
     protected void onInvoking(Request request, Processor processor) {
         super.onInvoking(request,processor);
@@ -571,6 +612,36 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         }
     }
 
+    /**
+     * Calls fillAsync on the next searcher in this chain, and returns a stage which completes when the result is
+     * filled. If there is no next, a completed stage is returned.
+     * <p>
+     * As with searchAsync, the next searcher is given an execution of its own, exceptions thrown by it complete
+     * the returned stage exceptionally, and this must not be used again until the returned stage completes.
+     */
+    public CompletionStage<Void> fillAsync(Result result, String summaryClass) {
+        timer.sampleFill(nextIndex(), context.getDetailedDiagnostics());
+        Searcher current = (Searcher)next(); // TODO: Allow but skip processors which are not searchers
+        if (current == null) return CompletableFuture.completedFuture(null);
+
+        CompletionStage<Void> filled;
+        try {
+            nextProcessor();
+            onInvokingFill(current, summaryClass);
+            filled = current.ensureFilledAsync(result, summaryClass, new Execution(this));
+        }
+        catch (RuntimeException e) {
+            filled = CompletableFuture.failedFuture(e);
+        }
+        finally {
+            previousProcessor();
+        }
+        return filled.whenComplete((__, exception) -> {
+            onReturningFill(current, summaryClass);
+            timer.sampleFillReturn(nextIndex(), context.getDetailedDiagnostics(), result);
+        });
+    }
+
     private void onInvokingFill(Searcher searcher, String summaryClass) {
         int traceFillAt = 5;
         if (trace().getTraceLevel() < traceFillAt) return;
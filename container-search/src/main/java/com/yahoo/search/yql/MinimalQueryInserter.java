@@ -5,6 +5,7 @@ import com.yahoo.api.annotations.Beta;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.simple.SimpleLinguistics;
+import com.yahoo.metrics.simple.MetricReceiver;
 import com.yahoo.processing.IllegalInputException;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
@@ -45,12 +46,19 @@ public class MinimalQueryInserter extends Searcher {
     private static final CompoundName MAX_OFFSET = CompoundName.from("maxOffset");
     private static final Logger log = Logger.getLogger(MinimalQueryInserter.class.getName());
 
+    private final YqlProgramCache programCache;
+
     @Inject
-    public MinimalQueryInserter(Linguistics linguistics) {
+    public MinimalQueryInserter(Linguistics linguistics, MetricReceiver metrics) {
+        programCache = new YqlProgramCache(YqlProgramCache.DEFAULT_CAPACITY, metrics);
         // Warmup is needed to avoid a large 400ms init cost during first execution of yql code.
         warmup(linguistics);
     }
 
+    public MinimalQueryInserter(Linguistics linguistics) {
+        this(linguistics, MetricReceiver.nullImplementation);
+    }
+
     public MinimalQueryInserter() {
         this(new SimpleLinguistics());
     }
@@ -61,7 +69,7 @@ public class MinimalQueryInserter extends Searcher {
 
     private static boolean warmup(Linguistics linguistics) {
         Query query = new Query("search/?yql=select%20*%20from%20sources%20where%20title%20contains%20'xyz'");
-        Result result = insertQuery(query, new ParserEnvironment().setLinguistics(linguistics));
+        Result result = insertQuery(query, new ParserEnvironment().setLinguistics(linguistics), null);
         if (result != null) {
             log.warning("Warmup code trigger an error. Error = " + result);
             return false;
@@ -78,7 +86,7 @@ public class MinimalQueryInserter extends Searcher {
         if (query.properties().get(YQL) == null) return execution.search(query);
         Result errorResult;
         try {
-            errorResult = insertQuery(query, ParserEnvironment.fromExecutionContext(execution.context()));
+            errorResult = insertQuery(query, ParserEnvironment.fromExecutionContext(execution.context()), programCache);
         }
         catch (IllegalArgumentException e) {
             throw new IllegalInputException("Illegal YQL query", e);
@@ -86,10 +94,11 @@ public class MinimalQueryInserter extends Searcher {
         return (errorResult == null) ? execution.search(query) : errorResult;
     }
 
-    private static Result insertQuery(Query query, ParserEnvironment env) {
+    private static Result insertQuery(Query query, ParserEnvironment env, YqlProgramCache programCache) {
         YqlParser parser = (YqlParser) ParserFactory.newInstance(Query.Type.YQL, env);
         parser.setQueryParser(false);
         parser.setUserQuery(query);
+        parser.setProgramCache(programCache);
         QueryTree newTree;
         try {
             Parsable parsable = Parsable.fromQueryModel(query.getModel()).setQuery(query.properties().getString(YQL));
@@ -122,6 +122,19 @@ final class ProgramParser {
         return convertProgram(parseProgram(parser), parser, programName);
     }
 
+    /** Returns the tokens of the given program which are seen by the parser, i.e. without whitespace and comments */
+    List<Token> tokenize(String programName, String program) {
+        yqlplusLexer lexer = new yqlplusLexer(new CaseInsensitiveCharStream(CharStreams.fromString(program)));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(new ErrorListener(programName));
+        List<Token> tokens = new ArrayList<>();
+        for (Token token : lexer.getAllTokens()) {
+            if (token.getChannel() == Token.DEFAULT_CHANNEL)
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
     private Location toLocation(Scope scope, ParseTree node) {
         Token start;
         if (node instanceof ParserRuleContext) {
@@ -0,0 +1,237 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.yql;
+
+import ai.vespa.metrics.ContainerMetrics;
+import com.yahoo.metrics.simple.Counter;
+import com.yahoo.metrics.simple.MetricReceiver;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of parsed YQL programs, keyed on the tokens of the programs with the values of literals left out.
+ * Programs which differ only in the values of their literals, or in whitespace and comments, are therefore parsed
+ * once, and later programs are returned as a copy of the parsed program where the literal values are replaced
+ * by those of the later program. Each returned program is a new tree, which shares no nodes with the cached
+ * program or with other returned programs.
+ *
+ * Literals which are not represented as a literal node in the parsed program, such as annotation values,
+ * must be equal for a cached program to be used. Nodes which are copied keep the locations of the cached
+ * program, except the literal nodes.
+ *
+ * This is thread safe.
+ */
+final class YqlProgramCache {
+
+    static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<String, CachedProgram> programs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the max number of programs to cache, after which the cache is cleared
+     * @param metrics the receiver of cache hits and misses
+     */
+    YqlProgramCache(int capacity, MetricReceiver metrics) {
+        this.capacity = capacity;
+        this.hits = metrics.declareCounter(ContainerMetrics.YQL_PARSE_CACHE_HITS.baseName());
+        this.misses = metrics.declareCounter(ContainerMetrics.YQL_PARSE_CACHE_MISSES.baseName());
+    }
+
+    /** Returns the parsed form of the given program, as returned by {@link ProgramParser#parse} */
+    OperatorNode<StatementOperator> parse(String programName, String program) throws IOException, RecognitionException {
+        ProgramParser parser = new ProgramParser();
+        List<Token> tokens;
+        try {
+            tokens = parser.tokenize(programName, program);
+        }
+        catch (ProgramCompileException e) {
+            return parser.parse(programName, program); // Fails the same way, as when not using the cache
+        }
+
+        StringBuilder key = new StringBuilder(program.length());
+        List<Token> literals = new ArrayList<>();
+        for (Token token : tokens) {
+            key.append((char)token.getType());
+            if (isLiteral(token)) {
+                literals.add(token);
+            }
+            else {
+                String text = token.getText();
+                key.append(text.length()).append(':').append(text);
+            }
+        }
+
+        CachedProgram cached = programs.get(key.toString());
+        if (cached != null) {
+            OperatorNode<StatementOperator> bound = cached.bind(programName, literals);
+            if (bound != null) {
+                hits.add();
+                return bound;
+            }
+        }
+        misses.add();
+        OperatorNode<StatementOperator> parsed = parser.parse(programName, program);
+        if (cached == null) {
+            if (programs.size() >= capacity)
+                programs.clear();
+            programs.put(key.toString(), new CachedProgram(parsed.copy(), literals)); // The parsed program is the caller's
+        }
+        return parsed;
+    }
+
+    /** Returns the number of programs in this */
+    int size() { return programs.size(); }
+
+    private static boolean isLiteral(Token token) {
+        return switch (token.getType()) {
+            case yqlplusParser.STRING, yqlplusParser.INT, yqlplusParser.LONG_INT, yqlplusParser.FLOAT -> true;
+            default -> false;
+        };
+    }
+
+    /** Returns the value of a literal token, as in {@link ProgramParser#convertLiteral} */
+    private static Object valueOf(Token literal) {
+        String text = literal.getText();
+        return switch (literal.getType()) {
+            case yqlplusParser.INT -> {
+                long value = Long.parseLong(text);
+                yield (int)value == value ? (Object)(int)value : (Object)value;
+            }
+            case yqlplusParser.LONG_INT -> Long.parseLong(text.substring(0, text.length() - 1));
+            case yqlplusParser.FLOAT -> Double.valueOf(text);
+            case yqlplusParser.STRING -> StringUnescaper.unquote(text);
+            default -> throw new IllegalArgumentException("Not a literal: " + literal);
+        };
+    }
+
+    /** A parsed program, and the literal nodes of it which may be replaced by the literals of another program */
+    private static class CachedProgram {
+
+        private final OperatorNode<StatementOperator> program;
+
+        /** The text of each literal in the program */
+        private final String[] texts;
+
+        /** The value of each literal which may be replaced, or null if the literal must be equal in other programs */
+        private final Object[] values;
+
+        /** The index of the literal of each literal node which may be replaced */
+        private final Map<OperatorNode<?>, Integer> literalNodes = new IdentityHashMap<>();
+
+        CachedProgram(OperatorNode<StatementOperator> program, List<Token> literals) {
+            this.program = program;
+            this.texts = new String[literals.size()];
+            this.values = new Object[literals.size()];
+            Map<Long, Integer> literalAtPosition = new HashMap<>();
+            for (int i = 0; i < literals.size(); i++) {
+                Token literal = literals.get(i);
+                texts[i] = literal.getText();
+                literalAtPosition.put(position(literal.getLine(), literal.getCharPositionInLine()), i);
+            }
+
+            List<OperatorNode<?>> nodes = new ArrayList<>();
+            collectLiteralNodes(program, nodes);
+            boolean[] fixed = new boolean[literals.size()];
+            for (OperatorNode<?> node : nodes) {
+                Location location = node.getLocation();
+                Integer index = location == null ? null
+                                                 : literalAtPosition.get(position(location.getLineNumber(),
+                                                                                  location.getCharacterOffset()));
+                if (index == null) continue; // Not from a literal token, e.g. 'true'
+                literalNodes.put(node, index);
+                Object value = node.getArgument(0);
+                if (fixed[index] || ! valueOf(literals.get(index)).equals(value))
+                    fixed[index] = true; // The parser did not produce the value from the text of the token alone
+                else
+                    values[index] = value;
+            }
+            for (int i = 0; i < fixed.length; i++) {
+                if (fixed[i])
+                    values[i] = null;
+            }
+            literalNodes.values().removeIf(index -> values[index] == null);
+        }
+
+        /**
+         * Returns a copy of the cached program with the values of the given literals,
+         * or null if the given literals cannot be bound to the cached program.
+         */
+        OperatorNode<StatementOperator> bind(String programName, List<Token> literals) {
+            if (literals.size() != texts.length) return null;
+            Object[] boundValues = new Object[texts.length];
+            Location[] boundLocations = new Location[texts.length];
+            for (int i = 0; i < texts.length; i++) {
+                Token literal = literals.get(i);
+                if (values[i] == null) {
+                    if ( ! texts[i].equals(literal.getText())) return null;
+                    continue;
+                }
+                try {
+                    boundValues[i] = valueOf(literal);
+                }
+                catch (NumberFormatException e) {
+                    return null; // Let the parser report it
+                }
+                if (boundValues[i].getClass() != values[i].getClass()) return null; // e.g. an int literal not fitting in an int
+                boundLocations[i] = new Location(programName, literal.getLine(), literal.getCharPositionInLine());
+            }
+            return bind(program, boundValues, boundLocations);
+        }
+
+        /** Returns a copy of the given node, with literals bound */
+        private <T extends Operator> OperatorNode<T> bind(OperatorNode<T> node, Object[] boundValues, Location[] boundLocations) {
+            Integer index = literalNodes.get(node);
+            if (index != null)
+                return OperatorNode.create(boundLocations[index], node.getAnnotations(), node.getOperator(), boundValues[index]);
+
+            Object[] arguments = node.getArguments();
+            for (int i = 0; i < arguments.length; i++)
+                arguments[i] = bind(arguments[i], boundValues, boundLocations);
+            return OperatorNode.create(node.getLocation(), node.getAnnotations(), node.getOperator(), arguments);
+        }
+
+        /** Returns a copy of the given argument with literals bound, or the argument itself if it is a value */
+        private Object bind(Object argument, Object[] boundValues, Location[] boundLocations) {
+            if (argument instanceof OperatorNode<?> node)
+                return bind(node, boundValues, boundLocations);
+            if (argument instanceof List<?> list) {
+                List<Object> boundList = new ArrayList<>(list.size());
+                for (Object element : list)
+                    boundList.add(bind(element, boundValues, boundLocations));
+                return boundList;
+            }
+            return argument;
+        }
+
+        private static void collectLiteralNodes(Object argument, List<OperatorNode<?>> nodes) {
+            if (argument instanceof OperatorNode<?> node) {
+                if (node.getOperator() == ExpressionOperator.LITERAL)
+                    nodes.add(node);
+                for (Object child : node.getArguments())
+                    collectLiteralNodes(child, nodes);
+            }
+            else if (argument instanceof List<?> list) {
+                for (Object element : list)
+                    collectLiteralNodes(element, nodes);
+            }
+        }
+
+        private static long position(int line, int column) {
+            return ((long)line << 32) | column;
+        }
+
+    }
+
+}
@@ -100,6 +100,43 @@ public class ListMerger {
         return mergedList;
     }
 
+    /**
+     * Merges the sorted list l2 into the sorted, random access list l1 in place, keeping at most the first
+     * maxEntryCount entries of l1. Entries of l1 are kept before equal entries of l2, as in
+     * {@link #mergeIntoArrayList}, but the retained entries are not copied, and the entries of l2 which sort after
+     * the last retained entry of a full l1 are not looked at.
+     */
+    public static <T extends Comparable<? super T>> void mergeIntoSortedList(List<T> l1, List<T> l2, int maxEntryCount) {
+        if (l1.size() > maxEntryCount) {
+            l1.subList(Math.max(0, maxEntryCount), l1.size()).clear();
+        }
+        int from = 0;
+        for (T e2 : l2) {
+            if (l1.size() >= maxEntryCount && (maxEntryCount <= 0 || l1.get(maxEntryCount - 1).compareTo(e2) <= 0)) {
+                break;
+            }
+            from = upperBound(l1, e2, from);
+            l1.add(from++, e2);
+            if (l1.size() > maxEntryCount) {
+                l1.remove(l1.size() - 1);
+            }
+        }
+    }
+
+    /** Returns the index of the first entry of the given sorted list, from the given index, which sorts after e. */
+    private static <T extends Comparable<? super T>> int upperBound(List<T> list, T e, int from) {
+        int to = list.size();
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (list.get(mid).compareTo(e) <= 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
     public static <T extends Comparable<? super T>> List<T> mergeIntoArrayList(List<T> l1, List<T> l2) {
         return mergeIntoArrayList(l1, l2, Integer.MAX_VALUE);
     }
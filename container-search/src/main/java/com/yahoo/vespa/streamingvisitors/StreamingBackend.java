@@ -192,6 +192,17 @@ public class StreamingBackend extends VespaBackend {
                 .getSorting().fieldOrders());
     }
 
+    /**
+     * Returns the coverage of a search visiting the given number of documents, where the active documents
+     * are estimated from the percentage of the buckets visited when the search returned early.
+     */
+    static Coverage createCoverage(long documentsVisited, double percentVisited) {
+        long active = percentVisited >= 100 || percentVisited <= 0
+                      ? documentsVisited
+                      : Math.max(documentsVisited, Math.round(documentsVisited * 100 / percentVisited));
+        return new Coverage(documentsVisited, active, 1, 1);
+    }
+
     private Result buildResultFromCompletedVisitor(Query query, Visitor visitor) {
         lazyTrace(query, 8, "offset=", query.getOffset(), ", hits=", query.getHits());
 
@@ -205,7 +216,7 @@ public class StreamingBackend extends VespaBackend {
 
         VisitorStatistics stats = visitor.getStatistics();
         result.setTotalHitCount(visitor.getTotalHitCount());
-        result.setCoverage(new Coverage(stats.getDocumentsVisited(), stats.getDocumentsVisited(), 1, 1));
+        result.setCoverage(createCoverage(stats.getDocumentsVisited(), visitor.getPercentVisited()));
         query.trace(visitor.getStatistics().toString(), false, 2);
         query.getContext(true).setProperty(STREAMING_STATISTICS, stats);
 
@@ -4,6 +4,7 @@ package com.yahoo.vespa.streamingvisitors;
 import com.yahoo.document.fieldset.AllFields;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.documentapi.AckToken;
+import com.yahoo.documentapi.ProgressToken;
 import com.yahoo.documentapi.VisitorControlHandler;
 import com.yahoo.documentapi.VisitorDataHandler;
 import com.yahoo.documentapi.VisitorParameters;
@@ -29,6 +30,7 @@ import com.yahoo.vespa.objects.BufferSerializer;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +38,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -43,9 +46,14 @@ import java.util.logging.Level;
  * A visitor data handler that performs a query in a content cluster with the
  * searchvisitor visitor plugin. It collects and merges hits (sorted
  * descending on rank), summaries (sorted on document id), and
- * groupings. The resulting data can be fetched when the query has
+ * groupings as they arrive. The resulting data can be fetched when the query has
  * completed.
  *
+ * If the query sets streaming.mincoverage to less than 100, the search returns
+ * as soon as the buckets visited are at least that percentage of the buckets to
+ * visit, and at least the requested number of hits are collected, instead of
+ * waiting for the remaining buckets.
+ *
  * @author Ulf Carlin
  */
 class StreamingVisitor extends VisitorDataHandler implements Visitor {
@@ -57,13 +65,18 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
     private static final CompoundName streamingTotimestamp = CompoundName.from("streaming.totimestamp");
     private static final CompoundName streamingPriority = CompoundName.from("streaming.priority");
     private static final CompoundName streamingMaxbucketspervisitor = CompoundName.from("streaming.maxbucketspervisitor");
+    private static final CompoundName streamingMincoverage = CompoundName.from("streaming.mincoverage");
 
     protected static final int MAX_BUCKETS_PER_VISITOR = 1024;
 
     private static final Logger log = Logger.getLogger(StreamingVisitor.class.getName());
     private final VisitorParameters params = new VisitorParameters("");
-    private List<SearchResult.Hit> hits = new ArrayList<>();
+    private final ControlHandler controlHandler = new ControlHandler();
+    private final List<SearchResult.Hit> hits = new ArrayList<>();
     private int totalHitCount = 0;
+    private double minCoverage = 100;
+    private double percentVisited = 100;
+    private boolean returnedEarly = false;
 
     private final Map<String, DocumentSummary.Summary> summaryMap = new HashMap<>();
     private final Map<Integer, Grouping> groupingMap = new ConcurrentHashMap<>();
@@ -119,6 +132,7 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
         params.setSessionTimeoutMs(query.getTimeout());
         params.setVisitorLibrary("searchvisitor");
         params.setLocalDataHandler(this);
+        params.setControlHandler(controlHandler);
         if (query.properties().getDouble(streamingFromtimestamp) != null) {
             params.setFromTimestamp(query.properties().getDouble(streamingFromtimestamp).longValue());
         }
@@ -142,6 +156,9 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
         if (maxbuckets != null) {
             params.setMaxBucketsPerVisitor(Integer.parseInt(maxbuckets));
         }
+        if (query.properties().getDouble(streamingMincoverage) != null) {
+            minCoverage = query.properties().getDouble(streamingMincoverage);
+        }
 
         EncodedData ed = new EncodedData();
         encodeQueryData(query, 0, ed);
@@ -269,6 +286,12 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
                 session.abort();
                 throw new TimeoutException("Query timed out in " + StreamingBackend.class.getName());
             }
+            if ( ! params.getControlHandler().isDone() && controlHandler.hasVisitedEnough()) {
+                synchronized (this) {
+                    returnedEarly = true; // Ignore results of the buckets still being visited
+                }
+                session.abort();
+            }
         } finally {
             session.destroy();
             sessionTrace = session.getTrace();
@@ -276,7 +299,10 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
             query.trace(sessionTrace.toString(), false, 9);
         }
 
-        if (params.getControlHandler().getResult().code == VisitorControlHandler.CompletionCode.SUCCESS) {
+        if (returnedEarly) {
+            query.trace(String.format("Returned early after visiting %.1f%% of the buckets", percentVisited), false, 2);
+            log.log(Level.FINE, () -> "StreamingVisitor returned early for " + query + " with selection " + params.getDocumentSelection());
+        } else if (params.getControlHandler().getResult().code == VisitorControlHandler.CompletionCode.SUCCESS) {
             log.log(Level.FINE, () -> "StreamingVisitor completed successfully for " + query + " with selection " + params.getDocumentSelection());
         } else {
             throw new IllegalArgumentException("Query failed: " +
@@ -306,9 +332,33 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
         return sessionTrace;
     }
 
+    @Override
+    public synchronized double getPercentVisited() {
+        return returnedEarly ? percentVisited : 100;
+    }
+
     public void onQueryResult(SearchResult sr, DocumentSummary summary) {
+        synchronized (this) {
+            if (returnedEarly) return;
+        }
         handleSearchResult(sr);
         handleSummary(summary);
+        checkIfVisitedEnough(params.getControlHandler().getProgress());
+    }
+
+    /**
+     * Lets the search return before all buckets are visited if the minimum coverage is less than 100, and both
+     * the given progress and the hits collected so far satisfy it.
+     */
+    private void checkIfVisitedEnough(ProgressToken progress) {
+        if (minCoverage >= 100 || progress == null) return;
+
+        double percentFinished = progress.percentFinished(); // Outside the lock on this, as it locks the token
+        synchronized (this) {
+            if (hits.size() < query.getOffset() + query.getHits() || percentFinished < minCoverage) return;
+            percentVisited = percentFinished;
+        }
+        controlHandler.onVisitedEnough();
     }
 
     private void handleSearchResult(SearchResult result) {
@@ -322,7 +372,7 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
 
         synchronized (this) {
             totalHitCount += result.getTotalHitCount();
-            hits = ListMerger.mergeIntoArrayList(hits, newHits, query.getOffset() + query.getHits());
+            ListMerger.mergeIntoSortedList(hits, newHits, query.getOffset() + query.getHits());
         }
 
         Map<Integer, byte[]> newGroupingMap = result.getGroupingList();
@@ -387,4 +437,59 @@ class StreamingVisitor extends VisitorDataHandler implements Visitor {
         return new ArrayList<>(groupings);
     }
 
+    /**
+     * A control handler which also ends waiting for the visiting to complete when enough buckets are visited
+     * for the search to return early.
+     */
+    private class ControlHandler extends VisitorControlHandler {
+
+        private boolean visitedEnough = false;
+
+        @Override
+        public void onProgress(ProgressToken token) {
+            super.onProgress(token);
+            checkIfVisitedEnough(token);
+        }
+
+        synchronized void onVisitedEnough() {
+            visitedEnough = true;
+            notifyAll();
+        }
+
+        synchronized boolean hasVisitedEnough() {
+            return visitedEnough;
+        }
+
+        @Override
+        public void reset() {
+            synchronized (this) {
+                visitedEnough = false;
+            }
+            super.reset();
+        }
+
+        /**
+         * Waits until visiting is done, enough is visited to return early, or the given timeout expires.
+         *
+         * @return true unless the timeout expired
+         */
+        @Override
+        public boolean waitUntilDone(Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            synchronized (this) {
+                while ( ! isDone() && ! visitedEnough) {
+                    if (timeout.isZero()) {
+                        wait();
+                    } else {
+                        long nanosLeft = deadline - System.nanoTime();
+                        if (nanosLeft <= 0) return false;
+                        TimeUnit.NANOSECONDS.timedWait(this, nanosLeft);
+                    }
+                }
+                return true;
+            }
+        }
+
+    }
+
 }
@@ -33,4 +33,7 @@ interface Visitor {
 
     Trace getTrace();
 
+    /** Returns the percentage of the buckets to search which were visited, which is less than 100 if the search returned early. */
+    default double getPercentVisited() { return 100; }
+
 }
@@ -388,6 +388,26 @@ public class ClusterSearcherTestCase {
         assertEquals("score: 3.0",  hits.get(8).getField("score"));
     }
 
+    @Test
+    void testThatMultipleDocumentTypesCanBeSearchedAndFilledAsynchronously() {
+        Execution execution = createExecution();
+        Query query = new Query("?query=hello");
+
+        com.yahoo.search.Result result = execution.searchAsync(query).toCompletableFuture().join();
+        assertEquals(9, result.getTotalHitCount());
+        List<Hit> hits = result.hits().asList();
+        assertEquals(9, hits.size());
+        assertEquals(11.0, hits.get(0).getRelevance().getScore(), DELTA);
+        assertEquals(3.0,  hits.get(8).getRelevance().getScore(), DELTA);
+        assertNull(hits.get(0).getField("score"));
+
+        execution.fillAsync(result, "summary").toCompletableFuture().join();
+
+        hits = result.hits().asList();
+        assertEquals("score: 11.0", hits.get(0).getField("score"));
+        assertEquals("score: 3.0",  hits.get(8).getField("score"));
+    }
+
     private com.yahoo.search.Result getResult(int offset, int hits, Execution execution) {
         Result result = getResult(offset, hits, null, execution);
         assertEquals(0, result.getQuery().getOffset());
@@ -401,6 +421,13 @@ public class ClusterSearcherTestCase {
         return execution.search(query);
     }
 
+    private com.yahoo.search.Result getResultAsync(int offset, int hits, String extra, Execution execution) {
+        Query query = new Query("?query=hello" + extra);
+        query.setOffset(offset);
+        query.setHits(hits);
+        return execution.searchAsync(query).toCompletableFuture().join();
+    }
+
     private void assertResult(int totalHitCount, List<Double> expHits, com.yahoo.search.Result result) {
         assertEquals(totalHitCount, result.getTotalHitCount());
         List<Hit> hits = result.hits().asList();
@@ -452,6 +479,17 @@ public class ClusterSearcherTestCase {
         assertResult(6, List.of(),          getResult(6, 2, extra, ex));
     }
 
+    @Test
+    void testThatWeCanSpecifyNumHitsAndHitOffsetWhenSortingAsynchronously() {
+        Execution ex = createExecution(true);
+
+        String extra = "&restrict=type1,type2&sorting=%2Basc-score";
+        assertResult(6, List.of(3.0, 4.0),  getResultAsync(0, 2, extra, ex));
+        assertResult(6, List.of(7.0, 9.0),  getResultAsync(3, 2, extra, ex));
+        assertResult(6, List.of(10.0),      getResultAsync(5, 2, extra, ex));
+        assertResult(6, List.of(),          getResultAsync(6, 2, extra, ex));
+    }
+
     private static ClusterSearcher createSearcher(String clusterName, Double maxQueryTimeout, Double maxQueryCacheTimeout,
                                                   boolean streamingMode, VipStatus vipStatus) {
         QrSearchersConfig.Builder qrSearchersConfig = new QrSearchersConfig.Builder();
@@ -0,0 +1,86 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
+import com.yahoo.searchlib.expression.StringResultNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CountErrorEstimatorTest {
+
+    @Test
+    void errors_are_bounded_by_the_remainders_of_nodes_missing_a_group() {
+        // Precision 2: Nodes 0 and 1 leave out groups at the first level, node 2 does not
+        List<Grouping> results = List.of(
+                createResult(group(null, 10,
+                                   group("a", 6, group("x", 4), group("y", 1)),
+                                   group("b", 3, group("z", 2), group("w", 1)))),
+                createResult(group(null, 5,
+                                   group("a", 2, group("x", 2)),
+                                   group("c", 2))),
+                createResult(group(null, 2,
+                                   group("b", 1, group("z", 1)))));
+        CountErrorEstimator estimator = new CountErrorEstimator(results);
+        Grouping merged = GroupingResultAggregator.merge(results);
+        Map<Group, Long> errors = new IdentityHashMap<>();
+        estimator.addErrors(merged, errors);
+
+        assertEquals(0, error("a", merged.getRoot(), errors));
+        assertEquals(1, error("b", merged.getRoot(), errors)); // Missing on node 1
+        assertEquals(1, error("c", merged.getRoot(), errors)); // Missing on node 0
+        Group a = child("a", merged.getRoot());
+        assertEquals(0, error("x", a, errors));
+        assertEquals(0, error("y", a, errors)); // Node 1 returned all groups below a
+        Group b = child("b", merged.getRoot());
+        assertEquals(1, error("z", b, errors)); // Node 1 may have b, and so z
+        assertEquals(1, error("w", b, errors));
+        assertEquals(4, errors.size());
+    }
+
+    @Test
+    void no_errors_are_estimated_below_groups_without_counts() {
+        List<Grouping> results = List.of(createResult(new Group().addChild(group("a", 1)).addChild(group("b", 1))),
+                                         createResult(new Group().addChild(group("c", 1)).addChild(group("d", 1))));
+        CountErrorEstimator estimator = new CountErrorEstimator(results);
+        Grouping merged = GroupingResultAggregator.merge(results);
+        Map<Group, Long> errors = new IdentityHashMap<>();
+        estimator.addErrors(merged, errors);
+        assertEquals(Map.of(), errors);
+    }
+
+    private static Grouping createResult(Group root) {
+        return new Grouping().addLevel(new GroupingLevel().setPrecision(2))
+                             .addLevel(new GroupingLevel().setPrecision(2))
+                             .setFirstLevel(0)
+                             .setLastLevel(2)
+                             .setRoot(root);
+    }
+
+    private static Group group(String id, long count, Group ... children) {
+        Group group = new Group().addAggregationResult(new CountAggregationResult(count));
+        if (id != null)
+            group.setId(new StringResultNode(id));
+        for (Group child : children)
+            group.addChild(child);
+        return group;
+    }
+
+    private static Group child(String id, Group parent) {
+        return parent.getChildren().stream()
+                     .filter(child -> child.getId().equals(new StringResultNode(id)))
+                     .findFirst().orElseThrow();
+    }
+
+    private static long error(String id, Group parent, Map<Group, Long> errors) {
+        return errors.getOrDefault(child(id, parent), 0L);
+    }
+
+}
@@ -0,0 +1,63 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FillTimeEstimatorTest {
+
+    @Test
+    void nothing_is_reserved_until_enough_fills_are_recorded() {
+        FillTimeEstimator estimator = new FillTimeEstimator(0.3);
+        for (int i = 1; i < FillTimeEstimator.minSamples; i++)
+            estimator.record("music", "short", Duration.ofMillis(20), true);
+        assertEquals(0, estimator.reserve("music", "short", 500));
+
+        estimator.record("music", "short", Duration.ofMillis(20), true);
+        assertEquals(20, estimator.reserve("music", "short", 500));
+        assertEquals(0, estimator.reserve("music", "long", 500));
+        assertEquals(0, estimator.reserve("books", "short", 500));
+        assertEquals(0, estimator.reserve("music", null, 500));
+    }
+
+    @Test
+    void reserve_covers_variation_in_fill_times() {
+        FillTimeEstimator estimator = new FillTimeEstimator(0.3);
+        for (int i = 0; i < 100; i++)
+            estimator.record("music", null, Duration.ofMillis(i % 2 == 0 ? 10 : 30), true);
+        long reserve = estimator.reserve("music", null, 500);
+        assertTrue(reserve > 30, "Reserve " + reserve + " covers the slower fills");
+        assertTrue(reserve < 60, "Reserve " + reserve + " is not much more than the slower fills");
+    }
+
+    @Test
+    void fills_which_do_not_complete_increase_the_reserve() {
+        FillTimeEstimator estimator = new FillTimeEstimator(0.3);
+        for (int i = 0; i < FillTimeEstimator.minSamples; i++)
+            estimator.record("music", null, Duration.ofMillis(20), true);
+        assertEquals(20, estimator.reserve("music", null, 500));
+
+        estimator.record("music", null, Duration.ofMillis(5), false);
+        assertTrue(estimator.reserve("music", null, 500) > 20);
+    }
+
+    @Test
+    void reserve_is_limited_to_a_share_of_the_time_left() {
+        FillTimeEstimator estimator = new FillTimeEstimator(0.3);
+        for (int i = 0; i < FillTimeEstimator.minSamples; i++)
+            estimator.record("music", null, Duration.ofMillis(200), true);
+        assertEquals(200, estimator.reserve("music", null, 1000));
+        assertEquals(150, estimator.reserve("music", null, 500));
+        assertEquals(0, estimator.reserve("music", null, 0));
+
+        FillTimeEstimator disabled = new FillTimeEstimator(0);
+        for (int i = 0; i < FillTimeEstimator.minSamples; i++)
+            disabled.record("music", null, Duration.ofMillis(200), true);
+        assertEquals(0, disabled.reserve("music", null, 1000));
+    }
+
+}
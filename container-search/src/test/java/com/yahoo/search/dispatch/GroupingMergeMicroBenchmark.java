@@ -0,0 +1,108 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.MaxAggregationResult;
+import com.yahoo.searchlib.aggregation.SumAggregationResult;
+import com.yahoo.searchlib.expression.AttributeNode;
+import com.yahoo.searchlib.expression.IntegerResultNode;
+import com.yahoo.searchlib.expression.ResultNode;
+import com.yahoo.searchlib.expression.StringResultNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares merging the grouping results of content nodes one at a time to merging them as a tree,
+ * as done by {@link GroupingResultAggregator}, for grouping shapes seen in practice.
+ */
+public class GroupingMergeMicroBenchmark {
+
+    private record Shape(String name, int nodes, int groups, int coverage, int subGroups) { }
+
+    private static final List<Shape> shapes = List.of(
+            // Few groups present on all nodes, e.g. all(group(category) each(output(count(), sum(price))))
+            new Shape("20 categories on 8 nodes", 8, 20, 100, 0),
+            new Shape("20 categories on 64 nodes", 64, 20, 100, 0),
+            // Many groups spread over nodes, e.g. all(group(seller) max(inf) each(output(count())))
+            new Shape("10000 sellers on 16 nodes", 16, 10000, 20, 0),
+            new Shape("10000 sellers on 64 nodes", 64, 10000, 10, 0),
+            // Two levels, e.g. all(group(brand) each(group(time.date(ts)) each(output(count()))))
+            new Shape("500 brands by 30 days on 32 nodes", 32, 500, 50, 30));
+
+    private final Random random = new Random(42);
+
+    public void run() {
+        for (Shape shape : shapes) {
+            List<Grouping> results = createResults(shape);
+            out(shape.name() + ":");
+            runMerge(results, false, 200);
+            runMerge(results, true, 200);
+            long sequential = runMerge(results, false, 100);
+            long tree = runMerge(results, true, 100);
+            out("  Merging one at a time: " + sequential / 100000 + " us, as a tree: " + tree / 100000 + " us");
+        }
+    }
+
+    /** Returns the total time spent merging copies of the given results the given number of times */
+    private long runMerge(List<Grouping> results, boolean tree, int count) {
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            List<Grouping> copies = results.stream().map(Grouping::clone).toList();
+            long start = System.nanoTime();
+            Grouping merged;
+            if (tree) {
+                merged = GroupingResultAggregator.merge(copies);
+            }
+            else {
+                merged = copies.get(0);
+                for (int j = 1; j < copies.size(); j++)
+                    merged.merge(copies.get(j));
+            }
+            time += System.nanoTime() - start;
+            if (merged.getRoot().getNumChildren() == 0) throw new IllegalStateException("Nothing merged");
+        }
+        return time;
+    }
+
+    /** Creates the results of each node, where each node has the given percentage of the groups */
+    private List<Grouping> createResults(Shape shape) {
+        List<Grouping> results = new ArrayList<>();
+        for (int node = 0; node < shape.nodes(); node++) {
+            Group root = new Group();
+            for (int id = 0; id < shape.groups(); id++) {
+                if (random.nextInt(100) >= shape.coverage()) continue;
+                Group group = createGroup(new StringResultNode(String.format("group-%06d", id)));
+                for (int subId = 0; subId < shape.subGroups(); subId++) {
+                    if (random.nextInt(100) >= shape.coverage()) continue;
+                    group.addChild(createGroup(new IntegerResultNode(subId)));
+                }
+                root.addChild(group);
+            }
+            results.add(new Grouping().setFirstLevel(0).setLastLevel(shape.subGroups() > 0 ? 2 : 1).setRoot(root));
+        }
+        return results;
+    }
+
+    private Group createGroup(ResultNode id) {
+        return new Group().setId(id)
+                          .setRank(random.nextDouble())
+                          .addAggregationResult(new CountAggregationResult(random.nextInt(1000)))
+                          .addAggregationResult(new SumAggregationResult(new IntegerResultNode(random.nextInt(100000)))
+                                                        .setExpression(new AttributeNode("price")))
+                          .addAggregationResult(new MaxAggregationResult(new IntegerResultNode(random.nextInt(100000)))
+                                                        .setExpression(new AttributeNode("price")));
+    }
+
+    private void out(String string) {
+        System.out.println(string);
+    }
+
+    public static void main(String[] args) {
+        new GroupingMergeMicroBenchmark().run();
+    }
+
+}
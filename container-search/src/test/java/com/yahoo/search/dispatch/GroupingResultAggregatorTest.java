@@ -0,0 +1,55 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.SumAggregationResult;
+import com.yahoo.searchlib.expression.AttributeNode;
+import com.yahoo.searchlib.expression.IntegerResultNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GroupingResultAggregatorTest {
+
+    @Test
+    void merging_as_a_tree_is_equal_to_merging_one_at_a_time() {
+        assertMergedAsTree(1, 10);
+        assertMergedAsTree(2, 10);
+        assertMergedAsTree(7, 10);
+        assertMergedAsTree(7, GroupingResultAggregator.minParallelGroups);
+        assertMergedAsTree(64, GroupingResultAggregator.minParallelGroups / 8);
+    }
+
+    private void assertMergedAsTree(int nodes, int groups) {
+        List<Grouping> results = createResults(nodes, groups);
+        Grouping expected = results.get(0).clone();
+        for (int i = 1; i < nodes; i++)
+            expected.merge(results.get(i).clone());
+        expected.postMerge();
+
+        Grouping merged = GroupingResultAggregator.merge(results);
+        assertSame(results.get(0), merged);
+        merged.postMerge();
+        assertEquals(expected.getRoot(), merged.getRoot());
+    }
+
+    /** Returns results where each node has a different subset of the groups, each summing the index of the node */
+    private List<Grouping> createResults(int nodes, int groups) {
+        List<Grouping> results = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            Group root = new Group();
+            for (int id = node % 3; id < groups; id += 1 + node % 3)
+                root.addChild(new Group().setId(new IntegerResultNode(id))
+                                         .addAggregationResult(new SumAggregationResult(new IntegerResultNode(node))
+                                                                       .setExpression(new AttributeNode("a"))));
+            results.add(new Grouping().setFirstLevel(0).setLastLevel(1).setRoot(root));
+        }
+        return results;
+    }
+
+}
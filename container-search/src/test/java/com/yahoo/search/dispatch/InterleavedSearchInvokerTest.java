@@ -27,11 +27,14 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
@@ -66,6 +69,23 @@ public class InterleavedSearchInvokerTest {
         }
     }
 
+    @Test
+    void requireThatTimeReservedForFillingIsNotUsedForSearching() throws IOException {
+        try (SearchInvoker invoker = createInterleavedInvoker(new Group(0, List.of()), 3)) {
+            invoker.reserveFillTime(1000);
+
+            expectedEvents.add(new Event(4000, 100, 0));
+            expectedEvents.add(new Event(3900, 100, 1));
+            expectedEvents.add(new Event(3800, 100, 2));
+
+            invoker.search(query);
+
+            assertTrue(expectedEvents.isEmpty(), "All test scenario events processed");
+            for (SearchInvoker nodeInvoker : invokers)
+                assertEquals(1000, nodeInvoker.fillTimeReserve(), "Node invokers reserve the same time");
+        }
+    }
+
     @Test
     void requireThatTimeoutsAreNotMarkedAsAdaptive() throws IOException {
         try (SearchInvoker invoker = createInterleavedInvoker(new Group(0, List.of()), 3)) {
@@ -366,6 +386,70 @@ public class InterleavedSearchInvokerTest {
         }
     }
 
+    @Test
+    void requireThatAsyncSearchIsCompletedByTheLastResponse() {
+        List<SearchInvoker> invokers = List.of(createInvoker(A5, 0), createInvoker(B5, 1));
+        try (InterleavedSearchInvoker invoker = new InterleavedSearchInvoker(Timer.wrap(clock), invokers, hitEstimator, dispatchConfig,
+                                                                            new Group(0, List.of()), null)) {
+            query.setHits(8);
+            CompletableFuture<Result> future = invoker.searchAsync(query, Runnable::run);
+            assertFalse(future.isDone());
+            invoker.responseAvailable(invokers.get(1));
+            assertFalse(future.isDone());
+            invoker.responseAvailable(invokers.get(0));
+            assertTrue(future.isDone());
+
+            Result result = future.join();
+            assertNull(result.hits().getErrorHit());
+            assertEquals(8, result.hits().size());
+            assertEquals(11.0, result.hits().get(0).getRelevance().getScore(), DELTA);
+            assertEquals(3.0, result.hits().get(7).getRelevance().getScore(), DELTA);
+            assertEquals(2, result.getCoverage(false).getNodes());
+            assertTrue(invoker.invokers().isEmpty());
+        }
+    }
+
+    @Test
+    void requireThatAsyncSearchIsCompletedWithoutMissingResponsesWhenTimedOut() {
+        List<SearchInvoker> invokers = List.of(createInvoker(A5, 0), createInvoker(B5, 1));
+        try (InterleavedSearchInvoker invoker = new InterleavedSearchInvoker(Timer.wrap(clock), invokers, hitEstimator, dispatchConfig,
+                                                                            new Group(0, List.of()), null)) {
+            CompletableFuture<Result> future = invoker.searchAsync(query, Runnable::run);
+            clock.advance(Duration.ofMillis(5001));
+            invoker.responseAvailable(invokers.get(0));
+            assertTrue(future.isDone());
+
+            Result result = future.join();
+            assertNull(result.hits().getErrorHit(), "Result is not marked as an error");
+            assertEquals(5, result.hits().size());
+            assertTrue(findTrace(result, "Backend communication timeout").isPresent());
+            assertTrue(result.getCoverage(false).isDegradedByTimeout());
+
+            invoker.responseAvailable(invokers.get(1));
+            assertEquals(5, future.join().hits().size(), "Late responses are ignored");
+        }
+    }
+
+    @Test
+    void requireThatAsyncSearchResponsesAreMergedInTheExecutor() {
+        List<SearchInvoker> invokers = List.of(createInvoker(A5, 0), createInvoker(B5, 1));
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        try (InterleavedSearchInvoker invoker = new InterleavedSearchInvoker(Timer.wrap(clock), invokers, hitEstimator, dispatchConfig,
+                                                                            new Group(0, List.of()), null)) {
+            CompletableFuture<Result> future = invoker.searchAsync(query, tasks::add);
+            invoker.responseAvailable(invokers.get(0));
+            invoker.responseAvailable(invokers.get(1));
+            assertFalse(future.isDone(), "Responses are not merged by the threads delivering them");
+            assertEquals(2, invoker.invokers().size());
+
+            while ( ! tasks.isEmpty())
+                tasks.poll().run();
+            assertTrue(future.isDone());
+            assertEquals(10, future.join().hits().size());
+            assertTrue(invoker.invokers().isEmpty());
+        }
+    }
+
     private static InterleavedSearchInvoker createInterLeavedTestInvoker(List<Double> a, List<Double> b, Group group) {
         DispatchConfig dispatchConfig = new DispatchConfig.Builder().build();
         TopKEstimator hitEstimator = new TopKEstimator(30, dispatchConfig.topKProbability(), 0.05);
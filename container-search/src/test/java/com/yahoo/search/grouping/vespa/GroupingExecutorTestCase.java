@@ -12,6 +12,8 @@ import com.yahoo.prelude.query.NullItem;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
+import com.yahoo.search.dispatch.Dispatcher;
+import com.yahoo.search.grouping.Continuation;
 import com.yahoo.search.grouping.GroupingRequest;
 import com.yahoo.search.grouping.request.AllOperation;
 import com.yahoo.search.grouping.request.GroupingOperation;
@@ -24,6 +26,7 @@ import com.yahoo.search.searchchain.Execution;
 import com.yahoo.search.searchchain.SearchChain;
 import com.yahoo.searchlib.aggregation.CountAggregationResult;
 import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
 import com.yahoo.searchlib.aggregation.HitsAggregationResult;
 import com.yahoo.searchlib.aggregation.MaxAggregationResult;
 import com.yahoo.searchlib.aggregation.MinAggregationResult;
@@ -41,6 +44,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -197,6 +201,71 @@ public class GroupingExecutorTestCase {
         assertEquals(9L, hit.getField("max(bar)"));
     }
 
+    @Test
+    void requireThatCountErrorsOfApproximateRequestsAreReported() {
+        Query query = newQuery();
+        GroupingRequest req = GroupingRequest.newInstance(query);
+        req.setRootOperation(GroupingOperation.fromString("all(group(foo) hint(approximate) each(output(max(bar))))"));
+
+        com.yahoo.searchlib.aggregation.Group incomplete = new com.yahoo.searchlib.aggregation.Group()
+                .setId(new StringResultNode("incomplete")).addAggregationResult(new MaxAggregationResult().setMax(new IntegerResultNode(6)).setTag(3));
+        Grouping grp = new Grouping(0);
+        grp.setRoot(new com.yahoo.searchlib.aggregation.Group()
+                .addChild(incomplete)
+                .addChild(new com.yahoo.searchlib.aggregation.Group().setId(new StringResultNode("complete")).addAggregationResult(new MaxAggregationResult().setMax(new IntegerResultNode(9)).setTag(3)))
+        );
+        GroupingListHit groupingHit = new GroupingListHit(List.of(grp), null, query);
+        groupingHit.setCountErrors(Map.of(incomplete, 17L));
+        Execution exec = newExecution(new GroupingExecutor(), new ResultProvider(List.of(groupingHit)));
+        Group group = req.getResultGroup(exec.search(query));
+        assertEquals(Set.of(0), Dispatcher.getApproximateGroupings(query));
+
+        GroupList lst = (GroupList) group.get(0);
+        assertEquals(17L, lst.get("group:string:incomplete").getField(GroupingExecutor.COUNT_ERROR_FIELD));
+        assertEquals(0L, lst.get("group:string:complete").getField(GroupingExecutor.COUNT_ERROR_FIELD));
+    }
+
+    @Test
+    void requireThatContinuationPagesAreServedFromResultCache() {
+        GroupingExecutor executor = new GroupingExecutor();
+        GroupsProvider provider = new GroupsProvider();
+        String request = "all(group(foo) hint(singlepass) max(2) each(output(count())))";
+
+        GroupList page = searchPage(executor, provider, request, null, true);
+        assertNotNull(page.get("group:string:g0"));
+        assertNotNull(page.get("group:string:g1"));
+        assertEquals(List.of(11L), provider.maxGroups); // This page and 4 more, plus one to find the next page
+
+        for (int i = 2; i < 10; i += 2) {
+            page = searchPage(executor, provider, request, page.continuations().get(Continuation.NEXT_PAGE), true);
+            assertNull(page.get("group:string:g" + (i - 1)));
+            assertNotNull(page.get("group:string:g" + i));
+            assertNotNull(page.get("group:string:g" + (i + 1)));
+        }
+        assertNull(page.continuations().get(Continuation.NEXT_PAGE));
+        assertEquals(List.of(11L), provider.maxGroups);
+
+        Continuation previous = page.continuations().get(Continuation.PREV_PAGE);
+        page = searchPage(executor, provider, request, previous, false);
+        assertNotNull(page.get("group:string:g6"));
+        assertEquals(List.of(11L, 9L), provider.maxGroups);
+    }
+
+    @Test
+    void requireThatPrefetchingStaysWithinGlobalMaxGroups() {
+        Query query = newQuery();
+        query.properties().set(GroupingExecutor.PARAM_RESULT_CACHE, true);
+        GroupingRequest req = GroupingRequest.newInstance(query);
+        req.setRootOperation(GroupingOperation.fromString("all(group(a) hint(singlepass) max(10) each(group(b) max(10) " +
+                                                          "each(group(c) max(10) each(output(count())))))"));
+        GroupingCollector collector = new GroupingCollector();
+        newExecution(new GroupingExecutor(), collector).search(query);
+
+        // Prefetching more than one page would exceed the default global max of 10000 groups
+        for (GroupingLevel level : collector.lst.get(0).getLevels())
+            assertEquals(21, level.getMaxGroups());
+    }
+
     @Test
     void requireThatUnexpectedGroupingResultsAreIgnored() {
         Query query = newQuery();
@@ -610,6 +679,17 @@ public class GroupingExecutorTestCase {
                              Execution.Context.createContextStub());
     }
 
+    private static GroupList searchPage(GroupingExecutor executor, Searcher provider, String request,
+                                        Continuation continuation, boolean useResultCache) {
+        Query query = newQuery();
+        query.properties().set(GroupingExecutor.PARAM_RESULT_CACHE, useResultCache);
+        GroupingRequest req = GroupingRequest.newInstance(query);
+        req.setRootOperation(GroupingOperation.fromString(request));
+        if (continuation != null)
+            req.continuations().add(continuation);
+        return (GroupList) req.getResultGroup(newExecution(executor, provider).search(query)).get(0);
+    }
+
     private List<Grouping> execute(String groupingExpression) {
         Query query = newQuery();
         GroupingRequest req = GroupingRequest.newInstance(query);
@@ -789,6 +869,29 @@ public class GroupingExecutorTestCase {
         }
     }
 
+    /** Returns up to 10 groups for the single level of each grouping, ranked by id */
+    @After (GroupingExecutor.COMPONENT_NAME)
+    private static class GroupsProvider extends Searcher {
+
+        final List<Long> maxGroups = new ArrayList<>();
+
+        @Override
+        public Result search(Query query, Execution exec) {
+            List<Grouping> groupings = new ArrayList<>();
+            for (Grouping request : GroupingExecutor.getGroupingList(query)) {
+                Grouping grouping = request.clone();
+                GroupingLevel level = grouping.getLevels().get(0);
+                maxGroups.add(level.getMaxGroups());
+                for (int i = 0; i < Math.min(10, level.getMaxGroups()); i++)
+                    grouping.getRoot().addChild(level.getGroupPrototype().clone().setId(new StringResultNode("g" + i)).setRank(10 - i));
+                groupings.add(grouping);
+            }
+            Result result = exec.search(query);
+            result.hits().add(new GroupingListHit(groupings, null, query));
+            return result;
+        }
+    }
+
     /** Simulate multiple document types returning a grouping result */
     @After (GroupingExecutor.COMPONENT_NAME)
     private static class MultiDocumentTypeResultProvider extends Searcher {
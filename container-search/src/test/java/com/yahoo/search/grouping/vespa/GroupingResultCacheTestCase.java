@@ -0,0 +1,135 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.grouping.vespa;
+
+import com.yahoo.search.Query;
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.aggregation.GroupingLevel;
+import com.yahoo.searchlib.expression.AttributeNode;
+import com.yahoo.searchlib.expression.StringResultNode;
+import com.yahoo.test.ManualClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GroupingResultCacheTestCase {
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    void requireThatResultsAreReturnedWhenTheyHaveAllRequestedGroups() {
+        GroupingResultCache cache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY, Duration.ofSeconds(30), clock);
+        Query query = new Query("?query=foo");
+        List<Grouping> results = List.of(result(request(11), 10));
+        cache.put(GroupingResultCache.keyOf(query, List.of(request(11))), results, Map.of());
+
+        assertEquals(results, cache.get(GroupingResultCache.keyOf(query, List.of(request(3))), List.of(request(3))).results());
+        assertNotNull(cache.get(GroupingResultCache.keyOf(query, List.of(request(11))), List.of(request(11))));
+        assertNull(cache.get(GroupingResultCache.keyOf(query, List.of(request(13))), List.of(request(13))));
+        assertNull(cache.get(GroupingResultCache.keyOf(query, List.of(request(-1))), List.of(request(-1))));
+        assertNull(cache.get(GroupingResultCache.keyOf(new Query("?query=bar"), List.of(request(3))), List.of(request(3))));
+        assertNull(cache.get(GroupingResultCache.keyOf(query, List.of(request(3).setAll(true))), List.of(request(3).setAll(true))));
+    }
+
+    @Test
+    void requireThatResultsAreNotSharedBetweenStreamingSelectionsOrDocumentTypes() {
+        GroupingResultCache cache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY, Duration.ofSeconds(30), clock);
+        Query query = new Query("?query=foo&streaming.userid=1");
+        query.getModel().setDocumentDb("music");
+        cache.put(GroupingResultCache.keyOf(query, List.of(request(3))), List.of(result(request(3), 3)), Map.of());
+
+        Query same = new Query("?query=foo&streaming.userid=1");
+        same.getModel().setDocumentDb("music");
+        assertNotNull(cache.get(GroupingResultCache.keyOf(same, List.of(request(3))), List.of(request(3))));
+        for (String otherUser : List.of("?query=foo&streaming.userid=2", "?query=foo&streaming.groupname=1",
+                                        "?query=foo&streaming.userid=1&streaming.selection=true")) {
+            Query other = new Query(otherUser);
+            other.getModel().setDocumentDb("music");
+            assertNull(cache.get(GroupingResultCache.keyOf(other, List.of(request(3))), List.of(request(3))), otherUser);
+        }
+        Query otherType = new Query("?query=foo&streaming.userid=1");
+        otherType.getModel().setDocumentDb("books");
+        assertNull(cache.get(GroupingResultCache.keyOf(otherType, List.of(request(3))), List.of(request(3))));
+    }
+
+    @Test
+    void requireThatCachedKeysAreNotChangedByTheQuery() {
+        GroupingResultCache cache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY, Duration.ofSeconds(30), clock);
+        Query query = new Query("?query=foo&ranking=first&rankproperty.bar=1");
+        cache.put(GroupingResultCache.keyOf(query, List.of(request(3))), List.of(result(request(3), 3)), Map.of());
+
+        query.getRanking().setProfile("second");
+        query.getRanking().getProperties().put("bar", "2");
+        query.getModel().getRestrict().add("music");
+        assertNotNull(cache.get(GroupingResultCache.keyOf(new Query("?query=foo&ranking=first&rankproperty.bar=1"), List.of(request(3))),
+                                List.of(request(3))));
+    }
+
+    @Test
+    void requireThatEntriesExpire() {
+        GroupingResultCache cache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY, Duration.ofSeconds(30), clock);
+        GroupingResultCache.Key key = GroupingResultCache.keyOf(new Query("?query=foo"), List.of(request(3)));
+        cache.put(key, List.of(result(request(3), 3)), Map.of());
+
+        clock.advance(Duration.ofSeconds(30));
+        assertNotNull(cache.get(key, List.of(request(3))));
+        clock.advance(Duration.ofSeconds(1));
+        assertNull(cache.get(key, List.of(request(3))));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void requireThatLeastRecentlyUsedEntriesAreEvictedWhenFull() {
+        // Each entry is 512 + 96 + 3 * (96 + 64) = 1088
+        GroupingResultCache cache = new GroupingResultCache(2500, Duration.ofSeconds(30), clock);
+        GroupingResultCache.Key foo = GroupingResultCache.keyOf(new Query("?query=foo"), List.of(request(3)));
+        GroupingResultCache.Key bar = GroupingResultCache.keyOf(new Query("?query=bar"), List.of(request(3)));
+        GroupingResultCache.Key baz = GroupingResultCache.keyOf(new Query("?query=baz"), List.of(request(3)));
+        cache.put(foo, List.of(result(request(3), 3)), Map.of());
+        cache.put(bar, List.of(result(request(3), 3)), Map.of());
+        assertNotNull(cache.get(foo, List.of(request(3))));
+
+        cache.put(baz, List.of(result(request(3), 3)), Map.of());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(foo, List.of(request(3))));
+        assertNull(cache.get(bar, List.of(request(3))));
+        assertNotNull(cache.get(baz, List.of(request(3))));
+
+        cache.put(bar, List.of(result(request(3), 20)), Map.of());
+        assertNull(cache.get(bar, List.of(request(3))));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void requireThatCountErrorsOfCachedGroupsAreKept() {
+        GroupingResultCache cache = new GroupingResultCache(GroupingResultCache.DEFAULT_CAPACITY, Duration.ofSeconds(30), clock);
+        GroupingResultCache.Key key = GroupingResultCache.keyOf(new Query("?query=foo"), List.of(request(3)));
+        Grouping result = result(request(3), 3);
+        Group group = result.getRoot().getChildren().get(1);
+        cache.put(key, List.of(result), Map.of(group, 7L, new Group(), 3L));
+
+        assertEquals(Map.of(group, 7L), cache.get(key, List.of(request(3))).countErrors());
+    }
+
+    private static Grouping request(int maxGroups) {
+        GroupingLevel level = new GroupingLevel().setExpression(new AttributeNode("foo"));
+        level.getGroupPrototype().addAggregationResult(new CountAggregationResult().setTag(2));
+        level.setMaxGroups(maxGroups);
+        return new Grouping().addLevel(level);
+    }
+
+    private static Grouping result(Grouping request, int groups) {
+        Grouping result = request.clone();
+        for (int i = 0; i < groups; i++)
+            result.getRoot().addChild(result.getLevels().get(0).getGroupPrototype().clone().setId(new StringResultNode("g" + i)));
+        return result;
+    }
+
+}
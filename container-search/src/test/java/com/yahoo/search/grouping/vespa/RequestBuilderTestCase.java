@@ -198,6 +198,40 @@ public class RequestBuilderTestCase {
                 "[false, false]");
     }
 
+    @Test
+    void requireThatApproximateRequestsAreSinglePassWithCounts() {
+        assertForceSinglePass("all(group(foo) hint(approximate) each(output(count())))", "[true]");
+
+        RequestBuilder builder = new RequestBuilder(0);
+        builder.setRootOperation(GroupingOperation.fromString(
+                "all(group(foo) hint(approximate) each(output(max(bar)) all(group(baz) each(output(count())))))"));
+        builder.build();
+        assertTrue(builder.isApproximate());
+        Grouping grouping = builder.getRequestList().get(0);
+        assertTrue(grouping.getForceSinglePass());
+
+        List<AggregationResult> rootResults = grouping.getRoot().getAggregationResults();
+        assertEquals(1, rootResults.size());
+        assertTrue(rootResults.get(0) instanceof CountAggregationResult);
+        assertNull(builder.getTransform().getLabel(rootResults.get(0).getTag()));
+
+        List<AggregationResult> fooResults = grouping.getLevels().get(0).getGroupPrototype().getAggregationResults();
+        assertEquals(2, fooResults.size());
+        assertEquals("max(bar)", builder.getTransform().getLabel(fooResults.get(0).getTag()));
+        assertTrue(fooResults.get(1) instanceof CountAggregationResult);
+        assertNull(builder.getTransform().getLabel(fooResults.get(1).getTag()));
+
+        List<AggregationResult> bazResults = grouping.getLevels().get(1).getGroupPrototype().getAggregationResults();
+        assertEquals(1, bazResults.size());
+        assertEquals("count()", builder.getTransform().getLabel(bazResults.get(0).getTag()));
+
+        builder = new RequestBuilder(0);
+        builder.setRootOperation(GroupingOperation.fromString("all(group(foo) each(output(max(bar))))"));
+        builder.build();
+        assertFalse(builder.isApproximate());
+        assertEquals(0, builder.getRequestList().get(0).getRoot().getAggregationResults().size());
+    }
+
     @Test
     void requireThatThereCanBeOnlyOneBuildCall() {
         RequestBuilder builder = new RequestBuilder(0);
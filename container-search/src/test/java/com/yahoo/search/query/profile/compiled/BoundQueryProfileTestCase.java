@@ -0,0 +1,110 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.query.profile.QueryProfile;
+import com.yahoo.search.query.profile.QueryProfileRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundQueryProfileTestCase {
+
+    @Test
+    void bound_profile_returns_the_values_of_its_variant() {
+        CompiledQueryProfile profile = createProfile();
+
+        BoundQueryProfile x1 = profile.bind(Map.of("x", "x1", "unrelated", "u1"));
+        assertEquals("a.x1", x1.get(CompoundName.from("a"), Map.of(), null));
+        assertEquals("b.default", x1.get(CompoundName.from("b"), Map.of(), null));
+        assertEquals("c.x1", x1.get(CompoundName.from("n.c"), Map.of(), null));
+        assertNull(x1.get(CompoundName.from("d"), Map.of(), null));
+        assertEquals(Map.of("c", "c.x1"), x1.listValues(CompoundName.from("n"), Map.of(), null));
+
+        BoundQueryProfile x1y1 = profile.bind(Map.of("x", "x1", "y", "y1"));
+        assertEquals("a.x1.y1", x1y1.get(CompoundName.from("a"), Map.of(), null));
+        assertEquals("b.default", x1y1.get(CompoundName.from("b"), Map.of(), null));
+
+        BoundQueryProfile unbound = profile.bind(null);
+        assertEquals("a.default", unbound.get(CompoundName.from("a"), null, null));
+        assertEquals(Map.of("a", "a.default", "b", "b.default"), unbound.listValues(CompoundName.empty, null, null));
+    }
+
+    @Test
+    void bindings_are_reused_for_the_same_dimension_values() {
+        CompiledQueryProfile profile = createProfile();
+        Map<String, String> context = new HashMap<>(Map.of("x", "x1", "y", "y1"));
+        BoundQueryProfile bound = profile.bind(context);
+
+        context.put("unrelated", "u1");
+        assertTrue(bound.matches(context));
+        assertSame(bound, profile.bind(context));
+
+        context.put("y", "y2");
+        assertFalse(bound.matches(context));
+        assertFalse(profile.bind(context).matches(Map.of("x", "x1", "y", "y1")));
+        assertFalse(bound.matches(null));
+    }
+
+    @Test
+    void least_recently_used_bindings_are_evicted() {
+        CompiledQueryProfile profile = createProfile();
+        BoundQueryProfile first = profile.bind(Map.of("x", "x0"));
+        BoundQueryProfile second = profile.bind(Map.of("x", "x1"));
+        for (int i = 2; i < CompiledQueryProfile.maxBindings; i++)
+            profile.bind(Map.of("x", "x" + i));
+
+        assertSame(first, profile.bind(Map.of("x", "x0")));
+        profile.bind(Map.of("x", "new"));
+        assertSame(first, profile.bind(Map.of("x", "x0")));
+        assertNotSame(second, profile.bind(Map.of("x", "x1")));
+    }
+
+    @Test
+    void bindings_are_not_kept_when_dimension_values_vary_too_much() {
+        CompiledQueryProfile profile = createProfile();
+        BoundQueryProfile x1 = profile.bind(Map.of("x", "x1"));
+        for (int i = 0; i < 2 * CompiledQueryProfile.maxBindings; i++) {
+            profile.bind(Map.of("x", "x1"));
+            profile.bind(Map.of("x", "unique" + i));
+        }
+        assertSame(x1, profile.bind(Map.of("x", "x1")));
+
+        for (int i = 0; i < 2 * CompiledQueryProfile.maxBindings; i++)
+            profile.bind(Map.of("x", "other" + i));
+        BoundQueryProfile other = profile.bind(Map.of("x", "other"));
+        assertNotSame(other, profile.bind(Map.of("x", "other")));
+        assertEquals("a.default", other.get(CompoundName.from("a"), Map.of(), null));
+        assertEquals("a.x1.y1", profile.bind(Map.of("x", "x1", "y", "y1")).get(CompoundName.from("a"), Map.of(), null));
+    }
+
+    @Test
+    void profiles_without_dimensions_have_a_single_binding() {
+        QueryProfile profile = new QueryProfile("test");
+        profile.set("a", "a.value", (QueryProfileRegistry)null);
+        CompiledQueryProfile compiled = profile.compile(null);
+        assertSame(compiled.bind(Map.of("x", "x1")), compiled.bind(null));
+        assertTrue(compiled.bind(null).matches(Map.of("x", "x2")));
+        assertEquals("a.value", compiled.bind(null).get(CompoundName.from("a"), null, null));
+    }
+
+    private CompiledQueryProfile createProfile() {
+        QueryProfile profile = new QueryProfile("test");
+        profile.setDimensions(new String[] { "x", "y" });
+        profile.set("a", "a.default", (QueryProfileRegistry)null);
+        profile.set("a", "a.x1", new String[] { "x1" }, null);
+        profile.set("a", "a.x1.y1", new String[] { "x1", "y1" }, null);
+        profile.set("b", "b.default", (QueryProfileRegistry)null);
+        profile.set("n.c", "c.x1", new String[] { "x1" }, null);
+        return profile.compile(null);
+    }
+
+}
@@ -0,0 +1,66 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.result.test;
+
+import com.yahoo.search.query.Sorting;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitSortOrderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Compares ordering hits by field values with a HitSortOrderer, which looks up the values once per hit,
+ * to sorting them with its comparator, which looks up the values on each comparison.
+ */
+public class HitSortMicroBenchmark {
+
+    private static final int hitCount = 10000;
+    private static final int iterations = 200;
+
+    public void run() {
+        List<Hit> hits = createHits();
+        for (String sortSpec : List.of("-price", "+brand -price", "-[relevance]")) {
+            HitSortOrderer orderer = new HitSortOrderer(Sorting.fromString(sortSpec));
+            out(sortSpec + ":");
+            measure("  comparator", hits, list -> list.sort(orderer.getComparator()));
+            measure("  orderer   ", hits, orderer::order);
+        }
+    }
+
+    private void measure(String name, List<Hit> hits, Consumer<List<Hit>> sorter) {
+        for (int i = 0; i < iterations; i++) // warm-up
+            sorter.accept(new ArrayList<>(hits));
+
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            List<Hit> copy = new ArrayList<>(hits);
+            long start = System.nanoTime();
+            sorter.accept(copy);
+            total += System.nanoTime() - start;
+        }
+        out(name + " sorted " + hitCount + " hits in " + (total / iterations / 1000) + " us");
+    }
+
+    private List<Hit> createHits() {
+        Random random = new Random(1);
+        List<Hit> hits = new ArrayList<>(hitCount);
+        for (int i = 0; i < hitCount; i++) {
+            Hit hit = new Hit("hit" + i, random.nextDouble());
+            hit.setField("price", (long)random.nextInt(100000));
+            hit.setField("brand", "brand" + random.nextInt(100));
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    private void out(String string) {
+        System.out.println(string);
+    }
+
+    public static void main(String[] args) {
+        new HitSortMicroBenchmark().run();
+    }
+
+}
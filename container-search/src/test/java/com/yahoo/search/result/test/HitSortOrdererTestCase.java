@@ -0,0 +1,95 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.result.test;
+
+import com.yahoo.search.query.Sorting;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.result.HitSortOrderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HitSortOrdererTestCase {
+
+    @Test
+    void requireThatLargeListsAreOrderedAsByTheComparator() {
+        for (String sortSpec : List.of("+long", "-double", "+string -long", "-[relevance] +string", "+mixed -long",
+                                       "+lowercase(string) +double", "-missing +long", "+sub.value"))
+            assertOrderedAsByComparator(sortSpec, 1000);
+    }
+
+    @Test
+    void requireThatSmallListsAreOrderedAsByTheComparator() {
+        assertOrderedAsByComparator("-double +string", 10);
+    }
+
+    @Test
+    void requireThatMetaHitsKeepTheirOrderFirstAndGroupsAreLast() {
+        List<Hit> hits = createHits(200, new Random(7));
+        new HitSortOrderer(Sorting.fromString("+long")).order(hits);
+
+        int metaHits = 0;
+        for (Hit hit : hits) {
+            if ( ! hit.isMeta()) break;
+            metaHits++;
+        }
+        int previousId = -1;
+        for (int i = 0; i < hits.size(); i++) {
+            Hit hit = hits.get(i);
+            assertEquals(i < metaHits, hit.isMeta());
+            if (hit.isMeta()) {
+                int id = Integer.parseInt(hit.getId().toString().substring(1));
+                assertTrue(id > previousId, "Meta hits are not reordered");
+                previousId = id;
+            }
+        }
+        assertTrue(hits.get(hits.size() - 1) instanceof HitGroup);
+    }
+
+    private static void assertOrderedAsByComparator(String sortSpec, int size) {
+        HitSortOrderer orderer = new HitSortOrderer(Sorting.fromString(sortSpec));
+        List<Hit> hits = createHits(size, new Random(sortSpec.hashCode()));
+        List<Hit> expected = new ArrayList<>(hits);
+        expected.sort(orderer.getComparator());
+
+        orderer.order(hits);
+        assertEquals(expected.size(), hits.size());
+        for (int i = 0; i < hits.size(); i++)
+            assertSame(expected.get(i), hits.get(i), sortSpec + ": Hit at " + i);
+    }
+
+    private static List<Hit> createHits(int count, Random random) {
+        List<Hit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Hit hit;
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                hit = new HitGroup("g" + i, random.nextInt(10));
+                hit.setMeta(false);
+            } else if (kind == 1) {
+                hit = new Hit("m" + i, random.nextInt(10));
+                hit.setMeta(true);
+            } else {
+                hit = new Hit("h" + i, random.nextInt(10));
+            }
+            if (random.nextInt(10) > 0)
+                hit.setField("long", (long)random.nextInt(50));
+            if (random.nextInt(10) > 0)
+                hit.setField("double", random.nextInt(100) == 0 ? Double.NaN : random.nextInt(50) / 7.0);
+            if (random.nextInt(10) > 0)
+                hit.setField("string", (random.nextBoolean() ? "S" : "s") + random.nextInt(30));
+            hit.setField("mixed", random.nextBoolean() ? (Object)(long)random.nextInt(20) : "m" + random.nextInt(20));
+            if (random.nextInt(5) > 0)
+                hit.setField("sub.value", random.nextInt(20));
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+}
@@ -6,6 +6,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import com.yahoo.component.ComponentId;
 import com.yahoo.component.chain.Chain;
@@ -167,6 +169,61 @@ public class ExecutionTestCase {
         assertTrue((Boolean) result.hits().get("a").getField("filled"));
     }
 
+    @Test
+    void testAsyncExecution() {
+        AsyncSourceSearcher source = new AsyncSourceSearcher();
+        Chain<Searcher> chain = new Chain<>(new AsyncTestSearcher("searcher1"), new AsyncTestSearcher("searcher2"), source);
+        Execution execution = new Execution(chain, Execution.Context.createContextStub());
+
+        CompletableFuture<Result> searched = execution.searchAsync(new Query("test")).toCompletableFuture();
+        assertFalse(searched.isDone());
+        source.pendingResult.complete(new Result(source.query));
+        Result result = searched.join();
+        assertSame(execution, result.getQuery().getModel().getExecution());
+        assertEquals(2, result.getConcreteHitCount());
+        assertNotNull(result.hits().get("searcher1-1"));
+        assertNotNull(result.hits().get("searcher2-1"));
+
+        Hit hit = new Hit("a");
+        hit.setFillable();
+        result.hits().add(hit);
+        CompletableFuture<Void> filled = execution.fillAsync(result, "all").toCompletableFuture();
+        assertFalse(filled.isDone());
+        source.pendingFill.complete(null);
+        filled.join();
+        assertTrue((Boolean) result.hits().get("a").getField("filled"));
+    }
+
+    /** A source which completes its result and fill when told to */
+    private static class AsyncSourceSearcher extends Searcher {
+
+        final CompletableFuture<Result> pendingResult = new CompletableFuture<>();
+        final CompletableFuture<Void> pendingFill = new CompletableFuture<>();
+        Query query;
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            throw new IllegalStateException("Should be searched asynchronously");
+        }
+
+        @Override
+        public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+            this.query = query;
+            return pendingResult;
+        }
+
+        @Override
+        public CompletionStage<Void> fillAsync(Result result, String summaryClass, Execution execution) {
+            return pendingFill.thenRun(() -> {
+                for (Hit hit : result.hits().asList()) {
+                    if ( ! hit.isFillable()) continue;
+                    hit.setField("filled", true);
+                    hit.setFilled(summaryClass);
+                }
+            });
+        }
+    }
+
     private static class FillableResultSearcher extends Searcher {
 
         @Override
@@ -234,6 +291,29 @@ public class ExecutionTestCase {
 
     }
 
+    public static class AsyncTestSearcher extends Searcher {
+
+        private int counter=1;
+
+        private AsyncTestSearcher(String id) {
+            super(new ComponentId(id));
+        }
+
+        @Override
+        public Result search(Query query,Execution execution) {
+            throw new IllegalStateException("Should be searched asynchronously");
+        }
+
+        @Override
+        public CompletionStage<Result> searchAsync(Query query,Execution execution) {
+            return execution.searchAsync(query).thenApply(result -> {
+                result.hits().add(new Hit(getId().stringValue() + "-" + (counter++)));
+                return result;
+            });
+        }
+
+    }
+
     public static class ForwardingSearcher extends Searcher {
 
         @Override
@@ -0,0 +1,151 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.test;
+
+import com.yahoo.concurrent.Timer;
+import com.yahoo.document.GlobalId;
+import com.yahoo.document.idstring.IdString;
+import com.yahoo.prelude.fastsearch.FastHit;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.InterleavedSearchInvoker;
+import com.yahoo.search.dispatch.InvokerResult;
+import com.yahoo.search.dispatch.LeanHit;
+import com.yahoo.search.dispatch.SearchInvoker;
+import com.yahoo.search.dispatch.TopKEstimator;
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.grouping.result.GroupList;
+import com.yahoo.search.grouping.result.RootGroup;
+import com.yahoo.search.grouping.result.StringId;
+import com.yahoo.search.result.Relevance;
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures the bytes allocated per query by the main parts of the search path:
+ * creating the query, building and sorting the result, merging the results of content nodes,
+ * and building a grouping result.
+ *
+ * Run with -XX:+UseParallelGC -verbose:gc to also see the young collections caused.
+ */
+public class SearchAllocationMicroBenchmark {
+
+    private static final int warmupIterations = 20000;
+    private static final int iterations = 100000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final byte[][] gids = new byte[2000][];
+
+    public SearchAllocationMicroBenchmark() {
+        for (int i = 0; i < gids.length; i++)
+            gids[i] = new GlobalId(IdString.createIdString("id:ns:test::" + i)).getRawId();
+    }
+
+    public void run() {
+        measure("query", this::createQuery);
+        measure("result with 100 hits", this::createResult);
+        measure("merge of 20 nodes", this::mergeNodeResults);
+        measure("grouping result with 1000 groups", this::createGroupingResult);
+    }
+
+    private void measure(String name, IntSupplier operation) {
+        int ignored = 0;
+        for (int i = 0; i < warmupIterations; i++)
+            ignored += operation.getAsInt();
+
+        long startBytes = threads.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            ignored += operation.getAsInt();
+        long bytes = threads.getCurrentThreadAllocatedBytes() - startBytes;
+        long nanos = System.nanoTime() - startTime;
+        System.out.printf("%-36s %10d bytes/op %10.2f us/op (ignore: %d)%n",
+                          name, bytes / iterations, nanos / 1000.0 / iterations, ignored);
+    }
+
+    private int createQuery() {
+        Query query = new Query("/search/?query=foo%20bar&hits=20&ranking=test&presentation.summary=short");
+        query.getModel().getQueryTree();
+        return query.clone().getHits();
+    }
+
+    private int createResult() {
+        Query query = new Query("/search/?query=foo&hits=100");
+        Result result = new Result(query);
+        for (int i = 0; i < 100; i++) {
+            FastHit hit = new FastHit(gids[i], new Relevance(i % 17), 0, i % 20);
+            hit.setQuery(query);
+            hit.setFillable();
+            hit.setCached(false);
+            result.hits().add(hit);
+        }
+        result.hits().sort();
+        result.analyzeHits();
+        return result.getConcreteHitCount();
+    }
+
+    private int mergeNodeResults() {
+        Query query = new Query("/search/?query=foo&hits=100");
+        List<SearchInvoker> invokers = new ArrayList<>(20);
+        for (int node = 0; node < 20; node++)
+            invokers.add(new NodeInvoker(node));
+        DispatchConfig config = new DispatchConfig.Builder().build();
+        try (SearchInvoker invoker = new InterleavedSearchInvoker(Timer.monotonic, invokers,
+                                                                  new TopKEstimator(30, config.topKProbability(), 0.05),
+                                                                  config, new Group(0, List.of()), null)) {
+            return invoker.search(query).getConcreteHitCount();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int createGroupingResult() {
+        RootGroup root = new RootGroup(0, null);
+        GroupList list = new GroupList("a");
+        root.add(list);
+        for (int i = 0; i < 1000; i++)
+            list.add(new com.yahoo.search.grouping.result.Group(new StringId("g" + i), new Relevance(i)));
+        return list.size();
+    }
+
+    /** A content node which returns 100 hits immediately */
+    private class NodeInvoker extends SearchInvoker {
+
+        private final int node;
+        private Query query;
+
+        NodeInvoker(int node) {
+            super(Optional.empty());
+            this.node = node;
+        }
+
+        @Override
+        protected Object sendSearchRequest(Query query, Object context) {
+            this.query = query;
+            responseAvailable();
+            return context;
+        }
+
+        @Override
+        protected InvokerResult getSearchResult() {
+            InvokerResult result = new InvokerResult(query, 100);
+            for (int i = 0; i < 100; i++)
+                result.getLeanHits().add(new LeanHit(gids[node * 100 + i], 0, node, 100.0 - i - node / 20.0));
+            return result;
+        }
+
+        @Override
+        protected void release() { }
+
+    }
+
+    public static void main(String[] args) {
+        new SearchAllocationMicroBenchmark().run();
+    }
+
+}
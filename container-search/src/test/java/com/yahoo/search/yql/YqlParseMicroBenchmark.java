@@ -0,0 +1,57 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.yql;
+
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.search.Query;
+import com.yahoo.search.query.parser.Parsable;
+import com.yahoo.search.query.parser.ParserEnvironment;
+import com.yahoo.search.query.parser.ParserFactory;
+
+/**
+ * Compares the time spent parsing YQL queries from scratch to parsing them with a program cache,
+ * for queries with the same structure but different literal values.
+ */
+public class YqlParseMicroBenchmark {
+
+    private static final String[] templates = {
+            "select * from sources * where title contains '%s' and year > %d limit 10",
+            "select * from sources * where ({targetHits: 100}nearestNeighbor(embedding, q) or userInput('%s')) and year < %d order by year desc",
+            "select title, year from music where weightedSet(tags, {'%s': 1, 'rock': 2}) and rating >= %d.5 | all(group(year) each(output(count())))",
+    };
+
+    public void run() {
+        YqlProgramCache cache = new YqlProgramCache(YqlProgramCache.DEFAULT_CAPACITY, MetricReceiver.nullImplementation);
+        out("Warming up...");
+        runParse(null, 20000);
+        runParse(cache, 20000);
+        out("Running...");
+        long start = System.nanoTime();
+        int result = runParse(null, 100000);
+        out("Parsing 100.000 queries without a cache took " + (System.nanoTime() - start) / 1000000 + " ms");
+        start = System.nanoTime();
+        result += runParse(cache, 100000);
+        out("Parsing 100.000 queries with a cache took " + (System.nanoTime() - start) / 1000000 + " ms");
+        out("Ignore this: " + result); // Make sure we are not fooled by optimization by creating an observable result
+    }
+
+    private int runParse(YqlProgramCache cache, int count) {
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            String yql = String.format(templates[i % templates.length], "word" + (i % 1000), 1900 + i % 100);
+            YqlParser parser = (YqlParser) ParserFactory.newInstance(Query.Type.YQL, new ParserEnvironment());
+            parser.setQueryParser(false);
+            parser.setProgramCache(cache);
+            result += parser.parse(new Parsable().setQuery(yql)).getRoot().getTermCount();
+        }
+        return result;
+    }
+
+    private void out(String string) {
+        System.out.println(string);
+    }
+
+    public static void main(String[] args) {
+        new YqlParseMicroBenchmark().run();
+    }
+
+}
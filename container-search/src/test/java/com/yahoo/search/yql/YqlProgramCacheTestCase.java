@@ -0,0 +1,219 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.yql;
+
+import ai.vespa.metrics.ContainerMetrics;
+import com.yahoo.component.chain.Chain;
+import com.yahoo.language.simple.SimpleLinguistics;
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.metrics.simple.UntypedMetric;
+import com.yahoo.search.Query;
+import com.yahoo.search.query.QueryTree;
+import com.yahoo.search.query.parser.Parsable;
+import com.yahoo.search.query.parser.ParserEnvironment;
+import com.yahoo.search.searchchain.Execution;
+import org.apache.http.client.utils.URIBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class YqlProgramCacheTestCase {
+
+    private final MetricReceiver.MockReceiver metric = new MetricReceiver.MockReceiver();
+    private final YqlProgramCache cache = new YqlProgramCache(10, metric);
+
+    @Test
+    void programs_differing_in_literals_are_parsed_once() throws Exception {
+        assertParsed("select * from sources * where title contains 'foo' and year > 1969 limit 10");
+        assertParsed("select * from sources * where title contains 'bar' and year > 2001 limit 20");
+        assertParsed("select * from sources * where title contains \"it's\" and year > -3 limit 30");
+        assertParsed("select  *  from sources * /* comment */ where title contains 'baz'\n and year > 7 limit 40");
+        assertEquals(1, cache.size());
+        assertMetrics(3, 1);
+    }
+
+    @Test
+    void cached_programs_are_returned_as_new_trees() throws Exception {
+        String program = "select * from sources * where title contains 'foo' and ({stem: false}year > 1969 or rating < 4.5)";
+        OperatorNode<StatementOperator> parsed = cache.parse("query", program);
+        OperatorNode<StatementOperator> first = cache.parse("query", program);
+        OperatorNode<StatementOperator> second = cache.parse("query", program);
+        assertMetrics(2, 1);
+        assertEquals(parsed, first);
+        assertEquals(parsed, second);
+        assertNoSharedNodes(parsed, first);
+        assertNoSharedNodes(first, second);
+
+        OperatorNode<StatementOperator> uncached = new ProgramParser().parse("query", program);
+        parsed.putAnnotation("changed", true);
+        first.putAnnotation("changed", true);
+        assertNotEquals(uncached, first);
+        assertEquals(uncached, cache.parse("query", program));
+    }
+
+    @Test
+    void literals_of_other_types_are_not_bound() throws Exception {
+        assertParsed("select * from sources * where year > 1969 and rating < 4.5");
+        assertParsed("select * from sources * where year > 50000000000 and rating < 3.5");
+        assertParsed("select * from sources * where year > 1970 and rating < 2.5");
+        assertEquals(1, cache.size());
+        assertMetrics(1, 2);
+    }
+
+    @Test
+    void annotation_values_must_be_equal() throws Exception {
+        assertParsed("select * from sources * where {targetHits: 10}nearestNeighbor(embedding, q)");
+        assertParsed("select * from sources * where {targetHits: 20}nearestNeighbor(embedding, q)");
+        assertParsed("select * from sources * where {targetHits: 10}nearestNeighbor(embedding, q)");
+        assertMetrics(1, 2);
+    }
+
+    @Test
+    void grouping_is_part_of_the_key() throws Exception {
+        assertParsed("select * from sources * where true | all(group(a) max(5) each(output(count())))");
+        assertParsed("select * from sources * where true | all(group(a) max(7) each(output(count())))");
+        assertEquals(2, cache.size());
+        assertMetrics(0, 2);
+    }
+
+    @Test
+    void cache_is_cleared_when_full() throws Exception {
+        for (int i = 0; i < 15; i++)
+            assertParsed("select * from sources * where f" + i + " contains 'foo'");
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    void invalid_programs_fail_as_when_not_cached() throws Exception {
+        assertParsed("select * from sources * where title contains 'foo'");
+        String invalid = "select * from sources * where title contains 'foo";
+        Exception expected = assertThrows(ProgramCompileException.class, () -> new ProgramParser().parse("query", invalid));
+        Exception actual = assertThrows(ProgramCompileException.class, () -> cache.parse("query", invalid));
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertThrows(ProgramCompileException.class, () -> cache.parse("query", "select * from sources * where title contains 'foo' and"));
+    }
+
+    @Test
+    void queries_are_created_from_cached_programs() {
+        MetricReceiver.MockReceiver metric = new MetricReceiver.MockReceiver();
+        Execution execution = new Execution(new Chain<>(new MinimalQueryInserter(new SimpleLinguistics(), metric)),
+                                            Execution.Context.createContextStub());
+        assertEquals("AND title:foo year:>1969", search("select * from sources * where title contains 'foo' and year > 1969", execution));
+        assertEquals("AND title:bar year:>2001", search("select * from sources * where title contains 'bar' and year > 2001", execution));
+        assertEquals(1, metric(metric, ContainerMetrics.YQL_PARSE_CACHE_HITS.baseName()));
+    }
+
+    static List<Arguments> programs() {
+        return List.of(Arguments.of("select * from sources * where title contains 'foo' and year > 1969 limit 10 offset 5",
+                                    "select * from sources * where title contains 'bar' and year > 2001 limit 3 offset 0"),
+                       Arguments.of("select * from sources * where title contains \"it's\" or title contains 'a\\'b'",
+                                    "select * from sources * where title contains 'x' or title contains 'y'"),
+                       Arguments.of("select * from sources * where year >= 1969 and rating < 4.5 order by year desc",
+                                    "select * from sources * where year >= 2001 and rating < 0.5 order by year desc"),
+                       Arguments.of("select * from sources * where range(year, 1969, 2001) and !(title contains 'foo')",
+                                    "select * from sources * where range(year, 0, 1) and !(title contains 'bar')"),
+                       Arguments.of("select * from sources * where title contains phrase('a', 'b', 'c')",
+                                    "select * from sources * where title contains phrase('x', 'y', 'z')"),
+                       Arguments.of("select * from sources * where title contains ({stem: false, weight: 200}'foo')",
+                                    "select * from sources * where title contains ({stem: false, weight: 200}'bar')"),
+                       Arguments.of("select * from sources * where {targetHits: 10}nearestNeighbor(embedding, q)",
+                                    "select * from sources * where {targetHits: 20}nearestNeighbor(embedding, q)"),
+                       Arguments.of("select * from sources * where weightedSet(tags, {'a': 1, 'b': 2})",
+                                    "select * from sources * where weightedSet(tags, {'c': 3, 'd': 4})"),
+                       Arguments.of("select * from sources * where wand(tags, {'a': 1, 'b': 2})",
+                                    "select * from sources * where wand(tags, {'c': 3, 'd': 4})"),
+                       Arguments.of("select * from sources * where person contains sameElement(name contains 'a', age > 30)",
+                                    "select * from sources * where person contains sameElement(name contains 'b', age > 20)"),
+                       Arguments.of("select * from sources * where year in (1969, 2001, -7)",
+                                    "select * from sources * where year in (1, 2, 3)"),
+                       Arguments.of("select * from sources * where title contains 'foo' | all(group(a) max(5) each(output(count())))",
+                                    "select * from sources * where title contains 'bar' | all(group(a) max(5) each(output(count())))"),
+                       Arguments.of("select * from sources * where title matches 'fo+' and year = 1969",
+                                    "select * from sources * where title matches 'ba+' and year = 2001"),
+                       Arguments.of("select * from sources * where title contains 'foo' and year > 1969",
+                                    "select * from sources * where title contains 'bar' and year > 50000000000"));
+    }
+
+    /**
+     * Parses a program with a parser using a cache which already holds a variant of it with other literals,
+     * and with a parser without a cache, and checks that both produce the same query.
+     */
+    @ParameterizedTest
+    @MethodSource("programs")
+    void cached_programs_are_parsed_as_uncached_programs(String program, String variant) {
+        YqlProgramCache programCache = new YqlProgramCache(10, metric);
+        parse(variant, programCache);
+        assertEquals(parse(program, null), parse(program, programCache), program);
+    }
+
+    /** Returns what the given program is parsed to, as a string */
+    private static String parse(String program, YqlProgramCache programCache) {
+        YqlParser parser = new YqlParser(new ParserEnvironment());
+        parser.setProgramCache(programCache);
+        QueryTree tree = parser.parse(new Parsable().setQuery(program));
+        return tree + " offset: " + parser.getOffset() + " hits: " + parser.getHits() + " sorting: " + parser.getSorting() +
+               " grouping: " + parser.getGroupingSteps().stream()
+                                     .map(step -> step.continuations().toString() + step.getOperation())
+                                     .toList();
+    }
+
+    private void assertParsed(String program) throws Exception {
+        assertEquals(new ProgramParser().parse("query", program), cache.parse("query", program), program);
+    }
+
+    private void assertMetrics(int hits, int misses) {
+        var snapshot = metric.getSnapshot();
+        assertEquals(hits, count(snapshot.getMapForMetric(ContainerMetrics.YQL_PARSE_CACHE_HITS.baseName()).values()));
+        assertEquals(misses, count(snapshot.getMapForMetric(ContainerMetrics.YQL_PARSE_CACHE_MISSES.baseName()).values()));
+    }
+
+    private static long metric(MetricReceiver.MockReceiver metric, String name) {
+        return count(metric.getSnapshot().getMapForMetric(name).values());
+    }
+
+    private static long count(Collection<UntypedMetric> values) {
+        return values.stream().mapToLong(UntypedMetric::getCount).sum();
+    }
+
+    private static void assertNoSharedNodes(OperatorNode<?> a, OperatorNode<?> b) {
+        Set<Object> nodesOfA = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectNodes(a, nodesOfA);
+        Set<Object> nodesOfB = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectNodes(b, nodesOfB);
+        assertFalse(nodesOfA.stream().anyMatch(nodesOfB::contains));
+    }
+
+    private static void collectNodes(Object argument, Set<Object> nodes) {
+        if (argument instanceof OperatorNode<?> node) {
+            nodes.add(node);
+            for (Object child : node.getArguments())
+                collectNodes(child, nodes);
+        }
+        else if (argument instanceof List<?> list) {
+            nodes.add(list);
+            for (Object element : list)
+                collectNodes(element, nodes);
+        }
+    }
+
+    private static String search(String yql, Execution execution) {
+        URIBuilder builder = new URIBuilder();
+        builder.setPath("search/");
+        builder.setParameter("yql", yql);
+        Query query = new Query(builder.toString());
+        execution.search(query);
+        return query.getModel().getQueryTree().toString();
+    }
+
+}
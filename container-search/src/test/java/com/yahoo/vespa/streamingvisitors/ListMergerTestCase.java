@@ -3,6 +3,7 @@ package com.yahoo.vespa.streamingvisitors;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.LinkedList;
 
@@ -49,6 +50,42 @@ public class ListMergerTestCase {
         verifyList(list1, entryCount / 2, padding);
     }
 
+    @Test
+    void testMergeIntoSortedList() {
+        int entryCount = 6;
+        int padding = (int) Math.log10(entryCount) + 1;
+
+        List<String> list1 = new ArrayList<>();
+        List<String> list2 = new ArrayList<>();
+        initializeLists(list1, list2, entryCount, padding);
+
+        List<String> merged = new ArrayList<>(list1);
+        ListMerger.mergeIntoSortedList(merged, list2, Integer.MAX_VALUE);
+        verifyList(merged, entryCount, padding);
+
+        merged = new ArrayList<>(list2);
+        ListMerger.mergeIntoSortedList(merged, list1, entryCount / 2);
+        verifyList(merged, entryCount / 2, padding);
+
+        merged = new ArrayList<>();
+        ListMerger.mergeIntoSortedList(merged, list1, entryCount / 2);
+        ListMerger.mergeIntoSortedList(merged, list2, entryCount / 2);
+        verifyList(merged, entryCount / 2, padding);
+    }
+
+    @Test
+    void testMergeIntoSortedListKeepsEarlierOfEqualEntries() {
+        record Entry(int key, String source) implements Comparable<Entry> {
+            @Override public int compareTo(Entry other) { return Integer.compare(key, other.key); }
+        }
+        List<Entry> merged = new ArrayList<>(List.of(new Entry(1, "a"), new Entry(2, "a"), new Entry(3, "a")));
+        ListMerger.mergeIntoSortedList(merged, List.of(new Entry(2, "b"), new Entry(3, "b")), 4);
+        assertEquals(List.of(new Entry(1, "a"), new Entry(2, "a"), new Entry(2, "b"), new Entry(3, "a")), merged);
+        assertEquals(ListMerger.mergeIntoArrayList(List.of(new Entry(1, "a"), new Entry(2, "a"), new Entry(3, "a")),
+                                                   List.of(new Entry(2, "b"), new Entry(3, "b")), 4),
+                     merged);
+    }
+
     @Test
     void testMergeListsReversed() {
         int entryCount = 6;
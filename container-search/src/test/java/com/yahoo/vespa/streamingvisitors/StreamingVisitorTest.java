@@ -24,6 +24,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -311,6 +312,43 @@ public class StreamingVisitorTest {
         verifyVisitorFails(factory, qa, route, searchCluster);
     }
 
+    @Test
+    void testReturnsEarlyWhenMinCoverageIsReached() throws Exception {
+        Route route = Route.parse("storageClusterRouteSpec");
+        MockVisitorSessionFactory factory = new MockVisitorSessionFactory();
+        factory.visiting = params -> {
+            // Half the buckets are visited when the results arrive
+            params.getControlHandler().onProgress(new ProgressToken("VDS bucket progress file\n1\n2\n1\n2\n"));
+            supplyResults((StreamingVisitor) params.getLocalDataHandler());
+        };
+
+        StreamingVisitor visitor = new StreamingVisitor(new Query("/?query=test&hits=3&streaming.mincoverage=50"),
+                                                        "searchClusterConfigId", route, "mytype", factory, 0);
+        visitor.doSearch();
+        assertEquals(50, visitor.getPercentVisited(), 0.01);
+        visitor.onMessage(createQRM("id:ns:type::3", 2.0), null); // Ignored, as the search has returned
+        verifyResults(new QueryArguments(), visitor);
+    }
+
+    @Test
+    void testWaitsForAllBucketsUnlessEnoughHitsAreCollected() throws Exception {
+        Route route = Route.parse("storageClusterRouteSpec");
+        MockVisitorSessionFactory factory = new MockVisitorSessionFactory();
+        factory.visiting = params -> {
+            params.getControlHandler().onProgress(new ProgressToken("VDS bucket progress file\n1\n2\n1\n2\n"));
+            supplyResults((StreamingVisitor) params.getLocalDataHandler());
+            ((StreamingVisitor) params.getLocalDataHandler()).onMessage(createQRM("id:ns:type::3", 2.0), null);
+            params.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "Message");
+        };
+
+        StreamingVisitor visitor = new StreamingVisitor(new Query("/?query=test&hits=5&streaming.mincoverage=50"),
+                                                        "searchClusterConfigId", route, "mytype", factory, 0);
+        visitor.doSearch();
+        assertEquals(100, visitor.getPercentVisited(), 0.01);
+        assertEquals(4, visitor.getHits().size());
+        assertEquals("id:ns:type::3", visitor.getHits().get(0).getDocId());
+    }
+
     private void verifyVisitorOk(MockVisitorSessionFactory factory, QueryArguments qa, Route route, String searchCluster) throws Exception {
         StreamingVisitor visitor = new StreamingVisitor(buildQuery(qa), searchCluster, route, "mytype", factory, 0);
         visitor.doSearch();
@@ -376,13 +414,18 @@ public class StreamingVisitorTest {
         private final VisitorParameters params;
         private final boolean timeoutQuery;
         private final boolean failQuery;
+        private final Consumer<VisitorParameters> visiting;
 
-        public MockVisitorSession(VisitorParameters params, boolean timeoutQuery, boolean failQuery) {
+        public MockVisitorSession(VisitorParameters params, boolean timeoutQuery, boolean failQuery,
+                                  Consumer<VisitorParameters> visiting) {
             this.params = params;
-            params.setControlHandler(new VisitorControlHandler());
+            if (visiting == null) {
+                params.setControlHandler(new VisitorControlHandler());
+            }
             params.getLocalDataHandler().setSession(this);
             this.timeoutQuery = timeoutQuery;
             this.failQuery = failQuery;
+            this.visiting = visiting;
         }
 
         @Override
@@ -405,6 +448,10 @@ public class StreamingVisitorTest {
             if (timeoutQuery) {
                 return false;
             }
+            if (visiting != null) {
+                visiting.accept(params);
+                return params.getControlHandler().waitUntilDone(l);
+            }
             VisitorControlHandler.CompletionCode code = VisitorControlHandler.CompletionCode.SUCCESS;
             if (failQuery) {
                 code = VisitorControlHandler.CompletionCode.FAILURE;
@@ -441,13 +488,14 @@ public class StreamingVisitorTest {
         private VisitorParameters params;
         private boolean timeoutQuery = false;
         private boolean failQuery = false;
+        private Consumer<VisitorParameters> visiting = null;
 
         private MockVisitorSessionFactory() {}
 
         @Override
         public VisitorSession createVisitorSession(VisitorParameters params) throws ParseException {
             this.params = params;
-            return new MockVisitorSession(params, timeoutQuery, failQuery);
+            return new MockVisitorSession(params, timeoutQuery, failQuery, visiting);
         }
 
         public VisitorParameters getParams() {
@@ -11,6 +11,7 @@ import com.yahoo.document.serialization.DocumentSerializerFactory;
 import com.yahoo.document.serialization.DocumentWriter;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.LazyFields;
 import com.yahoo.document.serialization.SerializationException;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
@@ -44,6 +45,8 @@ public class Document extends StructuredFieldValue {
     public static final short SERIALIZED_VERSION = 8;
     private DocumentId docId;
     private Struct content;
+    /** The fields of this which are not yet deserialized, or null if all fields are in the content struct */
+    private volatile LazyFields lazyFields = null;
     private Long lastModified = null;
 
     /**
@@ -73,6 +76,7 @@ public class Document extends StructuredFieldValue {
      */
     public Document(Document doc) {
         this(doc.getDataType(), doc.getId());
+        doc.deserializeLazyFields();
         content = doc.content;
         lastModified = doc.lastModified;
     }
@@ -103,6 +107,7 @@ public class Document extends StructuredFieldValue {
 
     @Override
     public Document clone() {
+        deserializeLazyFields();
         Document doc = (Document) super.clone();
         doc.docId = docId.clone();
         doc.content = content.clone();
@@ -111,6 +116,33 @@ public class Document extends StructuredFieldValue {
 
     private void setNewType(DocumentType type) {
         content = type.contentStruct().createFieldValue();
+        lazyFields = null;
+    }
+
+    /**
+     * Sets the fields of this to the given fields, which are deserialized as they are accessed.
+     * This is used by deserializers, and any previous field values are discarded.
+     */
+    public void setLazyFields(LazyFields fields) {
+        content.clear();
+        lazyFields = fields;
+    }
+
+    /** Returns the fields of this which are deserialized as they are accessed, or null if this is not lazy */
+    public LazyFields getLazyFields() { return lazyFields; }
+
+    /**
+     * Moves any lazy fields of this to its content, as they are about to be modified or enumerated.
+     * The lazy fields are dropped only when the content is complete, so concurrent readers see all fields.
+     */
+    private void deserializeLazyFields() {
+        if (lazyFields == null) return;
+        synchronized (this) {
+            LazyFields fields = lazyFields;
+            if (fields == null) return;
+            fields.forEach(content::setFieldValue);
+            lazyFields = null;
+        }
     }
 
     public void setDataType(DataType type) {
@@ -177,26 +209,32 @@ public class Document extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
+        LazyFields fields = lazyFields;
+        if (fields != null) return fields.get(field);
         return content.getFieldValue(field);
     }
 
     @Override
     protected void doSetFieldValue(Field field, FieldValue value) {
+        deserializeLazyFields();
         content.setFieldValue(field, value);
     }
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        deserializeLazyFields();
         return content.removeFieldValue(field);
     }
 
     @Override
     public void clear() {
+        lazyFields = null;
         content.clear();
     }
 
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
+        deserializeLazyFields();
         return content.iterator();
     }
 
@@ -246,6 +284,8 @@ public class Document extends StructuredFieldValue {
     public boolean equals(Object o) {
         if (o == this) return true;
         if (!(o instanceof Document other)) return false;
+        deserializeLazyFields();
+        other.deserializeLazyFields();
         return (super.equals(o) && docId.equals(other.docId) &&
                 content.equals(other.content));
     }
@@ -292,6 +332,8 @@ public class Document extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
+        LazyFields fields = lazyFields;
+        if (fields != null) return fields.size();
         return content.getFieldCount();
     }
 
@@ -326,6 +368,8 @@ public class Document extends StructuredFieldValue {
 
         //types are equal, this must be of this type
         Document otherValue = (Document) fieldValue;
+        deserializeLazyFields();
+        otherValue.deserializeLazyFields();
         comp = getId().compareTo(otherValue.getId());
 
         if (comp != 0) {
@@ -28,17 +28,19 @@ public class Struct extends StructuredFieldValue {
 
     public static final int classId = registerClass(Ids.document + 33, Struct.class);
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
-    private int [] order = null;
+    private volatile int [] order = null; // Published only when sorted, as documents may be iterated concurrently.
 
     private int version;
 
     private int [] getInOrder() {
+        int [] order = this.order;
         if (order == null) {
             order = new int[values.size()];
             for (int i = 0; i < values.size(); i++) {
                 order[i] = values.key(i);
             }
             Arrays.sort(order);
+            this.order = order;
         }
         return order;
     }
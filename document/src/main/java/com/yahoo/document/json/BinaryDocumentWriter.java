@@ -0,0 +1,306 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.yahoo.compress.CompressionType;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.TensorDataType;
+import com.yahoo.document.TestAndSetCondition;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.document.datatypes.TensorFieldValue;
+import com.yahoo.document.json.readers.TensorReader;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.text.Text;
+import com.yahoo.text.Utf8;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.yahoo.document.json.document.DocumentParser.CONDITION;
+import static com.yahoo.document.json.document.DocumentParser.CREATE_IF_NON_EXISTENT;
+import static com.yahoo.document.json.document.DocumentParser.FIELDS;
+
+/**
+ * Writes the document of a JSON put, on the form accepted by {@link JsonReader#readSingleDocumentStreaming},
+ * directly to a buffer in the binary document format, without creating the {@link Document} and its field values.
+ * The result is the same as when the document read by {@link JsonReader} is written by the head document serializer,
+ * except that fields are written in the order of the JSON, and the order of weighted set entries may differ. Puts read by {@link #readPut} and {@link #readFeedPut}
+ * have documents which are deserialized lazily from this, such that the written fields are only copied when the
+ * put is sent on, unless they are accessed.
+ *
+ * Only string, numeric and boolean fields, and arrays, weighted sets and tensors of these, are handled here.
+ * Documents with other field types, such as structs, maps, positions, predicates and references, which may also
+ * depend on the indexing scripts which later process them, are left to {@link JsonReader}, as are documents with
+ * undefined fields, and any invalid input. Callers must therefore use {@link JsonReader} when these methods return
+ * empty, which also produces the proper errors for invalid documents.
+ *
+ * This is not thread safe, as the scratch buffers are reused between documents.
+ */
+public class BinaryDocumentWriter {
+
+    /** Thrown to abort writing a document which must be read by {@link JsonReader} instead. */
+    private static final class Unsupported extends RuntimeException {
+        private Unsupported() { super(null, null, false, false); }
+    }
+
+    private static final Unsupported unsupported = new Unsupported();
+
+    private static final String PUT = "put";
+    private static final String ID = "id";
+
+    private final DocumentTypeManager typeManager;
+    private final JsonFactory parserFactory;
+    private final List<GrowableByteBuffer> scratch = new ArrayList<>();
+    private int[] fieldIds = new int[16];
+    private int[] fieldLengths = new int[16];
+
+    public BinaryDocumentWriter(DocumentTypeManager typeManager, JsonFactory parserFactory) {
+        this.typeManager = typeManager;
+        this.parserFactory = parserFactory;
+    }
+
+    /** The properties of a put read along with its document. */
+    public record PutProperties(DocumentId id, TestAndSetCondition condition, Optional<Boolean> createIfNonExistent) { }
+
+    /**
+     * Reads the JSON put of the document with the given id, like {@link JsonReader#readSingleDocumentStreaming}.
+     *
+     * @param docId the id of the document to put
+     * @param json the JSON put, with the document fields in a "fields" object
+     * @return the put, or empty if it must be read with {@link JsonReader} instead
+     */
+    public Optional<ParsedDocumentOperation> readPut(DocumentId docId, byte[] json) {
+        return read(docId, json).map(put -> new ParsedDocumentOperation(put, true));
+    }
+
+    /**
+     * Reads a feed consisting of a single JSON put, like {@link JsonReader#next}.
+     *
+     * @param json the feed, which is an array holding the put, with the document id in a "put" or "id" field
+     *             preceding the document fields in a "fields" object
+     * @return the put, or empty if it must be read with {@link JsonReader} instead
+     */
+    public Optional<DocumentPut> readFeedPut(byte[] json) {
+        return read(null, json);
+    }
+
+    private Optional<DocumentPut> read(DocumentId docId, byte[] json) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer(json.length, 2.0f);
+        return write(docId, json, buffer).map(properties -> {
+            buffer.flip();
+            DocumentPut put = new DocumentPut(new Document(DocumentDeserializerFactory.createLazyHead(typeManager, buffer)));
+            put.setCondition(properties.condition());
+            properties.createIfNonExistent().ifPresent(put::setCreateIfNonExistent);
+            return put;
+        });
+    }
+
+    /**
+     * Writes the document with the given id and the fields of the given JSON put to the given buffer.
+     *
+     * @param docId the id of the document to write
+     * @param json the JSON put, with the document fields in a "fields" object
+     * @param buffer the buffer to write the document to
+     * @return the properties of the put, or empty if the document was not written, in which case
+     *         the position of the buffer is unchanged, and the put must be read with {@link JsonReader} instead
+     */
+    public Optional<PutProperties> writePut(DocumentId docId, byte[] json, GrowableByteBuffer buffer) {
+        return write(docId, json, buffer);
+    }
+
+    /** Writes the given put of the document with the given id, or the single put of the given feed if the id is null. */
+    private Optional<PutProperties> write(DocumentId docId, byte[] json, GrowableByteBuffer buffer) {
+        boolean feed = docId == null;
+        int start = buffer.position();
+        try (JsonParser parser = parserFactory.createParser(json)) {
+            if (feed && JsonToken.START_ARRAY != parser.nextToken()) throw unsupported;
+            if (JsonToken.START_OBJECT != parser.nextValue()) throw unsupported;
+
+            boolean written = false;
+            Optional<Boolean> create = Optional.empty();
+            String condition = null;
+            while (JsonToken.END_OBJECT != parser.nextValue()) {
+                switch (parser.currentName()) {
+                    case FIELDS -> {
+                        if (written || docId == null) throw unsupported;
+                        DocumentType type = typeManager.getDocumentType(docId.getDocType());
+                        if (type == null) throw unsupported;
+                        writeDocument(docId, type, parser, buffer);
+                        written = true;
+                    }
+                    case CONDITION -> {
+                        if (parser.currentToken() == JsonToken.VALUE_STRING) condition = parser.getText();
+                        else if (parser.currentToken() != JsonToken.VALUE_NULL) throw unsupported;
+                    }
+                    case CREATE_IF_NON_EXISTENT -> {
+                        if ( ! parser.currentToken().isBoolean()) throw unsupported;
+                        create = Optional.of(parser.getBooleanValue());
+                    }
+                    case PUT, ID -> {
+                        if (feed) {
+                            if (docId != null || parser.currentToken() != JsonToken.VALUE_STRING) throw unsupported;
+                            docId = new DocumentId(parser.getText());
+                        }
+                    }
+                    default -> {
+                        if (feed) throw unsupported; // Other names are taken as operations in feeds.
+                        if (parser.currentToken().isStructStart()) parser.skipChildren();
+                    }
+                }
+            }
+            if (feed && JsonToken.END_ARRAY != parser.nextToken()) throw unsupported;
+            if ( ! written || null != parser.nextToken()) throw unsupported;
+
+            return Optional.of(new PutProperties(docId, TestAndSetCondition.fromConditionString(Optional.ofNullable(condition)), create));
+        }
+        catch (Unsupported | IOException | IllegalArgumentException e) {
+            buffer.position(start);
+            return Optional.empty();
+        }
+    }
+
+    private void writeDocument(DocumentId docId, DocumentType type, JsonParser parser, GrowableByteBuffer out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) throw unsupported;
+
+        GrowableByteBuffer data = scratch(0);
+        int fieldCount = 0;
+        while (JsonToken.END_OBJECT != parser.nextValue()) {
+            Field field = type.getField(parser.currentName());
+            if (field == null) throw unsupported; // Ignored undefined fields must be reported by JsonReader.
+            if (parser.currentToken() == JsonToken.VALUE_NULL) continue;
+
+            for (int i = 0; i < fieldCount; i++)
+                if (fieldIds[i] == field.getId()) throw unsupported; // Repeated fields replace earlier values.
+
+            if (fieldCount == fieldIds.length) {
+                fieldIds = Arrays.copyOf(fieldIds, 2 * fieldCount);
+                fieldLengths = Arrays.copyOf(fieldLengths, 2 * fieldCount);
+            }
+            int fieldStart = data.position();
+            writeValue(field.getDataType(), parser, data, 0);
+            fieldIds[fieldCount] = field.getId();
+            fieldLengths[fieldCount++] = data.position() - fieldStart;
+        }
+
+        out.putShort(Document.SERIALIZED_VERSION);
+        int lengthPosition = out.position();
+        out.putInt(0); // Set below, when the length is known.
+        out.put(docId.getScheme().toUtf8().getBytes());
+        out.put((byte) 0);
+        out.put((byte) (fieldCount > 0 ? 0x03 : 0x01)); // Document type, and header struct if there are fields.
+        out.put(Utf8.toBytes(type.getName()));
+        out.put((byte) 0);
+        out.putShort((short) 0);
+        if (fieldCount > 0) {
+            out.putInt(data.position());
+            out.put(CompressionType.NONE.getCode());
+            out.putInt1_4Bytes(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                out.putInt1_4Bytes(fieldIds[i]);
+                out.putInt2_4_8Bytes(fieldLengths[i]);
+            }
+            out.put(data.array(), data.arrayOffset(), data.position());
+        }
+        out.putInt(lengthPosition, out.position() - lengthPosition - 4);
+    }
+
+    private void writeValue(DataType type, JsonParser parser, GrowableByteBuffer out, int depth) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (type instanceof ArrayDataType arrayType && token == JsonToken.START_ARRAY)
+            writeArray(arrayType.getNestedType(), parser, out, depth);
+        else if (type instanceof WeightedSetDataType setType && token == JsonToken.START_OBJECT)
+            writeWeightedSet(setType.getNestedType(), parser, out);
+        else if (type instanceof TensorDataType tensorType && token.isStructStart())
+            writeTensor(tensorType, parser, out);
+        else if (token.isScalarValue() && token != JsonToken.VALUE_NULL)
+            writePrimitive(type, parser.getText(), out);
+        else
+            throw unsupported;
+    }
+
+    private void writeArray(DataType elementType, JsonParser parser, GrowableByteBuffer out, int depth) throws IOException {
+        GrowableByteBuffer elements = scratch(depth + 1);
+        int size = 0;
+        while (JsonToken.END_ARRAY != parser.nextValue()) {
+            writeValue(elementType, parser, elements, depth + 1);
+            size++;
+        }
+        out.putInt1_2_4Bytes(size);
+        out.put(elements.array(), elements.arrayOffset(), elements.position());
+    }
+
+    private void writeWeightedSet(DataType keyType, JsonParser parser, GrowableByteBuffer out) throws IOException {
+        out.putInt(keyType.getId());
+        int sizePosition = out.position();
+        out.putInt(0); // Set below, when the size is known.
+        Set<Object> keys = new HashSet<>();
+        while (JsonToken.END_OBJECT != parser.nextValue()) {
+            String key = parser.currentName();
+            if ( ! keys.add(keyType.equals(DataType.STRING) ? key : Long.valueOf(key)))
+                throw unsupported; // Repeated keys replace earlier weights.
+
+            int entryPosition = out.position();
+            out.putInt(0); // Set below, when the entry size is known.
+            writePrimitive(keyType, key, out);
+            out.putInt(Integer.parseInt(parser.getText()));
+            out.putInt(entryPosition, out.position() - entryPosition - 4);
+        }
+        out.putInt(sizePosition, keys.size());
+    }
+
+    private void writeTensor(TensorDataType type, JsonParser parser, GrowableByteBuffer out) {
+        TokenBuffer tokens = new TokenBuffer();
+        if (parser.currentToken() == JsonToken.START_OBJECT) tokens.bufferObject(parser);
+        else tokens.bufferArray(parser);
+
+        TensorFieldValue value = new TensorFieldValue(type.getTensorType());
+        TensorReader.fillTensor(tokens, value);
+        byte[] serialized = value.getSerializedTensor().orElseThrow(() -> unsupported);
+        out.putInt1_4Bytes(serialized.length);
+        out.put(serialized);
+    }
+
+    private static void writePrimitive(DataType type, String text, GrowableByteBuffer out) {
+        if (type.equals(DataType.STRING)) {
+            if ( ! Text.isValidTextString(text)) throw unsupported;
+            byte[] utf8 = Utf8.toBytes(text);
+            out.put((byte) 0); // No span trees.
+            out.putInt1_4Bytes(utf8.length + 1);
+            out.put(utf8);
+            out.put((byte) 0);
+        }
+        else if (type.equals(DataType.INT)) out.putInt(Integer.parseInt(text));
+        else if (type.equals(DataType.LONG)) out.putLong(Long.parseLong(text));
+        else if (type.equals(DataType.FLOAT)) out.putFloat(Float.parseFloat(text));
+        else if (type.equals(DataType.DOUBLE)) out.putDouble(Double.parseDouble(text));
+        else if (type.equals(DataType.BYTE)) out.put(Byte.parseByte(text));
+        else if (type.equals(DataType.BOOL)) out.put(Boolean.parseBoolean(text) ? (byte) 1 : (byte) 0);
+        else throw unsupported;
+    }
+
+    /** Returns the cleared scratch buffer for values at the given depth of nesting. */
+    private GrowableByteBuffer scratch(int depth) {
+        while (scratch.size() <= depth)
+            scratch.add(new GrowableByteBuffer(4096, 2.0f));
+
+        GrowableByteBuffer buffer = scratch.get(depth);
+        buffer.clear();
+        return buffer;
+    }
+
+}
@@ -15,7 +15,12 @@ import com.yahoo.vespaxmlparser.FeedOperation;
 import com.yahoo.vespaxmlparser.FeedReader;
 import com.yahoo.vespaxmlparser.RemoveFeedOperation;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Facade between JsonReader and the FeedReader API.
@@ -39,6 +44,20 @@ public class JsonFeedReader implements FeedReader {
         this.stream = stream;
     }
 
+    /**
+     * Returns a reader of a feed with a single operation, which is read from the given stream at once.
+     * A put is read with the {@link BinaryDocumentWriter} when possible, and anything else as by the constructor.
+     * The stream is not closed by this.
+     */
+    public static FeedReader forSingleOperation(InputStream stream, DocumentTypeManager docMan) throws IOException {
+        byte[] feed = stream.readAllBytes();
+        Optional<DocumentPut> put = new BinaryDocumentWriter(docMan, jsonFactory).readFeedPut(feed);
+        if (put.isEmpty()) return new JsonFeedReader(new ByteArrayInputStream(feed), docMan);
+
+        Iterator<FeedOperation> operations = List.<FeedOperation>of(new DocumentFeedOperation(put.get())).iterator();
+        return () -> operations.hasNext() ? operations.next() : FeedOperation.INVALID;
+    }
+
     @Override
     public FeedOperation read() throws Exception {
         DocumentOperation documentOperation = reader.next();
@@ -72,6 +72,10 @@ public class TokenBuffer {
         bufferJsonStruct(parser, JsonToken.START_OBJECT);
     }
 
+    public void bufferArray(JsonParser parser) {
+        bufferJsonStruct(parser, JsonToken.START_ARRAY);
+    }
+
     private void bufferJsonStruct(JsonParser parser, JsonToken firstToken) {
         JsonToken token = parser.currentToken();
         Preconditions.checkArgument(token == firstToken,
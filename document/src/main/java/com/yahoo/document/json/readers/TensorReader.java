@@ -35,7 +35,7 @@ public class TensorReader {
     public static final String TENSOR_VALUE = "value";
 
     // MUST be kept in sync with com.yahoo.tensor.serialization.JsonFormat.decode in vespajlib
-    static void fillTensor(TokenBuffer buffer, TensorFieldValue tensorFieldValue) {
+    public static void fillTensor(TokenBuffer buffer, TensorFieldValue tensorFieldValue) {
         Tensor.Builder builder = Tensor.Builder.of(tensorFieldValue.getDataType().getTensorType());
         expectOneOf(buffer.current(), JsonToken.START_OBJECT, JsonToken.START_ARRAY);
         int initNesting = buffer.nesting();
@@ -10,7 +10,10 @@ import com.yahoo.document.select.simple.SelectionParser;
 
 /**
  * This class is used to find out in which locations a document might be in, if
- * it matches a given document selection string.
+ * it matches a given document selection string. Locations are found from
+ * comparisons of the document id, user, group and bucket with literals, and
+ * from ranges of users, like <code>id.user &gt;= 100 and id.user &lt; 200</code>,
+ * combined through any conjunctions and disjunctions of the selection.
  *
  * @author <a href="mailto:humbe@yahoo-inc.com">H&aring;kon Humberset</a>
  */
@@ -38,7 +38,8 @@ public class BucketSet extends HashSet<BucketId> {
     }
 
     /**
-     * Returns the intersection between this bucket set and another.
+     * Returns the intersection between this bucket set and another. Where a bucket in one set contains a bucket
+     * in the other, the intersection contains the smaller of the two.
      *
      * @param rhs The set to form an intersection with.
      * @return The intersection.
@@ -47,8 +48,20 @@ public class BucketSet extends HashSet<BucketId> {
         if (rhs == null) {
             return new BucketSet(this); // The other has all buckets marked, this is the smaller.
         } else {
-            BucketSet ret = new BucketSet(this);
-            ret.retainAll(rhs);
+            BucketSet ret = new BucketSet();
+            for (BucketId lhsId : this) {
+                if (rhs.contains(lhsId)) {
+                    ret.add(lhsId);
+                    continue;
+                }
+                for (BucketId rhsId : rhs) {
+                    if (lhsId.contains(rhsId)) {
+                        ret.add(rhsId);
+                    } else if (rhsId.contains(lhsId)) {
+                        ret.add(lhsId);
+                    }
+                }
+            }
             return ret;
         }
     }
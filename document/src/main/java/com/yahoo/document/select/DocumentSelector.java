@@ -6,6 +6,7 @@ import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.document.select.parser.SelectInput;
 import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
+import com.yahoo.document.select.rule.CompiledExpression;
 import com.yahoo.document.select.rule.ExpressionNode;
 
 /**
@@ -14,6 +15,9 @@ import com.yahoo.document.select.rule.ExpressionNode;
  * representation which is called the
  * <a href="https://docs.vespa.ai/en/reference/document-select-language.html">document selection language</a>.
  *
+ * The selection is compiled when the selector is created, so that work which does not depend on the document,
+ * such as compiling regular expressions and resolving field paths, is not repeated for each document evaluated.
+ *
  * Document selectors are multithread safe.
  *
  * @author bratseth
@@ -21,6 +25,7 @@ import com.yahoo.document.select.rule.ExpressionNode;
 public class DocumentSelector {
 
     private final ExpressionNode expression;
+    private final CompiledExpression compiled;
 
     /**
      * Creates a document selector from a Document Selection Language string
@@ -41,6 +46,7 @@ public class DocumentSelector {
             throw (ParseException)t.initCause(e instanceof ParseException ?
                                               new ParseException(input.formatException(e.getMessage())) : e);
         }
+        compiled = expression.compile();
     }
 
     /**
@@ -62,7 +68,7 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(Context context) {
-        return Result.toResult(expression.evaluate(context));
+        return Result.toResult(compiled.evaluate(context));
     }
 
     /**
@@ -84,7 +90,7 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     private ResultList getMatchingResultList(Context context) {
-        return ResultList.toResultList(expression.evaluate(context));
+        return ResultList.toResultList(compiled.evaluate(context));
     }
 
     /** Returns this selector as a Document Selection Language string */
@@ -20,6 +20,8 @@ import com.yahoo.document.select.Visitor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * @author Simon Thoresen Hult
@@ -87,6 +89,92 @@ public class AttributeNode implements ExpressionNode {
         return obj;
     }
 
+    @Override
+    public CompiledExpression compile() {
+        // Replays evaluate(), but records the steps taken instead of taking them
+        List<UnaryOperator<Object>> steps = new ArrayList<>();
+        StringBuilder pos = new StringBuilder(value.toString());
+        boolean changed = true;
+        StringBuilder builder = new StringBuilder();
+        for (Item item : items) {
+            if (changed) {
+                steps.add(nullCheck(item, pos.toString()));
+                changed = false;
+            }
+            if (item.getType() != Item.FUNCTION) {
+                if (builder.length() > 0) {
+                    builder.append(".");
+                }
+
+                builder.append(item.getName());
+            } else {
+                if (builder.length() > 0) {
+                    steps.add(new FieldPathStep(builder.toString()));
+                    builder = new StringBuilder();
+                }
+
+                String function = item.getName();
+                steps.add(obj -> evaluateFunction(function, obj));
+                changed = true;
+            }
+
+            pos.append(".").append(item);
+        }
+
+        if (builder.length() > 0) {
+            steps.add(new FieldPathStep(builder.toString()));
+        }
+
+        CompiledExpression compiledValue = value.compile();
+        List<UnaryOperator<Object>> compiledSteps = List.copyOf(steps);
+        return context -> {
+            Object obj = compiledValue.evaluate(context);
+            for (UnaryOperator<Object> step : compiledSteps) {
+                obj = step.apply(obj);
+            }
+            return obj;
+        };
+    }
+
+    private static UnaryOperator<Object> nullCheck(Item item, String pos) {
+        return obj -> {
+            if (obj == null) {
+                throw new IllegalStateException("Can not invoke '" + item + "' on '" + pos + "' because that term " +
+                                                "evaluated to null.");
+            }
+            return obj;
+        };
+    }
+
+    /** A field path step of a compiled attribute node, which resolves its field path once per document type. */
+    private static final class FieldPathStep implements UnaryOperator<Object> {
+
+        private final String fieldPath;
+        private volatile ResolvedFieldPath resolved = null;
+
+        FieldPathStep(String fieldPath) {
+            this.fieldPath = fieldPath;
+        }
+
+        @Override
+        public Object apply(Object value) {
+            return evaluateFieldPath(this::resolve, value);
+        }
+
+        private FieldPath resolve(DocumentType documentType) {
+            ResolvedFieldPath current = resolved;
+            if (current == null || current.documentType() != documentType) {
+                current = new ResolvedFieldPath(documentType, resolveFieldPath(fieldPath, documentType));
+                resolved = current;
+            }
+            return current.fieldPath();
+        }
+
+    }
+
+    /** A field path resolved in a document type, where a null field path denotes an imported field. */
+    private record ResolvedFieldPath(DocumentType documentType, FieldPath fieldPath) { }
+
     public static class VariableValueList extends ArrayList<ResultList.VariableValue> {
 
     }
@@ -146,10 +234,23 @@ public class AttributeNode implements ExpressionNode {
         return documentType.hasImportedField(path);
     }
 
+    /** Returns the given field path in the given document type, or null if it is a simple imported field. */
+    private static FieldPath resolveFieldPath(String fieldPathStr, DocumentType documentType) {
+        if (isSimpleImportedField(fieldPathStr, documentType)) {
+            return null;
+        }
+        return documentType.buildFieldPath(fieldPathStr);
+    }
+
     private static Object evaluateFieldPath(String fieldPathStr, Object value) {
+        return evaluateFieldPath(documentType -> resolveFieldPath(fieldPathStr, documentType), value);
+    }
+
+    private static Object evaluateFieldPath(Function<DocumentType, FieldPath> resolver, Object value) {
         if (value instanceof DocumentPut) {
             Document doc = ((DocumentPut) value).getDocument();
-            if (isSimpleImportedField(fieldPathStr, doc.getDataType())) {
+            FieldPath fieldPath = resolver.apply(doc.getDataType());
+            if (fieldPath == null) {
                 // Imported fields can only be meaningfully evaluated in the backend, so we
                 // explicitly treat them as if they are valid fields with missing values. This
                 // will be treated the same as if it's a normal field by the selection operators.
@@ -157,7 +258,6 @@ public class AttributeNode implements ExpressionNode {
                 // augment the FieldPath code with knowledge of imported fields.
                 return null;
             }
-            FieldPath fieldPath = doc.getDataType().buildFieldPath(fieldPathStr);
             IteratorHandler handler = new IteratorHandler();
             doc.iterateNested(fieldPath, 0, handler);
             if (handler.values.isEmpty()) {
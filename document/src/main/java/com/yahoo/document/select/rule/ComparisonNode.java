@@ -15,6 +15,7 @@ import com.yahoo.document.select.ResultList;
 import com.yahoo.document.select.Visitor;
 
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * @author Simon Thoresen Hult
@@ -90,6 +91,37 @@ public class ComparisonNode implements ExpressionNode {
         return null;
     }
 
+    /**
+     * Returns the range of user ids this restricts documents to, if this compares the user id to an integer,
+     * or null if it does not restrict them to a range.
+     */
+    UserIdRange getUserIdRange() {
+        if (lhs instanceof IdNode && rhs instanceof LiteralNode) {
+            return userIdRange((IdNode)lhs, operator, (LiteralNode)rhs);
+        } else if (rhs instanceof IdNode && lhs instanceof LiteralNode) {
+            return userIdRange((IdNode)rhs, mirror(operator), (LiteralNode)lhs);
+        }
+        return null;
+    }
+
+    private static UserIdRange userIdRange(IdNode id, String operator, LiteralNode literal) {
+        if ( ! "user".equalsIgnoreCase(id.getField()) || ! (literal.getValue() instanceof Long)) {
+            return null;
+        }
+        return UserIdRange.of(operator, (Long)literal.getValue());
+    }
+
+    /** Returns the operator which gives the same comparison as the given one when the operands are swapped. */
+    private static String mirror(String operator) {
+        return switch (operator) {
+            case "<" -> ">";
+            case "<=" -> ">=";
+            case ">" -> "<";
+            case ">=" -> "<=";
+            default -> operator;
+        };
+    }
+
     private BucketSet compare(BucketIdFactory factory, IdNode id, LiteralNode literal, String operator) {
         String field = id.getField();
         Object value = literal.getValue();
@@ -127,8 +159,38 @@ public class ComparisonNode implements ExpressionNode {
 
     @Override
     public Object evaluate(Context context) {
-        Object oLeft = lhs.evaluate(context);
-        Object oRight = rhs.evaluate(context);
+        return evaluate(lhs.evaluate(context), rhs.evaluate(context), null);
+    }
+
+    @Override
+    public CompiledExpression compile() {
+        CompiledExpression left = lhs.compile();
+        CompiledExpression right = rhs.compile();
+        Pattern pattern = compilePattern();
+        return context -> evaluate(left.evaluate(context), right.evaluate(context), pattern);
+    }
+
+    /**
+     * Returns the pattern this matches against if this is a regex or glob comparison with a string literal on the
+     * right hand side, or null if there is no such pattern, or it is not valid. Invalid patterns are left to fail
+     * when evaluated, as they do when this is not compiled.
+     */
+    private Pattern compilePattern() {
+        if ( ! (operator.equals("=~") || operator.equals("=")) || ! (rhs instanceof LiteralNode)) return null;
+        if ( ! (((LiteralNode)rhs).getValue() instanceof String right)) return null;
+        try {
+            return Pattern.compile(operator.equals("=~") ? right : globToRegex(right));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Evaluates this comparison of the given values of the left and right hand sides.
+     *
+     * @param pattern the precompiled pattern of the right hand side, or null to compile it from the right hand side
+     */
+    private Object evaluate(Object oLeft, Object oRight, Pattern pattern) {
         if (oLeft == null || oRight == null) {
             return evaluateWithAtLeastOneNullSide(oLeft, oRight);
         }
@@ -144,11 +206,11 @@ public class ComparisonNode implements ExpressionNode {
                 return new ResultList(Result.INVALID);
             }
         } else if (oLeft instanceof AttributeNode.VariableValueList) {
-            return evaluateLhsListAndRhsSingle((AttributeNode.VariableValueList)oLeft, oRight);
+            return evaluateLhsListAndRhsSingle((AttributeNode.VariableValueList)oLeft, oRight, pattern);
         } else if (oRight instanceof AttributeNode.VariableValueList) {
-            return evaluateLhsSingleAndRhsList(oLeft, (AttributeNode.VariableValueList)oRight);
+            return evaluateLhsSingleAndRhsList(oLeft, (AttributeNode.VariableValueList)oRight, pattern);
         }
-        return new ResultList(evaluateBool(oLeft, oRight));
+        return new ResultList(evaluateBool(oLeft, oRight, pattern));
     }
 
     /**
@@ -197,7 +259,7 @@ public class ComparisonNode implements ExpressionNode {
         }
     }
 
-    private ResultList evaluateLhsListAndRhsSingle(AttributeNode.VariableValueList lhs, Object rhs) {
+    private ResultList evaluateLhsListAndRhsSingle(AttributeNode.VariableValueList lhs, Object rhs, Pattern pattern) {
         if (rhs == null && lhs == null) {
             return new ResultList(Result.TRUE);
         }
@@ -208,14 +270,14 @@ public class ComparisonNode implements ExpressionNode {
 
         ResultList retVal = new ResultList();
         for (ResultList.VariableValue value : lhs) {
-            Result result = evaluateBool(value.getValue(), rhs);
+            Result result = evaluateBool(value.getValue(), rhs, pattern);
             retVal.add((FieldPathIteratorHandler.VariableMap)value.getVariables().clone(), result);
         }
 
         return retVal;
     }
 
-    private ResultList evaluateLhsSingleAndRhsList(Object lhs, AttributeNode.VariableValueList rhs) {
+    private ResultList evaluateLhsSingleAndRhsList(Object lhs, AttributeNode.VariableValueList rhs, Pattern pattern) {
         if (rhs == null && lhs == null) {
             return new ResultList(Result.TRUE);
         }
@@ -226,7 +288,7 @@ public class ComparisonNode implements ExpressionNode {
 
         ResultList retVal = new ResultList();
         for (ResultList.VariableValue value : rhs) {
-            Result result = evaluateBool(lhs, value.getValue());
+            Result result = evaluateBool(lhs, value.getValue(), pattern);
             retVal.add((FieldPathIteratorHandler.VariableMap)value.getVariables().clone(), result);
         }
 
@@ -238,9 +300,10 @@ public class ComparisonNode implements ExpressionNode {
      *
      * @param lhs Left hand side of operation.
      * @param rhs Right hand side of operation.
+     * @param pattern The precompiled pattern of the right hand side, or null.
      * @return The evaluation result.
      */
-    private Result evaluateBool(Object lhs, Object rhs) {
+    private Result evaluateBool(Object lhs, Object rhs, Pattern pattern) {
         if (operator.equals("==")) {
             return evaluateEquals(lhs, rhs);
         } else if (operator.equals("!=")) {
@@ -249,7 +312,7 @@ public class ComparisonNode implements ExpressionNode {
                    operator.equals(">") || operator.equals(">=")) {
             return evaluateNumber(lhs, rhs);
         } else if (operator.equals("=~") || operator.equals("=")) {
-            return evaluateString(lhs, rhs);
+            return evaluateString(lhs, rhs, pattern);
         }
         throw new IllegalStateException("Comparison operator '" + operator + "' is not supported.");
     }
@@ -317,10 +380,14 @@ public class ComparisonNode implements ExpressionNode {
      *
      * @param lhs Left hand side of operation.
      * @param rhs Right hand side of operation.
+     * @param pattern The precompiled pattern of the right hand side, or null.
      * @return The evaluation result.
      */
-    private Result evaluateString(Object lhs, Object rhs) {
+    private Result evaluateString(Object lhs, Object rhs, Pattern pattern) {
         String left = "" + lhs; // Allows null objects to evaluate to string.
+        if (pattern != null) {
+            return Result.toResult(pattern.matcher(left).find());
+        }
         String right = "" + rhs;
         if (operator.equals("=~")) {
             return Result.toResult(Pattern.compile(right).matcher(left).find());
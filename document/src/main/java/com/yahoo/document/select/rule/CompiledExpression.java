@@ -0,0 +1,24 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select.rule;
+
+import com.yahoo.document.select.Context;
+
+/**
+ * An expression node compiled for repeated evaluation, see {@link ExpressionNode#compile()}. Evaluating this returns
+ * the same value as evaluating the node it was compiled from, but the work which does not depend on the document,
+ * such as compiling regular expressions and resolving field paths, is done once rather than per evaluation.
+ *
+ * Compiled expressions are multithread safe.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    /**
+     * Evaluates this over the document of the given context.
+     *
+     * @param context the context to evaluate in
+     * @return the value of this, as returned by {@link ExpressionNode#evaluate}
+     */
+    Object evaluate(Context context);
+
+}
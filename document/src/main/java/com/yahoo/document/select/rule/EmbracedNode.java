@@ -36,6 +36,11 @@ public class EmbracedNode implements ExpressionNode {
         return node.evaluate(context);
     }
 
+    @Override
+    public CompiledExpression compile() {
+        return node.compile();
+    }
+
     @Override
     public String toString() {
         return "(" + node + ")";
@@ -22,6 +22,16 @@ public interface ExpressionNode {
      */
     Object evaluate(Context doc);
 
+    /**
+     * Returns this node compiled for repeated evaluation. The compiled expression reflects this node and its children
+     * as they are when this is called. The default implementation simply evaluates this node.
+     *
+     * @return an expression evaluating to the same values as this
+     */
+    default CompiledExpression compile() {
+        return this::evaluate;
+    }
+
     /**
      * Returns the set of bucket ids covered by this node.
      *
@@ -57,27 +57,49 @@ public class LogicNode implements ExpressionNode {
 
     @Override
     public BucketSet getBucketSet(BucketIdFactory factory) {
+        return combineBucketItems(factory).toBucketSet(factory);
+    }
+
+    /** Returns the buckets and the range of user ids which the documents matched by this are restricted to. */
+    private BucketItem combineBucketItems(BucketIdFactory factory) {
         Deque<BucketItem> buf = new ArrayDeque<>();
         for (NodeItem item : items) {
             if (!buf.isEmpty()) {
                 while (buf.peek().operator > item.operator) {
-                    combineBuckets(buf);
+                    combineBuckets(buf, factory);
                 }
             }
-            buf.push(new BucketItem(item.operator, item.node.getBucketSet(factory)));
+            buf.push(bucketItem(item.operator, item.node, factory));
         }
         while (buf.size() > 1) {
-            combineBuckets(buf);
+            combineBuckets(buf, factory);
+        }
+        return buf.pop();
+    }
+
+    /**
+     * Returns the bucket item of the given node. Nested logic expressions are combined with this without first
+     * being converted to bucket sets, so that user id ranges may be bounded by comparisons at different levels.
+     */
+    private static BucketItem bucketItem(int operator, ExpressionNode node, BucketIdFactory factory) {
+        while (node instanceof EmbracedNode) {
+            node = ((EmbracedNode)node).getNode();
+        }
+        if (node instanceof LogicNode) {
+            BucketItem combined = ((LogicNode)node).combineBucketItems(factory);
+            return new BucketItem(operator, combined.buckets, combined.users);
         }
-        return buf.pop().buckets;
+        UserIdRange users = (node instanceof ComparisonNode) ? ((ComparisonNode)node).getUserIdRange() : null;
+        return new BucketItem(operator, node.getBucketSet(factory), users);
     }
 
     /**
      * Combines the top two items of the given stack using the operator of the second.
      *
      * @param buf The stack of bucket items.
+     * @param factory The factory used to convert user id ranges to bucket sets.
      */
-    private void combineBuckets(Deque<BucketItem> buf) {
+    private void combineBuckets(Deque<BucketItem> buf, BucketIdFactory factory) {
         BucketItem rhs = buf.pop();
         BucketItem lhs = buf.pop();
         switch (rhs.operator) {
@@ -89,14 +111,23 @@ public class LogicNode implements ExpressionNode {
                 } else {
                     lhs.buckets = lhs.buckets.intersection(rhs.buckets);
                 }
+                if (lhs.users == null) {
+                    lhs.users = rhs.users;
+                } else if (rhs.users != null) {
+                    lhs.users = lhs.users.intersection(rhs.users);
+                }
             }
             case OR -> {
-                if (lhs.buckets == null) {
-                    // empty
-                } else if (rhs.buckets == null) {
-                    lhs.buckets = null;
+                BucketSet lhsBuckets = lhs.toBucketSet(factory);
+                BucketSet rhsBuckets = rhs.toBucketSet(factory);
+                if (lhsBuckets != null && rhsBuckets != null) {
+                    lhs.buckets = lhsBuckets.union(rhsBuckets);
+                    lhs.users = null;
+                } else if (lhs.buckets == null && rhs.buckets == null && lhs.users != null && rhs.users != null) {
+                    lhs.users = lhs.users.span(rhs.users); // Too many buckets to list, but still a range
                 } else {
-                    lhs.buckets = lhs.buckets.union(rhs.buckets);
+                    lhs.buckets = null;
+                    lhs.users = null;
                 }
             }
             default -> throw new IllegalStateException("Arithmetic operator " + rhs.operator + " not supported.");
@@ -108,13 +139,43 @@ public class LogicNode implements ExpressionNode {
     public Object evaluate(Context context) {
         Deque<ValueItem> buf = new ArrayDeque<>();
         for (NodeItem item : items) {
-            if ( buf.size() > 1) {
-                while ((buf.peek().getOperator() >= item.operator)) {
-                    combineValues(buf);
-                }
+            push(buf, new LazyValueItem(item.operator, item.node::evaluate, context));
+        }
+        return pop(buf);
+    }
+
+    @Override
+    public CompiledExpression compile() {
+        int[] operators = new int[items.size()];
+        CompiledExpression[] nodes = new CompiledExpression[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            operators[i] = items.get(i).operator;
+            nodes[i] = items.get(i).node.compile();
+        }
+        return context -> {
+            Deque<ValueItem> buf = new ArrayDeque<>();
+            for (int i = 0; i < nodes.length; i++) {
+                push(buf, new LazyValueItem(operators[i], nodes[i], context));
+            }
+            return pop(buf);
+        };
+    }
+
+    /**
+     * Pushes the given item onto the given stack, after combining the items on it which have the same or higher
+     * precedence.
+     */
+    private static void push(Deque<ValueItem> buf, ValueItem item) {
+        if ( buf.size() > 1) {
+            while ((buf.peek().getOperator() >= item.getOperator())) {
+                combineValues(buf);
             }
-            buf.push(new LazyValueItem(item, context));
         }
+        buf.push(item);
+    }
+
+    /** Combines all items of the given stack, and returns the result. */
+    private static ResultList pop(Deque<ValueItem> buf) {
         while (buf.size() > 1) {
             combineValues(buf);
         }
@@ -126,7 +187,7 @@ public class LogicNode implements ExpressionNode {
      *
      * @param buf The stack of values.
      */
-    private void combineValues(Deque<ValueItem> buf) {
+    private static void combineValues(Deque<ValueItem> buf) {
         ValueItem rhs = buf.pop();
         ValueItem lhs = buf.pop();
         buf.push(new LazyCombinedItem(lhs, rhs));
@@ -195,19 +256,19 @@ public class LogicNode implements ExpressionNode {
     }
 
     private static final class LazyValueItem extends ValueItem {
-        private final NodeItem item;
+        private final CompiledExpression node;
         private final Context context;
         private ResultList lazyResult = null;
 
-        LazyValueItem(NodeItem item, Context context) {
-            super(item.operator);
-            this.item = item;
+        LazyValueItem(int operator, CompiledExpression node, Context context) {
+            super(operator);
+            this.node = node;
             this.context = context;
         }
         @Override
         public ResultList getResult() {
             if (lazyResult == null) {
-                lazyResult = ResultList.toResultList(item.node.evaluate(context));
+                lazyResult = ResultList.toResultList(node.evaluate(context));
             }
             return lazyResult;
         }
@@ -238,15 +299,27 @@ public class LogicNode implements ExpressionNode {
     }
 
     /**
-     * Private class to store bucket sets in a stack.
+     * Private class to store bucket sets in a stack. The documents of an item are in its buckets, if those are known,
+     * and have user ids in its range of user ids, if that is known.
      */
     private static final class BucketItem {
         final private int operator;
         private BucketSet buckets;
+        private UserIdRange users;
 
-        BucketItem(int operator, BucketSet buckets) {
+        BucketItem(int operator, BucketSet buckets, UserIdRange users) {
             this.operator = operator;
             this.buckets = buckets;
+            this.users = users;
+        }
+
+        /** Returns the buckets of this, or null if they are unknown, or too many to list. */
+        BucketSet toBucketSet(BucketIdFactory factory) {
+            BucketSet userBuckets = (users == null) ? null : users.toBucketSet(factory);
+            if (userBuckets == null) {
+                return buckets;
+            }
+            return userBuckets.intersection(buckets);
         }
     }
 
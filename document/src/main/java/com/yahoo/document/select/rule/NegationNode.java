@@ -37,6 +37,12 @@ public class NegationNode implements ExpressionNode {
         return Result.invert(Result.toResult(node.evaluate(context)));
     }
 
+    @Override
+    public CompiledExpression compile() {
+        CompiledExpression compiled = node.compile();
+        return context -> Result.invert(Result.toResult(compiled.evaluate(context)));
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
@@ -0,0 +1,73 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select.rule;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.document.BucketIdFactory;
+import com.yahoo.document.select.BucketSet;
+
+/**
+ * An inclusive range of the user ids (id.user) of documents, used to find the buckets of selections which
+ * compare the user id to integers. Unbounded ends are represented by the minimum and maximum long values.
+ *
+ * @param from the lowest user id in this, inclusive
+ * @param to the highest user id in this, inclusive
+ */
+record UserIdRange(long from, long to) {
+
+    /** The maximum number of user ids in a range which is converted to a set of buckets. */
+    static final int MAX_BUCKET_COUNT = 1024;
+
+    static final UserIdRange EMPTY = new UserIdRange(Long.MAX_VALUE, Long.MIN_VALUE);
+
+    boolean isEmpty() {
+        return from > to;
+    }
+
+    /** Returns the range of user ids in both this and the given range. */
+    UserIdRange intersection(UserIdRange other) {
+        UserIdRange intersection = new UserIdRange(Math.max(from, other.from), Math.min(to, other.to));
+        return intersection.isEmpty() ? EMPTY : intersection;
+    }
+
+    /** Returns the smallest range containing both this and the given range. */
+    UserIdRange span(UserIdRange other) {
+        if (isEmpty()) return other;
+        if (other.isEmpty()) return this;
+        return new UserIdRange(Math.min(from, other.from), Math.max(to, other.to));
+    }
+
+    /**
+     * Returns the set of buckets of the user ids in this range, or null if there are more than
+     * {@link #MAX_BUCKET_COUNT} of them.
+     */
+    BucketSet toBucketSet(BucketIdFactory factory) {
+        BucketSet buckets = new BucketSet();
+        if (isEmpty()) return buckets;
+        long count = to - from; // One less than the count, which overflows to negative for very large ranges
+        if (count < 0 || count >= MAX_BUCKET_COUNT) return null;
+
+        for (long user = from; user <= to && user >= from; user++) {
+            buckets.add(new BucketId(factory.getLocationBitCount(), user));
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the range of user ids matched by comparing the user id to the given value with the given operator,
+     * or null if this is not a comparison which restricts the user id to a range.
+     *
+     * @param operator the comparison operator, with the user id on the left hand side
+     * @param value the value the user id is compared to
+     */
+    static UserIdRange of(String operator, long value) {
+        return switch (operator) {
+            case "==", "=" -> new UserIdRange(value, value);
+            case "<" -> value == Long.MIN_VALUE ? EMPTY : new UserIdRange(Long.MIN_VALUE, value - 1);
+            case "<=" -> new UserIdRange(Long.MIN_VALUE, value);
+            case ">" -> value == Long.MAX_VALUE ? EMPTY : new UserIdRange(value + 1, Long.MAX_VALUE);
+            case ">=" -> new UserIdRange(value, Long.MAX_VALUE);
+            default -> null;
+        };
+    }
+
+}
@@ -19,6 +19,17 @@ public class DocumentDeserializerFactory {
         return new VespaDocumentDeserializerHead(manager, buf);
     }
 
+    /**
+     * Creates a de-serializer for the current head document format, which only deserializes the fields of
+     * documents when they are accessed. Such documents refer to the given buffer, which must not be modified
+     * while they are in use.
+     */
+    public static DocumentDeserializer createLazyHead(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        VespaDocumentDeserializerHead deserializer = new VespaDocumentDeserializerHead(manager, buf);
+        deserializer.setLazy(true);
+        return deserializer;
+    }
+
     /**
      * Creates a de-serializer for the 6.x document format.
      * This format is an extension of the 4.2 format.
@@ -0,0 +1,122 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * The fields of a serialized struct, indexed by their position in the serialized form, such that each field
+ * is deserialized only when it is first accessed. This is used by documents which are deserialized lazily, as
+ * most messages are routed by their document id and at most a few of their fields.
+ *
+ * The serialized struct is serialized again by copying it as long as none of its fields are accessed and it
+ * has no unknown fields, and otherwise by copying the known fields which are not accessed.
+ *
+ * This is thread safe for reading: each field is deserialized into a single value, which is returned by all
+ * accesses to that field, also when it is first accessed by multiple threads at once.
+ */
+public final class LazyFields {
+
+    private final DocumentTypeManager manager;
+    private final ByteBuffer struct;
+    private final Field[] fields;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final AtomicReferenceArray<FieldValue> values;
+    private final boolean hasUnknownFields;
+
+    /**
+     * Creates the fields of a struct from its serialized form.
+     *
+     * @param manager the document types to deserialize fields with
+     * @param type the type of the struct
+     * @param struct the serialized struct, including its header, from its position to its limit
+     * @param fieldIds the ids of the fields in the serialized struct
+     * @param fieldLengths the serialized lengths of the fields in the struct
+     * @param dataOffset the offset of the first field from the start of the serialized struct
+     */
+    LazyFields(DocumentTypeManager manager, StructDataType type, ByteBuffer struct,
+               int[] fieldIds, int[] fieldLengths, int dataOffset) {
+        this.manager = manager;
+        this.struct = struct;
+        int count = 0;
+        for (int fieldId : fieldIds) {
+            if (type.getField(fieldId) != null) count++;
+        }
+        this.fields = new Field[count];
+        this.offsets = new int[count];
+        this.lengths = new int[count];
+        this.values = new AtomicReferenceArray<>(count);
+        this.hasUnknownFields = count < fieldIds.length;
+        int offset = dataOffset;
+        for (int i = 0, j = 0; i < fieldIds.length; offset += fieldLengths[i++]) {
+            Field field = type.getField(fieldIds[i]);
+            if (field == null) continue; // Unknown fields are ignored, as when deserializing eagerly
+            fields[j] = field;
+            offsets[j] = offset;
+            lengths[j++] = fieldLengths[i];
+        }
+    }
+
+    /** Returns the number of fields in this */
+    public int size() { return fields.length; }
+
+    /** Returns the value of the given field, deserializing it if this is the first access, or null if it is not set */
+    public FieldValue get(Field field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getId() == field.getId())
+                return value(i);
+        }
+        return null;
+    }
+
+    /** Calls the given action with each field and value in this, deserializing those not already accessed */
+    public void forEach(BiConsumer<Field, FieldValue> action) {
+        for (int i = 0; i < fields.length; i++)
+            action.accept(fields[i], value(i));
+    }
+
+    private FieldValue value(int i) {
+        FieldValue value = values.get(i);
+        if (value != null) return value;
+
+        value = fields[i].getDataType().createFieldValue();
+        value.deserialize(fields[i], new VespaDocumentDeserializerHead(manager, new GrowableByteBuffer(serializedField(i))));
+        return values.compareAndSet(i, null, value) ? value : values.get(i);
+    }
+
+    /** Returns whether any field of this is accessed, such that it may be modified since it was serialized */
+    boolean isAccessed() {
+        for (int i = 0; i < values.length(); i++) {
+            if (values.get(i) != null) return true;
+        }
+        return false;
+    }
+
+    /** Returns whether the serialized struct has fields which are not in its type, and which are therefore not in this */
+    boolean hasUnknownFields() { return hasUnknownFields; }
+
+    /** Returns a read-only view of the serialized struct */
+    ByteBuffer serializedStruct() { return struct.asReadOnlyBuffer().order(struct.order()); }
+
+    Field field(int i) { return fields[i]; }
+
+    /** Returns the value of the given field if it is accessed, which may since have been modified, or null */
+    FieldValue accessedValue(int i) { return values.get(i); }
+
+    /** Returns a read-only view of the serialized value of the given field */
+    ByteBuffer serializedField(int i) {
+        ByteBuffer field = struct.asReadOnlyBuffer();
+        field.position(struct.position() + offsets[i]);
+        field.limit(struct.position() + offsets[i] + lengths[i]);
+        return field.slice().order(struct.order());
+    }
+
+}
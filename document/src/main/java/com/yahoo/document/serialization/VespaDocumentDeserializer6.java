@@ -82,6 +82,7 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private boolean lazy = false;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
         super(buf);
@@ -89,6 +90,11 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         this.version = Document.SERIALIZED_VERSION;
     }
 
+    /** Sets whether the fields of documents should only be deserialized when they are accessed */
+    void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
 
     @Override
@@ -117,8 +123,10 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         doc.setId(documentId);
 
         if ((content & 0x2) != 0) {
-            readStruct(doc, doc.getDataType().contentStruct());
-
+            if (lazy)
+                readLazyStruct(doc);
+            else
+                readStruct(doc, doc.getDataType().contentStruct());
         }
         if ((content & 0x4) != 0) {
             readStruct(doc, doc.getDataType().contentStruct());
@@ -296,6 +304,28 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         position(afterPos);
     }
 
+    private void readLazyStruct(Document doc) {
+        int structPos = position();
+        int dataSize = getInt(null);
+        byte unusedComprCode = getByte(null);
+        int numberOfFields = getInt1_4Bytes(null);
+
+        var fieldIds = new int[numberOfFields];
+        var fieldLens = new int[numberOfFields];
+        for (int i = 0; i < numberOfFields; i++) {
+            fieldIds[i] = getInt1_4Bytes(null);
+            fieldLens[i] = (int) getInt2_4_8Bytes(null);
+        }
+
+        int dataPos = position();
+        int afterPos = dataPos + dataSize;
+        ByteBuffer struct = getBuf().getByteBuffer().duplicate().order(getBuf().order());
+        struct.limit(afterPos).position(structPos);
+        doc.setLazyFields(new LazyFields(manager, doc.getDataType().contentStruct(), struct,
+                                         fieldIds, fieldLens, dataPos - structPos));
+        position(afterPos);
+    }
+
     public void read(FieldBase field, StructuredFieldValue value) {
         throw new IllegalArgumentException("read not implemented yet.");
     }
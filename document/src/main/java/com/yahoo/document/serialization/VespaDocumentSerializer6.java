@@ -105,7 +105,11 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
 
         doc.getDataType().serialize(this);
         if (hasHead) {
-            write(null, (StructuredFieldValue) doc);
+            LazyFields lazyFields = doc.getLazyFields();
+            if (lazyFields != null)
+                write(lazyFields);
+            else
+                write(null, (StructuredFieldValue) doc);
         }
 
         int finalPos = buf.position();
@@ -316,55 +320,97 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
      * @param s     - field value
      */
     public void write(FieldBase field, StructuredFieldValue s) {
-        // Serialize all parts first.. As we need to know length before starting
-        // Serialize all the fields.
-
-        //keep the buffer we're serializing everything into:
-        GrowableByteBuffer bigBuffer = buf;
-
-        //create a new buffer and serialize into that for a while:
-        GrowableByteBuffer buffer = new GrowableByteBuffer(4096, 2.0f);
-        buf = buffer;
-
         int numFields = s.getFieldCount();
         int [] fieldIds = new int[numFields];
         int [] fieldLengths = new int[numFields];
+        int lenPos = buf.position();
+        int dataPos = beginStruct(numFields);
 
         var iter = s.iterator();
         for (int i=0; iter.hasNext(); i++) {
             Map.Entry<Field, FieldValue> value = iter.next();
 
-            int startPos = buffer.position();
+            int startPos = buf.position();
             Field key = value.getKey();
             value.getValue().serialize(key, this);
 
-            fieldLengths[i] = buffer.position() - startPos;
+            fieldLengths[i] = buf.position() - startPos;
             fieldIds[i] = key.getId();
         }
+        endStruct(lenPos, dataPos, fieldIds, fieldLengths);
+    }
 
-        // Switch buffers again:
-        buffer.flip();
-        buf = bigBuffer;
+    /**
+     * Writes the fields of a lazily deserialized document, by copying the serialized struct if no fields are
+     * accessed and it has no unknown fields, and otherwise copying the serialized value of each known field which
+     * is not accessed. Unknown fields are dropped, as when the document is deserialized eagerly.
+     */
+    private void write(LazyFields fields) {
+        if ( ! fields.isAccessed() && ! fields.hasUnknownFields()) {
+            buf.put(fields.serializedStruct());
+            return;
+        }
+        int numFields = fields.size();
+        int [] fieldIds = new int[numFields];
+        int [] fieldLengths = new int[numFields];
+        int lenPos = buf.position();
+        int dataPos = beginStruct(numFields);
+
+        for (int i = 0; i < numFields; i++) {
+            int startPos = buf.position();
+            Field key = fields.field(i);
+            FieldValue value = fields.accessedValue(i);
+            if (value != null)
+                value.serialize(key, this);
+            else
+                buf.put(fields.serializedField(i));
+
+            fieldLengths[i] = buf.position() - startPos;
+            fieldIds[i] = key.getId();
+        }
+        endStruct(lenPos, dataPos, fieldIds, fieldLengths);
+    }
+
+    /**
+     * Starts writing a struct with the given number of fields. The lengths of all fields are written before
+     * the fields, so the fields are serialized first, after room for the largest possible header, and then
+     * moved back to the end of the actual header by {@link #endStruct}. This avoids serializing them into a
+     * separate buffer, which is then copied into this.
+     *
+     * @return the position to write the fields at
+     */
+    private int beginStruct(int numFields) {
+        int maxHeaderSize = 4 + 1 + 4 + numFields * (4 + 8);
+        reserve(maxHeaderSize);
+        int dataPos = buf.position() + maxHeaderSize;
+        buf.position(dataPos);
+        return dataPos;
+    }
+
+    /** Writes the header of a struct started at the given position, and moves its fields to after the header */
+    private void endStruct(int lenPos, int dataPos, int[] fieldIds, int[] fieldLengths) {
+        int dataLength = buf.position() - dataPos;
 
         // Actual serialization starts here.
-        int lenPos = buf.position();
-        putInt(null, 0); // Move back to this after compression is done.
+        buf.position(lenPos);
+        putInt(null, dataLength);
         buf.put(CompressionType.NONE.getCode());
-        buf.putInt1_4Bytes(numFields);
+        buf.putInt1_4Bytes(fieldIds.length);
 
-        for (int i = 0; i < numFields; ++i) {
+        for (int i = 0; i < fieldIds.length; ++i) {
             putInt1_4Bytes(null, fieldIds[i]);
             putInt2_4_8Bytes(null, fieldLengths[i]);
         }
 
         int pos = buf.position();
-        put(null, buffer.getByteBuffer());
-        int dataLength = buf.position() - pos;
+        buf.getByteBuffer().put(pos, buf.getByteBuffer(), dataPos, dataLength);
+        buf.position(pos + dataLength);
+    }
 
-        int posNow = buf.position();
-        buf.position(lenPos);
-        putInt(null, dataLength);
-        buf.position(posNow);
+    /** Grows the buffer, if necessary, such that the given number of bytes can be written at its position */
+    private void reserve(int bytes) {
+        if (buf.remaining() < bytes)
+            buf.grow(Math.max(buf.position() + bytes, buf.capacity() * 2));
     }
 
     /**
@@ -0,0 +1,222 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.MapDataType;
+import com.yahoo.document.PositionDataType;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.text.Utf8;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryDocumentWriterTest {
+
+    private static final String docId = "id:unittest:writable::one";
+
+    private final JsonFactory parserFactory = new JsonFactory();
+    private DocumentTypeManager types;
+
+    @Before
+    public void setUp() {
+        types = new DocumentTypeManager();
+        DocumentType type = new DocumentType("writable");
+        type.addField(new Field("string", DataType.STRING));
+        type.addField(new Field("int", DataType.INT));
+        type.addField(new Field("long", DataType.LONG));
+        type.addField(new Field("float", DataType.FLOAT));
+        type.addField(new Field("double", DataType.DOUBLE));
+        type.addField(new Field("byte", DataType.BYTE));
+        type.addField(new Field("bool", DataType.BOOL));
+        type.addField(new Field("strings", new ArrayDataType(DataType.STRING)));
+        type.addField(new Field("matrix", new ArrayDataType(new ArrayDataType(DataType.INT))));
+        type.addField(new Field("tags", new WeightedSetDataType(DataType.STRING, true, true)));
+        type.addField(new Field("ids", new WeightedSetDataType(DataType.LONG, false, false)));
+        type.addField(new Field("dense", DataType.getTensor(TensorType.fromSpec("tensor<float>(x[3])"))));
+        type.addField(new Field("sparse", DataType.getTensor(TensorType.fromSpec("tensor(x{})"))));
+        type.addField(new Field("mixed", DataType.getTensor(TensorType.fromSpec("tensor(x{},y[2])"))));
+        type.addField(new Field("location", PositionDataType.INSTANCE));
+        type.addField(new Field("map", new MapDataType(DataType.STRING, DataType.STRING)));
+        types.registerDocumentType(type);
+    }
+
+    @Test
+    public void testPrimitivesAndArraysAreWrittenAsTheyAreSerialized() {
+        String json = """
+                      {
+                        "condition": "writable.int > 0",
+                        "fields": {
+                          "string": "Ærlig talt 🙃",
+                          "int": -7,
+                          "long": 123456789012345,
+                          "float": 1.5,
+                          "double": "2.25",
+                          "byte": 8,
+                          "bool": true,
+                          "strings": [ "one", "two", "" ],
+                          "matrix": [ [ 1, 2 ], [ ], [ 3 ] ]
+                        },
+                        "create": true
+                      }""";
+        byte[] written = write(json).orElseThrow();
+        assertEquals(serialize(json).length, written.length); // Fields are written in the order of the JSON.
+        assertEquals(read(json), deserialize(written));
+    }
+
+    @Test
+    public void testWeightedSetsAndTensorsAreWritten() {
+        String json = """
+                      {
+                        "fields": {
+                          "tags": { "foo": 1, "bar": -2, "baz": 3 },
+                          "ids": { "17": 1, "-3": 2 },
+                          "dense": [ 1.0, 2.0, 3.5 ],
+                          "sparse": { "cells": { "a": 1.0, "b": 2.0 } },
+                          "mixed": { "blocks": { "a": [ 1.0, 2.0 ] } }
+                        }
+                      }""";
+        assertEquals(read(json), deserialize(write(json).orElseThrow()));
+    }
+
+    @Test
+    public void testEmptyDocumentIsWritten() {
+        String json = "{ \"fields\": { \"string\": null } }";
+        byte[] written = write(json).orElseThrow();
+        assertArrayEquals(serialize(json), written);
+        assertEquals(read(json), deserialize(written));
+    }
+
+    @Test
+    public void testPutPropertiesAreReturned() {
+        BinaryDocumentWriter writer = new BinaryDocumentWriter(types, parserFactory);
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        var properties = writer.writePut(new DocumentId(docId),
+                                         Utf8.toBytes("{ \"condition\": \"writable.int == 1\", \"create\": false, \"fields\": { } }"),
+                                         buffer).orElseThrow();
+        assertEquals("writable.int == 1", properties.condition().getSelection());
+        assertEquals(Optional.of(false), properties.createIfNonExistent());
+
+        properties = writer.writePut(new DocumentId(docId), Utf8.toBytes("{ \"fields\": { } }"), buffer).orElseThrow();
+        assertFalse(properties.condition().isPresent());
+        assertEquals(Optional.empty(), properties.createIfNonExistent());
+    }
+
+    @Test
+    public void testUnhandledDocumentsAreLeftForJsonReader() {
+        assertNotWritten("{ \"fields\": { \"location\": \"N63.429722;E10.393333\" } }");
+        assertNotWritten("{ \"fields\": { \"map\": { \"foo\": \"bar\" } } }");
+        assertNotWritten("{ \"fields\": { \"int\": 1, \"int\": 2 } }");
+        assertNotWritten("{ \"fields\": { \"tags\": { \"foo\": 1, \"foo\": 2 } } }");
+        assertNotWritten("{ \"fields\": { \"nope\": 1 } }");
+        assertNotWritten("{ \"fields\": { \"int\": 1.5 } }");
+        assertNotWritten("{ \"fields\": { \"strings\": [ null ] } }");
+        assertNotWritten("{ \"fields\": { \"string\": \"\\u0001\" } }");
+        assertNotWritten("{ \"fields\": { \"string\": \"foo\" }");
+        assertNotWritten("{ \"condition\": \"true\" }");
+    }
+
+    @Test
+    public void testPutsAreReadWithLazyDocuments() {
+        String json = """
+                      {
+                        "condition": "writable.int > 0",
+                        "create": true,
+                        "fields": { "string": "foo", "int": 7, "strings": [ "bar" ], "dense": [ 1.0, 2.0, 3.0 ] }
+                      }""";
+        BinaryDocumentWriter writer = new BinaryDocumentWriter(types, parserFactory);
+        ParsedDocumentOperation parsed = writer.readPut(new DocumentId(docId), Utf8.toBytes(json)).orElseThrow();
+        assertTrue(parsed.fullyApplied());
+        DocumentPut put = (DocumentPut) parsed.operation();
+        assertNotNull(put.getDocument().getLazyFields());
+        assertEquals(new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), parserFactory)
+                             .readSingleDocumentStreaming(DocumentOperationType.PUT, docId).operation(),
+                     put);
+
+        assertTrue(writer.readPut(new DocumentId(docId), Utf8.toBytes("{ \"fields\": { \"map\": { } } }")).isEmpty());
+    }
+
+    @Test
+    public void testFeedPutsAreRead() {
+        String json = """
+                      [
+                        {
+                          "put": "id:unittest:writable::one",
+                          "condition": "writable.int > 0",
+                          "fields": { "string": "foo", "tags": { "bar": 2 } },
+                          "create": false
+                        }
+                      ]""";
+        DocumentPut put = new BinaryDocumentWriter(types, parserFactory).readFeedPut(Utf8.toBytes(json)).orElseThrow();
+        assertNotNull(put.getDocument().getLazyFields());
+        assertEquals(new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), parserFactory).next(), put);
+
+        assertEquals(new DocumentId(docId),
+                     new BinaryDocumentWriter(types, parserFactory)
+                             .readFeedPut(Utf8.toBytes("[ { \"id\": \"" + docId + "\", \"fields\": { } } ]")).orElseThrow().getId());
+    }
+
+    @Test
+    public void testUnhandledFeedsAreLeftForJsonReader() {
+        assertFeedNotRead("{ \"put\": \"" + docId + "\", \"fields\": { } }");
+        assertFeedNotRead("[ { \"fields\": { }, \"put\": \"" + docId + "\" } ]");
+        assertFeedNotRead("[ { \"update\": \"" + docId + "\", \"fields\": { } } ]");
+        assertFeedNotRead("[ { \"put\": \"" + docId + "\", \"foo\": \"bar\", \"fields\": { } } ]");
+        assertFeedNotRead("[ { \"put\": \"" + docId + "\", \"fields\": { } }, { \"remove\": \"" + docId + "\" } ]");
+        assertFeedNotRead("[ { \"put\": \"id:unittest:nope::one\", \"fields\": { } } ]");
+    }
+
+    private void assertFeedNotRead(String json) {
+        assertTrue(json, new BinaryDocumentWriter(types, parserFactory).readFeedPut(Utf8.toBytes(json)).isEmpty());
+    }
+
+    private void assertNotWritten(String json) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        buffer.putInt(0x1234);
+        assertTrue(json, new BinaryDocumentWriter(types, parserFactory).writePut(new DocumentId(docId), Utf8.toBytes(json), buffer).isEmpty());
+        assertEquals(4, buffer.position());
+    }
+
+    private Optional<byte[]> write(String json) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        buffer.put((byte) 0x7f); // Writes start at the current position.
+        return new BinaryDocumentWriter(types, parserFactory).writePut(new DocumentId(docId), Utf8.toBytes(json), buffer)
+                                                             .map(properties -> Arrays.copyOfRange(buffer.array(), 1, buffer.position()));
+    }
+
+    private Document read(String json) {
+        return ((DocumentPut) new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), parserFactory)
+                .readSingleDocumentStreaming(DocumentOperationType.PUT, docId).operation()).getDocument();
+    }
+
+    private byte[] serialize(String json) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(read(json));
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private Document deserialize(byte[] serialized) {
+        return new Document(DocumentDeserializerFactory.createHead(types, GrowableByteBuffer.wrap(serialized)));
+    }
+
+}
@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
   * @author Håkon Humberset
@@ -58,6 +59,43 @@ public class BucketSelectorTestCase {
         assertBucket("(id.group = \"yahoo.com\" and (testdoctype1 and (id.namespace == 'foo')))", new BucketId(32, 0x035837189a1acd50L));
     }
 
+    @Test
+    public void user_ranges_are_expanded_to_buckets() throws Exception {
+        assertBucketCount("id.user >= 10 and id.user < 20", 10);
+        assertBucketCount("id.user > 10 and id.user <= 20", 10);
+        assertBucketCount("10 < id.user and 20 >= id.user", 10);
+        assertBuckets("id.user >= 10 and id.user < 13 and testdoctype1.hstringval == \"Doe\"",
+                      Set.of(new BucketId(32, 10), new BucketId(32, 11), new BucketId(32, 12)));
+        assertBuckets("id.user >= 10 and (id.user < 12 and testdoctype1)",
+                      Set.of(new BucketId(32, 10), new BucketId(32, 11)));
+        assertBuckets("(id.user < 3 and id.user >= 1) or id.user == 100",
+                      Set.of(new BucketId(32, 1), new BucketId(32, 2), new BucketId(32, 100)));
+        assertBuckets("id.user > 1 and id.user < 3 or id.user > 10 and id.user < 12",
+                      Set.of(new BucketId(32, 2), new BucketId(32, 11)));
+        assertBuckets("(id.user == 1 or id.user == 2) and id.user > 1 and id.user < 10",
+                      Set.of(new BucketId(32, 2)));
+        assertBucketCount("id.user >= 10 and id.user < 10", 0);
+        assertBucketCount("id.user == 5 and id.user > 5", 0);
+
+        assertUnknown("id.user >= 10");
+        assertUnknown("id.user >= 10 and id.user < 100000");
+        assertUnknown("id.user >= 10 and id.user < 20 or testdoctype1");
+        assertUnknown("id.user != 10 and id.user < 20 and id.user > 0 or id.user < 0");
+    }
+
+    @Test
+    public void intersection_keeps_the_smaller_of_overlapping_buckets() throws Exception {
+        assertBuckets("id.user == 123 and id.bucket == 0x400000000000007b", Set.of(new BucketId(32, 123)));
+        assertBuckets("id.bucket == 0x400000000000007b and id == \"id:ns:mytype:n=123:foobar\"",
+                      Set.of(new BucketId(0xe8bd6e280000007bL)));
+        assertBuckets("id.bucket == 0x400000000000007c and id.user >= 100 and id.user < 200", Set.of(new BucketId(32, 124)));
+        assertBucketCount("id.bucket == 0x40000000000000c8 and id.user >= 100 and id.user < 200", 0);
+    }
+
+    public void assertUnknown(String expr) throws Exception {
+        assertNull(new BucketSelector(new BucketIdFactory()).getBucketList(expr));
+    }
+
     public void assertBucketCount(String expr, int count) throws Exception {
         BucketIdFactory factory = new BucketIdFactory();
         BucketSelector selector = new BucketSelector(factory);
@@ -0,0 +1,117 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
+import com.yahoo.document.select.rule.ExpressionNode;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the time spent evaluating document selections with compiled selectors to that of interpreting the
+ * parsed expressions.
+ */
+public class DocumentSelectorBenchmarkTest {
+
+    private static final int NUM_DOCUMENTS = 1000;
+    private static final int NUM_RUNS = 200;
+
+    private static final List<String> selections = List.of(
+            "music",
+            "music.year > 1990 and music.year < 2000",
+            "music.artist == \"artist 7\" or music.artist == \"artist 13\"",
+            "music.title =~ \"^title [0-9]*7$\"",
+            "music.title = \"title 1*\" and not music.artist = \"*3\"",
+            "music.tags == \"tag 3\"",
+            "music.artist.lowercase() == \"artist 7\" and music.year >= 1980",
+            "id.namespace == \"ns\" and (music.year < 1970 or music.title =~ \"9$\")");
+
+    @Ignore
+    @Test
+    public void benchmarkCompiledAgainstInterpretedSelections() throws ParseException {
+        List<DocumentPut> documents = createDocuments();
+        for (String selection : selections) {
+            DocumentSelector compiled = new DocumentSelector(selection);
+            ExpressionNode interpreted = new SelectParser(new SelectInput(selection)).expression();
+            long compiledNanos = 0;
+            long interpretedNanos = 0;
+            for (int i = 0; i < 2; ++i) { // First round is warmup
+                compiledNanos = time(() -> count(compiled, documents));
+                interpretedNanos = time(() -> count(interpreted, documents));
+            }
+            assertEquals(count(interpreted, documents), count(compiled, documents));
+            double evaluations = (double) NUM_RUNS * documents.size();
+            System.out.format("%-80s : compiled %6.0f ns, interpreted %6.0f ns, speedup %4.2f\n",
+                              selection, compiledNanos / evaluations, interpretedNanos / evaluations,
+                              (double) interpretedNanos / compiledNanos);
+        }
+    }
+
+    private static long time(Runnable runnable) {
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_RUNS; ++i) {
+            runnable.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int count(DocumentSelector selector, List<DocumentPut> documents) {
+        int accepted = 0;
+        for (DocumentPut document : documents) {
+            if (selector.accepts(document) == Result.TRUE) {
+                ++accepted;
+            }
+        }
+        return accepted;
+    }
+
+    private static int count(ExpressionNode expression, List<DocumentPut> documents) {
+        int accepted = 0;
+        for (DocumentPut document : documents) {
+            if (Result.toResult(expression.evaluate(new Context(document))) == Result.TRUE) {
+                ++accepted;
+            }
+        }
+        return accepted;
+    }
+
+    private static List<DocumentPut> createDocuments() {
+        DocumentType type = new DocumentType("music");
+        type.addField("title", DataType.STRING);
+        type.addField("artist", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+
+        List<DocumentPut> documents = new ArrayList<>();
+        for (int i = 0; i < NUM_DOCUMENTS; ++i) {
+            Document document = new Document(type, new DocumentId("id:ns:music::" + i));
+            document.setFieldValue("title", new StringFieldValue("title " + i));
+            document.setFieldValue("artist", new StringFieldValue("artist " + (i % 17)));
+            document.setFieldValue("year", new IntegerFieldValue(1950 + (i % 70)));
+            Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+            for (int j = 0; j < 3; ++j) {
+                tags.add(new StringFieldValue("tag " + ((i + j) % 11)));
+            }
+            document.setFieldValue("tags", tags);
+            documents.add(new DocumentPut(document));
+        }
+        return documents;
+    }
+
+}
@@ -26,7 +26,10 @@ import com.yahoo.document.datatypes.Struct;
 import com.yahoo.document.datatypes.WeightedSet;
 import com.yahoo.document.select.convert.SelectionExpressionConverter;
 import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
+import com.yahoo.document.select.rule.ExpressionNode;
 import com.yahoo.yolean.Exceptions;
 import org.junit.Before;
 import org.junit.Test;
@@ -823,6 +826,24 @@ public class DocumentSelectorTestCase {
         }
     }
 
+    @Test
+    public void compiled_selection_is_reusable_across_documents_and_document_types() throws ParseException {
+        DocumentType other = new DocumentType("test"); // Same name, but not the type the other documents have
+        other.addField("hstring", DataType.INT);
+        other.addField("hint", DataType.STRING);
+        Document otherDocument = new Document(other, new DocumentId("id:ns:test::other"));
+        otherDocument.setFieldValue("hstring", new IntegerFieldValue(42));
+        otherDocument.setFieldValue("hint", new StringFieldValue("24"));
+
+        DocumentSelector selector = new DocumentSelector("test.hstring =~ \"^4\" and test.hint.lowercase() = \"2*\"");
+        List<DocumentPut> documents = createDocs();
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Result.TRUE, selector.accepts(new DocumentPut(otherDocument)));
+            assertEquals(Result.FALSE, selector.accepts(documents.get(0)));
+            assertEquals(Result.TRUE, selector.accepts(createDocument("id:ns:test::other", 24, 0, "4", "")));
+        }
+    }
+
     @Test
     public void testTicket1769674() {
         assertParseError("music.uri=\"junk",
@@ -947,7 +968,11 @@ public class DocumentSelectorTestCase {
     }
 
     private static Result evaluate(String expressionString, DocumentOperation op) throws ParseException {
-        return new DocumentSelector(expressionString).accepts(op);
+        Result result = new DocumentSelector(expressionString).accepts(op);
+        ExpressionNode interpreted = new SelectParser(new SelectInput(expressionString)).expression();
+        assertEquals("Compiled and interpreted evaluation of '" + expressionString + "'",
+                     result, Result.toResult(interpreted.evaluate(new Context(op))));
+        return result;
     }
 
     private static void assertError(String expressionString, DocumentOperation op, String expectedError) {
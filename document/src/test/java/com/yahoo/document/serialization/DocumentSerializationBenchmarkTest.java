@@ -0,0 +1,248 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.TensorDataType;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.document.annotation.Annotation;
+import com.yahoo.document.annotation.AnnotationTypes;
+import com.yahoo.document.annotation.Span;
+import com.yahoo.document.annotation.SpanList;
+import com.yahoo.document.annotation.SpanTree;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.DoubleFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.datatypes.Struct;
+import com.yahoo.document.datatypes.TensorFieldValue;
+import com.yahoo.document.datatypes.WeightedSet;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the time spent serializing and deserializing documents of schemas with different kinds of fields.
+ */
+public class DocumentSerializationBenchmarkTest {
+
+    private static final int NUM_DOCUMENTS = 1000;
+    private static final int NUM_RUNS = 100;
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final Random random = new Random(42);
+
+    @Ignore
+    @Test
+    public void benchmarkDocumentSerialization() {
+        benchmark("primitives", this::primitiveType, this::primitiveDocument);
+        benchmark("strings", this::stringType, this::stringDocument);
+        benchmark("weighted sets", this::weightedSetType, this::weightedSetDocument);
+        benchmark("annotated strings", this::annotatedType, this::annotatedDocument);
+        benchmark("structs", this::structType, this::structDocument);
+        benchmark("dense tensors", this::tensorType, this::tensorDocument);
+    }
+
+    private void benchmark(String name, Function<String, DocumentType> typeFactory, Function<DocumentType, Document> documentFactory) {
+        DocumentType type = typeFactory.apply(name.replace(' ', '_'));
+        manager.register(type);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < NUM_DOCUMENTS; i++) {
+            documents.add(documentFactory.apply(type));
+        }
+        List<byte[]> serialized = documents.stream().map(SerializationTestUtils::serializeDocument).toList();
+        assertEquals(documents.get(0), deserialize(serialized.get(0)));
+
+        long serializeNanos = 0;
+        long deserializeNanos = 0;
+        long bytes = 0;
+        for (int warmup = 0; warmup < 2; warmup++) { // First round is warmup
+            long start = System.nanoTime();
+            for (int run = 0; run < NUM_RUNS; run++) {
+                GrowableByteBuffer buffer = new GrowableByteBuffer();
+                for (Document document : documents) {
+                    clearSerializedTensors(document);
+                    buffer.clear();
+                    DocumentSerializerFactory.create6(buffer).write(document);
+                    bytes += buffer.position();
+                }
+            }
+            serializeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int run = 0; run < NUM_RUNS; run++) {
+                for (byte[] data : serialized) {
+                    deserialize(data);
+                }
+            }
+            deserializeNanos = System.nanoTime() - start;
+        }
+        double count = (double) NUM_RUNS * NUM_DOCUMENTS;
+        System.out.format("%-20s : %5d bytes, serialize %7.0f ns, deserialize %7.0f ns\n",
+                          name, bytes / (2 * NUM_RUNS * NUM_DOCUMENTS), serializeNanos / count, deserializeNanos / count);
+    }
+
+    private Document deserialize(byte[] data) {
+        return new Document(DocumentDeserializerFactory.create6(manager, GrowableByteBuffer.wrap(data)));
+    }
+
+    /** Tensors cache their serialized form, so this must be cleared for tensor encoding to be measured */
+    private static void clearSerializedTensors(Document document) {
+        for (var iterator = document.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().getValue() instanceof TensorFieldValue tensor) {
+                tensor.assignTensor(tensor.getTensor());
+            }
+        }
+    }
+
+    private DocumentType primitiveType(String name) {
+        DocumentType type = new DocumentType(name);
+        type.addField("int", DataType.INT);
+        type.addField("long", DataType.LONG);
+        type.addField("double", DataType.DOUBLE);
+        type.addField("string", DataType.STRING);
+        return type;
+    }
+
+    private Document primitiveDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        document.setFieldValue("int", new IntegerFieldValue(random.nextInt()));
+        document.setFieldValue("long", new LongFieldValue(random.nextLong()));
+        document.setFieldValue("double", new DoubleFieldValue(random.nextDouble()));
+        document.setFieldValue("string", new StringFieldValue(words(8)));
+        return document;
+    }
+
+    private DocumentType stringType(String name) {
+        DocumentType type = new DocumentType(name);
+        type.addField("title", DataType.STRING);
+        type.addField("body", DataType.STRING);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+        return type;
+    }
+
+    private Document stringDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        document.setFieldValue("title", new StringFieldValue(words(8)));
+        document.setFieldValue("body", new StringFieldValue(words(200)));
+        Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+        for (int i = 0; i < 20; i++) {
+            tags.add(new StringFieldValue(words(1)));
+        }
+        document.setFieldValue("tags", tags);
+        return document;
+    }
+
+    private DocumentType weightedSetType(String name) {
+        DocumentType type = new DocumentType(name);
+        type.addField("categories", new WeightedSetDataType(DataType.STRING, false, false));
+        return type;
+    }
+
+    private Document weightedSetDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        WeightedSet<StringFieldValue> categories = new WeightedSet<>(type.getField("categories").getDataType());
+        for (int i = 0; i < 50; i++) {
+            categories.put(new StringFieldValue(words(1) + i), random.nextInt(100));
+        }
+        document.setFieldValue("categories", categories);
+        return document;
+    }
+
+    private DocumentType annotatedType(String name) {
+        DocumentType type = new DocumentType(name);
+        type.addField("body", DataType.STRING);
+        return type;
+    }
+
+    private Document annotatedDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        String text = words(100);
+        SpanList root = new SpanList();
+        SpanTree tree = new SpanTree("linguistics", root);
+        for (int from = 0, to; from < text.length(); from = to + 1) {
+            to = text.indexOf(' ', from);
+            if (to < 0) to = text.length();
+            Span span = new Span(from, to - from);
+            root.add(span);
+            tree.annotate(span, new Annotation(AnnotationTypes.TERM, new StringFieldValue(text.substring(from, to))));
+        }
+        StringFieldValue body = new StringFieldValue(text);
+        body.setSpanTree(tree);
+        document.setFieldValue("body", body);
+        return document;
+    }
+
+    private DocumentType structType(String name) {
+        StructDataType person = new StructDataType(name + "_person");
+        person.addField(new com.yahoo.document.Field("name", DataType.STRING));
+        person.addField(new com.yahoo.document.Field("age", DataType.INT));
+        person.addField(new com.yahoo.document.Field("score", DataType.DOUBLE));
+        DocumentType type = new DocumentType(name);
+        type.addField("people", new ArrayDataType(person));
+        return type;
+    }
+
+    private Document structDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        ArrayDataType arrayType = (ArrayDataType) type.getField("people").getDataType();
+        Array<Struct> people = new Array<>(arrayType);
+        for (int i = 0; i < 20; i++) {
+            Struct person = new Struct(arrayType.getNestedType());
+            person.setFieldValue("name", new StringFieldValue(words(2)));
+            person.setFieldValue("age", new IntegerFieldValue(random.nextInt(100)));
+            person.setFieldValue("score", new DoubleFieldValue(random.nextDouble()));
+            people.add(person);
+        }
+        document.setFieldValue("people", people);
+        return document;
+    }
+
+    private DocumentType tensorType(String name) {
+        DocumentType type = new DocumentType(name);
+        type.addField("embedding", new TensorDataType(TensorType.fromSpec("tensor<float>(x[384])")));
+        type.addField("weights", new TensorDataType(TensorType.fromSpec("tensor(x[64])")));
+        return type;
+    }
+
+    /** Returns a document with tensors which are not yet serialized, as those of documents being fed */
+    private Document tensorDocument(DocumentType type) {
+        Document document = new Document(type, "id:ns:" + type.getName() + "::" + random.nextInt());
+        document.setFieldValue("embedding", new TensorFieldValue(tensor(TensorType.fromSpec("tensor<float>(x[384])"))));
+        document.setFieldValue("weights", new TensorFieldValue(tensor(TensorType.fromSpec("tensor(x[64])"))));
+        return document;
+    }
+
+    private Tensor tensor(TensorType type) {
+        IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder) Tensor.Builder.of(type);
+        for (int i = 0; i < type.dimensions().get(0).size().get(); i++) {
+            builder.cellByDirectIndex(i, random.nextFloat());
+        }
+        return builder.build();
+    }
+
+    private String words(int count) {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) b.append(' ');
+            b.append("word").append(random.nextInt(1000));
+        }
+        return b.toString();
+    }
+
+}
@@ -0,0 +1,182 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.DocumentSelector;
+import com.yahoo.document.select.Result;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LazyDocumentDeserializationTestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("music");
+
+    public LazyDocumentDeserializationTestCase() {
+        type.addField("title", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("tracks", new ArrayDataType(DataType.STRING));
+        manager.register(type);
+    }
+
+    @Test
+    public void fields_are_deserialized_when_accessed() {
+        Document original = createDocument();
+        Document document = deserializeLazily(SerializationTestUtils.serializeDocument(original));
+
+        assertNotNull(document.getLazyFields());
+        assertFalse(document.getLazyFields().isAccessed());
+        assertEquals(original.getId(), document.getId());
+        assertEquals(3, document.getFieldCount());
+
+        assertEquals(new IntegerFieldValue(1969), document.getFieldValue("year"));
+        assertTrue(document.getLazyFields().isAccessed());
+        assertNull(document.getFieldValue("missing"));
+        assertEquals(original.getFieldValue("tracks"), document.getFieldValue("tracks"));
+        assertNotNull(document.getLazyFields());
+
+        assertEquals(original, document);
+        assertNull(document.getLazyFields());
+        assertEquals(3, document.getFieldCount());
+    }
+
+    @Test
+    public void unaccessed_document_is_serialized_as_it_was_deserialized() {
+        byte[] serialized = SerializationTestUtils.serializeDocument(createDocument());
+        assertArrayEquals(serialized, SerializationTestUtils.serializeDocument(deserializeLazily(serialized)));
+    }
+
+    @Test
+    public void accessed_document_is_serialized_with_modifications() {
+        Document original = createDocument();
+        byte[] serialized = SerializationTestUtils.serializeDocument(original);
+
+        Document document = deserializeLazily(serialized);
+        assertEquals(new StringFieldValue("Abbey Road"), document.getFieldValue("title"));
+        assertArrayEquals(serialized, SerializationTestUtils.serializeDocument(document));
+
+        ((Array<StringFieldValue>) document.getFieldValue("tracks")).add(new StringFieldValue("Her Majesty"));
+        Document modified = deserializeLazily(SerializationTestUtils.serializeDocument(document));
+        assertEquals(4, ((Array<?>) modified.getFieldValue("tracks")).size());
+        assertEquals(new StringFieldValue("Abbey Road"), modified.getFieldValue("title"));
+        assertEquals(new IntegerFieldValue(1969), modified.getFieldValue("year"));
+    }
+
+    @Test
+    public void modifying_fields_deserializes_all_fields() {
+        Document document = deserializeLazily(SerializationTestUtils.serializeDocument(createDocument()));
+        document.setFieldValue("year", new IntegerFieldValue(1970));
+        assertNull(document.getLazyFields());
+
+        Document expected = createDocument();
+        expected.setFieldValue("year", new IntegerFieldValue(1970));
+        assertEquals(expected, document);
+        assertEquals(expected, deserializeLazily(SerializationTestUtils.serializeDocument(document)));
+
+        document = deserializeLazily(SerializationTestUtils.serializeDocument(createDocument()));
+        document.removeFieldValue("tracks");
+        assertEquals(2, document.getFieldCount());
+        assertNull(deserializeLazily(SerializationTestUtils.serializeDocument(document)).getFieldValue("tracks"));
+    }
+
+    @Test
+    public void selections_are_evaluated_on_lazy_documents() throws ParseException {
+        Document document = deserializeLazily(SerializationTestUtils.serializeDocument(createDocument()));
+        assertEquals(Result.TRUE, new DocumentSelector("music.year > 1968").accepts(new DocumentPut(document)));
+        assertNotNull(document.getLazyFields());
+    }
+
+    @Test
+    public void unknown_fields_are_dropped_as_when_deserializing_eagerly() {
+        DocumentType newerType = new DocumentType("music");
+        newerType.addField("title", DataType.STRING);
+        newerType.addField("label", DataType.STRING);
+        newerType.addField("year", DataType.INT);
+        Document newer = new Document(newerType, "id:ns:music::abbey-road");
+        newer.setFieldValue("title", new StringFieldValue("Abbey Road"));
+        newer.setFieldValue("label", new StringFieldValue("Apple"));
+        newer.setFieldValue("year", new IntegerFieldValue(1969));
+        byte[] serialized = SerializationTestUtils.serializeDocument(newer);
+
+        Document eager = new Document(DocumentDeserializerFactory.createHead(manager, GrowableByteBuffer.wrap(serialized)));
+        Document lazy = deserializeLazily(serialized);
+        assertEquals(2, lazy.getFieldCount());
+        assertArrayEquals(SerializationTestUtils.serializeDocument(eager), SerializationTestUtils.serializeDocument(lazy));
+        assertFalse(lazy.getLazyFields().isAccessed());
+        assertEquals(eager, deserializeLazily(SerializationTestUtils.serializeDocument(lazy)));
+    }
+
+    @Test
+    public void concurrent_reads_see_the_same_values() throws Exception {
+        byte[] serialized = SerializationTestUtils.serializeDocument(createDocument());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int attempt = 0; attempt < 100; attempt++) {
+                Document document = deserializeLazily(serialized);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<FieldValue>> reads = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    boolean enumerate = i % 2 == 0;
+                    reads.add(executor.submit(() -> {
+                        start.await();
+                        if ( ! enumerate) return document.getFieldValue("tracks");
+
+                        Map<String, FieldValue> values = new HashMap<>();
+                        document.iterator().forEachRemaining(entry -> values.put(entry.getKey().getName(), entry.getValue()));
+                        assertEquals(3, values.size());
+                        return values.get("tracks");
+                    }));
+                }
+                start.countDown();
+                for (Future<FieldValue> read : reads)
+                    assertSame(document.getFieldValue("tracks"), read.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private Document deserializeLazily(byte[] serialized) {
+        return new Document(DocumentDeserializerFactory.createLazyHead(manager, GrowableByteBuffer.wrap(serialized)));
+    }
+
+    private Document createDocument() {
+        Document document = new Document(type, "id:ns:music::abbey-road");
+        document.setFieldValue("title", new StringFieldValue("Abbey Road"));
+        document.setFieldValue("year", new IntegerFieldValue(1969));
+        Array<StringFieldValue> tracks = new Array<>(type.getField("tracks").getDataType());
+        for (String track : List.of("Come Together", "Something", "Octopus's Garden"))
+            tracks.add(new StringFieldValue(track));
+        document.setFieldValue("tracks", tracks);
+        return document;
+    }
+
+}
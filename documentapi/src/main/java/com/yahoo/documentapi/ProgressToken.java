@@ -5,6 +5,7 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
 import com.yahoo.document.BucketId;
@@ -49,10 +50,14 @@ public class ProgressToken {
      * update()'d and may be returned by getNext() at some point)
      */
     public static class BucketEntry {
+        private final ProgressToken owner;
+        private final BucketKeyWrapper key;
         private BucketId progress;
         private BucketState state;
 
-        private BucketEntry(BucketId progress, BucketState state) {
+        private BucketEntry(ProgressToken owner, BucketKeyWrapper key, BucketId progress, BucketState state) {
+            this.owner = owner;
+            this.key = key;
             this.progress = progress;
             this.state = state;
         }
@@ -70,6 +75,11 @@ public class ProgressToken {
         }
 
         public void setState(BucketState state) {
+            if (state == BucketState.BUCKET_PENDING) {
+                owner.pendingBuckets.add(key);
+            } else {
+                owner.pendingBuckets.remove(key);
+            }
             this.state = state;
         }
     }
@@ -137,6 +147,11 @@ public class ProgressToken {
     private int distributionBits = 16;
 
     private TreeMap<BucketKeyWrapper, BucketEntry> buckets = new TreeMap<BucketKeyWrapper, BucketEntry>();
+    /**
+     * Keys of the buckets in <code>buckets</code> which are pending, so the
+     * first pending bucket is found without scanning past all active buckets
+     */
+    private final TreeSet<BucketKeyWrapper> pendingBuckets = new TreeSet<>();
     private long activeBucketCount = 0;
     private long pendingBucketCount = 0;
     private long finishedBucketCount = 0;
@@ -347,7 +362,7 @@ public class ProgressToken {
                 assert(activeBucketCount > 0);
                 --activeBucketCount;
             }
-            buckets.remove(superKey);
+            removeBucket(superKey);
         }
     }
 
@@ -373,14 +388,17 @@ public class ProgressToken {
                     + ":" + progress + " with state " + state);
         }
 
-        BucketEntry entry = new BucketEntry(progress, state);
-        BucketEntry existing = buckets.put(bucketToKeyWrapper(superbucket), entry);
+        BucketKeyWrapper key = bucketToKeyWrapper(superbucket);
+        BucketEntry entry = new BucketEntry(this, key, progress, state);
+        BucketEntry existing = buckets.put(key, entry);
         if (existing != null) {
+            buckets.put(key, existing);
             throw new IllegalStateException(
                     "Attempting to add a superbucket that has already been added: "
                     + superbucket + ":" + progress);
         }
         if (state == BucketState.BUCKET_PENDING) {
+            pendingBuckets.add(key);
             ++pendingBucketCount;
         } else {
             ++activeBucketCount;
@@ -523,6 +541,20 @@ public class ProgressToken {
         return buckets;
     }
 
+    /**
+     * Get the pending bucket which is first in bucket key order, or null if
+     * there are no pending buckets. <em>For internal use only!</em>
+     * @return Entry of the first pending superbucket, or null
+     */
+    Map.Entry<BucketKeyWrapper, BucketEntry> getFirstPendingBucket() {
+        return pendingBuckets.isEmpty() ? null : Map.entry(pendingBuckets.first(), buckets.get(pendingBuckets.first()));
+    }
+
+    private void removeBucket(BucketKeyWrapper key) {
+        buckets.remove(key);
+        pendingBuckets.remove(key);
+    }
+
     protected void setActiveBucketCount(long activeBucketCount) {
         this.activeBucketCount = activeBucketCount;
     }
@@ -783,7 +815,7 @@ public class ProgressToken {
         addBucket(splitRight, entry.getProgress(), BucketState.BUCKET_PENDING);
 
         // Remove old bucket
-        buckets.remove(bucketKey);
+        removeBucket(bucketKey);
         --pendingBucketCount;
     }
 
@@ -820,7 +852,7 @@ public class ProgressToken {
                     log.log(Level.FINE, "Bucket progress for " + rightCheck +
                             " will be lost due to merging; potential for duplicates in result-set");
                 }
-                buckets.remove(bucketToKeyWrapper(rightCheck));
+                removeBucket(bucketToKeyWrapper(rightCheck));
                 --pendingBucketCount;
             }
         } else {
@@ -832,7 +864,7 @@ public class ProgressToken {
         BucketId newMerged = new BucketId(usedBits - 1, bucket.getId());
         addBucket(newMerged, entry.getProgress(), BucketState.BUCKET_PENDING);
         // Remove original bucket, leaving only the merged bucket
-        buckets.remove(bucketKey);
+        removeBucket(bucketKey);
         --pendingBucketCount;
         assert(pendingBucketCount > 0);
     }
@@ -846,6 +878,7 @@ public class ProgressToken {
 
     protected void clearAllBuckets() {
         buckets.clear();
+        pendingBuckets.clear();
         pendingBucketCount = 0;
         activeBucketCount = 0;
     }
@@ -598,16 +598,9 @@ public class VisitorIterator {
         // the map too much
         if (progressToken.hasPending()) {
             // Find first pending bucket in token
-            TreeMap<ProgressToken.BucketKeyWrapper, ProgressToken.BucketEntry> buckets = progressToken.getBuckets();
-            ProgressToken.BucketEntry pending = null;
-            BucketId superbucket = null;
-            for (Map.Entry<ProgressToken.BucketKeyWrapper, ProgressToken.BucketEntry> entry : buckets.entrySet()) {
-                if (entry.getValue().getState() == ProgressToken.BucketState.BUCKET_PENDING) {
-                    pending = entry.getValue();
-                    superbucket = new BucketId(ProgressToken.keyToBucketId(entry.getKey().getKey()));
-                    break;
-                }
-            }
+            Map.Entry<ProgressToken.BucketKeyWrapper, ProgressToken.BucketEntry> first = progressToken.getFirstPendingBucket();
+            ProgressToken.BucketEntry pending = (first != null) ? first.getValue() : null;
+            BucketId superbucket = (first != null) ? new BucketId(ProgressToken.keyToBucketId(first.getKey().getKey())) : null;
             assert(pending != null) : "getNext() called with inconsistent state";
 
             // Set bucket to active, since it's not awaiting an update
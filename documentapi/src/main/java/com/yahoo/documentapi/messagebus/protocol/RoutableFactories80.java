@@ -216,6 +216,16 @@ abstract class RoutableFactories80 {
         return Document.createDocument(deserializer);
     }
 
+    /**
+     * Returns a document which refers to the serialized payload, and only deserializes its fields as they are
+     * accessed, as puts are usually routed by their id and at most a few fields. If it is not modified, it is
+     * serialized again by copying its fields from the payload.
+     */
+    private static Document fromProtoDocumentLazily(DocapiCommon.Document protoDoc, DocumentTypeManager repo) {
+        var deserializer = DocumentDeserializerFactory.createLazyHead(repo, new GrowableByteBuffer(protoDoc.getPayload().asReadOnlyByteBuffer()));
+        return Document.createDocument(deserializer);
+    }
+
     private static Document deserializeDoc(ByteBuffer rawDocData, DocumentTypeManager repo) {
         var deserializer = DocumentDeserializerFactory.createHead(repo, new GrowableByteBuffer(rawDocData));
         return Document.createDocument(deserializer);
@@ -345,7 +355,7 @@ abstract class RoutableFactories80 {
                     return builder.build();
                 })
                 .decoderWithRepo(DocapiFeed.PutDocumentRequest.parser(), (protoMsg, repo) -> {
-                    var doc = fromProtoDocument(protoMsg.getDocument(), repo);
+                    var doc = fromProtoDocumentLazily(protoMsg.getDocument(), repo);
                     var msg = new PutDocumentMessage(new DocumentPut(doc));
                     if (protoMsg.hasCondition()) {
                         msg.setCondition(fromProtoTasCondition(protoMsg.getCondition()));
@@ -578,6 +578,46 @@ public class VisitorIteratorTestCase {
         assertEquals(progress.getActiveBucketCount(), 1);
     }
 
+    @Test
+    public void testFirstPendingReturnedAmongManyActive() throws ParseException {
+        BucketIdFactory idFactory = new BucketIdFactory();
+        ProgressToken progress = new ProgressToken();
+
+        VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                "id.group != \"yahoo.com\"", idFactory, 8, progress);
+
+        List<VisitorIterator.BucketProgress> active = new ArrayList<>();
+        while (iter.hasNext()) {
+            active.add(iter.getNext());
+        }
+        assertEquals(256, progress.getActiveBucketCount());
+
+        // Update buckets in an order which differs from their key order, finishing one of them
+        BucketId first = active.get(200).getSuperbucket();
+        BucketId second = active.get(10).getSuperbucket();
+        BucketId finished = active.get(3).getSuperbucket();
+        BucketId third = active.get(100).getSuperbucket();
+        iter.update(third, new BucketId(9, third.getId()));
+        iter.update(second, new BucketId(9, second.getId()));
+        iter.update(finished, ProgressToken.FINISHED_BUCKET);
+        iter.update(first, new BucketId(9, first.getId()));
+        assertEquals(3, progress.getPendingBucketCount());
+        assertEquals(252, progress.getActiveBucketCount());
+
+        List<BucketId> expected = new ArrayList<>(List.of(first, second, third));
+        expected.sort((a, b) -> new ProgressToken.BucketKeyWrapper(ProgressToken.bucketToKey(a.getId()))
+                .compareTo(new ProgressToken.BucketKeyWrapper(ProgressToken.bucketToKey(b.getId()))));
+        for (BucketId bucket : expected) {
+            assertTrue(iter.hasNext());
+            VisitorIterator.BucketProgress next = iter.getNext();
+            assertEquals(bucket, next.getSuperbucket());
+            assertEquals(new BucketId(9, bucket.getId()), next.getProgress());
+        }
+        assertFalse(iter.hasNext());
+        assertEquals(255, progress.getActiveBucketCount());
+        assertEquals(1, progress.getFinishedBucketCount());
+    }
+
     /**
      * Test that ensures doing update(superbucket, 0) simply puts the bucket back in
      * pending
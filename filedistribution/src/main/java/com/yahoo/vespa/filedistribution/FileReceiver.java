@@ -40,6 +40,11 @@ public class FileReceiver {
     public final static String RECEIVE_PART_METHOD = "filedistribution.receiveFilePart";
     public final static String RECEIVE_EOF_METHOD = "filedistribution.receiveFileEof";
 
+    // Receiving writes and decompresses files, so this is done outside the transport threads.
+    // Senders wait for each call to complete, so each transfer has at most one call in progress.
+    private final static int maxConcurrentCalls = 8;
+    private final static int maxQueuedCalls = 100;
+
     private final Supervisor supervisor;
     private final Downloads downloads;
     private final File downloadDirectory;
@@ -90,7 +95,7 @@ public class FileReceiver {
             }
         }
 
-        void addPart(int partId, byte [] part) {
+        synchronized void addPart(int partId, byte [] part) {
             if (partId != currentPartId) {
                 throw new IllegalStateException("Received partid " + partId + " while expecting " + currentPartId);
             }
@@ -113,7 +118,7 @@ public class FileReceiver {
             hasher.update(part, 0, part.length);
         }
 
-        File close(long hash) {
+        synchronized File close(long hash) {
             verifyHash(hash);
 
             File file = new File(fileReferenceDir, fileName);
@@ -171,6 +176,7 @@ public class FileReceiver {
     private List<Method> receiveFileMethod() {
         List<Method> methods = new ArrayList<>();
         methods.add(new Method(RECEIVE_META_METHOD, "sssl*", "ii", this::receiveFileMeta)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CLIENT__FILERECEIVER_API)
                 .paramDesc(0, "filereference", "file reference to download")
                 .paramDesc(1, "filename", "filename")
@@ -180,6 +186,7 @@ public class FileReceiver {
                 .returnDesc(0, "ret", "0 if success, 1 otherwise")
                 .returnDesc(1, "session-id", "Session id to be used for this transfer"));
         methods.add(new Method(RECEIVE_PART_METHOD, "siix", "i", this::receiveFilePart)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CLIENT__FILERECEIVER_API)
                 .paramDesc(0, "filereference", "file reference to download")
                 .paramDesc(1, "session-id", "Session id to be used for this transfer")
@@ -187,6 +194,7 @@ public class FileReceiver {
                 .paramDesc(3, "data", "bytes in this part")
                 .returnDesc(0, "ret", "0 if success, 1 otherwise"));
         methods.add(new Method(RECEIVE_EOF_METHOD, "silis", "i", this::receiveFileEof)
+                .executeInThreads(maxConcurrentCalls, maxQueuedCalls)
                 .requireCapabilities(Capability.CLIENT__FILERECEIVER_API)
                 .paramDesc(0, "filereference", "file reference to download")
                 .paramDesc(1, "session-id", "Session id to be used for this transfer")
@@ -6,11 +6,24 @@ import java.nio.ByteBuffer;
 
 
 class Buffer {
+    private final BufferPool pool;
     private ByteBuffer buf;
     private int        readPos;
     private int        writePos;
     private boolean    readMode;
 
+    private ByteBuffer allocate(int size) {
+        return (pool != null && size > 0)
+            ? pool.acquire(size)
+            : ByteBuffer.allocate(size);
+    }
+
+    private void free(ByteBuffer old) {
+        if (pool != null) {
+            pool.release(old);
+        }
+    }
+
     private void setReadMode() {
         if (readMode) {
             buf.limit(writePos);
@@ -55,35 +68,48 @@ class Buffer {
             if (buf.capacity() + free < minFree) {
                 size = buf.capacity() + minFree;
             }
-            ByteBuffer tmp = ByteBuffer.allocate(size);
+            ByteBuffer tmp = allocate(size);
             tmp.order(buf.order());
             buf.position(readPos);
             buf.limit(writePos);
             tmp.put(buf);
+            free(buf);
             buf = tmp;
             readPos = 0;
         }
     }
 
-    public Buffer(int size) {
-        buf = ByteBuffer.allocate(size);
+    /**
+     * Creates a buffer whose memory is acquired from, and released
+     * to, the given pool, or which uses plain heap buffers if the
+     * pool is null.
+     */
+    public Buffer(int size, BufferPool pool) {
+        this.pool = pool;
+        buf = allocate(size);
         readPos = 0;
         writePos = 0;
         readMode = false;
     }
 
+    public Buffer(int size) {
+        this(size, null);
+    }
+
     public boolean shrink(int size) {
         int rpos = readMode? buf.position() : readPos;
         int wpos = readMode? writePos : buf.position();
         int used = wpos - rpos;
-        if (used > size || buf.capacity() <= size) {
+        int capacity = (pool != null && size > 0) ? BufferPool.capacityFor(size) : size;
+        if (used > size || buf.capacity() <= capacity) {
             return false;
         }
-        ByteBuffer tmp = ByteBuffer.allocate(size);
+        ByteBuffer tmp = allocate(size);
         tmp.order(buf.order());
         buf.position(rpos);
         buf.limit(wpos);
         tmp.put(buf);
+        free(buf);
         buf = tmp;
         readPos = 0;
         writePos = used;
@@ -108,4 +134,17 @@ class Buffer {
         ensureFree(minFree);
         return buf;
     }
+
+    /**
+     * Discards the content of this buffer, and returns its memory to
+     * the pool it was acquired from, if any. The buffer is empty, but
+     * still usable, after this.
+     */
+    public void release() {
+        free(buf);
+        buf = ByteBuffer.allocate(0);
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
 }
@@ -0,0 +1,100 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A pool of direct byte buffers with power of two capacities, used
+ * for the connection buffers of a single {@link TransportThread}.
+ * Packets are then encoded into, and decoded from, memory which is
+ * reused across connections, and which the socket channels can use
+ * without first copying it to temporary direct buffers. Buffers
+ * larger than the maximum pooled capacity are plain heap buffers, and
+ * buffers released when the pool is full are left to the garbage
+ * collector.
+ */
+class BufferPool {
+
+    static final int MIN_CAPACITY    = 4*1024;
+    static final int MAX_CAPACITY    = 8*1024*1024;
+    static final int MAX_POOLED_SIZE = 32*1024*1024;
+
+    private final List<ArrayDeque<ByteBuffer>> free = new ArrayList<>();
+    private final long maxPooledBytes;
+    private long pooledBytes = 0;
+
+    BufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        for (int capacity = MIN_CAPACITY; capacity <= MAX_CAPACITY; capacity *= 2) {
+            free.add(new ArrayDeque<>());
+        }
+    }
+
+    BufferPool() { this(MAX_POOLED_SIZE); }
+
+    /**
+     * Returns the capacity of buffers acquired with the given minimum
+     * size.
+     */
+    static int capacityFor(int size) {
+        if (size <= MIN_CAPACITY) {
+            return MIN_CAPACITY;
+        }
+        if (size > MAX_CAPACITY) {
+            return size;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int indexOf(int capacity) {
+        return Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns a cleared, big-endian buffer with room for at least the
+     * given number of bytes, which should be released to this when no
+     * longer used.
+     */
+    synchronized ByteBuffer acquire(int size) {
+        int capacity = capacityFor(size);
+        if (capacity > MAX_CAPACITY) {
+            return ByteBuffer.allocate(capacity);
+        }
+        ByteBuffer buf = free.get(indexOf(capacity)).pollLast();
+        if (buf == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        pooledBytes -= capacity;
+        return buf;
+    }
+
+    /**
+     * Returns the given buffer to this pool, if it was acquired from
+     * it and there is room for it. The buffer must not be used after
+     * this.
+     */
+    synchronized void release(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        if ( ! buf.isDirect() || capacity != capacityFor(capacity) || capacity > MAX_CAPACITY) {
+            return;
+        }
+        if (pooledBytes + capacity > maxPooledBytes) {
+            return;
+        }
+        buf.clear();
+        buf.order(ByteOrder.BIG_ENDIAN);
+        free.get(indexOf(capacity)).addLast(buf);
+        pooledBytes += capacity;
+    }
+
+    /** Returns the total capacity of the buffers currently in this pool. */
+    synchronized long pooledBytes() {
+        return pooledBytes;
+    }
+}
@@ -34,8 +34,8 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(0); // Start off with empty buffer.
-    private final Buffer output  = new Buffer(0); // Start off with empty buffer.
+    private final Buffer input;  // Start off with empty buffer.
+    private final Buffer output; // Start off with empty buffer.
     private final int maxInputSize;
     private final int maxOutputSize;
     private final boolean dropEmptyBuffers;
@@ -95,6 +95,9 @@ class Connection extends Target {
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
         dropEmptyBuffers = owner.getDropEmptyBuffers();
+        BufferPool pool = owner.getPooledBuffers() ? parent.bufferPool() : null;
+        input = new Buffer(0, pool);
+        output = new Buffer(0, pool);
         server = true;
     }
 
@@ -107,6 +110,9 @@ class Connection extends Target {
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
         dropEmptyBuffers = owner.getDropEmptyBuffers();
+        BufferPool pool = owner.getPooledBuffers() ? parent.bufferPool() : null;
+        input = new Buffer(0, pool);
+        output = new Buffer(0, pool);
         server = false;
     }
 
@@ -381,6 +387,8 @@ class Connection extends Target {
         if (selectionKey != null) {
             selectionKey.cancel();
         }
+        input.release();
+        output.release();
     }
 
     public boolean isClosed() {
@@ -32,7 +32,15 @@ class InvocationServer {
         if (method != null) {
             if (method.checkParameters(request)) {
                 if (method.requestAccessFilter().allow(request)) {
-                    method.invoke(request);
+                    MethodExecutor executor = method.executor();
+                    if (executor != null) {
+                        if (executor.execute(this::invokeInThread)) {
+                            return;
+                        }
+                        request.setError(ErrorCode.OVERLOAD, "Too many queued invocations of " + method.name());
+                    } else {
+                        method.invoke(request);
+                    }
                 } else {
                     request.setError(ErrorCode.PERMISSION_DENIED, "Permission denied");
                 }
@@ -47,6 +55,13 @@ class InvocationServer {
         }
     }
 
+    private void invokeInThread() {
+        method.invoke(request);
+        if (!request.isDetached()) {
+            returnRequest();
+        }
+    }
+
     public void returnRequest() {
         if (!conn.completeRequest(done)) {
             throw new IllegalStateException("Request already returned");
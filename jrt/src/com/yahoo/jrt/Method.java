@@ -5,6 +5,9 @@ package com.yahoo.jrt;
 import com.yahoo.security.tls.Capability;
 import com.yahoo.security.tls.CapabilitySet;
 
+import java.time.Duration;
+import java.util.Optional;
+
 /**
  * <p>A Method encapsulates the reflective information about a single RPC
  * method.</p>
@@ -46,6 +49,8 @@ public class Method {
     private static final RequireCapabilitiesFilter defaultFilter = RequireCapabilitiesFilter.unclassified();
     private RequestAccessFilter filter = defaultFilter;
 
+    private MethodExecutor executor = null;
+
     private static final String undocumented = "???";
 
 
@@ -165,6 +170,47 @@ public class Method {
 
     public RequestAccessFilter requestAccessFilter() { return filter; }
 
+    /**
+     * Invoke this method in threads of its own, rather than in the
+     * transport thread which received the request, so slow handlers do
+     * not delay network I/O on other connections. At most the given
+     * number of invocations run at the same time, and at most the
+     * given number of the rest are queued; requests beyond that fail
+     * with {@link ErrorCode#OVERLOAD}. Virtual threads are used when
+     * available.
+     *
+     * @return this Method, to allow chaining
+     * @param maxConcurrent the maximum number of concurrent invocations
+     * @param maxQueued the maximum number of invocations waiting to run
+     **/
+    public Method executeInThreads(int maxConcurrent, int maxQueued) {
+        if (executor != null) {
+            throw new IllegalStateException("Executor already assigned to " + this);
+        }
+        executor = new MethodExecutor(maxConcurrent, maxQueued);
+        return this;
+    }
+
+    /**
+     * Obtain the executor running invocations of this method, or null
+     * if they run in the transport thread
+     *
+     * @return method executor, or null
+     **/
+    MethodExecutor executor() {
+        return executor;
+    }
+
+    /**
+     * Obtain metrics for the invocations of this method, if it is
+     * invoked in threads of its own.
+     *
+     * @return execution metrics, or empty if invoked in the transport thread
+     **/
+    public Optional<ExecutionMetrics> executionMetrics() {
+        return Optional.ofNullable(executor).map(MethodExecutor::metrics);
+    }
+
     /**
      * Obtain the name of a parameter
      *
@@ -258,6 +304,31 @@ public class Method {
         }
     }
 
+    /**
+     * Metrics for the invocations of a method which runs in threads of
+     * its own; see {@link #executeInThreads}. Counts and times are
+     * totals since the method was created.
+     *
+     * @param invocations the number of invocations started so far
+     * @param rejected the number of invocations rejected because the queue was full
+     * @param queued the number of invocations currently waiting for a thread
+     * @param running the number of invocations currently running
+     * @param totalQueueNanos the total time started invocations spent queued
+     * @param maxQueueNanos the longest time a started invocation spent queued
+     **/
+    public record ExecutionMetrics(long invocations, long rejected, int queued, int running,
+                                   long totalQueueNanos, long maxQueueNanos) {
+
+        public Duration averageQueueTime() {
+            return Duration.ofNanos(invocations == 0 ? 0 : totalQueueNanos / invocations);
+        }
+
+        public Duration maxQueueTime() {
+            return Duration.ofNanos(maxQueueNanos);
+        }
+
+    }
+
     @Override
     public String toString() {
         return "method " + name + "(" + paramTypes + ")" + ( returnTypes.length()>0 ? ": " + returnTypes : "");
@@ -0,0 +1,119 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Runs the invocations of a single {@link Method} outside the
+ * transport threads, with at most a given number of them running at
+ * the same time; invocations beyond that are queued in arrival
+ * order, up to a given number, and rejected when the queue is full.
+ * Invocations run in virtual threads when the runtime has them, and
+ * otherwise in daemon threads which are kept only while there are
+ * queued invocations.
+ */
+class MethodExecutor {
+
+    private static final Logger log = Logger.getLogger(MethodExecutor.class.getName());
+    private static final ThreadFactory threadFactory = createThreadFactory();
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ArrayDeque<Invocation> queue = new ArrayDeque<>();
+    private int running = 0;
+    private long invocations = 0;
+    private long rejected = 0;
+    private long totalQueueNanos = 0;
+    private long maxQueueNanos = 0;
+
+    private record Invocation(Runnable task, long enqueuedNanos) { }
+
+    MethodExecutor(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Max concurrent invocations must be positive, but was " + maxConcurrent);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Max queued invocations must be non-negative, but was " + maxQueued);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Runs the given invocation in a thread of its own, as soon as
+     * fewer than the maximum number of invocations are running.
+     *
+     * @return false if the invocation was rejected because the queue is full
+     */
+    boolean execute(Runnable task) {
+        Invocation invocation = new Invocation(task, System.nanoTime());
+        synchronized (this) {
+            if (running == maxConcurrent) {
+                if (queue.size() == maxQueued) {
+                    ++rejected;
+                    return false;
+                }
+                queue.addLast(invocation);
+                return true;
+            }
+            ++running;
+        }
+        threadFactory.newThread(() -> run(invocation)).start();
+        return true;
+    }
+
+    private void run(Invocation invocation) {
+        while (invocation != null) {
+            long queueNanos = System.nanoTime() - invocation.enqueuedNanos();
+            synchronized (this) {
+                ++invocations;
+                totalQueueNanos += queueNanos;
+                maxQueueNanos = Math.max(maxQueueNanos, queueNanos);
+            }
+            try {
+                invocation.task().run();
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Uncaught exception in method invocation", e);
+            }
+            synchronized (this) {
+                invocation = queue.pollFirst();
+                if (invocation == null) {
+                    --running;
+                }
+            }
+        }
+    }
+
+    synchronized Method.ExecutionMetrics metrics() {
+        return new Method.ExecutionMetrics(invocations, rejected, queue.size(), running, totalQueueNanos, maxQueueNanos);
+    }
+
+    /**
+     * Returns a factory of virtual threads if this runs on a Java
+     * version which has them, and of daemon platform threads
+     * otherwise. Reflection is used since jrt is built for a Java
+     * version without virtual threads.
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder").getMethod("name", String.class, long.class)
+                           .invoke(builder, "jrt-method-", 0L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return task -> {
+                Thread thread = new Thread(task, "jrt-method-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+}
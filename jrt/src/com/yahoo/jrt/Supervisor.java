@@ -2,6 +2,8 @@
 package com.yahoo.jrt;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -21,6 +23,7 @@ public class Supervisor {
     private int                     maxInputBufferSize  = 64*1024;
     private int                     maxOutputBufferSize = 64*1024;
     private boolean                 dropEmptyBuffers = false;
+    private boolean                 pooledBuffers = false;
 
     /**
      * Creates a new Supervisor based on the given {@link Transport}
@@ -45,6 +48,21 @@ public class Supervisor {
     }
     boolean getDropEmptyBuffers() { return dropEmptyBuffers; }
 
+    /**
+     * Uses pooled direct buffers for the input and output buffers of
+     * connections. This avoids large heap allocations and copying
+     * when big packets are sent and received, at the cost of keeping
+     * some direct memory pooled in each transport thread. This only
+     * affects connections created after it is set.
+     *
+     * @param value true means use pooled direct buffers
+     */
+    public Supervisor setPooledBuffers(boolean value) {
+        pooledBuffers = value;
+        return this;
+    }
+    boolean getPooledBuffers() { return pooledBuffers; }
+
     /**
      * Sets maximum input buffer size. This value will only affect
      * connections that use a common input buffer when decoding
@@ -84,6 +102,21 @@ public class Supervisor {
         return methodMap.getAcquire();
     }
 
+    /**
+     * Obtains the execution metrics of the methods held by this
+     * Supervisor which are invoked in threads of their own; see
+     * {@link Method#executeInThreads}.
+     *
+     * @return execution metrics by method name
+     */
+    public Map<String, Method.ExecutionMetrics> executionMetrics() {
+        Map<String, Method.ExecutionMetrics> metrics = new TreeMap<>();
+        for (Method method : methodMap().values()) {
+            method.executionMetrics().ifPresent(m -> metrics.put(method.name(), m));
+        }
+        return metrics;
+    }
+
     /**
      * Obtains the underlying Transport object.
      *
@@ -74,6 +74,7 @@ public class TransportThread {
     private final Scheduler scheduler;
     private int             state;
     private final Selector  selector;
+    private final BufferPool bufferPool = new BufferPool();
 
     private void handleAddConnection(Connection conn) {
         if (conn.isClosed()) {
@@ -184,6 +185,10 @@ public class TransportThread {
         return parent;
     }
 
+    BufferPool bufferPool() {
+        return bufferPool;
+    }
+
     /**
      * Proxy method used to dispatch fatal errors to the enclosing
      * Transport.
@@ -98,6 +98,7 @@ public class Register {
                                         handleRpcList(req);
                                     }
                                 })
+            .executeInThreads(1, 16) // The names are locked while applications register them
             .requireCapabilities(Capability.CLIENT__SLOBROK_API)
             .methodDesc("List rpcserver names")
             .returnDesc(0, "names",
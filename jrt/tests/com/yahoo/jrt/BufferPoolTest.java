@@ -0,0 +1,91 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BufferPoolTest {
+
+    @org.junit.Test
+    public void testCapacities() {
+        assertEquals(BufferPool.MIN_CAPACITY, BufferPool.capacityFor(1));
+        assertEquals(BufferPool.MIN_CAPACITY, BufferPool.capacityFor(BufferPool.MIN_CAPACITY));
+        assertEquals(2 * BufferPool.MIN_CAPACITY, BufferPool.capacityFor(BufferPool.MIN_CAPACITY + 1));
+        assertEquals(BufferPool.MAX_CAPACITY, BufferPool.capacityFor(BufferPool.MAX_CAPACITY / 2 + 1));
+        assertEquals(BufferPool.MAX_CAPACITY + 1, BufferPool.capacityFor(BufferPool.MAX_CAPACITY + 1));
+    }
+
+    @org.junit.Test
+    public void testBuffersAreReused() {
+        BufferPool pool = new BufferPool(64 * 1024);
+        ByteBuffer first = pool.acquire(10000);
+        assertTrue(first.isDirect());
+        assertEquals(16 * 1024, first.capacity());
+        first.order(ByteOrder.LITTLE_ENDIAN).put((byte) 1);
+        pool.release(first);
+        assertEquals(16 * 1024, pool.pooledBytes());
+
+        ByteBuffer second = pool.acquire(9000);
+        assertSame(first, second);
+        assertEquals(0, second.position());
+        assertEquals(second.capacity(), second.limit());
+        assertEquals(ByteOrder.BIG_ENDIAN, second.order());
+        assertEquals(0, pool.pooledBytes());
+        assertEquals(8 * 1024, pool.acquire(5000).capacity());
+    }
+
+    @org.junit.Test
+    public void testPoolSizeIsLimited() {
+        BufferPool pool = new BufferPool(48 * 1024);
+        ByteBuffer a = pool.acquire(32 * 1024);
+        ByteBuffer b = pool.acquire(32 * 1024);
+        pool.release(a);
+        pool.release(b);
+        assertEquals(32 * 1024, pool.pooledBytes());
+
+        pool.release(ByteBuffer.allocate(4 * 1024));
+        pool.release(ByteBuffer.allocateDirect(5000));
+        assertEquals(32 * 1024, pool.pooledBytes());
+
+        ByteBuffer huge = pool.acquire(BufferPool.MAX_CAPACITY + 1);
+        assertFalse(huge.isDirect());
+        pool.release(huge);
+        assertEquals(32 * 1024, pool.pooledBytes());
+    }
+
+    @org.junit.Test
+    public void testPooledBuffer() {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        Buffer buf = new Buffer(0, pool);
+        byte[] data = new byte[100 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        buf.getWritable(10).put(data, 0, 10);
+        buf.getWritable(data.length).put(data, 10, data.length - 10);
+        ByteBuffer readable = buf.getReadable();
+        assertTrue(readable.isDirect());
+        assertEquals(128 * 1024, readable.capacity());
+        assertEquals(4 * 1024, pool.pooledBytes()); // The buffer before growing.
+
+        byte[] read = new byte[data.length - 1000];
+        readable.get(read);
+        assertEquals(data[read.length - 1], read[read.length - 1]);
+        assertTrue(buf.shrink(1000));
+        assertEquals(4 * 1024, buf.getReadable().capacity());
+        assertFalse(buf.shrink(1000));
+        assertEquals(128 * 1024, pool.pooledBytes());
+        assertEquals(data[data.length - 1], buf.getReadable().get(999));
+
+        buf.release();
+        assertEquals(0, buf.bytes());
+        assertEquals(128 * 1024 + 4 * 1024, pool.pooledBytes());
+        assertTrue(buf.getWritable(16).remaining() >= 16);
+    }
+
+}
@@ -0,0 +1,139 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InvokeInThreadsTest {
+
+    Supervisor     server;
+    Acceptor       acceptor;
+    Supervisor     client;
+    Target         target;
+    Method         blocking;
+    CountDownLatch started;
+    CountDownLatch unblocked;
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server   = new Supervisor(new Transport());
+        client   = new Supervisor(new Transport());
+        acceptor = server.listen(new Spec(0));
+        target   = client.connect(new Spec("localhost", acceptor.port()));
+        blocking = new Method("block", "s", "s", this::rpc_block).executeInThreads(2, 1);
+        server.addMethod(blocking);
+        server.addMethod(new Method("echo", "s", "s", this::rpc_echo));
+        started   = new CountDownLatch(2);
+        unblocked = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        unblocked.countDown();
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private void rpc_block(Request req) {
+        started.countDown();
+        try {
+            unblocked.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        rpc_echo(req);
+    }
+
+    private void rpc_echo(Request req) {
+        req.returnValues().add(new StringValue(req.parameters().get(0).asString()));
+    }
+
+    private static Request request(String method, String value) {
+        Request req = new Request(method);
+        req.parameters().add(new StringValue(value));
+        return req;
+    }
+
+    @org.junit.Test
+    public void testBlockedInvocationsDoNotBlockTransport() throws InterruptedException {
+        List<Request> requests = new ArrayList<>();
+        List<Test.Waiter> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(request("block", "blocked " + i));
+            waiters.add(new Test.Waiter());
+            target.invokeAsync(requests.get(i), Duration.ofSeconds(30), waiters.get(i));
+        }
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+
+        Request echo = request("echo", "not blocked");
+        target.invokeSync(echo, Duration.ofSeconds(30));
+        assertFalse(echo.isError());
+        assertEquals("not blocked", echo.returnValues().get(0).asString());
+
+        Method.ExecutionMetrics metrics = blocking.executionMetrics().get();
+        assertEquals(2, metrics.invocations());
+        assertEquals(2, metrics.running());
+        assertEquals(1, metrics.queued());
+        assertEquals(0, metrics.rejected());
+        for (Test.Waiter waiter : waiters) {
+            assertFalse(waiter.isDone());
+        }
+
+        unblocked.countDown();
+        for (int i = 0; i < 3; i++) {
+            waiters.get(i).waitDone();
+            assertFalse(requests.get(i).isError());
+            assertEquals("blocked " + i, requests.get(i).returnValues().get(0).asString());
+        }
+        metrics = blocking.executionMetrics().get();
+        assertEquals(3, metrics.invocations());
+        assertEquals(0, metrics.queued());
+        assertTrue(metrics.maxQueueTime().compareTo(Duration.ZERO) > 0);
+        assertFalse(server.methodMap().get("echo").executionMetrics().isPresent());
+        assertEquals(Set.of("block"), server.executionMetrics().keySet());
+    }
+
+    @org.junit.Test
+    public void testInvocationsBeyondTheQueueLimitAreRejected() throws InterruptedException {
+        List<Request> requests = new ArrayList<>();
+        List<Test.Waiter> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(request("block", "blocked " + i));
+            waiters.add(new Test.Waiter());
+            target.invokeAsync(requests.get(i), Duration.ofSeconds(30), waiters.get(i));
+        }
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+
+        Request rejected = request("block", "rejected");
+        target.invokeSync(rejected, Duration.ofSeconds(30));
+        assertTrue(rejected.isError());
+        assertEquals(ErrorCode.OVERLOAD, rejected.errorCode());
+        assertEquals(1, blocking.executionMetrics().get().rejected());
+
+        unblocked.countDown();
+        for (int i = 0; i < 3; i++) {
+            waiters.get(i).waitDone();
+            assertFalse(requests.get(i).isError());
+        }
+        Request accepted = request("block", "accepted");
+        target.invokeSync(accepted, Duration.ofSeconds(30));
+        assertFalse(accepted.isError());
+        assertEquals("accepted", accepted.returnValues().get(0).asString());
+        assertEquals(4, server.executionMetrics().get("block").invocations());
+    }
+
+}
@@ -0,0 +1,88 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.time.Duration;
+
+import static com.yahoo.jrt.CryptoUtils.createTestTlsContext;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Echoes requests of growing and shrinking sizes between supervisors using pooled connection buffers.
+ */
+@RunWith(Parameterized.class)
+public class PooledBufferEchoTest {
+
+    Supervisor server;
+    Acceptor   acceptor;
+    Supervisor client;
+    Target     target;
+
+    @Parameter public CryptoEngine crypto;
+
+    @Parameters(name = "{0}") public static Object[] engines() {
+        return new Object[] { new NullCryptoEngine(), new TlsCryptoEngine(createTestTlsContext()) };
+    }
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server   = new Supervisor(new Transport("server", crypto, 1)).setPooledBuffers(true);
+        client   = new Supervisor(new Transport("client", crypto, 1)).setPooledBuffers(true);
+        acceptor = server.listen(new Spec(0));
+        target   = client.connect(new Spec("localhost", acceptor.port()));
+        server.addMethod(new Method("echo", "*", "*", this::rpc_echo));
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private void rpc_echo(Request req) {
+        Values p = req.parameters();
+        Values r = req.returnValues();
+        for (int i = 0; i < p.size(); i++) {
+            r.add(p.get(i));
+        }
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    private void echo(int size) {
+        byte[] data = data(size);
+        Request req = new Request("echo");
+        req.parameters().add(new DataValue(data));
+        req.parameters().add(new StringValue("size " + size));
+        target.invokeSync(req, Duration.ofSeconds(60));
+        assertTrue(req.errorMessage(), req.checkReturnTypes("xs"));
+        assertArrayEquals(data, req.returnValues().get(0).asData());
+        assertEquals("size " + size, req.returnValues().get(1).asString());
+    }
+
+    @org.junit.Test
+    public void testEchoWhileBuffersGrowAndShrink() {
+        int[] sizes = { 0, 100, BufferPool.MIN_CAPACITY, 100 * 1024, 3 * 1024 * 1024, 10,
+                        BufferPool.MAX_CAPACITY + 1, 1000, 100 * 1024, 0 };
+        for (int size : sizes) {
+            echo(size);
+        }
+    }
+
+}
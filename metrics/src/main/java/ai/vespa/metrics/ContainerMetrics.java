@@ -143,6 +143,8 @@ public enum ContainerMetrics implements VespaMetrics {
     TOTAL_HITS_PER_QUERY("totalhits_per_query", Unit.HIT_PER_QUERY, "The total number of documents found to match queries"),
     EMPTY_RESULTS("empty_results", Unit.OPERATION, "Number of queries matching no documents"),
     REQUESTS_OVER_QUOTA("requestsOverQuota", Unit.OPERATION, "The number of requests rejected due to exceeding quota"),
+    YQL_PARSE_CACHE_HITS("yql.parse_cache.hits", Unit.OPERATION, "The number of YQL queries parsed by reusing a cached program with the same structure"),
+    YQL_PARSE_CACHE_MISSES("yql.parse_cache.misses", Unit.OPERATION, "The number of YQL queries parsed without a cached program with the same structure"),
     
     RELEVANCE_AT_1("relevance.at_1", Unit.SCORE, "The relevance of hit number 1"),
     RELEVANCE_AT_3("relevance.at_3", Unit.SCORE, "The relevance of hit number 3"),
@@ -12,8 +12,8 @@ import com.yahoo.vespa.objects.ObjectVisitor;
 import com.yahoo.vespa.objects.Serializer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 
 public class Group extends Identifiable {
@@ -84,39 +84,51 @@ public class Group extends Identifiable {
             }
         }
 
-        ArrayList<Group> merged = new ArrayList<>();
-        Iterator<Group> lhsChild = children.iterator(), rhsChild = rhs.children.iterator();
-        if (lhsChild.hasNext() && rhsChild.hasNext()) {
-            Group lhsGroup = lhsChild.next();
-            Group rhsGroup = rhsChild.next();
-            while ((lhsGroup != null) && (rhsGroup != null)) {
-                int cmp = lhsGroup.getId().compareTo(rhsGroup.getId());
-                if (cmp < 0) {
-                    merged.add(lhsGroup);
-                    lhsGroup = lhsChild.hasNext() ? lhsChild.next() : null;
-                } else if (cmp > 0) {
-                    merged.add(rhsGroup);
-                    rhsGroup = rhsChild.hasNext() ? rhsChild.next() : null;
-                } else {
-                    lhsGroup.merge(firstLevel, currentLevel + 1, rhsGroup);
-                    merged.add(lhsGroup);
-                    lhsGroup = lhsChild.hasNext() ? lhsChild.next() : null;
-                    rhsGroup = rhsChild.hasNext() ? rhsChild.next() : null;
-                }
-            }
-            if (lhsGroup != null) {
-                merged.add(lhsGroup);
-            }
-            if (rhsGroup != null) {
-                merged.add(rhsGroup);
+        // Merge the leading groups present in both without changing the children of this,
+        // which is all of them when the children are the same
+        int lhsSize = children.size(), rhsSize = rhs.children.size();
+        int common = 0;
+        while (common < lhsSize && common < rhsSize) {
+            Group lhsGroup = children.get(common);
+            Group rhsGroup = rhs.children.get(common);
+            if (lhsGroup.getId().compareTo(rhsGroup.getId()) != 0) break;
+            lhsGroup.merge(firstLevel, currentLevel + 1, rhsGroup);
+            common++;
+        }
+        if (common == rhsSize) return;
+
+        // Merge the rest in place: Move the rest of the children of this to the end of the list grown to fit both,
+        // and merge them with the rest of the children of rhs from the start, which never overtakes the children
+        // not merged yet
+        ArrayList<Group> merged = children instanceof ArrayList<Group> list ? list : new ArrayList<>(children);
+        merged.addAll(common, Collections.nCopies(rhsSize - common, null));
+        int lhsIndex = rhsSize, lhsEnd = rhsSize + lhsSize - common;
+        int rhsIndex = common;
+        int mergedIndex = common;
+        while (lhsIndex < lhsEnd && rhsIndex < rhsSize) {
+            Group lhsGroup = merged.get(lhsIndex);
+            Group rhsGroup = rhs.children.get(rhsIndex);
+            int cmp = lhsGroup.getId().compareTo(rhsGroup.getId());
+            if (cmp < 0) {
+                merged.set(mergedIndex++, lhsGroup);
+                lhsIndex++;
+            } else if (cmp > 0) {
+                merged.set(mergedIndex++, rhsGroup);
+                rhsIndex++;
+            } else {
+                lhsGroup.merge(firstLevel, currentLevel + 1, rhsGroup);
+                merged.set(mergedIndex++, lhsGroup);
+                lhsIndex++;
+                rhsIndex++;
             }
         }
-        while (lhsChild.hasNext()) {
-            merged.add(lhsChild.next());
+        while (lhsIndex < lhsEnd) {
+            merged.set(mergedIndex++, merged.get(lhsIndex++));
         }
-        while (rhsChild.hasNext()) {
-            merged.add(rhsChild.next());
+        while (rhsIndex < rhsSize) {
+            merged.set(mergedIndex++, rhs.children.get(rhsIndex++));
         }
+        merged.subList(mergedIndex, merged.size()).clear();
         children = merged;
     }
 
@@ -182,6 +182,46 @@ public class MergeTestCase {
         assertMerge(lhs, rhs, expect);
     }
 
+    // Test merging of many interleaved and overlapping children in level 1.
+    @Test
+    public void testMergeInterleavedChildren() {
+        Grouping request = new Grouping()
+            .setFirstLevel(0)
+            .setLastLevel(1);
+
+        Group a = new Group(), b = new Group(), c = new Group(), expect = new Group();
+        for (int id = 0; id < 20; ++id) {
+            int count = 0;
+            if (id % 3 == 0) {
+                a.addChild(createSumGroup(id, 1));
+                ++count;
+            }
+            if (id > 4 && id < 12) {
+                b.addChild(createSumGroup(id, 1));
+                ++count;
+            }
+            if (id == 6 || id == 19) {
+                c.addChild(createSumGroup(id, 1));
+                ++count;
+            }
+            if (count > 0) {
+                expect.addChild(createSumGroup(id, count));
+            }
+        }
+
+        assertMerge(request, a, b, c, expect);
+        assertMerge(request, c, b, a, expect);
+        assertMerge(request, b, c, a, expect);
+    }
+
+    private static Group createSumGroup(int id, int sum) {
+        return new Group()
+            .setId(new IntegerResultNode(id))
+            .addAggregationResult(new SumAggregationResult()
+                       .setSum(new IntegerResultNode(sum))
+                       .setExpression(new AttributeNode("foo")));
+    }
+
     // Verify that frozen levels are not touched during merge.
     @Test
     public void testMergeLevels() {
@@ -147,10 +147,13 @@ public interface FeedClientBuilder {
     /** Specify HTTP(S) proxy for all endpoints */
     FeedClientBuilder setProxy(URI uri);
 
-    /** What compression to use for request bodies; default {@code auto}. */
+    /**
+     * What compression to use for request bodies; default {@code auto}, which is gzip for large bodies only.
+     * Zstd typically compresses better and faster than gzip, but requires a container which supports it.
+     */
     FeedClientBuilder setCompression(Compression compression);
 
-    enum Compression { auto, none, gzip }
+    enum Compression { auto, none, gzip, zstd }
 
     /** Constructs instance of {@link FeedClient} from builder configuration */
     FeedClient build();
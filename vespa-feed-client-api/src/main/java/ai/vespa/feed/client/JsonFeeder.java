@@ -13,8 +13,13 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -47,12 +52,21 @@ public class JsonFeeder implements Closeable {
     });
     private final FeedClient client;
     private final OperationParameters protoParameters;
+    private final int parserThreads;
+    private final ExecutorService parserExecutor;
     private final AtomicInteger globalInflightOperations = new AtomicInteger(0);
     private volatile boolean closed = false;
 
-    private JsonFeeder(FeedClient client, OperationParameters protoParameters) {
+    private JsonFeeder(FeedClient client, OperationParameters protoParameters, int parserThreads) {
         this.client = client;
         this.protoParameters = protoParameters;
+        this.parserThreads = parserThreads;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.parserExecutor = parserThreads == 1 ? null : Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "json-feeder-parser-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public interface ResultCallback {
@@ -134,6 +148,8 @@ public class JsonFeeder implements Closeable {
      * Note that {@code "id"} is an alias for the document put operation.
      * Exceptional completion will use be an instance of {@link FeedException} or one of its sub-classes.
      * The input stream will be closed upon exhaustion, or error.
+     * Operations are passed to the {@link FeedClient} in the order they appear in the stream, also when
+     * they are parsed by multiple threads, see {@link Builder#withParserThreads(int)}.
      */
     public CompletableFuture<Void> feedMany(InputStream jsonStream, ResultCallback resultCallback) {
         return feedMany(jsonStream, 1 << 26, resultCallback);
@@ -153,8 +169,9 @@ public class JsonFeeder implements Closeable {
         CompletableFuture<Result> result;
         AtomicInteger localInflightOperations = new AtomicInteger(1); // The below dispatch loop itself is counted as a single pending operation
         AtomicBoolean finalCallbackInvoked = new AtomicBoolean();
-        try (RingBufferStream buffer = new RingBufferStream(jsonStream, size)) {
-            while ((result = buffer.next()) != null) {
+        try (OperationStream operations = parserThreads == 1 ? new RingBufferStream(jsonStream, size)
+                                                             : new ParallelOperationStream(jsonStream, size)) {
+            while ((result = operations.next()) != null) {
                 localInflightOperations.incrementAndGet();
                 globalInflightOperations.incrementAndGet();
                 result.whenCompleteAsync((r, t) -> {
@@ -203,6 +220,7 @@ public class JsonFeeder implements Closeable {
         closed = true;
         awaitInflightOperations();
         client.close();
+        if (parserExecutor != null) parserExecutor.shutdown();
         resultExecutor.shutdown();
         try {
             if (!resultExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
@@ -229,7 +247,15 @@ public class JsonFeeder implements Closeable {
         return new FeedException(e);
     }
 
-    private class RingBufferStream extends InputStream {
+    /** A stream of feed operations, which are dispatched to the feed client as they are read. */
+    private interface OperationStream extends Closeable {
+
+        /** Dispatches the next operation, and returns its result, or returns null if there are no more operations. */
+        CompletableFuture<Result> next() throws IOException;
+
+    }
+
+    private class RingBufferStream extends InputStream implements OperationStream {
 
         private final byte[] b = new byte[1];
         private final InputStream in;
@@ -289,6 +315,7 @@ public class JsonFeeder implements Closeable {
             }
         }
 
+        @Override
         public CompletableFuture<Result> next() throws IOException {
            return parserAndExecutor.next();
         }
@@ -400,6 +427,214 @@ public class JsonFeeder implements Closeable {
         }
     }
 
+    /**
+     * Splits a stream of operations into separate operations on the calling thread, which are then parsed by
+     * the parser executor. Operations are dispatched to the feed client in the order they appear in the stream.
+     * At most the given number of bytes of operations, and a fixed number of operations per parser thread,
+     * are split off ahead of the one which is dispatched next.
+     */
+    private class ParallelOperationStream implements OperationStream {
+
+        private final Deque<PendingOperation> pending = new ArrayDeque<>();
+        private final OperationSplitter splitter;
+        private final int window = 64 * parserThreads;
+        private final int size;
+        private long pendingBytes = 0;
+
+        ParallelOperationStream(InputStream in, int size) {
+            this.splitter = new OperationSplitter(in);
+            this.size = size;
+        }
+
+        @Override
+        public CompletableFuture<Result> next() throws IOException {
+            byte[] json;
+            while ((pending.isEmpty() || (pending.size() < window && pendingBytes < size)) && (json = splitter.next()) != null) {
+                byte[] operation = json;
+                pending.add(new PendingOperation(CompletableFuture.supplyAsync(() -> parse(operation), parserExecutor), operation.length));
+                pendingBytes += operation.length;
+            }
+            PendingOperation next = pending.poll();
+            if (next == null) return null;
+            pendingBytes -= next.size;
+            return join(next.operation).dispatch(client);
+        }
+
+        private ParsedOperation parse(byte[] json) {
+            try {
+                return new SingleOperationParserAndExecutor(json).parse();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private ParsedOperation join(CompletableFuture<ParsedOperation> operation) throws IOException {
+            try {
+                return operation.join();
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            pending.forEach(operation -> operation.operation.cancel(false));
+            splitter.close();
+        }
+
+    }
+
+    private static class PendingOperation {
+
+        private final CompletableFuture<ParsedOperation> operation;
+        private final int size;
+
+        PendingOperation(CompletableFuture<ParsedOperation> operation, int size) {
+            this.operation = operation;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * Splits a stream with a JSON array of operations, or with JSONL operations, into the separate JSON objects,
+     * by tracking only nesting and string boundaries. Input which is not an array of objects, or a sequence of
+     * objects separated by whitespace, is rejected, like when the stream is parsed on a single thread: a leading
+     * UTF-8 byte order mark is skipped, whitespace is what JSON allows, and anything after the end of an array is ignored.
+     * The contents of each object are validated when it is parsed.
+     */
+    static class OperationSplitter implements Closeable {
+
+        /** What may come next in the stream, after whitespace */
+        private enum State {
+            START,         // An array or an object.
+            ARRAY_START,   // An object in the array, or the end of the array.
+            ARRAY_VALUE,   // A comma, or the end of the array.
+            ARRAY_COMMA,   // An object in the array.
+            OBJECTS        // Another object.
+        }
+
+        private final InputStream in;
+        private byte[] data = new byte[1 << 16];
+        private int pos = 0;     // Next byte to inspect.
+        private int end = 0;     // End of data read from the stream.
+        private long offset = 0; // Offset in the stream of the first byte in the data buffer.
+        private State state = State.START;
+        private boolean done = false;
+
+        OperationSplitter(InputStream in) {
+            this.in = in;
+        }
+
+        /** Returns the next operation JSON object, or null if there are no more operations. */
+        byte[] next() throws IOException {
+            while ( ! done) {
+                if (pos == end && ! fill(pos)) {
+                    done = true;
+                    if (state == State.ARRAY_START || state == State.ARRAY_VALUE || state == State.ARRAY_COMMA)
+                        throw parseException("Unexpected end of input");
+                    break;
+                }
+                byte b = data[pos];
+                switch (b) {
+                    case ' ': case '\t': case '\n': case '\r':
+                        break;
+                    case (byte) 0xEF:
+                        if (state != State.START || offset + pos != 0 || ! isByteOrderMark()) throw unexpected(b);
+                        pos += 2;
+                        break;
+                    case '[':
+                        if (state != State.START) throw unexpected(b);
+                        state = State.ARRAY_START;
+                        break;
+                    case ',':
+                        if (state != State.ARRAY_VALUE) throw unexpected(b);
+                        state = State.ARRAY_COMMA;
+                        break;
+                    case ']':
+                        if (state != State.ARRAY_START && state != State.ARRAY_VALUE) throw unexpected(b);
+                        done = true;
+                        return null;
+                    case '{':
+                        if (state == State.START || state == State.OBJECTS) state = State.OBJECTS;
+                        else if (state == State.ARRAY_START || state == State.ARRAY_COMMA) state = State.ARRAY_VALUE;
+                        else throw unexpected(b);
+                        return readObject();
+                    default:
+                        throw unexpected(b);
+                }
+                ++pos;
+            }
+            return null;
+        }
+
+        private byte[] readObject() throws IOException {
+            int start = pos;
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            while (true) {
+                if (pos == end) {
+                    if ( ! fill(start)) throw parseException("Unexpected end of input");
+                    start = 0;
+                }
+                byte b = data[pos++];
+                if (inString) {
+                    if (escaped) escaped = false;
+                    else if (b == '\\') escaped = true;
+                    else if (b == '"') inString = false;
+                }
+                else if (b == '"') inString = true;
+                else if (b == '{' || b == '[') ++depth;
+                else if ((b == '}' || b == ']') && --depth == 0) return Arrays.copyOfRange(data, start, pos);
+            }
+        }
+
+        /** Returns whether the stream starts with a UTF-8 byte order mark, reading until its first three bytes are available. */
+        private boolean isByteOrderMark() throws IOException {
+            while (end - pos < 3)
+                if ( ! fill(pos)) return false;
+
+            return data[pos + 1] == (byte) 0xBB && data[pos + 2] == (byte) 0xBF;
+        }
+
+        /** Discards data before the given index, and reads more data from the stream, returning false if it has ended. */
+        private boolean fill(int keep) throws IOException {
+            System.arraycopy(data, keep, data, 0, end - keep);
+            offset += keep;
+            pos -= keep;
+            end -= keep;
+            if (end == data.length) {
+                if (data.length > Integer.MAX_VALUE / 2)
+                    throw new IllegalStateException("Maximum buffer size exceeded; want to double " + data.length + ", but that's too much");
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            int read = in.read(data, end, data.length - end);
+            if (read < 0) return false;
+            end += read;
+            return true;
+        }
+
+        private OperationParseException unexpected(byte b) {
+            return parseException("Unexpected character '" + (char) (b & 0xff) + "'");
+        }
+
+        private OperationParseException parseException(String error) {
+            return new OperationParseException(error + " at offset " + (offset + pos));
+        }
+
+        @Override
+        public void close() throws IOException {
+            done = true;
+            in.close();
+        }
+
+    }
+
     private abstract class OperationParserAndExecutor {
 
         private final JsonParser parser;
@@ -420,6 +655,12 @@ public class JsonFeeder implements Closeable {
         }
 
         CompletableFuture<Result> next() throws IOException {
+            ParsedOperation operation = parse();
+            return operation == null ? null : operation.dispatch(client);
+        }
+
+        /** Parses the next operation, or returns null if there are no more operations. */
+        ParsedOperation parse() throws IOException {
             JsonToken token = parser.nextToken();
             if (multipleOperations && ! arrayPrefixParsed && token == JsonToken.START_ARRAY) {
                 arrayPrefixParsed = true;
@@ -475,13 +716,7 @@ public class JsonFeeder implements Closeable {
             else if (end < start)
                 throw parseException("No 'fields' object for document");
 
-            String payload = getDocumentJson(start, end);
-            switch (type) {
-                case PUT:    return client.put   (id, payload, parameters);
-                case UPDATE: return client.update(id, payload, parameters);
-                case REMOVE: return client.remove(id, parameters);
-                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
-            }
+            return new ParsedOperation(type, id, getDocumentJson(start, end), parameters);
         }
 
         private void expect(JsonToken token) throws IOException {
@@ -515,10 +750,36 @@ public class JsonFeeder implements Closeable {
 
     }
 
+    private static class ParsedOperation {
+
+        private final OperationType type;
+        private final DocumentId id;
+        private final String payload;
+        private final OperationParameters parameters;
+
+        ParsedOperation(OperationType type, DocumentId id, String payload, OperationParameters parameters) {
+            this.type = type;
+            this.id = id;
+            this.payload = payload;
+            this.parameters = parameters;
+        }
+
+        CompletableFuture<Result> dispatch(FeedClient client) {
+            switch (type) {
+                case PUT:    return client.put   (id, payload, parameters);
+                case UPDATE: return client.update(id, payload, parameters);
+                case REMOVE: return client.remove(id, parameters);
+                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
+            }
+        }
+
+    }
+
     public static class Builder {
 
         final FeedClient client;
         OperationParameters parameters = OperationParameters.empty();
+        int parserThreads = 1;
 
         private Builder(FeedClient client) {
             this.client = requireNonNull(client);
@@ -539,8 +800,21 @@ public class JsonFeeder implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the number of threads used to parse operations from the streams given to
+         * {@link JsonFeeder#feedMany(InputStream, ResultCallback)}. With more than one thread, the stream is split into
+         * separate operations by the feeding thread, and the operations are parsed in parallel, but still passed
+         * to the feed client in the order they appear in the stream. This lets a single feed file saturate more
+         * connections than a single parsing thread can. The default is 1, which parses on the feeding thread.
+         */
+        public Builder withParserThreads(int parserThreads) {
+            if (parserThreads < 1) throw new IllegalArgumentException("Number of parser threads must be positive, but was " + parserThreads);
+            this.parserThreads = parserThreads;
+            return this;
+        }
+
         public JsonFeeder build() {
-            return new JsonFeeder(client, parameters);
+            return new JsonFeeder(client, parameters, parserThreads);
         }
 
     }
@@ -10,6 +10,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -20,6 +21,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -85,6 +87,135 @@ class JsonFeederTest {
         }
     }
 
+    @Test
+    void operationsAreParsedInParallelAndDispatchedInOrder() throws IOException, ExecutionException, InterruptedException {
+        int docs = 1 << 12;
+        String json = IntStream.range(0, docs)
+                               .mapToObj(i -> "  { \"put\": \"id:ns:type::abc" + i + "\", \"fields\": { \"lul\": \"}[\\\"" + i + "\" } }")
+                               .collect(joining(",\n", "[\n", "\n]"));
+        MockClient client = new MockClient();
+        try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(4).build()) {
+            feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get();
+        }
+        assertEquals(IntStream.range(0, docs).mapToObj(i -> DocumentId.of("id:ns:type::abc" + i)).collect(Collectors.toList()),
+                     List.copyOf(client.putOperations.keySet()));
+        client.assertPutOperation("abc7", "{\"fields\":{ \"lul\": \"}[\\\"7\" }}");
+    }
+
+    @Test
+    void operationSplitterSplitsStreamIntoOperations() throws IOException {
+        String json = " [ {\"a\": \"}\\\"{\"}, {\"b\": [ {}, { \"c\": [] } ]} ]";
+        JsonFeeder.OperationSplitter splitter = new JsonFeeder.OperationSplitter(new ByteArrayInputStream(json.getBytes(UTF_8)));
+        assertEquals("{\"a\": \"}\\\"{\"}", new String(splitter.next(), UTF_8));
+        assertEquals("{\"b\": [ {}, { \"c\": [] } ]}", new String(splitter.next(), UTF_8));
+        assertNull(splitter.next());
+        assertNull(splitter.next());
+
+        String large = "{\"fields\": \"" + "x".repeat(200_000) + "\"}";
+        splitter = new JsonFeeder.OperationSplitter(new ByteArrayInputStream(("{ }\n" + large + "\n").getBytes(UTF_8)));
+        assertEquals("{ }", new String(splitter.next(), UTF_8));
+        assertEquals(large, new String(splitter.next(), UTF_8));
+        assertNull(splitter.next());
+
+        JsonFeeder.OperationSplitter truncated = new JsonFeeder.OperationSplitter(new ByteArrayInputStream("[ {} ".getBytes(UTF_8)));
+        assertEquals("{}", new String(truncated.next(), UTF_8));
+        assertEquals("Unexpected end of input at offset 5",
+                     assertThrows(OperationParseException.class, truncated::next).getMessage());
+
+        JsonFeeder.OperationSplitter illegal = new JsonFeeder.OperationSplitter(new ByteArrayInputStream("{} x".getBytes(UTF_8)));
+        assertEquals("{}", new String(illegal.next(), UTF_8));
+        assertEquals("Unexpected character 'x' at offset 3",
+                     assertThrows(OperationParseException.class, illegal::next).getMessage());
+    }
+
+    @Test
+    void operationSplitterRejectsWhatTheParserRejects() throws IOException {
+        assertEquals("Unexpected character '{' at offset 5", splitError("[ {} {} ]"));
+        assertEquals("Unexpected character ',' at offset 1", splitError("[,,{}]"));
+        assertEquals("Unexpected character ']' at offset 6", splitError("[ {}, ]"));
+        assertEquals("Unexpected character '\f' at offset 0", splitError("\f{}"));
+        assertEquals("Unexpected character '\u00ef' at offset 1", splitError(" \ufeff{}"));
+        assertEquals("Unexpected character ',' at offset 2", splitError("{}, {}"));
+        assertEquals("Unexpected character ']' at offset 3", splitError("{} ]"));
+        assertEquals("Unexpected character '[' at offset 3", splitError("{} []"));
+    }
+
+    @Test
+    void malformedStreamsAreRejectedWithAnyNumberOfParserThreads() throws IOException {
+        String operation = "{ \"put\": \"id:ns:type::abc\", \"fields\": { } }";
+        for (String json : List.of("[" + operation + " " + operation + "]",
+                                   "[,," + operation + "]",
+                                   "[" + operation + ",]",
+                                   operation + ", " + operation,
+                                   operation + "\f" + operation,
+                                   " \ufeff" + operation,
+                                   "[" + operation)) {
+            for (int threads : new int[] { 1, 4 }) {
+                try (JsonFeeder feeder = JsonFeeder.builder(new MockClient()).withParserThreads(threads).build()) {
+                    ExecutionException e = assertThrows(ExecutionException.class,
+                                                        () -> feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get(),
+                                                        threads + " threads: " + json);
+                    assertTrue(e.getCause() instanceof FeedException, threads + " threads: " + json);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameInputIsAcceptedWithAnyNumberOfParserThreads() throws IOException, ExecutionException, InterruptedException {
+        String first = "{ \"put\": \"id:ns:type::abc1\", \"fields\": { \"lul\": \"lal\" } }";
+        String second = "{ \"put\": \"id:ns:type::abc2\", \"fields\": { } }";
+        for (String json : List.of("\ufeff[" + first + ",\r\n\t" + second + "]",
+                                   "\ufeff" + first + "\r\n\t" + second,
+                                   "[" + first + ", " + second + "] " + first,
+                                   "[" + first + ", " + second + "]]")) {
+            for (int threads : new int[] { 1, 4 }) {
+                MockClient client = new MockClient();
+                try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(threads).build()) {
+                    feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get();
+                }
+                client.assertPutDocumentIds("abc1", "abc2");
+                client.assertPutOperation("abc1", "{\"fields\":{ \"lul\": \"lal\" }}");
+            }
+        }
+    }
+
+    @Test
+    void parallelParsingReadsAheadAtMostTheGivenNumberOfBytes() throws IOException, ExecutionException, InterruptedException {
+        int docs = 20;
+        String fields = "{ \"lul\": \"" + "x".repeat(100_000) + "\" }";
+        String json = IntStream.range(0, docs)
+                               .mapToObj(i -> "{ \"put\": \"id:ns:type::abc" + i + "\", \"fields\": " + fields + " }")
+                               .collect(joining("\n"));
+        AtomicLong read = new AtomicLong();
+        InputStream in = new ByteArrayInputStream(json.getBytes(UTF_8)) {
+            @Override public synchronized int read(byte[] b, int off, int len) {
+                int n = super.read(b, off, len);
+                if (n > 0) read.addAndGet(n);
+                return n;
+            }
+        };
+        List<Long> readBeforePut = new ArrayList<>();
+        MockClient client = new MockClient() {
+            @Override public CompletableFuture<Result> put(DocumentId documentId, String documentJson, OperationParameters params) {
+                readBeforePut.add(read.get());
+                return super.put(documentId, documentJson, params);
+            }
+        };
+        try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(4).build()) {
+            feeder.feedMany(in, 1, new JsonFeeder.ResultCallback() { }).get();
+        }
+        assertEquals(docs, client.putOperations.size());
+        long operationSize = json.length() / docs;
+        for (int i = 0; i < docs; i++)
+            assertTrue(readBeforePut.get(i) < (i + 5) * operationSize, "Read " + readBeforePut.get(i) + " bytes before operation " + i);
+    }
+
+    private static String splitError(String json) {
+        JsonFeeder.OperationSplitter splitter = new JsonFeeder.OperationSplitter(new ByteArrayInputStream(json.getBytes(UTF_8)));
+        return assertThrows(OperationParseException.class, () -> { while (splitter.next() != null) { } }).getMessage();
+    }
+
     @Test
     public void multipleJsonArrayOperationsAreDispatchedToFeedClient() throws IOException, ExecutionException, InterruptedException {
         MockClient client = new MockClient();
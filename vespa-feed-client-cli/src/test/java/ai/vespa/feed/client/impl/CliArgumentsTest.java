@@ -29,6 +29,7 @@ class CliArgumentsTest {
                 "--file", "feed.json",
                 "--connections", "10",
                 "--max-streams-per-connection", "128",
+                "--parser-threads", "4",
                 "--certificate", "cert.pem",
                 "--private-key", "key.pem",
                 "--ca-certificates", "ca-certs.pem",
@@ -50,6 +51,7 @@ class CliArgumentsTest {
         assertEquals(Paths.get("feed.json"), args.inputFile().get());
         assertEquals(10, args.connections().getAsInt());
         assertEquals(128, args.maxStreamsPerConnection().getAsInt());
+        assertEquals(4, args.parserThreads().getAsInt());
         assertEquals(Paths.get("cert.pem"), args.certificateAndKey().get().certificateFile);
         assertEquals(Paths.get("key.pem"), args.certificateAndKey().get().privateKeyFile);
         assertEquals(Paths.get("ca-certs.pem"), args.caCertificates().get());
@@ -4,6 +4,7 @@ package ai.vespa.feed.client.impl;
 
 import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import ai.vespa.feed.client.HttpResponse;
+import io.airlift.compress.zstd.ZstdCompressor;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.HttpProxy;
 import org.eclipse.jetty.client.MultiplexConnectionPool;
@@ -41,6 +42,7 @@ import java.net.Inet4Address;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -52,6 +54,7 @@ import java.util.zip.GZIPOutputStream;
 
 import static ai.vespa.feed.client.FeedClientBuilder.Compression.auto;
 import static ai.vespa.feed.client.FeedClientBuilder.Compression.gzip;
+import static ai.vespa.feed.client.FeedClientBuilder.Compression.zstd;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.eclipse.jetty.http.MimeTypes.Type.APPLICATION_JSON;
 
@@ -65,6 +68,9 @@ class JettyCluster implements Cluster {
     // Socket timeout must be longer than the longest feasible response timeout
     private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(15);
 
+    // Thread safe, as all state is per invocation
+    private static final ZstdCompressor zstdCompressor = new ZstdCompressor();
+
     private final HttpClient client;
     private final List<Endpoint> endpoints;
     private final Compression compression;
@@ -92,7 +98,12 @@ class JettyCluster implements Cluster {
                 if (req.body() != null) {
                     boolean shouldCompress = compression == gzip || compression == auto && req.body().length > 512;
                     byte[] bytes;
-                    if (shouldCompress) {
+                    if (compression == zstd) {
+                        byte[] buffer = new byte[zstdCompressor.maxCompressedLength(req.body().length)];
+                        int length = zstdCompressor.compress(req.body(), 0, req.body().length, buffer, 0, buffer.length);
+                        bytes = Arrays.copyOf(buffer, length);
+                        jettyReq.headers(hs -> hs.add(HttpHeader.CONTENT_ENCODING, "zstd"));
+                    } else if (shouldCompress) {
                         ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 10);
                         try (GZIPOutputStream zip = new GZIPOutputStream(buffer)) {
                             zip.write(req.body());
@@ -24,6 +24,7 @@ import com.yahoo.document.config.DocumentmanagerConfig;
 import com.yahoo.document.fieldset.DocIdOnly;
 import com.yahoo.document.fieldset.DocumentOnly;
 import com.yahoo.document.idstring.IdIdString;
+import com.yahoo.document.json.BinaryDocumentWriter;
 import com.yahoo.document.json.DocumentOperationType;
 import com.yahoo.document.json.JsonReader;
 import com.yahoo.document.json.JsonWriter;
@@ -77,6 +78,7 @@ import com.yahoo.vespa.http.server.MetricNames;
 import com.yahoo.yolean.Exceptions;
 import com.yahoo.yolean.Exceptions.RunnableThrowingIOException;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -1069,8 +1071,17 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             this.manager = new DocumentTypeManager(config);
         }
 
+        /** Parses puts with the binary document writer, and with the JSON reader when the writer leaves them to that. */
         ParsedDocumentOperation parsePut(InputStream inputStream, String docId) {
-            return parse(inputStream, docId, DocumentOperationType.PUT);
+            byte[] json;
+            try {
+                json = inputStream.readAllBytes();
+            } catch (IOException e) {
+                incrementMetricParseError();
+                throw new IllegalArgumentException("failed reading document", e);
+            }
+            return new BinaryDocumentWriter(manager, jsonFactory).readPut(new DocumentId(docId), json)
+                                                                 .orElseGet(() -> parse(new ByteArrayInputStream(json), docId, DocumentOperationType.PUT));
         }
 
         ParsedDocumentOperation parseUpdate(InputStream inputStream, String docId)  {
@@ -7,7 +7,9 @@ import com.yahoo.text.Utf8;
 import com.yahoo.vespaxmlparser.FeedReader;
 import com.yahoo.vespaxmlparser.VespaXMLFeedReader;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 /**
  * Class for creating FeedReader based on dataFormat.
@@ -22,7 +24,7 @@ public class FeedReaderFactory {
     }
 
     /**
-     * Creates FeedReader
+     * Creates FeedReader. JSON feed data is read at once, as it holds a single operation.
      * @param inputStream source of feed data
      * @param docTypeManager handles the parsing of the document
      * @param dataFormat specifies the format
@@ -52,7 +54,11 @@ public class FeedReaderFactory {
                     }
                 }
             case JSON_UTF8:
-                return new JsonFeedReader(inputStream, docTypeManager);
+                try {
+                    return JsonFeedReader.forSingleOperation(inputStream, docTypeManager);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read JSON feed operation", e);
+                }
             default:
                 throw new IllegalStateException("Can not create feed reader for format: " + dataFormat);
         }
@@ -0,0 +1,241 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespavisit;
+
+import com.yahoo.compress.ZstdOutputStream;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.documentapi.ProgressToken;
+import com.yahoo.documentapi.VisitorControlHandler;
+import com.yahoo.documentapi.VisitorParameters;
+import com.yahoo.documentapi.VisitorSession;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Exports the documents of a visit to a directory, visiting all slices of the documents concurrently.
+ * The documents of each slice are written as zstd compressed JSONL to a file of their own, and the progress
+ * of each slice is checkpointed together with the size of its output, such that an interrupted export is
+ * resumed by running it again with the same directory and number of slices.
+ *
+ * Documents of buckets which were being visited when the last checkpoint was written may be exported twice
+ * when resuming.
+ */
+public class SlicedExport {
+
+    static final Duration checkpointInterval = Duration.ofSeconds(10);
+
+    private final VdsVisit.VdsVisitParameters params;
+    private final Path directory;
+    private final List<Slice> slices = new ArrayList<>();
+
+    public SlicedExport(VdsVisit.VdsVisitParameters params, Path directory) {
+        this.params = params;
+        this.directory = directory;
+    }
+
+    /** Runs this export using sessions from the given accessor, and returns the exit code of the tool. */
+    public int run(VdsVisit.VisitorSessionAccessor sessionAccessor) {
+        ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "export-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+            for (int sliceId = 0; sliceId < params.slices(); sliceId++) {
+                Slice slice = new Slice(sliceId);
+                if (slice.isFinished()) {
+                    if (params.isVerbose()) {
+                        System.err.println("Slice " + sliceId + " is already exported to " + slice.outputFile);
+                    }
+                    continue;
+                }
+                synchronized (slices) {
+                    slices.add(slice);
+                }
+            }
+            for (Slice slice : slices) {
+                slice.start(sessionAccessor);
+            }
+            checkpointer.scheduleAtFixedRate(this::checkpoint,
+                                             checkpointInterval.toMillis(), checkpointInterval.toMillis(),
+                                             TimeUnit.MILLISECONDS);
+            boolean success = true;
+            for (Slice slice : slices) {
+                success &= slice.waitUntilDone();
+            }
+            return success ? 0 : 1;
+        } catch (ParseException e) {
+            System.err.println("Illegal document selection string '" +
+                               params.getVisitorParameters().getDocumentSelection() + "'.\n");
+            return 1;
+        } catch (IOException e) {
+            System.err.println("Failed exporting documents to " + directory + ": " + e.getMessage());
+            return 1;
+        } finally {
+            checkpointer.shutdownNow();
+        }
+    }
+
+    /** Checkpoints and destroys the sessions of all slices which are not yet done. */
+    public void destroy() {
+        synchronized (slices) {
+            for (Slice slice : slices) {
+                slice.destroy();
+            }
+        }
+    }
+
+    private void checkpoint() {
+        double percentFinished = 0;
+        synchronized (slices) {
+            for (Slice slice : slices) {
+                percentFinished += slice.checkpoint();
+            }
+            percentFinished = (percentFinished + 100.0 * (params.slices() - slices.size())) / params.slices();
+        }
+        if (params.isVerbose()) {
+            System.err.format("%.1f %% finished.\n", percentFinished);
+        }
+    }
+
+    private class Slice {
+
+        private final int id;
+        private final Path outputFile;
+        private final Path checkpointFile;
+        private final ProgressToken resumeToken;
+        private final long resumeOffset;
+        private VdsVisitHandler handler;
+        private FileChannel channel;
+        private PrintStream out;
+        private VisitorSession session;
+        private boolean done = false;
+
+        Slice(int id) throws IOException {
+            this.id = id;
+            String name = "slice-" + id + "-of-" + params.slices();
+            this.outputFile = directory.resolve(name + ".jsonl.zst");
+            this.checkpointFile = directory.resolve(name + ".progress");
+            if (Files.exists(checkpointFile)) {
+                // The first line is the number of bytes of output up to the checkpoint, and the rest is the progress
+                String checkpoint = Files.readString(checkpointFile);
+                int newline = checkpoint.indexOf('\n');
+                if (newline < 0) throw new IOException("Checkpoint file " + checkpointFile + " is malformed");
+                this.resumeOffset = Long.parseLong(checkpoint.substring(0, newline));
+                this.resumeToken = new ProgressToken(checkpoint.substring(newline + 1));
+            } else {
+                this.resumeOffset = 0;
+                this.resumeToken = null;
+            }
+        }
+
+        boolean isFinished() {
+            return resumeToken != null && resumeToken.getTotalBucketCount() > 0 && resumeToken.isFinished();
+        }
+
+        void start(VdsVisit.VisitorSessionAccessor sessionAccessor) throws IOException, ParseException {
+            // Output written after the last checkpoint is discarded, as those documents will be visited again
+            channel = FileChannel.open(outputFile, CREATE, WRITE);
+            channel.truncate(resumeOffset);
+            channel.position(resumeOffset);
+            out = new PrintStream(new ZstdOutputStream(Channels.newOutputStream(channel)), false, StandardCharsets.UTF_8);
+
+            var handlerParams = new StdOutVisitorHandler.Params();
+            handlerParams.abortOnClusterDown = params.getAbortOnClusterDown();
+            handlerParams.processTimeMilliSecs = params.getProcessTime();
+            handlerParams.outputFormat = StdOutVisitorHandler.OutputFormat.JSONL;
+            handlerParams.tensorShortForm = params.tensorShortForm();
+            handlerParams.tensorDirectValues = params.tensorDirectValues();
+            handlerParams.nullRender = params.nullRender();
+            handlerParams.appendToOutput = resumeOffset > 0;
+            handler = new StdOutVisitorHandler(handlerParams, out);
+
+            VisitorParameters visitorParameters = new VisitorParameters(params.getVisitorParameters());
+            visitorParameters.setThrottlePolicy(params.getVisitorParameters().getThrottlePolicy());
+            visitorParameters.slice(params.slices(), id);
+            visitorParameters.setResumeToken(resumeToken);
+            visitorParameters.setControlHandler(handler.getControlHandler());
+            visitorParameters.setLocalDataHandler(handler.getDataHandler());
+            session = sessionAccessor.createVisitorSession(visitorParameters);
+        }
+
+        /** Waits for this slice to be visited, and returns whether it completed successfully. */
+        boolean waitUntilDone() throws IOException {
+            while (true) {
+                try {
+                    if (session.waitUntilDone(params.getFullTimeout())) break;
+                } catch (InterruptedException e) {}
+            }
+            synchronized (this) {
+                checkpoint();
+                done = true;
+                out.close();
+            }
+            if (out.checkError()) throw new IOException("Failed writing " + outputFile);
+            VisitorControlHandler.Result result = handler.getControlHandler().getResult();
+            return result != null && result.code == VisitorControlHandler.CompletionCode.SUCCESS;
+        }
+
+        /**
+         * Writes the current progress of this slice, and the size of the output containing all documents of
+         * the buckets visited so far, to the checkpoint file of this.
+         *
+         * @return the percentage of this slice which is visited
+         */
+        synchronized double checkpoint() {
+            if (done) return 100;
+            if (handler == null || handler.getControlHandler().getProgress() == null) return 0;
+            ProgressToken progress = handler.getControlHandler().getProgress();
+
+            // Buckets are only visited when all their documents are acked, i.e., written, so the output
+            // is flushed after the progress is serialized, with the token lock released to avoid deadlock
+            String token = progress.toString();
+            try {
+                long size;
+                synchronized (handler.getPrintLock()) {
+                    out.flush();
+                    size = channel.position();
+                }
+                if (out.checkError()) throw new IOException("Failed writing " + outputFile);
+                channel.force(false);
+                Path tmpFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+                Files.writeString(tmpFile, size + "\n" + token);
+                Files.move(tmpFile, checkpointFile, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Failed writing checkpoint of slice " + id + ": " + e.getMessage());
+                session.abort(); // Don't continue visiting if we're unable to save progress state
+            }
+            return progress.percentFinished();
+        }
+
+        void destroy() {
+            checkpoint();
+            try {
+                if (session != null) {
+                    session.destroy();
+                }
+            } catch (IllegalStateException ignored) {
+                // Already destroyed
+            }
+        }
+
+    }
+
+}
@@ -56,6 +56,7 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
         boolean tensorShortForm    = false; // TODO Vespa 9: change default to true
         boolean tensorDirectValues = false; // TODO Vespa 9: change default to true
         boolean nullRender         = false;
+        boolean appendToOutput     = false; // Whether earlier JSONL output precedes that of this
 
         boolean usesJson() {
             return outputFormat == OutputFormat.JSON || outputFormat == OutputFormat.JSONL;
@@ -124,7 +125,7 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
     class DataHandler extends DumpVisitorDataHandler {
         boolean doStatistics;
         StatisticsMap statisticsMap = new StatisticsMap(10000);
-        private volatile boolean first = true;
+        private volatile boolean first = ! params.appendToOutput;
 
         public DataHandler(boolean doStatistics) {
             this.doStatistics = doStatistics;
@@ -42,6 +42,7 @@ public class VdsVisit {
     private VdsVisitParameters params;
     private MessageBusParams mbparams = new MessageBusParams();
     private VisitorSession session;
+    private SlicedExport export;
 
     private final VisitorSessionAccessorFactory sessionAccessorFactory;
     private VisitorSessionAccessor sessionAccessor;
@@ -381,6 +382,16 @@ public class VdsVisit {
                 .type(Number.class)
                 .build());
 
+        options.addOption(Option.builder()
+                .longOpt("exportdir")
+                .desc("Export documents to zstd compressed JSONL files in the given directory, visiting the number of " +
+                      "slices given by --slices concurrently, with one file per slice. The progress of each slice is " +
+                      "saved in the directory, and an interrupted export is resumed by running it again with the " +
+                      "same directory and number of slices.")
+                .hasArg(true)
+                .argName("directory")
+                .build());
+
         options.addOption(Option.builder()
                 .longOpt("nullrender")
                 .desc("Process documents, but do not render any output. Overrides all other output options. " +
@@ -409,6 +420,7 @@ public class VdsVisit {
         private boolean nullRender = false;
         private int slices = 1;
         private int sliceId = 0;
+        private String exportDirectory = null;
 
         public VisitorParameters getVisitorParameters() {
             return visitorParameters;
@@ -540,6 +552,14 @@ public class VdsVisit {
             this.sliceId = sliceId;
         }
 
+        public String getExportDirectory() {
+            return exportDirectory;
+        }
+
+        public void setExportDirectory(String exportDirectory) {
+            this.exportDirectory = exportDirectory;
+        }
+
     }
 
     private static int optionAsInt(CommandLine cmdLine, String optName) throws org.apache.commons.cli.ParseException {
@@ -679,12 +699,27 @@ public class VdsVisit {
             if (line.hasOption("nullrender")) {
                 allParams.setNullRender(true);
             }
-            if (line.hasOption("slices") != line.hasOption("sliceid")) {
-                throw new IllegalArgumentException("Both --slices and --sliceid must be specified when visiting with slicing");
-            }
-            if (line.hasOption("slices")) {
-                allParams.setSlices(optionAsInt(line, "slices"));
-                allParams.setSliceId(optionAsInt(line, "sliceid"));
+            if (line.hasOption("exportdir")) {
+                for (String option : new String[] { "datahandler", "progress", "printids", "statistics", "xmloutput", "sliceid" }) {
+                    if (line.hasOption(option)) {
+                        throw new IllegalArgumentException("--" + option + " cannot be combined with --exportdir");
+                    }
+                }
+                allParams.setExportDirectory(line.getOptionValue("exportdir"));
+                if (line.hasOption("slices")) {
+                    allParams.setSlices(optionAsInt(line, "slices"));
+                }
+                if (allParams.slices() < 1) {
+                    throw new IllegalArgumentException("--slices must be greater than 0");
+                }
+            } else {
+                if (line.hasOption("slices") != line.hasOption("sliceid")) {
+                    throw new IllegalArgumentException("Both --slices and --sliceid must be specified when visiting with slicing");
+                }
+                if (line.hasOption("slices")) {
+                    allParams.setSlices(optionAsInt(line, "slices"));
+                    allParams.setSliceId(optionAsInt(line, "sliceid"));
+                }
             }
 
             boolean jsonOutput = line.hasOption("jsonoutput");
@@ -701,7 +736,7 @@ public class VdsVisit {
                 allParams.setJsonOutput(!xmlOutput);
             }
 
-            if (allParams.slices() != 1 || allParams.sliceId() != 0) {
+            if (allParams.getExportDirectory() == null && (allParams.slices() != 1 || allParams.sliceId() != 0)) {
                 if ((allParams.slices() < 1) || (allParams.sliceId() < 0) || (allParams.sliceId() >= allParams.slices())) {
                     throw new IllegalArgumentException("--slices must be greater than 0 and --sliceid must be in the " +
                                                        "range [0, the value provided for --slices)");
@@ -810,6 +845,9 @@ public class VdsVisit {
         if (params.getSlices() > 1) {
             out.format("Visiting slice %d out of %s slices\n", params.getSliceId(), params.getSlices());
         }
+        if (vdsParams.getExportDirectory() != null) {
+            out.format("Exporting %d slices to %s\n", vdsParams.slices(), vdsParams.getExportDirectory());
+        }
     }
 
     private void onDocumentSelectionException(Exception e) {
@@ -829,6 +867,9 @@ public class VdsVisit {
     }
 
     protected int doRun() {
+        if (params.getExportDirectory() != null) {
+            return doExport();
+        }
         VisitorParameters visitorParameters = params.getVisitorParameters();
         // If progress file already exists, create resume token from it
         if (visitorParameters.getResumeFileName() != null &&
@@ -916,6 +957,13 @@ public class VdsVisit {
         }
     }
 
+    private int doExport() {
+        initShutdownHook();
+        sessionAccessor = sessionAccessorFactory.createVisitorSessionAccessor();
+        export = new SlicedExport(params, Path.of(params.getExportDirectory()));
+        return export.run(sessionAccessor);
+    }
+
     private void initShutdownHook() {
         shutdownHookRegistrar.registerShutdownHook(new CleanUpThread());
     }
@@ -926,6 +974,9 @@ public class VdsVisit {
                 if (session != null) {
                     session.destroy();
                 }
+                if (export != null) {
+                    export.destroy();
+                }
             } catch (IllegalStateException ise) {
                 //ignore this
             }
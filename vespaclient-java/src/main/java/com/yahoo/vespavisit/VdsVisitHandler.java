@@ -36,7 +36,7 @@ public abstract class VdsVisitHandler {
 
     private static class ProgressMeta {
         String fileName = "";
-        String lastProgressContents;
+        ProgressToken lastProgress;
         int unwrittenUpdates = 0;
         long lastWriteAtNanos = 0;
         Duration writeInterval = Duration.ofSeconds(10);
@@ -107,7 +107,7 @@ public abstract class VdsVisitHandler {
         private void rewriteProgressFile() {
             try {
                 var tmpPath = Path.of(progressMeta.fileName + ".tmp");
-                Files.writeString(tmpPath, progressMeta.lastProgressContents);
+                Files.writeString(tmpPath, progressMeta.lastProgress.toString());
                 Files.move(tmpPath, Path.of(progressMeta.fileName), REPLACE_EXISTING, ATOMIC_MOVE);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -118,8 +118,9 @@ public abstract class VdsVisitHandler {
         public void onProgress(ProgressToken token) {
             if (progressMeta.shouldWriteProgress()) {
                  synchronized (token) {
+                     // The token is only serialized when written, as this is called for every visitor reply
                      progressMeta.unwrittenUpdates++;
-                     progressMeta.lastProgressContents = token.toString();
+                     progressMeta.lastProgress = token;
                      long nowNanos = System.nanoTime();
                      if ((nowNanos - progressMeta.lastWriteAtNanos) > progressMeta.writeInterval.toNanos()) {
                          rewriteProgressFile();
@@ -0,0 +1,154 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespavisit;
+
+import com.yahoo.compress.ZstdInputStream;
+import com.yahoo.compress.ZstdOutputStream;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.documentapi.AckToken;
+import com.yahoo.documentapi.ProgressToken;
+import com.yahoo.documentapi.VisitorControlHandler;
+import com.yahoo.documentapi.VisitorParameters;
+import com.yahoo.documentapi.VisitorResponse;
+import com.yahoo.documentapi.VisitorSession;
+import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
+import com.yahoo.messagebus.Trace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlicedExportTest {
+
+    private static final String finishedProgress = "VDS bucket progress file\n8\n256\n256\n256\n";
+    private static final String halfwayProgress = "VDS bucket progress file\n8\n128\n128\n256\n";
+
+    @TempDir
+    public Path tmpDir;
+
+    @Test
+    void each_slice_is_exported_to_its_own_file() throws IOException {
+        MockVisitorSessionAccessor accessor = new MockVisitorSessionAccessor();
+        assertEquals(0, new SlicedExport(createParams(3), tmpDir).run(accessor));
+
+        assertEquals(3, accessor.sessionParams.size());
+        for (int sliceId = 0; sliceId < 3; sliceId++) {
+            VisitorParameters params = accessor.sessionParams.get(sliceId);
+            assertEquals(3, params.getSlices());
+            assertEquals(sliceId, params.getSliceId());
+            assertNull(params.getResumeToken());
+            assertEquals(document(sliceId, 0) + "\n" + document(sliceId, 1), decompress("slice-" + sliceId + "-of-3.jsonl.zst"));
+            assertTrue(Files.readString(tmpDir.resolve("slice-" + sliceId + "-of-3.progress")).endsWith(finishedProgress));
+        }
+
+        // Running the export again does nothing, as all slices are finished
+        accessor = new MockVisitorSessionAccessor();
+        assertEquals(0, new SlicedExport(createParams(3), tmpDir).run(accessor));
+        assertEquals(0, accessor.sessionParams.size());
+    }
+
+    @Test
+    void interrupted_slices_are_resumed_from_their_checkpoint() throws IOException {
+        Path outputFile = tmpDir.resolve("slice-1-of-2.jsonl.zst");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(outputFile))) {
+            out.write("{\"put\":\"earlier\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        long checkpointedSize = Files.size(outputFile);
+        Files.write(outputFile, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND); // Written after the checkpoint
+        Files.writeString(tmpDir.resolve("slice-1-of-2.progress"), checkpointedSize + "\n" + halfwayProgress);
+
+        MockVisitorSessionAccessor accessor = new MockVisitorSessionAccessor();
+        assertEquals(0, new SlicedExport(createParams(2), tmpDir).run(accessor));
+
+        assertNull(accessor.sessionParams.get(0).getResumeToken());
+        assertEquals(128, accessor.sessionParams.get(1).getResumeToken().getFinishedBucketCount());
+        assertEquals(document(0, 0) + "\n" + document(0, 1), decompress("slice-0-of-2.jsonl.zst"));
+        assertEquals("{\"put\":\"earlier\"}\n" + document(1, 0) + "\n" + document(1, 1), decompress("slice-1-of-2.jsonl.zst"));
+    }
+
+    private String decompress(String fileName) throws IOException {
+        try (ZstdInputStream in = new ZstdInputStream(Files.newInputStream(tmpDir.resolve(fileName)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String document(int sliceId, int index) {
+        return "{\"id\":\"id:ns:music::" + sliceId + "-" + index + "\",\"fields\":{\"title\":\"title\"}}";
+    }
+
+    private static VdsVisit.VdsVisitParameters createParams(int slices) {
+        VdsVisit.VdsVisitParameters params = new VdsVisit.VdsVisitParameters();
+        params.setVisitorParameters(new VisitorParameters(""));
+        params.setSlices(slices);
+        params.setExportDirectory("unused");
+        return params;
+    }
+
+    private static class MockVisitorSession implements VisitorSession {
+
+        private static final DocumentType type = new DocumentType("music");
+        static {
+            type.addField("title", DataType.STRING);
+        }
+
+        private final VisitorParameters params;
+
+        MockVisitorSession(VisitorParameters params) {
+            this.params = params;
+            params.getLocalDataHandler().setSession(this);
+        }
+
+        @Override
+        public boolean waitUntilDone(long timeoutMs) {
+            for (int i = 0; i < 2; i++) {
+                Document document = new Document(type, "id:ns:music::" + params.getSliceId() + "-" + i);
+                document.setFieldValue("title", new StringFieldValue("title"));
+                params.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(document)), new AckToken(null));
+            }
+            params.getControlHandler().onProgress(new ProgressToken(finishedProgress));
+            params.getLocalDataHandler().onDone();
+            params.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "done");
+            return true;
+        }
+
+        @Override public boolean isDone() { return true; }
+        @Override public ProgressToken getProgress() { return null; }
+        @Override public Trace getTrace() { return null; }
+        @Override public void ack(AckToken token) { }
+        @Override public void abort() { }
+        @Override public VisitorResponse getNext() { return null; }
+        @Override public VisitorResponse getNext(int timeoutMilliseconds) { return null; }
+        @Override public void destroy() { }
+
+    }
+
+    private static class MockVisitorSessionAccessor implements VdsVisit.VisitorSessionAccessor {
+
+        final List<VisitorParameters> sessionParams = new ArrayList<>();
+
+        @Override
+        public VisitorSession createVisitorSession(VisitorParameters params) {
+            sessionParams.add(params);
+            return new MockVisitorSession(params);
+        }
+
+        @Override
+        public void shutdown() { }
+
+    }
+
+}
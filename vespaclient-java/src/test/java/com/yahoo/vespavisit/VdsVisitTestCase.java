@@ -239,6 +239,21 @@ public class VdsVisitTestCase {
         assertEquals(DocumentProtocol.Priority.LOW_1, params.getPriority());
     }
 
+    @Test
+    void export_visits_all_slices() throws Exception {
+        var allParams = createMockArgumentParser().parse(new String[]{ "--exportdir", "export", "--slices", "4" });
+        assertEquals("export", allParams.getExportDirectory());
+        assertEquals(4, allParams.slices());
+        assertEquals(1, allParams.getVisitorParameters().getSlices()); // Each slice is visited with parameters of its own
+
+        try {
+            createMockArgumentParser().parse(new String[]{ "--exportdir", "export", "--slices", "4", "--sliceid", "1" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("--sliceid cannot be combined with --exportdir", e.getMessage());
+        }
+    }
+
     @Test
     void testBadPriorityValue() throws Exception {
         String[] args = new String[]{
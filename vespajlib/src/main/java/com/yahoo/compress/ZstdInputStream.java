@@ -0,0 +1,16 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * Decompresses a stream of Zstd frames, such as that written by {@link ZstdOutputStream}.
+ */
+public class ZstdInputStream extends FilterInputStream {
+
+    public ZstdInputStream(InputStream in) {
+        super(new io.airlift.compress.zstd.ZstdInputStream(in));
+    }
+
+}
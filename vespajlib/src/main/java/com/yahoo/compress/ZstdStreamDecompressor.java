@@ -0,0 +1,89 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import io.airlift.compress.zstd.ZstdIncrementalFrameDecompressor;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Decompresses a stream of Zstd frames, such as that written by {@link ZstdOutputStream}, which is given in chunks
+ * as they arrive. Unlike {@link ZstdInputStream} this never waits for more input: it decompresses what it can, and
+ * keeps only the input it needs to continue.
+ *
+ * This is not multithread safe.
+ */
+public class ZstdStreamDecompressor {
+
+    private static final int ARRAY_BYTE_BASE_OFFSET = arrayByteBaseOffset();
+
+    private final ZstdIncrementalFrameDecompressor decompressor = new ZstdIncrementalFrameDecompressor();
+    private final int outputBufferSize;
+    private byte[] input = new byte[0];
+    private int inputOffset = 0;
+    private int inputLimit = 0;
+
+    /** Creates a decompressor which outputs chunks of at most the given size */
+    public ZstdStreamDecompressor(int outputBufferSize) {
+        if (outputBufferSize <= 0) throw new IllegalArgumentException("Output buffer size must be positive, got " + outputBufferSize);
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    /**
+     * Decompresses as much as possible of the given input, and of input kept from before, and passes the output
+     * to the given consumer in new buffers of at most the output buffer size each, as soon as each is filled.
+     * An exception thrown by the consumer stops decompression, and is rethrown; this may be used to limit
+     * the total size of the output.
+     *
+     * @throws RuntimeException if the input is not valid zstd
+     */
+    public void decompress(ByteBuffer compressed, Consumer<ByteBuffer> output) {
+        append(compressed);
+        byte[] buffer = null;
+        int used = 0;
+        while (inputLimit - inputOffset >= decompressor.getInputRequired()) {
+            if (buffer == null) buffer = new byte[outputBufferSize];
+            decompressor.partialDecompress(input, ARRAY_BYTE_BASE_OFFSET + inputOffset, ARRAY_BYTE_BASE_OFFSET + inputLimit,
+                                           buffer, used, buffer.length);
+            inputOffset += decompressor.getInputConsumed();
+            used += decompressor.getOutputBufferUsed();
+            if (used == buffer.length) {
+                output.accept(ByteBuffer.wrap(buffer));
+                buffer = null;
+                used = 0;
+            }
+        }
+        if (used > 0)
+            output.accept(ByteBuffer.wrap(buffer, 0, used));
+    }
+
+    /** Returns whether all input given so far is decompressed, and ended with a complete frame */
+    public boolean isComplete() {
+        return inputOffset == inputLimit && decompressor.isAtStoppingPoint();
+    }
+
+    private void append(ByteBuffer compressed) {
+        int remaining = inputLimit - inputOffset;
+        if (remaining + compressed.remaining() > input.length) {
+            byte[] grown = new byte[Math.max(remaining + compressed.remaining(), decompressor.getInputRequired())];
+            System.arraycopy(input, inputOffset, grown, 0, remaining);
+            input = grown;
+        } else if (inputOffset > 0) {
+            System.arraycopy(input, inputOffset, input, 0, remaining);
+        }
+        inputOffset = 0;
+        inputLimit = remaining + compressed.remaining();
+        compressed.get(input, remaining, compressed.remaining());
+    }
+
+    /** The decompressor addresses byte arrays like Unsafe does, which is only visible to us by reflection */
+    private static int arrayByteBaseOffset() {
+        try {
+            return Class.forName("sun.misc.Unsafe").getField("ARRAY_BYTE_BASE_OFFSET").getInt(null);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Zstd decompression requires sun.misc.Unsafe", e);
+        }
+    }
+
+}
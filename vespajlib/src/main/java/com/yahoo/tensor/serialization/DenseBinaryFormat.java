@@ -7,6 +7,7 @@ import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
 /**
@@ -56,13 +57,17 @@ public class DenseBinaryFormat implements BinaryFormat {
     }
 
     private void encodeDoubleCells(IndexedTensor tensor, GrowableByteBuffer buffer) {
-        for (int i = 0; i < tensor.sizeAsInt(); i++)
-            buffer.putDouble(tensor.get(i));
+        int size = tensor.sizeAsInt();
+        ByteBuffer cells = reserve(buffer, (long) size * Double.BYTES);
+        for (int i = 0; i < size; i++)
+            cells.putDouble(tensor.get(i));
     }
 
     private void encodeFloatCells(IndexedTensor tensor, GrowableByteBuffer buffer) {
-        for (int i = 0; i < tensor.sizeAsInt(); i++)
-            buffer.putFloat(tensor.getFloat(i));
+        int size = tensor.sizeAsInt();
+        ByteBuffer cells = reserve(buffer, (long) size * Float.BYTES);
+        for (int i = 0; i < size; i++)
+            cells.putFloat(tensor.getFloat(i));
     }
 
     private void encodeBFloat16Cells(IndexedTensor tensor, GrowableByteBuffer buffer) {
@@ -75,6 +80,16 @@ public class DenseBinaryFormat implements BinaryFormat {
             buffer.put((byte) tensor.getFloat(i));
     }
 
+    /**
+     * Grows the given buffer to fit the given number of bytes once, and returns the underlying buffer,
+     * such that cells can be written without checking the capacity for each of them.
+     */
+    private static ByteBuffer reserve(GrowableByteBuffer buffer, long bytes) {
+        if (buffer.remaining() < bytes)
+            buffer.grow(Math.toIntExact(buffer.position() + bytes));
+        return buffer.getByteBuffer();
+    }
+
     @Override
     public Tensor decode(Optional<TensorType> optionalType, GrowableByteBuffer buffer) {
         TensorType type;
@@ -95,6 +110,10 @@ public class DenseBinaryFormat implements BinaryFormat {
             type = decodeType(buffer);
             sizes = sizesFromType(type);
         }
+        switch (serializationValueType) {
+            case DOUBLE: return IndexedTensor.Builder.of(type, sizes, decodeDoubleCells(sizes, buffer)).build();
+            case FLOAT: return IndexedTensor.Builder.of(type, sizes, decodeFloatCells(sizes, buffer)).build();
+        }
         Tensor.Builder builder = Tensor.Builder.of(type, sizes);
         decodeCells(sizes, buffer, (IndexedTensor.BoundBuilder)builder);
         return builder.build();
@@ -118,21 +137,25 @@ public class DenseBinaryFormat implements BinaryFormat {
 
     private void decodeCells(DimensionSizes sizes, GrowableByteBuffer buffer, IndexedTensor.BoundBuilder builder) {
         switch (serializationValueType) {
-            case DOUBLE: decodeDoubleCells(sizes, builder, buffer); break;
-            case FLOAT: decodeFloatCells(sizes, builder, buffer); break;
             case BFLOAT16: decodeBFloat16Cells(sizes, builder, buffer); break;
             case INT8: decodeInt8Cells(sizes, builder, buffer); break;
         }
     }
 
-    private void decodeDoubleCells(DimensionSizes sizes, IndexedTensor.BoundBuilder builder, GrowableByteBuffer buffer) {
-        for (long i = 0; i < sizes.totalSize(); i++)
-            builder.cellByDirectIndex(i, buffer.getDouble());
+    /** Reads the cells in bulk into an array which is handed over to the tensor built from it */
+    private double[] decodeDoubleCells(DimensionSizes sizes, GrowableByteBuffer buffer) {
+        double[] values = new double[Math.toIntExact(sizes.totalSize())];
+        buffer.getByteBuffer().asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+        return values;
     }
 
-    private void decodeFloatCells(DimensionSizes sizes, IndexedTensor.BoundBuilder builder, GrowableByteBuffer buffer) {
-        for (long i = 0; i < sizes.totalSize(); i++)
-            builder.cellByDirectIndex(i, buffer.getFloat());
+    /** Reads the cells in bulk into an array which is handed over to the tensor built from it */
+    private float[] decodeFloatCells(DimensionSizes sizes, GrowableByteBuffer buffer) {
+        float[] values = new float[Math.toIntExact(sizes.totalSize())];
+        buffer.getByteBuffer().asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+        return values;
     }
 
     private void decodeBFloat16Cells(DimensionSizes sizes, IndexedTensor.BoundBuilder builder, GrowableByteBuffer buffer) {
@@ -2,6 +2,7 @@
 package com.yahoo.tensor.serialization;
 
 import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.MixedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
@@ -32,7 +33,7 @@ public class TypedBinaryFormat {
     private static final int INT8_VALUE_TYPE = 3;
 
     public static byte[] encode(Tensor tensor) {
-        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        GrowableByteBuffer buffer = new GrowableByteBuffer(initialBufferSize(tensor));
         return asByteArray(encode(tensor, buffer));
     }
     public static GrowableByteBuffer encode(Tensor tensor, GrowableByteBuffer buffer) {
@@ -135,6 +136,30 @@ public class TypedBinaryFormat {
                 "Only 0(double), 1(float), 2(bfloat16), or 3(int8) is legal.");
     }
 
+    /**
+     * Returns a buffer size which fits the encoding of the given tensor, capped at the default buffer size,
+     * to avoid allocating a large buffer for each small tensor encoded.
+     */
+    private static int initialBufferSize(Tensor tensor) {
+        int dimensions = tensor.type().dimensions().size();
+        long headerSize = 16 + dimensions * 16L;
+        for (var dimension : tensor.type().dimensions())
+            headerSize += 3L * dimension.name().length();
+        long cellSize = cellSize(tensor.type().valueType());
+        if ( ! (tensor instanceof IndexedTensor))
+            cellSize += 16L * dimensions; // A rough estimate of the size of the labels of each cell
+        return (int) Math.min(headerSize + tensor.size() * cellSize, GrowableByteBuffer.DEFAULT_BASE_SIZE);
+    }
+
+    private static int cellSize(TensorType.Value valueType) {
+        return switch (valueType) {
+            case DOUBLE -> Double.BYTES;
+            case FLOAT -> Float.BYTES;
+            case BFLOAT16 -> Short.BYTES;
+            case INT8 -> Byte.BYTES;
+        };
+    }
+
     private static byte[] asByteArray(GrowableByteBuffer buffer) {
         buffer.flip();
         byte[] result = new byte[buffer.remaining()];
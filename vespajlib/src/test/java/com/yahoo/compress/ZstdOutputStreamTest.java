@@ -3,6 +3,7 @@ package com.yahoo.compress;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
@@ -45,4 +46,17 @@ class ZstdOutputStreamTest {
                 compressedSize < inputData.length,
                 () -> "Compressed size is " + compressedSize + " while uncompressed size is " + inputData.length);
     }
+
+    @Test
+    void input_stream_decompresses_output() throws IOException {
+        byte[] inputData = "The quick brown fox jumps over the lazy dog".repeat(100).getBytes();
+        ByteArrayOutputStream arrayOut = new ByteArrayOutputStream();
+        try (ZstdOutputStream zstdOut = new ZstdOutputStream(arrayOut, 1000)) {
+            zstdOut.write(inputData);
+        }
+        try (ZstdInputStream zstdIn = new ZstdInputStream(new ByteArrayInputStream(arrayOut.toByteArray()))) {
+            assertArrayEquals(inputData, zstdIn.readAllBytes());
+        }
+    }
+
 }
@@ -0,0 +1,88 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZstdStreamDecompressorTest {
+
+    private static final byte[] inputData = "The quick brown fox jumps over the lazy dog".repeat(100).getBytes();
+
+    @Test
+    void decompresses_input_given_in_chunks_of_any_size() throws IOException {
+        byte[] compressed = compress(inputData);
+        for (int chunkSize : new int[] { 1, 7, 100, compressed.length }) {
+            ZstdStreamDecompressor decompressor = new ZstdStreamDecompressor(256);
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+            for (int offset = 0; offset < compressed.length; offset += chunkSize) {
+                decompressor.decompress(ByteBuffer.wrap(compressed, offset, Math.min(chunkSize, compressed.length - offset)),
+                                        buffer -> {
+                                            assertTrue(buffer.remaining() <= 256);
+                                            decompressed.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                                        });
+            }
+            assertTrue(decompressor.isComplete());
+            assertArrayEquals(inputData, decompressed.toByteArray(), "Chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void output_buffers_are_not_reused() throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        new ZstdStreamDecompressor(100).decompress(ByteBuffer.wrap(compress(inputData)), buffers::add);
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : buffers)
+            decompressed.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        assertArrayEquals(inputData, decompressed.toByteArray());
+    }
+
+    @Test
+    void truncated_input_is_not_complete() throws IOException {
+        byte[] compressed = compress(inputData);
+        ZstdStreamDecompressor decompressor = new ZstdStreamDecompressor(256);
+        decompressor.decompress(ByteBuffer.wrap(compressed, 0, compressed.length - 1), __ -> { });
+        assertFalse(decompressor.isComplete());
+    }
+
+    @Test
+    void invalid_input_is_rejected() {
+        ZstdStreamDecompressor decompressor = new ZstdStreamDecompressor(256);
+        assertThrows(RuntimeException.class, () -> decompressor.decompress(ByteBuffer.wrap(inputData), __ -> { }));
+    }
+
+    @Test
+    void decompression_stops_when_the_consumer_throws() {
+        byte[] zeros = new byte[100 << 20];
+        byte[] compressed = new ZstdCompressor().compress(zeros, 0, zeros.length);
+        assertTrue(compressed.length < 10_000);
+        ZstdStreamDecompressor decompressor = new ZstdStreamDecompressor(8192);
+        AtomicLong decompressed = new AtomicLong();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> decompressor.decompress(ByteBuffer.wrap(compressed), buffer -> {
+            if (decompressed.addAndGet(buffer.remaining()) > 100_000) throw new IllegalStateException("too much");
+        }));
+        assertEquals("too much", e.getMessage());
+        assertEquals(106_496, decompressed.get());
+        assertFalse(decompressor.isComplete());
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZstdOutputStream out = new ZstdOutputStream(compressed, 1000)) { // Several frames
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+}